@@ -0,0 +1,5 @@
+@echo off
+echo Starting RTP simulator...
+cd /d "%~dp0"
+java --add-modules=jdk.incubator.vector -cp "target/classes;target/dependency/*" com.example.slotmachine.server.simulation.SimulatorCli %*
+pause
@@ -0,0 +1,81 @@
+package com.example.slotmachine.server.service;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.Grid;
+import com.example.slotmachine.server.engine.MathModelDefinition;
+import com.example.slotmachine.server.engine.SpinScratch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A motor skálázódása a rács méretével (7x7-től a 64x64-es mega rácsig), az alapértelmezett modell többi paraméterével.
+ * 64 cellás rácsig a bitboard útvonal fut, fölötte union-find címkézés; a unionFind paraméter kis rácson is azt kényszeríti.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules=jdk.incubator.vector"})
+public class GridSizeBenchmark {
+
+    private static final long ENGINE_SEED = 42L;
+    private static final int BET = 10;
+
+    @Param({"7", "8", "16", "32", "64"})
+    public int gridSize;
+
+    @Param({"false", "true"})
+    public boolean unionFind;
+
+    private SlotMachineEngine engine;
+    private SpinScratch spin;
+    private Grid initialGrid;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        MathModelDefinition definition = CompiledMathModel.loadDefault().toDefinition();
+        definition.setGridSize(gridSize);
+        CompiledMathModel model = CompiledMathModel.compile(definition);
+        engine = new SlotMachineEngine(new RngService(RngService.DEFAULT_ALGORITHM, ENGINE_SEED), model);
+        engine.setUnionFindCascades(unionFind);
+        spin = model.newScratch();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        // Minden iteráció ugyanazzal a seed sorozattal indul
+        seed = 0;
+        initialGrid = engine.processSpin(BET, false, seed).getInitialGrid();
+    }
+
+    @Benchmark
+    public Map<Integer, List<int[]>> checkForMatches() {
+        return engine.checkForMatches(initialGrid);
+    }
+
+    @Benchmark
+    public long runSpin() {
+        return engine.runSpin(spin, BET, engine.getRngService().forSeed(seed++));
+    }
+
+    @Benchmark
+    public SlotMachineEngine.SpinResult processSpin() {
+        return engine.processSpin(BET, false, seed++);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.slotmachine.server.service;
+
+import com.example.slotmachine.server.engine.BitboardClusterDetector;
+import com.example.slotmachine.server.engine.Grid;
+import com.example.slotmachine.server.engine.GridKernels;
+import com.example.slotmachine.server.engine.SpinScratch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * A játékmotor forró útvonalai fix seed-ekkel, "nincs nyerés" és "sok cascade" rácsokon.
+ * Futtatás: mvn -P benchmark compile exec:exec@jmh (JSON kimenet, GC profiler az allokációhoz)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules=jdk.incubator.vector"})
+public class SlotMachineEngineBenchmark {
+
+    private static final long ENGINE_SEED = 42L;
+    private static final int BET = 10;
+
+    @Param({"NO_WIN", "MANY_CASCADES"})
+    public SpinScenario scenario;
+
+    @Param({GridKernels.SCALAR, GridKernels.VECTOR})
+    public String kernels;
+
+    // Inkrementális cascade kiértékelés (false = teljes újrakeresés minden lépésben)
+    @Param({"true", "false"})
+    public boolean incremental;
+
+    private SlotMachineEngine engine;
+    private BitboardClusterDetector detector;
+    private SpinScratch spin;
+    private SpinScenario.Fixture fixture;
+    private RandomGenerator random;
+
+    private Grid initialGrid;
+    private long[] symbolMasks;
+    private long[] kernelMasks;
+    private byte[] initialGridFlat;
+    private long[] matched;
+    private byte[] gridAfterClear;
+    private byte[] workGrid;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        engine = new SlotMachineEngine(new RngService(RngService.DEFAULT_ALGORITHM, ENGINE_SEED));
+        engine.setGridKernels(GridKernels.named(kernels));
+        engine.setIncrementalCascades(incremental);
+        detector = engine.getMathModel().getClusterDetector();
+        spin = engine.newScratch();
+        fixture = scenario.find(engine, BET);
+
+        initialGrid = fixture.initialGridAsGrid();
+        symbolMasks = new long[engine.getMathModel().getSymbolCount()];
+        matched = new long[engine.getMathModel().getSymbolCount()];
+        kernelMasks = new long[engine.getMathModel().getSymbolCount()];
+        initialGridFlat = fixture.getInitialGrid();
+        detector.buildSymbolMasks(fixture.getInitialGrid(), symbolMasks);
+        gridAfterClear = fixture.getGridAfterClear();
+        workGrid = new byte[gridAfterClear.length];
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        // Minden iteráció ugyanazzal a véletlen sorozattal indul
+        random = engine.getRngService().forSeed(fixture.getSeed());
+    }
+
+    @Benchmark
+    public byte[] generateSymbols() {
+        spin.reset();
+        engine.generateSymbols(spin, random);
+        return spin.getGrid();
+    }
+
+    @Benchmark
+    public Map<Integer, List<int[]>> checkForMatches() {
+        return engine.checkForMatches(initialGrid);
+    }
+
+    @Benchmark
+    public long[] buildSymbolMasks() {
+        engine.getGridKernels().buildSymbolMasks(initialGridFlat, initialGridFlat.length, kernelMasks, kernelMasks.length);
+        return kernelMasks;
+    }
+
+    @Benchmark
+    public long[] checkForMatchesMasks() {
+        engine.checkForMatches(symbolMasks, matched);
+        return matched;
+    }
+
+    @Benchmark
+    public byte[] dropAndRefillSymbols() {
+        System.arraycopy(gridAfterClear, 0, workGrid, 0, workGrid.length);
+        engine.dropAndRefillSymbols(workGrid, random);
+        return workGrid;
+    }
+
+    @Benchmark
+    public long runSpin() {
+        // Allokációmentes útvonal (szimulátor), a forgatókönyv seed-jével
+        return engine.runSpin(spin, BET, engine.getRngService().forSeed(fixture.getSeed()));
+    }
+
+    @Benchmark
+    public SlotMachineEngine.SpinResult processSpin() {
+        // Teljes szerver-oldali spin SpinResult objektumgráffal
+        return engine.processSpin(BET, false, fixture.getSeed());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.slotmachine.server.service;
+
+import com.example.slotmachine.server.engine.Grid;
+import com.example.slotmachine.server.engine.SpinScratch;
+
+import java.util.Arrays;
+
+/**
+ * Reprodukálható benchmark forgatókönyvek: az első olyan seed a fix kezdőértéktől,
+ * amelynek spinje megfelel a feltételnek. Ugyanazzal a motorral mindig ugyanazt a seed-et adja.
+ */
+public enum SpinScenario {
+
+    /** Nyeremény és bonus trigger nélküli spin */
+    NO_WIN {
+        @Override
+        boolean matches(SlotMachineEngine engine, SpinScratch spin) {
+            return spin.getStepCount() == 0 && !engine.isBonusTrigger(spin);
+        }
+    },
+
+    /** Legalább négy egymást követő cascade */
+    MANY_CASCADES {
+        @Override
+        boolean matches(SlotMachineEngine engine, SpinScratch spin) {
+            return spin.getStepCount() >= 4;
+        }
+    };
+
+    private static final long FIRST_SEED = 20240901L;
+    private static final int MAX_ATTEMPTS = 1_000_000;
+
+    abstract boolean matches(SlotMachineEngine engine, SpinScratch spin);
+
+    /**
+     * A forgatókönyv rögzített adatai
+     */
+    public Fixture find(SlotMachineEngine engine, int betAmount) {
+        SpinScratch spin = engine.newScratch();
+        for (long seed = FIRST_SEED; seed < FIRST_SEED + MAX_ATTEMPTS; seed++) {
+            engine.runSpin(spin, betAmount, engine.getRngService().forSeed(seed));
+            if (matches(engine, spin)) {
+                return new Fixture(seed, spin);
+            }
+        }
+        throw new RuntimeException("No seed found for scenario " + name());
+    }
+
+    /**
+     * Egy seed kezdő rácsa és az első törlés utáni rácsa
+     */
+    public static final class Fixture {
+
+        private final long seed;
+        private final byte[] initialGrid;
+        private final byte[] gridAfterClear;
+        private final int stepCount;
+        private final int gridSize;
+
+        Fixture(long seed, SpinScratch spin) {
+            this.seed = seed;
+            this.gridSize = spin.getModel().getGridSize();
+            this.initialGrid = Arrays.copyOf(spin.getInitialGrid(), spin.getCells());
+            this.stepCount = spin.getStepCount();
+
+            // Nyerés nélkül a törlés utáni rács megegyezik a kezdő ráccsal
+            this.gridAfterClear = initialGrid.clone();
+            if (stepCount > 0) {
+                long[] matched = spin.getStepMatched();
+                int offset = spin.stepMatchedOffset(0);
+                for (int symbol = 0; symbol < spin.getSymbolCount(); symbol++) {
+                    long mask = matched[offset + symbol];
+                    while (mask != 0) {
+                        gridAfterClear[Long.numberOfTrailingZeros(mask)] = -1;
+                        mask &= mask - 1;
+                    }
+                }
+            }
+        }
+
+        public long getSeed() { return seed; }
+        public byte[] getInitialGrid() { return initialGrid.clone(); }
+        public byte[] getGridAfterClear() { return gridAfterClear.clone(); }
+        public int getStepCount() { return stepCount; }
+
+        public Grid initialGridAsGrid() {
+            return Grid.copyOf(initialGrid, 0, gridSize);
+        }
+    }
+}
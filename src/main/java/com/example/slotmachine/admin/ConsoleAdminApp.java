@@ -1,5 +1,7 @@
 package com.example.slotmachine.admin;
 
+import com.example.slotmachine.client.Money;
+
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
@@ -112,7 +114,8 @@ public class ConsoleAdminApp {
         String amountStr = scanner.nextLine().trim();
 
         try {
-            double amount = Double.parseDouble(amountStr);
+            // A szerver minor egységben (cent) várja az összeget
+            long amount = Money.parseCredits(amountStr);
             if (amount <= 0) {
                 System.out.println("Hiba: A kredit osszegnek pozitivnak kell lennie!");
                 return;
@@ -132,7 +135,7 @@ public class ConsoleAdminApp {
             if (response.statusCode() == 200) {
                 System.out.println("✅ Kredit sikeresen hozzaadva!");
                 System.out.println("   Felhasznalo: " + username);
-                System.out.println("   Osszeg: $" + (int)amount);
+                System.out.println("   Osszeg: $" + Money.format(amount));
             } else {
                 System.out.println("❌ Hiba: " + response.body());
             }
@@ -174,7 +177,7 @@ public class ConsoleAdminApp {
                             if (field.contains("username:")) {
                                 username = field.split(":")[1];
                             } else if (field.contains("balance:")) {
-                                balance = field.split(":")[1];
+                                balance = formatCredits(field.split(":")[1]);
                             } else if (field.contains("active:")) {
                                 active = field.split(":")[1];
                             }
@@ -222,7 +225,7 @@ public class ConsoleAdminApp {
                             if (field.contains("username:")) {
                                 username = field.split(":")[1];
                             } else if (field.contains("balance:")) {
-                                balance = field.split(":")[1];
+                                balance = formatCredits(field.split(":")[1]);
                             } else if (field.contains("active:")) {
                                 active = field.split(":")[1];
                             }
@@ -270,7 +273,8 @@ public class ConsoleAdminApp {
         String balanceStr = scanner.nextLine().trim();
 
         try {
-            double balance = Double.parseDouble(balanceStr);
+            // A szerver minor egységben (cent) várja a balance-t
+            long balance = Money.parseCredits(balanceStr);
             if (balance < 0) {
                 System.out.println("Hiba: A balance nem lehet negativ!");
                 return;
@@ -289,7 +293,7 @@ public class ConsoleAdminApp {
             if (response.statusCode() == 200) {
                 System.out.println("✅ Balance sikeresen beallitva!");
                 System.out.println("   Felhasznalo: " + username);
-                System.out.println("   Új balance: $" + (int)balance);
+                System.out.println("   Új balance: $" + Money.format(balance));
             } else {
                 System.out.println("❌ Hiba: " + response.body());
             }
@@ -541,9 +545,13 @@ public class ConsoleAdminApp {
     }
     
     private static String formatAmount(String amount) {
+        return "$" + formatCredits(amount);
+    }
+
+    // Az összegek minor egységben érkeznek, kreditként jelenítjük meg
+    private static String formatCredits(String amount) {
         try {
-            double value = Double.parseDouble(amount);
-            return String.format("$%.0f", value);
+            return Money.format(Long.parseLong(amount.trim()));
         } catch (Exception e) {
             return amount;
         }
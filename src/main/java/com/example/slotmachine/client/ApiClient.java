@@ -8,7 +8,12 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.HexFormat;
 
 // Custom exception for banned users
 class UserBannedException extends RuntimeException {
@@ -148,11 +153,18 @@ public class ApiClient {
      * Új spin feldolgozás - a szerver generálja a szimbólumokat és számítja a nyereményt
      */
     public SpinResponse processSpin(Integer betAmount, Boolean isBonusMode) throws IOException, InterruptedException {
+        return processSpin(betAmount, isBonusMode, null);
+    }
+
+    /**
+     * Provably fair spin a kliens seed-del; a válasz fairness mezője a checkFairness-szel ellenőrizhető
+     */
+    public SpinResponse processSpin(Integer betAmount, Boolean isBonusMode, String clientSeed) throws IOException, InterruptedException {
         if (authToken == null) {
             throw new RuntimeException("Not authenticated");
         }
 
-        SpinRequest spinRequest = new SpinRequest(betAmount, isBonusMode);
+        SpinRequest spinRequest = new SpinRequest(betAmount, isBonusMode, clientSeed);
         String jsonBody = objectMapper.writeValueAsString(spinRequest);
 
         HttpRequest request = HttpRequest.newBuilder()
@@ -174,6 +186,163 @@ public class ApiClient {
         }
     }
 
+    /**
+     * Több autoplay spin egyetlen kéréssel - a szerver leáll, ha elfogy a balance vagy bonus indul
+     */
+    public BatchSpinResponse processSpinBatch(Integer betAmount, Integer spinCount) throws IOException, InterruptedException {
+        if (authToken == null) {
+            throw new RuntimeException("Not authenticated");
+        }
+
+        BatchSpinRequest batchRequest = new BatchSpinRequest(betAmount, spinCount);
+        String jsonBody = objectMapper.writeValueAsString(batchRequest);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/game/spin/batch"))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + authToken)
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        if (response.statusCode() == 200) {
+            return objectMapper.readValue(response.body(), BatchSpinResponse.class);
+        } else if (response.statusCode() == 403 && "USER_BANNED".equals(response.body())) {
+            throw new UserBannedException("Felhasználó tiltva lett");
+        } else {
+            throw new RuntimeException("Batch spin failed: " + response.body());
+        }
+    }
+
+    /**
+     * A függő bonus kör lejátszása a szerveren - az összes free spin egy kéréssel, a nyeremény a szerveren kerül jóváírásra
+     */
+    public BonusRoundResponse processBonusRound() throws IOException, InterruptedException {
+        if (authToken == null) {
+            throw new RuntimeException("Not authenticated");
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/game/bonus"))
+                .header("Authorization", "Bearer " + authToken)
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        if (response.statusCode() == 200) {
+            return objectMapper.readValue(response.body(), BonusRoundResponse.class);
+        } else if (response.statusCode() == 403 && "USER_BANNED".equals(response.body())) {
+            throw new UserBannedException("Felhasználó tiltva lett");
+        } else {
+            throw new RuntimeException("Bonus round failed: " + response.body());
+        }
+    }
+
+    /**
+     * Bonus vásárlás BONUS_PRICE x tét áron - a levonás, a bonust indító spin és a teljes bonus kör egy kéréssel
+     */
+    public BonusRoundResponse buyBonus(Integer betAmount) throws IOException, InterruptedException {
+        if (authToken == null) {
+            throw new RuntimeException("Not authenticated");
+        }
+
+        BonusBuyRequest buyRequest = new BonusBuyRequest(betAmount);
+        String jsonBody = objectMapper.writeValueAsString(buyRequest);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/game/bonus/buy"))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + authToken)
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        if (response.statusCode() == 200) {
+            return objectMapper.readValue(response.body(), BonusRoundResponse.class);
+        } else if (response.statusCode() == 403 && "USER_BANNED".equals(response.body())) {
+            throw new UserBannedException("Felhasználó tiltva lett");
+        } else {
+            throw new RuntimeException("Bonus buy failed: " + response.body());
+        }
+    }
+
+    /**
+     * A következő provably fair spin vállalása (a server seed hash-e), a kliens seed választása előtt kérendő
+     */
+    public FairCommitmentResponse getFairCommitment() throws IOException, InterruptedException {
+        if (authToken == null) {
+            throw new RuntimeException("Not authenticated");
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/game/fair/commitment"))
+                .header("Authorization", "Bearer " + authToken)
+                .timeout(Duration.ofSeconds(8))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        if (response.statusCode() == 200) {
+            return objectMapper.readValue(response.body(), FairCommitmentResponse.class);
+        } else {
+            throw new RuntimeException("Failed to get commitment: " + response.body());
+        }
+    }
+
+    /**
+     * Egy saját provably fair spin ellenőrzése a szerveren (visszajátszás a seed-ekből)
+     */
+    public FairVerifyResponse verifyFairSpin(Long spinId) throws IOException, InterruptedException {
+        if (authToken == null) {
+            throw new RuntimeException("Not authenticated");
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/game/fair/verify/" + spinId))
+                .header("Authorization", "Bearer " + authToken)
+                .timeout(Duration.ofSeconds(15))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        if (response.statusCode() == 200) {
+            return objectMapper.readValue(response.body(), FairVerifyResponse.class);
+        } else {
+            throw new RuntimeException("Fair spin verification failed: " + response.body());
+        }
+    }
+
+    /**
+     * Provably fair spin ellenőrzése a kliensen, a szerver nélkül: a felfedett server seed hash-e a spin előtt
+     * kapott vállalás (getFairCommitment vagy az előző spin nextServerSeedHash mezője), és a spin seed
+     * a server seed, a saját kliens seed és a nonce SHA-256 hash-éből adódik.
+     */
+    public static boolean checkFairness(String committedHash, String clientSeed, SpinResponse.FairnessDto fairness) {
+        if (fairness == null || committedHash == null || !clientSeed.equals(fairness.getClientSeed())) {
+            return false;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            HexFormat hex = HexFormat.of();
+            byte[] serverSeedHash = digest.digest(hex.parseHex(fairness.getServerSeed()));
+            if (!MessageDigest.isEqual(serverSeedHash, hex.parseHex(committedHash))) {
+                return false;
+            }
+            byte[] seedHash = digest.digest((fairness.getServerSeed() + ":" + clientSeed + ":" + fairness.getNonce())
+                    .getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(seedHash).getLong() == fairness.getSeed();
+        } catch (NoSuchAlgorithmException | IllegalArgumentException e) {
+            return false;
+        }
+    }
 
     public boolean isConnected() {
         try {
@@ -14,5 +14,7 @@ public class GameSettings {
     public static final int BET_STEP = 400;
     public static final int MIN_BET = 200;
     public static final int MAX_BET = 6000;
+    public static final int MONEY_SCALE = 100; // 1 kredit = 100 minor egység (cent), minden pénzösszeg long minor egységben
+    public static final int AUTOPLAY_BATCH_SIZE = 10; // Ennyi autoplay spint kér le egyszerre a szervertől
 }
 
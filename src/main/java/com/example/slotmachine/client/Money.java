@@ -0,0 +1,62 @@
+package com.example.slotmachine.client;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static com.example.slotmachine.client.GameSettings.MONEY_SCALE;
+
+/**
+ * Pénzösszegek átváltása kredit és minor egység (long) között.
+ * A szerver és a JSON csak minor egységet használ, kreditre csak megjelenítéskor és bevitelkor váltunk.
+ */
+public final class Money {
+
+    private static final int DECIMALS = 2; // log10(MONEY_SCALE)
+
+    private Money() {}
+
+    /**
+     * Egész kredit átváltása minor egységre
+     */
+    public static long toMinor(int credits) {
+        return (long) credits * MONEY_SCALE;
+    }
+
+    /**
+     * Kredit átváltása minor egységre (a legközelebbi minor egységre kerekítve)
+     */
+    public static long toMinor(double credits) {
+        return Math.round(credits * MONEY_SCALE);
+    }
+
+    /**
+     * Minor egység átváltása kreditre (csak megjelenítéshez)
+     */
+    public static double toCredits(long minor) {
+        return (double) minor / MONEY_SCALE;
+    }
+
+    /**
+     * Egész kreditek (lefelé kerekítve)
+     */
+    public static long wholeCredits(long minor) {
+        return Math.floorDiv(minor, MONEY_SCALE);
+    }
+
+    /**
+     * Kredit szöveg pontos átváltása minor egységre (pl. "12.5" -> 1250)
+     */
+    public static long parseCredits(String text) {
+        return new BigDecimal(text.trim())
+                .setScale(DECIMALS, RoundingMode.HALF_UP)
+                .unscaledValue()
+                .longValueExact();
+    }
+
+    /**
+     * Minor egység formázása kreditként (pl. 1250 -> "12.50")
+     */
+    public static String format(long minor) {
+        return BigDecimal.valueOf(minor, DECIMALS).toPlainString();
+    }
+}
@@ -1,19 +1,30 @@
 package com.example.slotmachine.client;
 
 import com.example.slotmachine.server.dto.BalanceResponse;
+import com.example.slotmachine.server.dto.BatchSpinResponse;
+import com.example.slotmachine.server.dto.BonusRoundResponse;
 import com.example.slotmachine.server.dto.SpinResponse;
+import com.example.slotmachine.server.engine.Grid;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 
 import static com.example.slotmachine.client.GameSettings.*;
 
 public class SlotMachine {
 
-    private final int[][] generatedSymbols = new int[GRID_SIZE][GRID_SIZE]; // Csak a GUI megjelenítéshez
-    private double balance;
+    private final Grid generatedSymbols = new Grid(GRID_SIZE); // Csak a GUI megjelenítéshez
+    private long balance; // minor egységben - a szerver balance-ának helyi másolata
     private int bet = DEFAULT_BET;
     private int remainingFreeSpins = 0;
-    private double bonusPayout = 0;
+    private long bonusPayout = 0; // minor egységben
     private final ApiClient apiClient;
+    private final Deque<SpinResponse> queuedSpins = new ArrayDeque<>(); // Szerveren már lejátszott autoplay spinek
+    private final Deque<SpinResponse> bonusSpins = new ArrayDeque<>(); // A szerveren lejátszott bonus kör free spinjei
+    private int retriggerSpins = RETRIGGER_SPINS;
+    private Long bonusFinalBalance; // a szerver balance-a a bonus nyeremény jóváírása után (minor)
+    private boolean bonusPending = false; // a szerver függő bonus kört jelzett
     private boolean isSpinning = false;
     private BalanceUpdateListener balanceUpdateListener;
     private UserBannedListener userBannedListener;
@@ -29,15 +40,20 @@ public class SlotMachine {
 
     // Tét levonása és hozzáadása (lokális cache frissítés)
     public void decreaseBalance(int credit) {
-        this.balance -= credit;
+        this.balance -= Money.toMinor(credit);
     }
 
     public void increaseBalance(double credit) {
-        this.balance += credit;
+        this.balance += Money.toMinor(credit);
     }
 
+    // Egész kreditek a megjelenítéshez és a téttel való összevetéshez
     public int getBalance() {
-        return (int) this.balance;
+        return (int) Money.wholeCredits(this.balance);
+    }
+
+    public long getBalanceMinor() {
+        return this.balance;
     }
 
     // Szerver kommunikáció a spin feldolgozáshoz - új logika
@@ -53,10 +69,11 @@ public class SlotMachine {
                     copyGridTo(response.getInitialGrid(), generatedSymbols);
                 }
                 
-                System.out.println("Balance updated from server after spin: $" + this.balance);
+                System.out.println("Balance updated from server after spin: $" + Money.format(this.balance));
                 return response;
             } else {
                 System.err.println("Spin failed: " + response.getMessage());
+                bonusPending = "Bonus round pending".equals(response.getMessage());
                 return null;
             }
         } catch (Exception e) {
@@ -73,16 +90,67 @@ public class SlotMachine {
     }
 
 
+    // Autoplay spin - a szerver egyszerre több spint játszik le, ezeket sorban adjuk vissza
+    public SpinResponse nextAutoplaySpin(int betAmount, int spinsWanted) {
+        if (queuedSpins.isEmpty()) {
+            try {
+                BatchSpinResponse response = apiClient.processSpinBatch(betAmount, Math.min(spinsWanted, AUTOPLAY_BATCH_SIZE));
+                if (!response.isSuccess() || response.getSpins() == null || response.getSpins().isEmpty()) {
+                    System.err.println("Batch spin failed: " + response.getMessage());
+                    bonusPending = "Bonus round pending".equals(response.getMessage());
+                    return null;
+                }
+                queuedSpins.addAll(response.getSpins());
+            } catch (Exception e) {
+                // Check if it's a user banned exception
+                if (e.getMessage() != null && e.getMessage().contains("Felhasználó tiltva lett")) {
+                    if (userBannedListener != null) {
+                        userBannedListener.onUserBanned();
+                    }
+                } else {
+                    System.err.println("Failed to process batch spin on server: " + e.getMessage());
+                }
+                return null;
+            }
+        }
+
+        SpinResponse response = queuedSpins.poll();
+        // Minden spin a saját, utána érvényes szerver balance-át hozza
+        this.balance = response.getNewBalance();
+        if (response.getInitialGrid() != null) {
+            copyGridTo(response.getInitialGrid(), generatedSymbols);
+        }
+        return response;
+    }
+
+    public int getQueuedSpinCount() {
+        return queuedSpins.size();
+    }
+
+    // Fel nem használt autoplay spinek eldobása - a balance a szerver szerinti végső érték lesz
+    public void clearQueuedSpins() {
+        if (!queuedSpins.isEmpty()) {
+            this.balance = queuedSpins.peekLast().getNewBalance();
+            queuedSpins.clear();
+        }
+    }
+
+
     // Grid másolása
-    private void copyGridTo(int[][] source, int[][] target) {
-        for (int i = 0; i < GRID_SIZE && i < source.length; i++) {
-            for (int j = 0; j < GRID_SIZE && j < source[i].length; j++) {
-                target[i][j] = source[i][j];
+    private void copyGridTo(Grid source, Grid target) {
+        int size = Math.min(source.getSize(), target.getSize());
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                target.set(i, j, source.get(i, j));
             }
         }
     }
 
-    public void setBalance(double balance) {
+    public void setBalance(double credits) {
+        this.balance = Money.toMinor(credits);
+    }
+
+    public void setBalanceMinor(long balance) {
         this.balance = balance;
     }
 
@@ -113,7 +181,7 @@ public class SlotMachine {
             this.bet -= BET_STEP;
         }
     }
-    public int[][] getSymbols() {
+    public Grid getSymbols() {
         return generatedSymbols;
     }
     
@@ -125,24 +193,134 @@ public class SlotMachine {
         return remainingFreeSpins;
     }
 
+    // Bonus nyeremény kreditben (megjelenítéshez)
     public double getBonusPayout() {
-        return bonusPayout;
+        return Money.toCredits(bonusPayout);
     }
 
     public void startBonusMode() {
+        // Megvásárolt bonusnál a kör már a szerveren lejátszódott, a betöltött free spinek megmaradnak
+        if (hasBonusRound()) {
+            return;
+        }
         remainingFreeSpins = FREE_SPINS;
+        retriggerSpins = RETRIGGER_SPINS;
         bonusPayout = 0;
+        bonusSpins.clear();
+        bonusFinalBalance = null;
     }
 
+    // A bonus nyereményt a szerver írja jóvá: a kör utáni szerver balance lesz érvényes.
+    // A bonus nyeremény a következő bonus kezdetéig megmarad (eredmény kijelzés).
     public void endBonusMode() {
         remainingFreeSpins = 0;
-        increaseBalance(bonusPayout);
+        bonusSpins.clear();
+        if (bonusFinalBalance != null) {
+            this.balance = bonusFinalBalance;
+            bonusFinalBalance = null;
+        }
+    }
+
+    // A teljes bonus kör lejátszása a szerveren egyetlen kéréssel; a free spinek innen sorban jönnek
+    public boolean playBonusRoundOnServer() {
+        try {
+            BonusRoundResponse response = apiClient.processBonusRound();
+            if (!response.isSuccess() || response.getSpins() == null) {
+                System.err.println("Bonus round failed: " + response.getMessage());
+                return false;
+            }
+            loadBonusRound(response);
+            System.out.println("Bonus round played on server: " + response.getSpins().size()
+                    + " free spins, win $" + Money.format(response.getTotalPayout()));
+            return true;
+        } catch (Exception e) {
+            // Check if it's a user banned exception
+            if (e.getMessage() != null && e.getMessage().contains("Felhasználó tiltva lett")) {
+                if (userBannedListener != null) {
+                    userBannedListener.onUserBanned();
+                }
+            } else {
+                System.err.println("Failed to process bonus round on server: " + e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    // Bonus vásárlás BONUS_PRICE x tét áron: a bonust indító spint adja vissza, a teljes kör már betöltve
+    public SpinResponse buyBonusOnServer(int betAmount) {
+        try {
+            BonusRoundResponse response = apiClient.buyBonus(betAmount);
+            if (!response.isSuccess() || response.getTriggerSpin() == null || response.getSpins() == null) {
+                System.err.println("Bonus buy failed: " + response.getMessage());
+                bonusPending = "Bonus round pending".equals(response.getMessage());
+                return null;
+            }
+            SpinResponse triggerSpin = response.getTriggerSpin();
+            // Az ár levonása és a bonust indító spin nyereménye utáni balance
+            this.balance = triggerSpin.getNewBalance();
+            if (triggerSpin.getInitialGrid() != null) {
+                copyGridTo(triggerSpin.getInitialGrid(), generatedSymbols);
+            }
+            loadBonusRound(response);
+            System.out.println("Bonus bought for $" + Money.format(response.getPrice()) + ": "
+                    + response.getSpins().size() + " free spins, win $" + Money.format(response.getTotalPayout()));
+            return triggerSpin;
+        } catch (Exception e) {
+            // Check if it's a user banned exception
+            if (e.getMessage() != null && e.getMessage().contains("Felhasználó tiltva lett")) {
+                if (userBannedListener != null) {
+                    userBannedListener.onUserBanned();
+                }
+            } else {
+                System.err.println("Failed to buy bonus on server: " + e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    private void loadBonusRound(BonusRoundResponse response) {
+        bonusPending = false;
         bonusPayout = 0;
+        remainingFreeSpins = response.getFreeSpins();
+        retriggerSpins = response.getRetriggerSpins();
+        bonusSpins.clear();
+        bonusSpins.addAll(response.getSpins());
+        bonusFinalBalance = response.getNewBalance();
+    }
+
+    // Van-e már a szerveren lejátszott bonus kör
+    public boolean hasBonusRound() {
+        return bonusFinalBalance != null;
+    }
+
+    // A következő free spin a lejátszott körből: a számlálók és a bonus nyeremény a szerver eredménye szerint
+    public SpinResponse nextBonusSpin() {
+        SpinResponse response = bonusSpins.poll();
+        if (response == null) {
+            return null;
+        }
+        decreaseFreeSpins();
+        addBonusPayout(response.getTotalPayout());
+        if (response.isRetrigger()) {
+            addRetriggerSpins();
+        }
+        if (response.getInitialGrid() != null) {
+            copyGridTo(response.getInitialGrid(), generatedSymbols);
+        }
+        return response;
+    }
+
+    // A szerver elutasította a spint, mert egy bonus kör még nincs lejátszva
+    public boolean isBonusPending() {
+        return bonusPending;
     }
 
+    public int getRetriggerSpins() {
+        return retriggerSpins;
+    }
 
     public void addRetriggerSpins() {
-        remainingFreeSpins += RETRIGGER_SPINS;
+        remainingFreeSpins += retriggerSpins;
     }
 
     public void decreaseFreeSpins() {
@@ -155,7 +333,8 @@ public class SlotMachine {
         return remainingFreeSpins > 0;
     }
 
-    public void addBonusPayout(double amount) {
+    // A szerver által számolt nyeremény minor egységben
+    public void addBonusPayout(long amount) {
         bonusPayout += amount;
     }
 
@@ -172,12 +351,12 @@ public class SlotMachine {
     public void updateBalanceFromServerWithNotification() {
         try {
             BalanceResponse response = apiClient.getBalance();
-            double oldBalance = this.balance;
+            long oldBalance = this.balance;
             this.balance = response.getBalance();
             
-            // Ha változott a balance, értesítjük a listener-t
+            // Ha változott a balance, értesítjük a listener-t (kreditben)
             if (oldBalance != this.balance && balanceUpdateListener != null) {
-                balanceUpdateListener.onBalanceUpdated(this.balance);
+                balanceUpdateListener.onBalanceUpdated(Money.toCredits(this.balance));
             }
             
             // If we successfully got balance, user is not banned anymore
@@ -185,7 +364,7 @@ public class SlotMachine {
                 userUnbannedListener.onUserUnbanned();
             }
             
-            System.out.println("Balance updated from server: $" + this.balance);
+            System.out.println("Balance updated from server: $" + Money.format(this.balance));
         } catch (Exception e) {
             // Check if it's a user banned exception
             if (e.getMessage() != null && e.getMessage().contains("Felhasználó tiltva lett")) {
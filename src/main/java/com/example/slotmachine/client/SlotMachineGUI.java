@@ -2,6 +2,7 @@ package com.example.slotmachine.client;
 import com.example.slotmachine.server.dto.LoginResponse;
 import com.example.slotmachine.server.dto.BalanceResponse;
 import com.example.slotmachine.server.dto.SpinResponse;
+import com.example.slotmachine.server.engine.Grid;
 import javafx.animation.Animation;
 import javafx.animation.FadeTransition;
 import javafx.animation.Interpolator;
@@ -239,10 +240,10 @@ public class SlotMachineGUI extends Application {
         game = new SlotMachine(apiClient);
         
         // Balance beállítása közvetlenül a login response-ból
-        game.setBalance(loginResponse.getBalance());
+        game.setBalanceMinor(loginResponse.getBalance());
         
         // Balance szöveg frissítése
-        balanceText.setText("Credit: $" + loginResponse.getBalance().intValue());
+        balanceText.setText("Credit: $" + game.getBalance());
         
         // Username text beállítása
         usernameText.setText(loginResponse.getUsername());
@@ -289,7 +290,7 @@ public class SlotMachineGUI extends Application {
         startBalancePolling();
         
         System.out.println("Bejelentkezve: " + loginResponse.getUsername() + 
-                          ", Balance: $" + loginResponse.getBalance());
+                          ", Balance: $" + Money.format(loginResponse.getBalance()));
 
         // Stop main menu music before starting game music
         MainMenu.stopMainMenuMusic();
@@ -369,7 +370,7 @@ public class SlotMachineGUI extends Application {
             if (!disableButton) {
                 if (isUserBanned) {
                     showUserBannedDialog(primaryStage);
-                } else if (game.getBalance() >= game.getBet()) {
+                } else if (isBonusMode || game.getBalance() >= game.getBet()) {
                     disableButtons(true);
                     autoplaySettingsButton.setDisable(true);
                     isSpinning = true;
@@ -380,6 +381,17 @@ public class SlotMachineGUI extends Application {
                 }
             }
         });
+        buyBonusButton.setOnAction(_ -> {
+            if (!disableButton && !isSpinning && !isBonusMode) {
+                if (isUserBanned) {
+                    showUserBannedDialog(primaryStage);
+                } else if (game.getBalance() >= game.getBet() * BONUS_PRICE) {
+                    buyBonus();
+                } else {
+                    showLowBalanceMessage(primaryStage);
+                }
+            }
+        });
         increaseBetButton.setOnAction(_ -> {
             game.increaseBet();
             betText.setText("Bet: $" + game.getBet());
@@ -480,7 +492,7 @@ public class SlotMachineGUI extends Application {
         scene.setOnKeyPressed(event -> {
             if (event.getCode() == KeyCode.SPACE) {
                 if (!disableButton && !isSpinning) {
-                    if(game.getBalance() >= game.getBet()) {
+                    if(isBonusMode || game.getBalance() >= game.getBet()) {
                         disableButtons(true);
                         isSpinning = true;
                         startSpin(1);
@@ -1153,6 +1165,7 @@ public class SlotMachineGUI extends Application {
             spinButton.setDisable(disableButton);
             increaseBetButton.setDisable(disableButton);
             decreaseBetButton.setDisable(disableButton);
+            buyBonusButton.setDisable(disableButton || isBonusMode);
             // Also disable autoplay settings button when autospin is stopping
             if (isAutospinStopping) {
                 autoplaySettingsButton.setDisable(true);
@@ -1169,6 +1182,52 @@ public class SlotMachineGUI extends Application {
         startSpin(autoSpinCount);
     }
 
+    /**
+     * Bonus vásárlás: a szerver egy kérésben levonja az árat, lejátssza a bonust indító spint és a teljes bonus kört.
+     * Itt a bonust indító spin animációja után a bonus mód a már lejátszott free spinekkel indul.
+     */
+    private void buyBonus() {
+        disableButtons(true);
+        autoplaySettingsButton.setDisable(true);
+        game.setSpinning(true);
+
+        SpinResponse triggerSpin = game.buyBonusOnServer(game.getBet());
+        if (triggerSpin == null) {
+            game.setSpinning(false);
+            disableButtons(false);
+            autoplaySettingsButton.setDisable(false);
+            // Egy korábban indult bonus kör még nincs lejátszva: most lejátsszuk
+            if (game.isBonusPending()) {
+                startBonusMode();
+            }
+            return;
+        }
+
+        switch (spinMode) {
+            case NORMAL -> this.spinParams = new SpinParameters(150, 65, 20, 100, 5.0);
+            case QUICK -> this.spinParams = new SpinParameters(50, 40, 20, 100, 5.0);
+            case TURBO -> this.spinParams = new SpinParameters(0, 20, 10, 80, 5.0);
+        }
+        balanceText.setText("Credit: $" + game.getBalance());
+        performSpinWithServerData(triggerSpin, () -> {
+            game.setSpinning(false);
+            balanceText.setText("Credit: $" + game.getBalance());
+
+            Runnable enterBonusMode = () -> {
+                startBonusMode();
+                disableButtons(false);
+                autoplaySettingsButton.setDisable(false);
+            };
+            double totalPayout = Money.toCredits(triggerSpin.getTotalPayout());
+            if (totalPayout > 0) {
+                int multiplier = (int) Math.ceil(totalPayout / game.getBet());
+                showWinningPopup(totalPayout, multiplier, enterBonusMode);
+            } else {
+                enterBonusMode.run();
+            }
+        });
+    }
+
     private void startSpin(int numberOfSpins) {
         this.spinsRemaining = numberOfSpins;
         switch (spinMode) {
@@ -1181,6 +1240,7 @@ public class SlotMachineGUI extends Application {
 
     private void processNextStep() {
         if (spinsRemaining <= 0 || !isSpinning || isUserBanned) {
+            game.clearQueuedSpins(); // Megszakított autoplay esetén a fel nem használt spinek eldobása
             isSpinning = false;
             game.setSpinning(false); // Leállítjuk a spinning flag-et
             isAutospinStopping = false; // Reset the stopping flag
@@ -1195,7 +1255,8 @@ public class SlotMachineGUI extends Application {
             }
             return;
         }
-        if (game.getBalance() < game.getBet()) {
+        // A free spinek ingyenesek, a bonus módban nincs balance ellenőrzés
+        if (!isBonusMode && game.getBalance() < game.getBet()) {
             Platform.runLater(() -> showLowBalanceMessage((Stage) root.getScene().getWindow()));
             isSpinning = false;
             game.setSpinning(false); // Leállítjuk a spinning flag-et
@@ -1218,13 +1279,20 @@ public class SlotMachineGUI extends Application {
             balanceText.setText("Credit: $" + game.getBalance());
             
             // Új logika: a szerver generálja a szimbólumokat és feldolgozza a spint
-                if (game.isOnline()) {
-                SpinResponse spinResponse = game.processSpinOnServer(game.getBet(), isBonusMode);
+            // Autoplay alatt egy kérés több spint játszik le, ezek sorban jönnek a helyi sorból
+                if (game.getQueuedSpinCount() > 0 || game.isOnline()) {
+                SpinResponse spinResponse = spinsRemaining > 1 || game.getQueuedSpinCount() > 0
+                        ? game.nextAutoplaySpin(game.getBet(), spinsRemaining)
+                        : game.processSpinOnServer(game.getBet(), isBonusMode);
                 if (spinResponse == null || !spinResponse.isSuccess()) {
                     // Ha nem sikerült a szerveren
                         game.increaseBalance(game.getBet()); // Visszaadjuk a tétet
                         game.setSpinning(false); // Spin vége
                         balanceText.setText("Credit: $" + game.getBalance());
+                        // Egy korábban indult bonus kör még nincs lejátszva: most lejátsszuk
+                        if (game.isBonusPending()) {
+                            startBonusMode();
+                        }
                         spinsRemaining--;
                         PauseTransition pause = new PauseTransition(Duration.millis(500));
                         pause.setOnFinished(_ -> processNextStep());
@@ -1238,7 +1306,7 @@ public class SlotMachineGUI extends Application {
                 game.setSpinning(false); // Spin vége
                 balanceText.setText("Credit: $" + game.getBalance());
 
-                    double totalPayout = spinResponse.getTotalPayout();
+                    double totalPayout = Money.toCredits(spinResponse.getTotalPayout());
                     if (totalPayout > 0) {
                     int bet = game.getBet();
                         int multiplier = (int) Math.ceil(totalPayout / bet);
@@ -1246,7 +1314,7 @@ public class SlotMachineGUI extends Application {
                         spinsRemaining--;
                         // If autospin is being stopped, set remaining spins to 0 to stop after this spin
                         if (isAutospinStopping) {
-                            spinsRemaining = 0;
+                            spinsRemaining = game.getQueuedSpinCount(); // A szerveren már lejátszott spinek még lefutnak
                         }
                         PauseTransition pause = new PauseTransition(Duration.millis(100));
                         pause.setOnFinished(_ -> processNextStep());
@@ -1256,7 +1324,7 @@ public class SlotMachineGUI extends Application {
                     spinsRemaining--;
                     // If autospin is being stopped, set remaining spins to 0 to stop after this spin
                     if (isAutospinStopping) {
-                        spinsRemaining = 0;
+                        spinsRemaining = game.getQueuedSpinCount(); // A szerveren már lejátszott spinek még lefutnak
                     }
                     PauseTransition pause = new PauseTransition(Duration.millis(100));
                     pause.setOnFinished(_ -> processNextStep());
@@ -1270,46 +1338,36 @@ public class SlotMachineGUI extends Application {
                 });
             }
         } else {
-            // Bonus mode spin - szerver-oldali logika
-            if (game.hasFreeSpins()) {
-                disableButtons(true);
-                game.setSpinning(true); // Beállítjuk, hogy pörgetés van folyamatban
-                game.decreaseFreeSpins();
-                
-                if (game.isOnline()) {
-                    SpinResponse spinResponse = game.processSpinOnServer(game.getBet(), true); // Bonus mode
-                    if (spinResponse == null || !spinResponse.isSuccess()) {
-                        // Ha nem sikerült a szerveren
-                    game.setSpinning(false); // Spin vége
-                        spinsRemaining--;
-                        PauseTransition pause = new PauseTransition(Duration.millis(500));
-                        pause.setOnFinished(_ -> processNextStep());
-                        pause.play();
-                        return;
-                    }
-                    
-                    // Bonus payout hozzáadása
-                    game.addBonusPayout(spinResponse.getTotalPayout());
-                    
-                    // Spin animáció a szerver által generált szimbólumokkal
-                    performSpinWithServerData(spinResponse, () -> {
-                        game.setSpinning(false); // Spin vége
+            // Bonus mód - a teljes kör egyetlen kéréssel a szerveren fut, itt csak a lejátszott free spinek animációja zajlik
+            if (!game.hasBonusRound() && !game.playBonusRoundOnServer()) {
+                // A függő bonus a szerveren marad, a következő spin kérésnél újra elindul
+                endBonusMode();
+                spinsRemaining--;
+                PauseTransition pause = new PauseTransition(Duration.millis(500));
+                pause.setOnFinished(_ -> processNextStep());
+                pause.play();
+                return;
+            }
 
-                        double totalPayout = spinResponse.getTotalPayout();
-                        if (totalPayout > 0) {
-                        int bet = game.getBet();
-                            int multiplier = (int) Math.ceil(totalPayout / bet);
-                            showWinningPopup(totalPayout, multiplier, () -> {
-                            spinsRemaining--;
-                            // If autospin is being stopped, set remaining spins to 0 to stop after this spin
-                            if (isAutospinStopping) {
-                                spinsRemaining = 0;
-                            }
-                            PauseTransition pause = new PauseTransition(Duration.millis(250));
-                            pause.setOnFinished(_ -> processNextStep());
-                            pause.play();
-                        });
-                    } else {
+            SpinResponse spinResponse = game.hasFreeSpins() ? game.nextBonusSpin() : null;
+            if (spinResponse == null) {
+                endBonusMode();
+                return;
+            }
+
+            disableButtons(true);
+            game.setSpinning(true); // Beállítjuk, hogy pörgetés van folyamatban
+            updateUIForBonusMode();
+
+            // Spin animáció a szerver által generált szimbólumokkal
+            performSpinWithServerData(spinResponse, () -> {
+                game.setSpinning(false); // Spin vége
+
+                double totalPayout = Money.toCredits(spinResponse.getTotalPayout());
+                if (totalPayout > 0) {
+                    int bet = game.getBet();
+                    int multiplier = (int) Math.ceil(totalPayout / bet);
+                    showWinningPopup(totalPayout, multiplier, () -> {
                         spinsRemaining--;
                         // If autospin is being stopped, set remaining spins to 0 to stop after this spin
                         if (isAutospinStopping) {
@@ -1318,24 +1376,30 @@ public class SlotMachineGUI extends Application {
                         PauseTransition pause = new PauseTransition(Duration.millis(250));
                         pause.setOnFinished(_ -> processNextStep());
                         pause.play();
+                    });
+                } else {
+                    spinsRemaining--;
+                    // If autospin is being stopped, set remaining spins to 0 to stop after this spin
+                    if (isAutospinStopping) {
+                        spinsRemaining = 0;
                     }
+                    PauseTransition pause = new PauseTransition(Duration.millis(250));
+                    pause.setOnFinished(_ -> processNextStep());
+                    pause.play();
+                }
 
-                    // Check for retrigger
-                        if (spinResponse.isRetrigger()) {
-                        game.addRetriggerSpins();
-                        retriggerSound.play();
-                        showRetriggerPopup();
-                    }
+                // Retrigger: az extra spinek már a szerver sorozatában vannak
+                if (spinResponse.isRetrigger()) {
+                    updateUIForBonusMode();
+                    retriggerSound.play();
+                    showRetriggerPopup();
+                }
 
-                    // Check if bonus mode should end
-                    if (!game.hasFreeSpins()) {
-                        endBonusMode();
-                    }
-                    });
+                // Check if bonus mode should end
+                if (!game.hasFreeSpins()) {
+                    endBonusMode();
                 }
-            } else {
-                endBonusMode();
-            }
+            });
         }
     }
 
@@ -1374,7 +1438,7 @@ public class SlotMachineGUI extends Application {
         if (!step.getMatchedClusters().isEmpty()) {
             // Win szöveg megjelenítése pontosan a robbanás pillanatában
             if (step.getPayout() > 0) {
-                winText.setText("WIN: $" + (int) step.getPayout());
+                winText.setText("WIN: $" + Money.wholeCredits(step.getPayout()));
                 winText.setVisible(true);
             }
             
@@ -1420,7 +1484,7 @@ public class SlotMachineGUI extends Application {
     /**
      * Grid frissítése szerver adatokkal - animált cascade utántöltéssel
      */
-    private void updateGridFromServer(int[][] serverGrid, Runnable onComplete) {
+    private void updateGridFromServer(Grid serverGrid, Runnable onComplete) {
         // Használjuk a régi updateGridWithNewSymbols logikáját, de szerver adatokkal
         updateGridWithServerSymbols(serverGrid, onComplete);
     }
@@ -1428,7 +1492,7 @@ public class SlotMachineGUI extends Application {
     /**
      * Grid frissítése szerver szimbólumokkal - animált utántöltés
      */
-    private void updateGridWithServerSymbols(int[][] serverGrid, Runnable onComplete) {
+    private void updateGridWithServerSymbols(Grid serverGrid, Runnable onComplete) {
         final int DELAY_BETWEEN_COLUMNS = 100; // milliszekundumban a késleltetés mértéke
         ParallelTransition columnsSequence = new ParallelTransition();
 
@@ -1478,8 +1542,8 @@ public class SlotMachineGUI extends Application {
                         columnTransition.getChildren().add(bounceTransition);
                     } else {
                         // Nincs felette szimbólum, új szimbólum beszúrása a szerver adatok alapján
-                        if (row < serverGrid.length && col < serverGrid[row].length) {
-                            int symbolIndex = serverGrid[row][col];
+                        if (row < serverGrid.getSize() && col < serverGrid.getSize()) {
+                            int symbolIndex = serverGrid.get(row, col);
                             Image newSymbol = symbols[symbolIndex];
                             for (int i = 0; i < GRID_SIZE; i++) {
                                 for (int j = GRID_SIZE - 1; j >= 0; j--) {
@@ -1534,7 +1598,7 @@ public class SlotMachineGUI extends Application {
     /**
      * Spin animáció szerver által generált szimbólumokkal
      */
-    private void performSpinWithServerSymbols(int[][] serverSymbols, Runnable onComplete) {
+    private void performSpinWithServerSymbols(Grid serverSymbols, Runnable onComplete) {
         final int generatedCycleStart = spinParams.totalCycles - GRID_SIZE;
         List<Animation> columnAnimations = new ArrayList<>(GRID_SIZE);
 
@@ -1575,7 +1639,7 @@ public class SlotMachineGUI extends Application {
                         int generatedIndex = currentCycle - generatedCycleStart;
                         int invertedIndex = GRID_SIZE - generatedIndex - 1;
                         // Használjuk a szerver által generált szimbólumokat
-                        reels[0][column].setImage(symbols[serverSymbols[invertedIndex][column]]);
+                        reels[0][column].setImage(symbols[serverSymbols.get(invertedIndex, column)]);
                     }
 
                     for (int row = 0; row < GRID_SIZE; row++) {
@@ -1886,6 +1950,7 @@ public class SlotMachineGUI extends Application {
 
     private void endBonusMode() {
         isBonusMode = false;
+        boolean roundPlayed = game.hasBonusRound();
         game.endBonusMode();
         
         // Fade out bonus music and start game music
@@ -1905,7 +1970,9 @@ public class SlotMachineGUI extends Application {
             get("BGImageWidth"), get("BGImageHeight")));
 
         // Show bonus results
-        showBonusResults();
+        if (roundPlayed) {
+            showBonusResults();
+        }
 
         // Update UI elements back to normal
         updateUIForNormalMode();
@@ -1915,6 +1982,7 @@ public class SlotMachineGUI extends Application {
         // Update UI elements for bonus mode
         balanceText.setText("Free Spins: " + game.getRemainingFreeSpins());
         spinButton.setText("Bonus Spin");
+        buyBonusButton.setDisable(true);
         // Add any other UI updates for bonus mode
     }
 
@@ -1922,6 +1990,7 @@ public class SlotMachineGUI extends Application {
         // Restore UI elements to normal mode
         balanceText.setText("Credit: $" + game.getBalance());
         spinButton.setText("Spin");
+        buyBonusButton.setDisable(disableButton);
         // Add any other UI updates for normal mode
     }
 
@@ -1939,7 +2008,7 @@ public class SlotMachineGUI extends Application {
         Label retriggerLabel = new Label("RETRIGGER!");
         retriggerLabel.setStyle("-fx-font-size: 48px; -fx-text-fill: gold;");
         
-        Label spinsLabel = new Label("+" + GameSettings.RETRIGGER_SPINS + " Free Spins!");
+        Label spinsLabel = new Label("+" + game.getRetriggerSpins() + " Free Spins!");
         spinsLabel.setStyle("-fx-font-size: 36px; -fx-text-fill: white;");
 
         layout.getChildren().addAll(retriggerLabel, spinsLabel);
@@ -0,0 +1,49 @@
+package com.example.slotmachine.server.audit;
+
+import java.util.Locale;
+
+/**
+ * Egy próba eredménye a riportban: statisztikai próbánál a p-érték, szabály ellenőrzésnél a megsértések száma
+ */
+public class AuditCheck {
+
+    private final String name;
+    private final String statistic;
+    private final double pValue;
+    private final boolean passed;
+
+    public AuditCheck(String name, String statistic, double pValue, boolean passed) {
+        this.name = name;
+        this.statistic = statistic;
+        this.pValue = pValue;
+        this.passed = passed;
+    }
+
+    /**
+     * Statisztikai próba: akkor sikeres, ha a p-érték nem kisebb a szignifikancia szintnél
+     */
+    static AuditCheck statistical(String name, String statistic, double pValue, double significance) {
+        return new AuditCheck(name, statistic, pValue, pValue >= significance);
+    }
+
+    /**
+     * Szabály ellenőrzés: akkor sikeres, ha egyetlen megsértés sincs
+     */
+    static AuditCheck rule(String name, long violations, long checked) {
+        return new AuditCheck(name, String.format(Locale.ROOT, "%,d violations in %,d grids", violations, checked),
+                Double.NaN, violations == 0);
+    }
+
+    public String toText() {
+        String p = Double.isNaN(pValue) ? "" : String.format(Locale.ROOT, "p = %.4f", pValue);
+        return String.format(Locale.ROOT, "  %-4s %-38s %-44s %s%n", passed ? "PASS" : "FAIL", name, statistic, p);
+    }
+
+    public String getName() { return name; }
+
+    public String getStatistic() { return statistic; }
+
+    public double getPValue() { return pValue; }
+
+    public boolean isPassed() { return passed; }
+}
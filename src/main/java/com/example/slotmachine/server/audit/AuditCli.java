@@ -0,0 +1,78 @@
+package com.example.slotmachine.server.audit;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.service.RngService;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Parancssori RNG és szimbólum generálás audit (Spring kontextus nélkül), matek változtatás után futtatandó.
+ * A riport a konzolra, --out megadásakor fájlba is kerül (szabályozói benyújtáshoz).
+ * Kilépési kód: 0 sikeres, 2 elbukott próba.
+ * Használat: AuditCli [--draws N] [--seed S] [--threads T] [--model path] [--algorithm name] [--out path]
+ */
+public class AuditCli {
+
+    public static void main(String[] args) throws IOException {
+        long draws = 1_000_000_000L;
+        long seed = ThreadLocalRandom.current().nextLong();
+        int threads = Runtime.getRuntime().availableProcessors();
+        String modelPath = null;
+        String algorithm = RngService.DEFAULT_ALGORITHM;
+        String out = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                usage("Missing value for " + arg);
+                return;
+            }
+            String value = args[++i].replace("_", "");
+            switch (arg) {
+                case "--draws" -> draws = (long) Double.parseDouble(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--model" -> modelPath = args[i];
+                case "--algorithm" -> algorithm = args[i];
+                case "--out" -> out = args[i];
+                default -> {
+                    usage("Unknown option: " + arg);
+                    return;
+                }
+            }
+        }
+
+        CompiledMathModel model;
+        if (modelPath == null) {
+            model = CompiledMathModel.loadDefault();
+        } else {
+            try (InputStream in = Files.newInputStream(Path.of(modelPath))) {
+                model = CompiledMathModel.load(in);
+            }
+        }
+
+        SlotMachineEngine engine = new SlotMachineEngine(new RngService(algorithm, seed), model);
+        System.out.println("Auditing " + draws + " draws on " + threads + " threads (" + model.getName() + ", "
+                + algorithm + ", seed " + seed + ")...");
+        AuditReport report = new RngAudit(engine).run(draws, seed, threads);
+        String text = report.toText();
+        System.out.print(text);
+        if (out != null) {
+            Files.writeString(Path.of(out), text, StandardCharsets.UTF_8);
+            System.out.println("Report written to " + out);
+        }
+        System.exit(report.isPassed() ? 0 : 2);
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: AuditCli [--draws N] [--seed S] [--threads T] [--model path] [--algorithm name] [--out path]");
+        System.exit(1);
+    }
+}
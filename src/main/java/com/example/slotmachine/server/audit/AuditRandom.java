@@ -0,0 +1,64 @@
+package com.example.slotmachine.server.audit;
+
+import com.example.slotmachine.server.engine.AliasSampler;
+import com.example.slotmachine.server.engine.CompiledMathModel;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Rögzítő generátor a motor elé a kezdő rács generálásához: a húzásokat változatlanul továbbadja,
+ * közben feljegyzi, amit a motor belőlük dönt. A nextDouble() húzások a szomszéd másolási döntések,
+ * a teljes alias tábla határával kért egészek a szimbólum húzások, a scatter nélküli tábla határával kértek
+ * a scatter helyetti újrahúzások (a két tábla határa csak akkor egyezik, ha a scatter súlya 0, akkor viszont
+ * újrahúzás nincs). A kisebb határú egészek a szomszéd választások.
+ */
+final class AuditRandom implements RandomGenerator {
+
+    private final AuditStats stats;
+    private final double copyChance;
+    private final AliasSampler symbols;
+    private final AliasSampler nonScatter;
+    private RandomGenerator delegate;
+
+    AuditRandom(CompiledMathModel model, AuditStats stats) {
+        this.stats = stats;
+        this.copyChance = model.getNeighbourCopyChance();
+        this.symbols = model.getSymbols();
+        this.nonScatter = model.getNonScatter();
+    }
+
+    /**
+     * A következő rács saját generátora
+     */
+    void use(RandomGenerator delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public double nextDouble() {
+        double u = delegate.nextDouble();
+        stats.recordCopyDecision(u < copyChance);
+        return u;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        int u = delegate.nextInt(bound);
+        if (bound == symbols.getBound()) {
+            stats.recordSymbolDraw(symbols.sampleAt(u));
+        } else if (bound == nonScatter.getBound()) {
+            stats.recordNonScatterDraw(nonScatter.sampleAt(u));
+        }
+        return u;
+    }
+
+    @Override
+    public int nextInt() {
+        return delegate.nextInt();
+    }
+
+    @Override
+    public long nextLong() {
+        return delegate.nextLong();
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.slotmachine.server.audit;
+
+import com.example.slotmachine.server.engine.AliasSampler;
+import com.example.slotmachine.server.engine.CompiledMathModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Az RNG és szimbólum generálás audit riportja (szabályozói benyújtáshoz).
+ * Minden statisztikai próba SIGNIFICANCE szinten dönt; sok próba mellett véletlenül is elbukhat egy-egy,
+ * ilyenkor egy másik seed-del ismételt futás dönt. A szabály ellenőrzéseknél nincs tűrés.
+ */
+public class AuditReport {
+
+    public static final double SIGNIFICANCE = 0.001;
+    private static final double Z_95 = 1.959963984540054;
+
+    private final String modelName;
+    private final String algorithm;
+    private final long seed;
+    private final int threads;
+    private final long elapsedMillis;
+    private final long draws;
+    private final long grids;
+    private final List<AuditCheck> rngChecks = new ArrayList<>();
+    private final List<AuditCheck> symbolChecks = new ArrayList<>();
+    private final List<AuditCheck> scatterChecks = new ArrayList<>();
+    private final StringBuilder symbolTable = new StringBuilder();
+    private final StringBuilder columnTable = new StringBuilder();
+    private final StringBuilder scatterTable = new StringBuilder();
+
+    private AuditReport(String modelName, String algorithm, long seed, int threads, long elapsedMillis, long draws, long grids) {
+        this.modelName = modelName;
+        this.algorithm = algorithm;
+        this.seed = seed;
+        this.threads = threads;
+        this.elapsedMillis = elapsedMillis;
+        this.draws = draws;
+        this.grids = grids;
+    }
+
+    /**
+     * Riport készítése az összevont számlálókból
+     */
+    static AuditReport from(AuditStats stats, CompiledMathModel model, String algorithm, long seed, int threads,
+                            long elapsedMillis) {
+        AuditReport report = new AuditReport(model.getName(), algorithm, seed, threads, elapsedMillis,
+                stats.getDraws(), stats.getGrids());
+        report.addRngChecks(stats);
+        report.addSymbolChecks(stats, model);
+        report.addScatterChecks(stats, model);
+        return report;
+    }
+
+    private void addRngChecks(AuditStats stats) {
+        long[] bins = stats.getUniformBins();
+        double chiSquare = chiSquareUniform(bins);
+        rngChecks.add(AuditCheck.statistical("Equidistribution (" + bins.length + " bins)",
+                chiSquareText(chiSquare, bins.length - 1),
+                AuditStatistics.chiSquarePValue(chiSquare, bins.length - 1), SIGNIFICANCE));
+
+        long[] cells = stats.getSerialCells();
+        chiSquare = chiSquareUniform(cells);
+        rngChecks.add(AuditCheck.statistical("Serial pairs (" + AuditStats.SERIAL_BINS + "x" + AuditStats.SERIAL_BINS + ")",
+                chiSquareText(chiSquare, cells.length - 1),
+                AuditStatistics.chiSquarePValue(chiSquare, cells.length - 1), SIGNIFICANCE));
+
+        double z = stats.getRunsVariance() > 0
+                ? (stats.getRuns() - stats.getExpectedRuns()) / Math.sqrt(stats.getRunsVariance())
+                : 0;
+        rngChecks.add(AuditCheck.statistical("Runs above/below 0.5",
+                String.format(Locale.ROOT, "%,d runs (expected %,.0f), z = %.3f", stats.getRuns(), stats.getExpectedRuns(), z),
+                AuditStatistics.normalTwoSidedPValue(z), SIGNIFICANCE));
+
+        // Egyenletes eloszlásnál a szórásnégyzet 1/12, így r = 12 * átlagos szorzat, és r * sqrt(n) standard normális
+        long pairs = stats.getLagPairs();
+        double correlation = pairs > 0 ? 12 * stats.getLagProductSum() / pairs : 0;
+        z = correlation * Math.sqrt(pairs);
+        rngChecks.add(AuditCheck.statistical("Lag-1 serial correlation",
+                String.format(Locale.ROOT, "r = %.2e, z = %.3f", correlation, z),
+                AuditStatistics.normalTwoSidedPValue(z), SIGNIFICANCE));
+    }
+
+    private void addSymbolChecks(AuditStats stats, CompiledMathModel model) {
+        AliasSampler symbols = model.getSymbols();
+        long[] symbolDraws = stats.getSymbolDraws();
+        long total = sum(symbolDraws);
+        long gridCells = sum(stats.getGridCells());
+        symbolTable.append(String.format(Locale.ROOT, "  %-7s %-10s %-14s %-10s %-8s %s%n",
+                "symbol", "weight", "draws", "share", "z", "grid share"));
+        double chiSquare = 0;
+        int categories = 0;
+        for (int symbol = 0; symbol < symbols.size(); symbol++) {
+            double probability = symbols.probability(symbol);
+            double expected = total * probability;
+            double z = expected > 0 ? (symbolDraws[symbol] - expected) / Math.sqrt(expected * (1 - probability)) : 0;
+            if (expected > 0) {
+                chiSquare += (symbolDraws[symbol] - expected) * (symbolDraws[symbol] - expected) / expected;
+                categories++;
+            }
+            symbolTable.append(String.format(Locale.ROOT, "  %-7d %-10.5f %-14d %-10.5f %-8.3f %.5f%n",
+                    symbol, probability, symbolDraws[symbol], total > 0 ? (double) symbolDraws[symbol] / total : 0, z,
+                    gridCells > 0 ? (double) stats.getGridCells()[symbol] / gridCells : 0));
+        }
+        symbolChecks.add(AuditCheck.statistical("Symbol draws vs symbol weights", chiSquareText(chiSquare, categories - 1),
+                AuditStatistics.chiSquarePValue(chiSquare, categories - 1), SIGNIFICANCE));
+
+        // A scatter helyett húzott szimbólumok a scatter nélküli táblát követik
+        AliasSampler nonScatter = model.getNonScatter();
+        long[] redraws = stats.getNonScatterDraws();
+        long redrawTotal = sum(redraws);
+        if (redrawTotal > 0) {
+            chiSquare = 0;
+            categories = 0;
+            for (int symbol = 0; symbol < nonScatter.size(); symbol++) {
+                double expected = redrawTotal * nonScatter.probability(symbol);
+                if (expected > 0) {
+                    chiSquare += (redraws[symbol] - expected) * (redraws[symbol] - expected) / expected;
+                    categories++;
+                }
+            }
+            symbolChecks.add(AuditCheck.statistical("Scatter redraws vs non-scatter weights",
+                    String.format(Locale.ROOT, "%,d redraws, ", redrawTotal) + chiSquareText(chiSquare, categories - 1),
+                    AuditStatistics.chiSquarePValue(chiSquare, categories - 1), SIGNIFICANCE));
+        }
+
+        double copyChance = model.getNeighbourCopyChance();
+        long decisions = stats.getCopyDecisions();
+        double z = decisions > 0 && copyChance > 0 && copyChance < 1
+                ? (stats.getCopies() - decisions * copyChance) / Math.sqrt(decisions * copyChance * (1 - copyChance))
+                : 0;
+        symbolChecks.add(AuditCheck.statistical("Neighbour copy decisions",
+                String.format(Locale.ROOT, "%.6f of %,d (model %.4f), z = %.3f",
+                        decisions > 0 ? (double) stats.getCopies() / decisions : 0, decisions, copyChance, z),
+                AuditStatistics.normalTwoSidedPValue(z), SIGNIFICANCE));
+    }
+
+    private void addScatterChecks(AuditStats stats, CompiledMathModel model) {
+        long grids = stats.getGrids();
+        scatterChecks.add(AuditCheck.rule("At most one scatter per column", stats.getColumnViolations(), grids));
+        scatterChecks.add(AuditCheck.rule("At most " + model.getBonusTriggerCount() + " scatters per grid",
+                stats.getCapViolations(), grids));
+        scatterChecks.add(AuditCheck.rule("Engine scatter count matches grid", stats.getScatterCountMismatches(), grids));
+
+        columnTable.append(String.format(Locale.ROOT, "  %-7s %-12s %s%n", "column", "frequency", "95% CI"));
+        long[] columns = stats.getColumnScatterGrids();
+        for (int col = 0; col < columns.length; col++) {
+            double frequency = grids > 0 ? (double) columns[col] / grids : 0;
+            double error = grids > 0 ? Z_95 * Math.sqrt(frequency * (1 - frequency) / grids) : 0;
+            columnTable.append(String.format(Locale.ROOT, "  %-7d %-12.6f %.6f .. %.6f%n",
+                    col, frequency, frequency - error, frequency + error));
+        }
+
+        long[] counts = stats.getScatterCounts();
+        for (int count = 0; count < counts.length; count++) {
+            if (counts[count] > 0 || count <= model.getBonusTriggerCount()) {
+                scatterTable.append(String.format(Locale.ROOT, "  %d scatters: %.8f%s%n", count,
+                        grids > 0 ? (double) counts[count] / grids : 0,
+                        count == model.getBonusTriggerCount() ? "  (bonus trigger)" : ""));
+            }
+        }
+    }
+
+    private static double chiSquareUniform(long[] counts) {
+        long total = sum(counts);
+        if (total == 0) {
+            return 0;
+        }
+        double expected = (double) total / counts.length;
+        double chiSquare = 0;
+        for (long count : counts) {
+            chiSquare += (count - expected) * (count - expected) / expected;
+        }
+        return chiSquare;
+    }
+
+    private static String chiSquareText(double chiSquare, int degreesOfFreedom) {
+        return String.format(Locale.ROOT, "chi2 = %.2f, df = %d", chiSquare, degreesOfFreedom);
+    }
+
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Minden próba és szabály teljesült
+     */
+    public boolean isPassed() {
+        return getChecks().stream().allMatch(AuditCheck::isPassed);
+    }
+
+    public List<AuditCheck> getChecks() {
+        List<AuditCheck> checks = new ArrayList<>(rngChecks);
+        checks.addAll(symbolChecks);
+        checks.addAll(scatterChecks);
+        return checks;
+    }
+
+    public String toText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("RNG and symbol generation audit\n");
+        sb.append(String.format(Locale.ROOT, "Model:               %s%n", modelName));
+        sb.append(String.format(Locale.ROOT, "RNG algorithm:       %s (one generator per spin seed, as in production)%n", algorithm));
+        sb.append(String.format(Locale.ROOT, "Seed:                %d (%d threads, %.1f s)%n", seed, threads, elapsedMillis / 1000.0));
+        sb.append(String.format(Locale.ROOT, "Significance:        %.3f per test%n", SIGNIFICANCE));
+        sb.append(String.format(Locale.ROOT, "%nRNG layer (%,d nextDouble draws)%n", draws));
+        rngChecks.forEach(check -> sb.append(check.toText()));
+        sb.append(String.format(Locale.ROOT, "%nSymbol generation (%,d initial grids)%n", grids));
+        symbolChecks.forEach(check -> sb.append(check.toText()));
+        sb.append(symbolTable);
+        sb.append(String.format(Locale.ROOT, "%nScatter placement%n"));
+        scatterChecks.forEach(check -> sb.append(check.toText()));
+        sb.append("  Grids with a scatter, per column:\n");
+        sb.append(columnTable);
+        sb.append("  Scatters per grid:\n");
+        sb.append(scatterTable);
+        sb.append(String.format(Locale.ROOT, "%nResult:              %s%n", isPassed() ? "PASS" : "FAIL"));
+        return sb.toString();
+    }
+
+    public String getModelName() { return modelName; }
+
+    public String getAlgorithm() { return algorithm; }
+
+    public long getSeed() { return seed; }
+
+    public long getDraws() { return draws; }
+
+    public long getGrids() { return grids; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+}
@@ -0,0 +1,108 @@
+package com.example.slotmachine.server.audit;
+
+/**
+ * Eloszlásfüggvények a próbák p-értékeihez (külső matematikai könyvtár nélkül).
+ * Khí-négyzet: regularizált felső inkomplett gamma (sor, illetve lánctört), normális: erfc közelítés.
+ */
+final class AuditStatistics {
+
+    private static final double EPSILON = 1e-15;
+    private static final double TINY = 1e-300;
+    private static final int MAX_ITERATIONS = 100_000;
+    // Lanczos együtthatók (g = 7, n = 9)
+    private static final double[] LANCZOS = {
+            0.99999999999980993, 676.5203681218851, -1259.1392167224028, 771.32342877765313,
+            -176.61502916214059, 12.507343278686905, -0.13857109526572012, 9.9843695780195716e-6,
+            1.5056327351493116e-7};
+
+    private AuditStatistics() {}
+
+    /**
+     * P(X &gt;= statistic) khí-négyzet eloszlásra
+     */
+    static double chiSquarePValue(double statistic, double degreesOfFreedom) {
+        if (statistic <= 0) {
+            return 1;
+        }
+        return regularizedGammaQ(degreesOfFreedom / 2, statistic / 2);
+    }
+
+    /**
+     * Kétoldali p-érték standard normális próbastatisztikára
+     */
+    static double normalTwoSidedPValue(double z) {
+        return Math.min(1, erfc(Math.abs(z) / Math.sqrt(2)));
+    }
+
+    static double regularizedGammaQ(double a, double x) {
+        if (x <= 0) {
+            return 1;
+        }
+        double logPrefix = -x + a * Math.log(x) - logGamma(a);
+        if (x < a + 1) {
+            // Sorfejtés P(a, x)-re
+            double term = 1 / a;
+            double sum = term;
+            double ap = a;
+            for (int n = 0; n < MAX_ITERATIONS; n++) {
+                ap++;
+                term *= x / ap;
+                sum += term;
+                if (Math.abs(term) < Math.abs(sum) * EPSILON) {
+                    break;
+                }
+            }
+            return Math.max(0, 1 - sum * Math.exp(logPrefix));
+        }
+        // Lentz lánctört Q(a, x)-re
+        double b = x + 1 - a;
+        double c = 1 / TINY;
+        double d = 1 / b;
+        double h = d;
+        for (int i = 1; i < MAX_ITERATIONS; i++) {
+            double an = -i * (i - a);
+            b += 2;
+            d = an * d + b;
+            if (Math.abs(d) < TINY) {
+                d = TINY;
+            }
+            c = b + an / c;
+            if (Math.abs(c) < TINY) {
+                c = TINY;
+            }
+            d = 1 / d;
+            double delta = d * c;
+            h *= delta;
+            if (Math.abs(delta - 1) < EPSILON) {
+                break;
+            }
+        }
+        return Math.exp(logPrefix) * h;
+    }
+
+    static double logGamma(double x) {
+        if (x < 0.5) {
+            // Tükrözés
+            return Math.log(Math.PI / Math.abs(Math.sin(Math.PI * x))) - logGamma(1 - x);
+        }
+        x -= 1;
+        double sum = LANCZOS[0];
+        double t = x + 7.5;
+        for (int i = 1; i < LANCZOS.length; i++) {
+            sum += LANCZOS[i] / (x + i);
+        }
+        return 0.5 * Math.log(2 * Math.PI) + (x + 0.5) * Math.log(t) - t + Math.log(sum);
+    }
+
+    /**
+     * Kiegészítő hibafüggvény (Chebyshev közelítés, relatív hiba &lt; 1.2e-7)
+     */
+    static double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1 / (1 + 0.5 * z);
+        double result = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? result : 2 - result;
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.slotmachine.server.audit;
+
+/**
+ * Egy audit worker számlálói: az RNG réteg próbái (egyenletesség, párok, futamok, korreláció)
+ * és a kezdő rács generálás próbái (alias húzások, másolási döntések, scatter elhelyezés).
+ * Egy példány egy blokkot (egy húzás sorozatot) rögzít; a worker-ek eredményei merge-el vonhatók össze.
+ */
+public class AuditStats {
+
+    // nextDouble() egyenletesség és pár (soros) próba cellái
+    public static final int UNIFORM_BINS = 1024;
+    public static final int SERIAL_BINS = 64;
+
+    // RNG réteg
+    private long draws;
+    private final long[] uniformBins = new long[UNIFORM_BINS];
+    private final long[] serialCells = new long[SERIAL_BINS * SERIAL_BINS];
+    // Futamok 0.5 felett/alatt: sorozatonként a várható érték és a szórásnégyzet összeadódik
+    private long runs;
+    private double expectedRuns;
+    private double runsVariance;
+    // Lag-1 korreláció: sum (u_i - 1/2)(u_i+1 - 1/2)
+    private double lagProductSum;
+    private long lagPairs;
+    // Az aktuális sorozat állapota
+    private double previous;
+    private int pendingPairCell = -1;
+    private long above;
+    private long below;
+
+    // Rács generálás
+    private long grids;
+    private final long[] symbolDraws;
+    private final long[] nonScatterDraws;
+    private final long[] gridCells;
+    private long copyDecisions;
+    private long copies;
+    private final long[] columnScatterGrids;
+    private final long[] scatterCounts;
+    private long columnViolations;
+    private long capViolations;
+    private long scatterCountMismatches;
+
+    public AuditStats(int symbolCount, int gridSize) {
+        this.symbolDraws = new long[symbolCount];
+        this.nonScatterDraws = new long[symbolCount];
+        this.gridCells = new long[symbolCount];
+        this.columnScatterGrids = new long[gridSize];
+        this.scatterCounts = new long[gridSize + 1];
+    }
+
+    /**
+     * Egy nextDouble() húzás rögzítése az aktuális sorozatban
+     */
+    public void recordDraw(double u) {
+        uniformBins[(int) (u * UNIFORM_BINS)]++;
+        int serialBin = (int) (u * SERIAL_BINS);
+        if (pendingPairCell < 0) {
+            pendingPairCell = serialBin * SERIAL_BINS;
+        } else {
+            serialCells[pendingPairCell + serialBin]++;
+            pendingPairCell = -1;
+        }
+        boolean high = u >= 0.5;
+        boolean first = above + below == 0;
+        // Új futam a sorozat elején és minden oldalváltáskor
+        if (first || (previous >= 0.5) != high) {
+            runs++;
+        }
+        if (!first) {
+            lagProductSum += (previous - 0.5) * (u - 0.5);
+            lagPairs++;
+        }
+        if (high) {
+            above++;
+        } else {
+            below++;
+        }
+        previous = u;
+        draws++;
+    }
+
+    /**
+     * A sorozat lezárása: a futamok várható száma és szórásnégyzete a sorozat felett/alatt számaiból
+     */
+    public void endSequence() {
+        double n = above + below;
+        if (above > 0 && below > 0) {
+            double product = 2.0 * above * below;
+            expectedRuns += product / n + 1;
+            runsVariance += product * (product - n) / (n * n * (n - 1));
+        } else if (n > 0) {
+            expectedRuns += 1;
+        }
+        above = 0;
+        below = 0;
+        pendingPairCell = -1;
+    }
+
+    public void recordSymbolDraw(int symbol) {
+        symbolDraws[symbol]++;
+    }
+
+    public void recordNonScatterDraw(int symbol) {
+        nonScatterDraws[symbol]++;
+    }
+
+    public void recordCopyDecision(boolean copy) {
+        copyDecisions++;
+        if (copy) {
+            copies++;
+        }
+    }
+
+    /**
+     * Egy generált rács rögzítése: szimbólum cellák, oszloponkénti scatter, a szabályok megsértései
+     *
+     * @param reportedScatters a motor által számolt kezdő scatter szám
+     */
+    public void recordGrid(byte[] grid, int gridSize, int scatterSymbol, int bonusTriggerCount, int reportedScatters) {
+        grids++;
+        int scatters = 0;
+        for (int col = 0; col < gridSize; col++) {
+            int columnScatters = 0;
+            for (int row = 0; row < gridSize; row++) {
+                int symbol = grid[row * gridSize + col];
+                gridCells[symbol]++;
+                if (symbol == scatterSymbol) {
+                    columnScatters++;
+                }
+            }
+            if (columnScatters > 0) {
+                columnScatterGrids[col]++;
+            }
+            if (columnScatters > 1) {
+                columnViolations++;
+            }
+            scatters += columnScatters;
+        }
+        if (scatters > bonusTriggerCount) {
+            capViolations++;
+        }
+        if (scatters != reportedScatters) {
+            scatterCountMismatches++;
+        }
+        scatterCounts[Math.min(scatters, gridSize)]++;
+    }
+
+    /**
+     * Egy másik worker eredményeinek hozzáadása (a lezárt sorozataival)
+     */
+    public AuditStats merge(AuditStats other) {
+        draws += other.draws;
+        add(uniformBins, other.uniformBins);
+        add(serialCells, other.serialCells);
+        runs += other.runs;
+        expectedRuns += other.expectedRuns;
+        runsVariance += other.runsVariance;
+        lagProductSum += other.lagProductSum;
+        lagPairs += other.lagPairs;
+
+        grids += other.grids;
+        add(symbolDraws, other.symbolDraws);
+        add(nonScatterDraws, other.nonScatterDraws);
+        add(gridCells, other.gridCells);
+        copyDecisions += other.copyDecisions;
+        copies += other.copies;
+        add(columnScatterGrids, other.columnScatterGrids);
+        add(scatterCounts, other.scatterCounts);
+        columnViolations += other.columnViolations;
+        capViolations += other.capViolations;
+        scatterCountMismatches += other.scatterCountMismatches;
+        return this;
+    }
+
+    private static void add(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+
+    public long getDraws() { return draws; }
+
+    public long[] getUniformBins() { return uniformBins; }
+
+    public long[] getSerialCells() { return serialCells; }
+
+    public long getRuns() { return runs; }
+
+    public double getExpectedRuns() { return expectedRuns; }
+
+    public double getRunsVariance() { return runsVariance; }
+
+    public double getLagProductSum() { return lagProductSum; }
+
+    public long getLagPairs() { return lagPairs; }
+
+    public long getGrids() { return grids; }
+
+    public long[] getSymbolDraws() { return symbolDraws; }
+
+    public long[] getNonScatterDraws() { return nonScatterDraws; }
+
+    public long[] getGridCells() { return gridCells; }
+
+    public long getCopyDecisions() { return copyDecisions; }
+
+    public long getCopies() { return copies; }
+
+    public long[] getColumnScatterGrids() { return columnScatterGrids; }
+
+    public long[] getScatterCounts() { return scatterCounts; }
+
+    public long getColumnViolations() { return columnViolations; }
+
+    public long getCapViolations() { return capViolations; }
+
+    public long getScatterCountMismatches() { return scatterCountMismatches; }
+}
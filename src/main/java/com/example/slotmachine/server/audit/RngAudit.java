@@ -0,0 +1,162 @@
+package com.example.slotmachine.server.audit;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.GridTopology;
+import com.example.slotmachine.server.engine.SpinScratch;
+import com.example.slotmachine.server.service.RngService;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.random.RandomGenerator;
+
+/**
+ * Párhuzamos statisztikai audit az RNG rétegre és a kezdő rács generálásra (generateSymbols).
+ * Mindkét rész úgy használja a generátort, mint a szerver: seed forrásból spinenként új forSeed(seed) generátor.
+ * Az RNG rész a generátorok egymás után fűzött nextDouble() húzásait vizsgálja (így a seed-ek közötti összefüggést is),
+ * a rács rész a motor döntéseit (alias húzások, másolások) és a kész rácsok scatter szabályait.
+ * A munka blokkokra bomlik, a blokkok fork-join fában futnak, fix összevonási sorrenddel:
+ * ugyanaz a seed bármennyi szálon ugyanazt a riportot adja.
+ */
+public class RngAudit {
+
+    static final int DRAWS_PER_BLOCK = 1 << 22;
+    // Egy spin generátorából ennyi húzás (egy spin a motorban néhány tucat, cascade-dal néhány száz húzás)
+    static final int DRAWS_PER_STREAM = 128;
+    static final int GRIDS_PER_BLOCK = 1 << 15;
+
+    private final SlotMachineEngine engine;
+
+    public RngAudit(SlotMachineEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Audit futtatása a motor aktuális modelljén
+     *
+     * @param draws   az RNG rész húzásainak száma; a rács rész draws / cellák rácsot generál (nagyjából ugyanennyi cellát)
+     * @param threads párhuzamos worker-ek száma
+     */
+    public AuditReport run(long draws, long seed, int threads) {
+        if (draws <= 0) {
+            throw new IllegalArgumentException("Draws must be positive: " + draws);
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+        CompiledMathModel model = engine.getMathModel();
+        // A rögzítő generátor a szimbólum húzásokat a határukról ismeri fel
+        if (model.getSymbols().getBound() <= GridTopology.MAX_NEIGHBOURS) {
+            throw new IllegalArgumentException("Symbol weights are too small to audit: " + model.getSymbols().getBound());
+        }
+        long grids = Math.max(1, draws / model.getCells());
+        long drawBlocks = (draws + DRAWS_PER_BLOCK - 1) / DRAWS_PER_BLOCK;
+        long gridBlocks = (grids + GRIDS_PER_BLOCK - 1) / GRIDS_PER_BLOCK;
+
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        AuditStats stats;
+        try {
+            stats = pool.invoke(new BlockRange(model, 0, drawBlocks + gridBlocks, drawBlocks, draws, grids, seed));
+        } finally {
+            pool.shutdown();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return AuditReport.from(stats, model, engine.getRngService().getAlgorithm(), seed, threads, elapsedMillis);
+    }
+
+    /**
+     * Egy RNG blokk: a seed forrás spin generátorainak egymás után fűzött húzásai egyetlen sorozatként
+     */
+    AuditStats runDrawBlock(CompiledMathModel model, long block, long totalDraws, long seed) {
+        RngService rngService = engine.getRngService();
+        SplittableRandom seeds = new SplittableRandom(blockSeed(seed, block));
+        long first = block * DRAWS_PER_BLOCK;
+        long count = Math.min(DRAWS_PER_BLOCK, totalDraws - first);
+        AuditStats stats = new AuditStats(model.getSymbolCount(), model.getGridSize());
+        RandomGenerator random = null;
+        for (long i = 0; i < count; i++) {
+            if (i % DRAWS_PER_STREAM == 0) {
+                random = rngService.forSeed(seeds.nextLong());
+            }
+            stats.recordDraw(random.nextDouble());
+        }
+        stats.endSequence();
+        return stats;
+    }
+
+    /**
+     * Egy rács blokk: rácsonként új generátor, a motor generateSymbols-a a rögzítő generátoron át
+     */
+    AuditStats runGridBlock(CompiledMathModel model, long block, long totalGrids, long seed) {
+        RngService rngService = engine.getRngService();
+        SplittableRandom seeds = new SplittableRandom(blockSeed(~seed, block));
+        long first = block * GRIDS_PER_BLOCK;
+        long count = Math.min(GRIDS_PER_BLOCK, totalGrids - first);
+        AuditStats stats = new AuditStats(model.getSymbolCount(), model.getGridSize());
+        AuditRandom recorder = new AuditRandom(model, stats);
+        SpinScratch spin = model.newScratch();
+        int gridSize = model.getGridSize();
+        int scatterSymbol = model.getScatterSymbol();
+        int bonusTriggerCount = model.getBonusTriggerCount();
+        for (long i = 0; i < count; i++) {
+            spin.reset();
+            recorder.use(rngService.forSeed(seeds.nextLong()));
+            engine.generateSymbols(spin, recorder);
+            stats.recordGrid(spin.getGrid(), gridSize, scatterSymbol, bonusTriggerCount, spin.getInitialScatterCount());
+        }
+        return stats;
+    }
+
+    /**
+     * Blokk seed (splitmix64 keverés), hogy a szomszédos blokkok folyamai függetlenek legyenek
+     */
+    static long blockSeed(long seed, long block) {
+        long z = seed + (block + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Blokk-tartomány felezése, amíg egyetlen blokk marad; az első drawBlocks blokk RNG blokk, a többi rács blokk
+     */
+    private final class BlockRange extends RecursiveTask<AuditStats> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient CompiledMathModel model;
+        private final long from;
+        private final long to;
+        private final long drawBlocks;
+        private final long draws;
+        private final long grids;
+        private final long seed;
+
+        BlockRange(CompiledMathModel model, long from, long to, long drawBlocks, long draws, long grids, long seed) {
+            this.model = model;
+            this.from = from;
+            this.to = to;
+            this.drawBlocks = drawBlocks;
+            this.draws = draws;
+            this.grids = grids;
+            this.seed = seed;
+        }
+
+        @Override
+        protected AuditStats compute() {
+            if (to - from == 1) {
+                return from < drawBlocks
+                        ? runDrawBlock(model, from, draws, seed)
+                        : runGridBlock(model, from - drawBlocks, grids, seed);
+            }
+            long middle = (from + to) >>> 1;
+            BlockRange left = new BlockRange(model, from, middle, drawBlocks, draws, grids, seed);
+            BlockRange right = new BlockRange(model, middle, to, drawBlocks, draws, grids, seed);
+            left.fork();
+            AuditStats rightStats = right.compute();
+            return left.join().merge(rightStats);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.slotmachine.server.catalog;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.service.RngService;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Parancssori kimenet katalógus generátor (Spring kontextus nélkül)
+ * Használat: CatalogGeneratorCli --out FILE [--entries N] [--seed S] [--model FILE] [--algorithm A]
+ */
+public class CatalogGeneratorCli {
+
+    public static void main(String[] args) throws Exception {
+        Path out = null;
+        long entries = 1_000_000L;
+        long seed = System.nanoTime();
+        Path modelPath = null;
+        String algorithm = RngService.DEFAULT_ALGORITHM;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                usage("Missing value for " + arg);
+                return;
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--out" -> out = Path.of(value);
+                case "--entries" -> entries = (long) Double.parseDouble(value.replace("_", ""));
+                case "--seed" -> seed = Long.parseLong(value.replace("_", ""));
+                case "--model" -> modelPath = Path.of(value);
+                case "--algorithm" -> algorithm = value;
+                default -> {
+                    usage("Unknown option: " + arg);
+                    return;
+                }
+            }
+        }
+        if (out == null) {
+            usage("Missing --out");
+            return;
+        }
+
+        CompiledMathModel model;
+        if (modelPath != null) {
+            try (InputStream in = Files.newInputStream(modelPath)) {
+                model = CompiledMathModel.load(in);
+            }
+        } else {
+            model = CompiledMathModel.loadDefault();
+        }
+
+        SlotMachineEngine engine = new SlotMachineEngine(new RngService(algorithm, null), model);
+        System.out.println("Generating " + entries + " outcomes for model " + model.getName()
+                + " (seed " + seed + ", " + algorithm + ")...");
+        long start = System.currentTimeMillis();
+        CatalogStatistics statistics = new OutcomeCatalogWriter(engine).generate(out, entries, seed);
+        long elapsed = System.currentTimeMillis() - start;
+
+        System.out.printf("Written %s (%,d bytes) in %.1f s%n", out, Files.size(out), elapsed / 1000.0);
+        System.out.print(statistics.toText());
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: CatalogGeneratorCli --out FILE [--entries N] [--seed S] [--model FILE] [--algorithm A]");
+        System.exit(1);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.slotmachine.server.catalog;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Locale;
+
+import static com.example.slotmachine.client.GameSettings.MONEY_SCALE;
+
+/**
+ * A kimenet katalógus statisztikái. A katalógusból egyenletesen húzott spinek várható értéke
+ * pontosan ezekből számolható, nem becslés: RTP = összes nyeremény / (bejegyzések * 1 kredit tét).
+ * A nyeremények 1 kredit tétre, minor egységben értendők.
+ */
+public class CatalogStatistics {
+
+    private long entries;
+    private long totalPayout;
+    private double sumPayoutSquared;
+    private long hits;
+    private long bonusTriggers;
+    private long retriggers;
+    private long maxPayout;
+    private int maxSteps;
+
+    /**
+     * Egy bejegyzés hozzáadása
+     */
+    public void add(long payout, boolean bonusTrigger, boolean retrigger, int steps) {
+        entries++;
+        totalPayout += payout;
+        sumPayoutSquared += (double) payout * payout;
+        if (payout > 0) {
+            hits++;
+        }
+        if (bonusTrigger) {
+            bonusTriggers++;
+        }
+        if (retrigger) {
+            retriggers++;
+        }
+        maxPayout = Math.max(maxPayout, payout);
+        maxSteps = Math.max(maxSteps, steps);
+    }
+
+    /**
+     * Spinenkénti RTP (a free spinek nélkül), a tárolt egész összegekből számolva
+     */
+    public BigDecimal getRtp() {
+        if (entries == 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(totalPayout)
+                .divide(BigDecimal.valueOf(entries).multiply(BigDecimal.valueOf(MONEY_SCALE)), MathContext.DECIMAL64);
+    }
+
+    public double getHitFrequency() {
+        return entries == 0 ? 0 : (double) hits / entries;
+    }
+
+    public double getBonusFrequency() {
+        return entries == 0 ? 0 : (double) bonusTriggers / entries;
+    }
+
+    /**
+     * Spinenkénti nyeremény szórása tét-egységben
+     */
+    public double getStandardDeviation() {
+        if (entries == 0) {
+            return 0;
+        }
+        double mean = (double) totalPayout / entries;
+        double variance = Math.max(0, sumPayoutSquared / entries - mean * mean);
+        return Math.sqrt(variance) / MONEY_SCALE;
+    }
+
+    public double getMaxWin() {
+        return (double) maxPayout / MONEY_SCALE;
+    }
+
+    public String toText() {
+        return String.format(Locale.ROOT,
+                "Entries:          %d%n"
+                        + "RTP (per spin):   %s (exact, %d / %d)%n"
+                        + "Hit frequency:    %.4f%%%n"
+                        + "Bonus frequency:  1 in %.1f spins%n"
+                        + "Retrigger-able:   %d entries%n"
+                        + "Std deviation:    %.4fx bet%n"
+                        + "Max win:          %.2fx bet%n"
+                        + "Max cascade:      %d steps%n",
+                entries,
+                getRtp().toPlainString(), totalPayout, entries * MONEY_SCALE,
+                getHitFrequency() * 100,
+                bonusTriggers == 0 ? 0 : (double) entries / bonusTriggers,
+                retriggers,
+                getStandardDeviation(),
+                getMaxWin(),
+                maxSteps);
+    }
+
+    public long getEntries() { return entries; }
+    public void setEntries(long entries) { this.entries = entries; }
+
+    public long getTotalPayout() { return totalPayout; }
+    public void setTotalPayout(long totalPayout) { this.totalPayout = totalPayout; }
+
+    public double getSumPayoutSquared() { return sumPayoutSquared; }
+    public void setSumPayoutSquared(double sumPayoutSquared) { this.sumPayoutSquared = sumPayoutSquared; }
+
+    public long getHits() { return hits; }
+    public void setHits(long hits) { this.hits = hits; }
+
+    public long getBonusTriggers() { return bonusTriggers; }
+    public void setBonusTriggers(long bonusTriggers) { this.bonusTriggers = bonusTriggers; }
+
+    public long getRetriggers() { return retriggers; }
+    public void setRetriggers(long retriggers) { this.retriggers = retriggers; }
+
+    public long getMaxPayout() { return maxPayout; }
+    public void setMaxPayout(long maxPayout) { this.maxPayout = maxPayout; }
+
+    public int getMaxSteps() { return maxSteps; }
+    public void setMaxSteps(int maxSteps) { this.maxSteps = maxSteps; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof CatalogStatistics other)) {
+            return false;
+        }
+        return entries == other.entries && totalPayout == other.totalPayout
+                && Double.compare(sumPayoutSquared, other.sumPayoutSquared) == 0
+                && hits == other.hits && bonusTriggers == other.bonusTriggers && retriggers == other.retriggers
+                && maxPayout == other.maxPayout && maxSteps == other.maxSteps;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(entries) * 31 + Long.hashCode(totalPayout);
+    }
+}
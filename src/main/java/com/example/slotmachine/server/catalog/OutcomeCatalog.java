@@ -0,0 +1,262 @@
+package com.example.slotmachine.server.catalog;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.SpinScratch;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Előre legenerált spin kimenetek memóriába leképezett (FFM MemorySegment) katalógusa.
+ * Egy spin egy egyenletes véletlen index szerinti bejegyzés visszaolvasása a munkaterületre,
+ * a motor futtatása nélkül; a költség csak a bejegyzés méretétől függ.
+ *
+ * Fájlformátum (little endian):
+ * - fejléc (HEADER_SIZE byte): magic, verziók, rács méretek, statisztikák, szakasz offsetek, SHA-256
+ * - RNG algoritmus és a math model JSON (UTF-8)
+ * - bejegyzések: seed, nyeremény, scatter szám, flagek, lépésszám, kezdő rács,
+ *   lépésenként: nyeremény, szimbólumonkénti nyerő maszkok (64 cellánál nagyobb rácson szimbólumonként több long),
+ *   rács az utántöltés után
+ * - index: bejegyzésenként a bejegyzés abszolút offsetje (long)
+ * A nyeremények 1 kredit tétre, minor egységben tároltak (a nyeremény a téttel lineáris).
+ * Az ellenőrző összeg a fejléc utáni teljes tartalomra számolódik.
+ */
+public final class OutcomeCatalog implements AutoCloseable {
+
+    static final long MAGIC = 0x31544143544F4C53L; // "SLOTCAT1"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 160;
+
+    static final int FLAG_BONUS_TRIGGER = 1;
+    static final int FLAG_RETRIGGER = 2;
+
+    // Fejléc mezők offsetjei
+    static final int OFF_MAGIC = 0;
+    static final int OFF_FORMAT_VERSION = 8;
+    static final int OFF_ENGINE_VERSION = 12;
+    static final int OFF_GRID_SIZE = 16;
+    static final int OFF_SYMBOL_COUNT = 20;
+    static final int OFF_ENTRIES = 24;
+    static final int OFF_MASTER_SEED = 32;
+    static final int OFF_TOTAL_PAYOUT = 40;
+    static final int OFF_SUM_PAYOUT_SQUARED = 48;
+    static final int OFF_HITS = 56;
+    static final int OFF_BONUS_TRIGGERS = 64;
+    static final int OFF_RETRIGGERS = 72;
+    static final int OFF_MAX_PAYOUT = 80;
+    static final int OFF_MAX_STEPS = 88;
+    static final int OFF_ALGORITHM_LENGTH = 92;
+    static final int OFF_MODEL_LENGTH = 96;
+    static final int OFF_DATA = 104;
+    static final int OFF_INDEX = 112;
+    static final int OFF_CHECKSUM = 120;
+    static final int CHECKSUM_SIZE = 32;
+
+    // Bejegyzés fejléc: seed, nyeremény, scatter szám, flagek, lépésszám
+    static final int ENTRY_HEADER_SIZE = 8 + 8 + 1 + 1 + 2;
+
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final CompiledMathModel model;
+    private final String rngAlgorithm;
+    private final int engineVersion;
+    private final long entries;
+    private final long masterSeed;
+    private final long indexOffset;
+    private final CatalogStatistics statistics;
+    private final int cells;
+    private final int symbolCount;
+    private final int maskLongs;
+    private long[] bonusTriggerEntries = new long[0];
+
+    private OutcomeCatalog(Arena arena, MemorySegment segment) throws IOException {
+        this.arena = arena;
+        this.segment = segment;
+        if (segment.byteSize() < HEADER_SIZE || segment.get(LONG, OFF_MAGIC) != MAGIC) {
+            throw new IOException("Not an outcome catalog");
+        }
+        if (segment.get(INT, OFF_FORMAT_VERSION) != FORMAT_VERSION) {
+            throw new IOException("Unsupported catalog format version: " + segment.get(INT, OFF_FORMAT_VERSION));
+        }
+
+        this.engineVersion = segment.get(INT, OFF_ENGINE_VERSION);
+        this.entries = segment.get(LONG, OFF_ENTRIES);
+        this.masterSeed = segment.get(LONG, OFF_MASTER_SEED);
+        this.indexOffset = segment.get(LONG, OFF_INDEX);
+        if (entries <= 0 || indexOffset + entries * Long.BYTES != segment.byteSize()) {
+            throw new IOException("Truncated or corrupt catalog");
+        }
+
+        int algorithmLength = segment.get(INT, OFF_ALGORITHM_LENGTH);
+        int modelLength = segment.get(INT, OFF_MODEL_LENGTH);
+        this.rngAlgorithm = readString(HEADER_SIZE, algorithmLength);
+        this.model = CompiledMathModel.fromJson(readString(HEADER_SIZE + algorithmLength, modelLength));
+        this.cells = model.getCells();
+        this.symbolCount = model.getSymbolCount();
+        this.maskLongs = symbolCount * model.getMaskWords();
+        if (segment.get(INT, OFF_GRID_SIZE) != model.getGridSize() || segment.get(INT, OFF_SYMBOL_COUNT) != symbolCount) {
+            throw new IOException("Catalog header does not match its math model");
+        }
+
+        this.statistics = new CatalogStatistics();
+        statistics.setEntries(entries);
+        statistics.setTotalPayout(segment.get(LONG, OFF_TOTAL_PAYOUT));
+        statistics.setSumPayoutSquared(segment.get(DOUBLE, OFF_SUM_PAYOUT_SQUARED));
+        statistics.setHits(segment.get(LONG, OFF_HITS));
+        statistics.setBonusTriggers(segment.get(LONG, OFF_BONUS_TRIGGERS));
+        statistics.setRetriggers(segment.get(LONG, OFF_RETRIGGERS));
+        statistics.setMaxPayout(segment.get(LONG, OFF_MAX_PAYOUT));
+        statistics.setMaxSteps(segment.get(INT, OFF_MAX_STEPS));
+    }
+
+    /**
+     * Katalógus megnyitása és ellenőrzése (ellenőrző összeg és a statisztikák újraszámolása)
+     */
+    public static OutcomeCatalog open(Path path) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            OutcomeCatalog catalog = new OutcomeCatalog(arena, segment);
+            catalog.verify();
+            return catalog;
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * A tartalom ellenőrzése: SHA-256 a fejléc utáni részre, és a fejléc statisztikái a bejegyzésekből újraszámolva
+     */
+    public void verify() throws IOException {
+        MessageDigest digest = newDigest();
+        long size = segment.byteSize();
+        for (long offset = HEADER_SIZE; offset < size; offset += Integer.MAX_VALUE) {
+            digest.update(segment.asSlice(offset, Math.min(Integer.MAX_VALUE, size - offset)).asByteBuffer());
+        }
+        byte[] expected = segment.asSlice(OFF_CHECKSUM, CHECKSUM_SIZE).toArray(ValueLayout.JAVA_BYTE);
+        if (!Arrays.equals(expected, digest.digest())) {
+            throw new IOException("Catalog checksum mismatch");
+        }
+
+        CatalogStatistics recomputed = new CatalogStatistics();
+        long[] triggers = new long[(int) Math.min(statistics.getBonusTriggers(), entries)];
+        int triggerCount = 0;
+        for (long index = 0; index < entries; index++) {
+            long offset = entryOffset(index);
+            int flags = segment.get(ValueLayout.JAVA_BYTE, offset + 17);
+            if ((flags & FLAG_BONUS_TRIGGER) != 0 && triggerCount < triggers.length) {
+                triggers[triggerCount++] = index;
+            }
+            recomputed.add(segment.get(LONG, offset + 8),
+                    (flags & FLAG_BONUS_TRIGGER) != 0,
+                    (flags & FLAG_RETRIGGER) != 0,
+                    Short.toUnsignedInt(segment.get(SHORT, offset + 18)));
+        }
+        if (!recomputed.equals(statistics)) {
+            throw new IOException("Catalog statistics do not match its entries");
+        }
+        this.bonusTriggerEntries = triggers;
+    }
+
+    /**
+     * Egy bejegyzés betöltése a munkaterületre az adott tétre skálázva.
+     * A munkaterületnek a katalógus modelljéhez kell tartoznia (newScratch).
+     */
+    public void read(long index, SpinScratch spin, int betAmount) {
+        if (spin.getModel() != model) {
+            throw new IllegalArgumentException("Scratch does not belong to the catalog model");
+        }
+        long offset = entryOffset(index);
+        int steps = Short.toUnsignedInt(segment.get(SHORT, offset + 18));
+
+        spin.reset();
+        spin.setInitialScatterCount(segment.get(ValueLayout.JAVA_BYTE, offset + 16));
+        spin.setTotalPayout(segment.get(LONG, offset + 8) * betAmount);
+        offset += ENTRY_HEADER_SIZE;
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, offset, spin.getInitialGrid(), 0, cells);
+        offset += cells;
+
+        for (int s = 0; s < steps; s++) {
+            int step = spin.beginStep();
+            spin.setStepPayout(step, segment.get(LONG, offset) * betAmount);
+            offset += Long.BYTES;
+            MemorySegment.copy(segment, LONG, offset, spin.getStepMatched(), spin.stepMatchedOffset(step), maskLongs);
+            offset += (long) maskLongs * Long.BYTES;
+            MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, offset, spin.getStepGrids(), spin.stepGridOffset(step), cells);
+            offset += cells;
+        }
+    }
+
+    /**
+     * A bejegyzés seed-je: a motor ezzel a seed-del pontosan ezt a spint adja (visszajátszás)
+     */
+    public long getSeed(long index) {
+        return segment.get(LONG, entryOffset(index));
+    }
+
+    /**
+     * A bonust indító bejegyzések száma (bonus vásárláshoz)
+     */
+    public int getBonusTriggerEntryCount() {
+        return bonusTriggerEntries.length;
+    }
+
+    /**
+     * Az i-edik bonust indító bejegyzés indexe
+     */
+    public long getBonusTriggerEntry(int i) {
+        return bonusTriggerEntries[i];
+    }
+
+    private long entryOffset(long index) {
+        if (index < 0 || index >= entries) {
+            throw new IndexOutOfBoundsException("Catalog entry " + index + " of " + entries);
+        }
+        return segment.get(LONG, indexOffset + index * Long.BYTES);
+    }
+
+    private String readString(long offset, int length) {
+        return new String(segment.asSlice(offset, length).toArray(ValueLayout.JAVA_BYTE), StandardCharsets.UTF_8);
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public CompiledMathModel getModel() { return model; }
+
+    public String getRngAlgorithm() { return rngAlgorithm; }
+
+    public int getEngineVersion() { return engineVersion; }
+
+    public long getEntries() { return entries; }
+
+    public long getMasterSeed() { return masterSeed; }
+
+    public CatalogStatistics getStatistics() { return statistics; }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.slotmachine.server.catalog;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.SpinScratch;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.SplittableRandom;
+
+import static com.example.slotmachine.server.catalog.OutcomeCatalog.*;
+
+/**
+ * Kimenet katalógus generálása offline: a motor spinjei 1 kredit téttel, a seed-jükkel együtt.
+ * A generálás a master seed-ből determinisztikus; a formátum leírása az OutcomeCatalog osztályban.
+ */
+public class OutcomeCatalogWriter {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final SlotMachineEngine engine;
+
+    public OutcomeCatalogWriter(SlotMachineEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Katalógus írása a motor aktuális modelljével
+     *
+     * @return a katalógus statisztikái
+     */
+    public CatalogStatistics generate(Path path, long entries, long masterSeed) throws IOException {
+        if (entries <= 0 || entries > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Entries must be between 1 and " + Integer.MAX_VALUE);
+        }
+        CompiledMathModel model = engine.getMathModel();
+        SpinScratch spin = model.newScratch();
+        int cells = model.getCells();
+        int symbolCount = model.getSymbolCount();
+        // Szimbólumonként a nyerő maszk szavai (64 cellánál nagyobb rácson több long)
+        int maskLongs = symbolCount * model.getMaskWords();
+        byte[] algorithm = engine.getRngService().getAlgorithm().getBytes(StandardCharsets.UTF_8);
+        byte[] modelJson = model.toJson().getBytes(StandardCharsets.UTF_8);
+
+        SplittableRandom seeds = new SplittableRandom(masterSeed);
+        CatalogStatistics statistics = new CatalogStatistics();
+        long[] offsets = new long[(int) entries];
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(HEADER_SIZE));
+            Output out = new Output(channel, HEADER_SIZE);
+            out.put(algorithm);
+            out.put(modelJson);
+            long dataOffset = out.position();
+
+            for (int i = 0; i < entries; i++) {
+                long seed = seeds.nextLong();
+                long payout = engine.runSpin(spin, 1, engine.getRngService().forSeed(seed));
+                boolean bonusTrigger = engine.isBonusTrigger(spin);
+                boolean retrigger = engine.isRetrigger(spin);
+                int steps = spin.getStepCount();
+                if (steps > 0xFFFF) {
+                    throw new IllegalStateException("Cascade too long for the catalog format: " + steps);
+                }
+                statistics.add(payout, bonusTrigger, retrigger, steps);
+
+                offsets[i] = out.position();
+                out.ensure(ENTRY_HEADER_SIZE + cells);
+                out.buffer.putLong(seed)
+                        .putLong(payout)
+                        .put((byte) spin.getInitialScatterCount())
+                        .put((byte) ((bonusTrigger ? FLAG_BONUS_TRIGGER : 0) | (retrigger ? FLAG_RETRIGGER : 0)))
+                        .putShort((short) steps)
+                        .put(spin.getInitialGrid(), 0, cells);
+
+                long[] stepMatched = spin.getStepMatched();
+                for (int step = 0; step < steps; step++) {
+                    out.ensure(Long.BYTES * (1 + maskLongs) + cells);
+                    out.buffer.putLong(spin.getStepPayout(step));
+                    int matchedOffset = spin.stepMatchedOffset(step);
+                    for (int word = 0; word < maskLongs; word++) {
+                        out.buffer.putLong(stepMatched[matchedOffset + word]);
+                    }
+                    out.buffer.put(spin.getStepGrids(), spin.stepGridOffset(step), cells);
+                }
+            }
+
+            long indexOffset = out.position();
+            for (long offset : offsets) {
+                out.ensure(Long.BYTES);
+                out.buffer.putLong(offset);
+            }
+            byte[] checksum = out.finish();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(OFF_MAGIC, MAGIC)
+                    .putInt(OFF_FORMAT_VERSION, FORMAT_VERSION)
+                    .putInt(OFF_ENGINE_VERSION, SlotMachineEngine.ENGINE_VERSION)
+                    .putInt(OFF_GRID_SIZE, model.getGridSize())
+                    .putInt(OFF_SYMBOL_COUNT, symbolCount)
+                    .putLong(OFF_ENTRIES, entries)
+                    .putLong(OFF_MASTER_SEED, masterSeed)
+                    .putLong(OFF_TOTAL_PAYOUT, statistics.getTotalPayout())
+                    .putDouble(OFF_SUM_PAYOUT_SQUARED, statistics.getSumPayoutSquared())
+                    .putLong(OFF_HITS, statistics.getHits())
+                    .putLong(OFF_BONUS_TRIGGERS, statistics.getBonusTriggers())
+                    .putLong(OFF_RETRIGGERS, statistics.getRetriggers())
+                    .putLong(OFF_MAX_PAYOUT, statistics.getMaxPayout())
+                    .putInt(OFF_MAX_STEPS, statistics.getMaxSteps())
+                    .putInt(OFF_ALGORITHM_LENGTH, algorithm.length)
+                    .putInt(OFF_MODEL_LENGTH, modelJson.length)
+                    .putLong(OFF_DATA, dataOffset)
+                    .putLong(OFF_INDEX, indexOffset)
+                    .put(OFF_CHECKSUM, checksum);
+            channel.write(header, 0);
+        }
+        return statistics;
+    }
+
+    /**
+     * Pufferelt, little endian kimenet a fejléc után, folyamatos SHA-256 számítással
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private final MessageDigest digest = newDigest();
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long flushed;
+
+        Output(FileChannel channel, long start) {
+            this.channel = channel;
+            this.flushed = start;
+        }
+
+        long position() {
+            return flushed + buffer.position();
+        }
+
+        void put(byte[] bytes) throws IOException {
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (bytes > BUFFER_SIZE) {
+                throw new IllegalStateException("Record too large for the write buffer: " + bytes);
+            }
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            digest.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                flushed += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        byte[] finish() throws IOException {
+            flush();
+            return digest.digest();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.slotmachine.server.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.example.slotmachine.client.GameSettings.MONEY_SCALE;
+
+/**
+ * Egyszeri séma migráció: a régi DOUBLE pénz oszlopok átváltása BIGINT minor egységre.
+ * A JPA (és a ddl-auto=update) előtt fut; új adatbázison, vagy ha az oszlopok már BIGINT-ek, nem csinál semmit.
+ * A H2 a DDL-t azonnal commitolja, ezért a lépések nem egy tranzakcióban, hanem újrafuttathatóan épülnek fel.
+ */
+@Component
+public class MoneySchemaMigration {
+
+    private static final Map<String, List<String>> MONEY_COLUMNS = Map.of(
+            "USERS", List.of("BALANCE"),
+            "GAME_TRANSACTIONS", List.of("AMOUNT", "BALANCE_BEFORE", "BALANCE_AFTER")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MoneySchemaMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Az átváltott értékek ideiglenes oszlopa, a régi oszlop törlése után kapja meg az eredeti nevet
+    private static final String MINOR_SUFFIX = "_MINOR";
+
+    /**
+     * Oszloponként: új BIGINT oszlop, átskálázott másolás, régi törlése, átnevezés, NOT NULL megszorítás.
+     * Az eredeti DOUBLE oszlop a törlésig érintetlen, így bármelyik lépés után megszakadva
+     * a következő indulás onnan folytatja, és egy érték sem skálázódik kétszer.
+     */
+    @PostConstruct
+    public void migrate() {
+        MONEY_COLUMNS.forEach((table, columns) -> {
+            for (String column : columns) {
+                migrateColumn(table, column);
+            }
+        });
+    }
+
+    private void migrateColumn(String table, String column) {
+        String minorColumn = column + MINOR_SUFFIX;
+        String type = columnType(table, column);
+        boolean hasMinorColumn = columnType(table, minorColumn) != null;
+
+        if (type != null && isFloatingPoint(type)) {
+            if (!hasMinorColumn) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN " + minorColumn + " BIGINT");
+            }
+            // Mindig az érintetlen eredeti oszlopból számolunk, az ismételt futás ugyanazt adja
+            jdbcTemplate.update("UPDATE " + table + " SET " + minorColumn + " = ROUND(" + column + " * " + MONEY_SCALE + ")");
+            jdbcTemplate.execute("ALTER TABLE " + table + " DROP COLUMN " + column);
+            type = null;
+            hasMinorColumn = true;
+        }
+
+        if (type == null && hasMinorColumn) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + minorColumn + " RENAME TO " + column);
+            System.out.println("💰 " + table + "." + column + " atvaltva minor egysegre (BIGINT)");
+        }
+
+        // Az átnevezéstől független lépés: az átnevezés után megszakadt futásnál is pótolja a megszorítást
+        if (isNullable(table, column)) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " SET NOT NULL");
+        }
+    }
+
+    /**
+     * Az oszlop típusa, vagy null, ha nincs ilyen oszlop (új adatbázison a JPA már BIGINT-tel hozza létre)
+     */
+    private String columnType(String table, String column) {
+        List<String> types = jdbcTemplate.queryForList(
+                "SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = ? AND COLUMN_NAME = ?",
+                String.class, table, column);
+        return types.isEmpty() ? null : types.get(0).toUpperCase();
+    }
+
+    /**
+     * Létező, de NULL értéket megengedő oszlop (a NOT NULL megszorítás hiányzik)
+     */
+    private boolean isNullable(String table, String column) {
+        List<String> nullable = jdbcTemplate.queryForList(
+                "SELECT IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = ? AND COLUMN_NAME = ?",
+                String.class, table, column);
+        return !nullable.isEmpty() && "YES".equalsIgnoreCase(nullable.get(0));
+    }
+
+    private static boolean isFloatingPoint(String type) {
+        return type.contains("DOUBLE") || type.contains("FLOAT") || type.equals("REAL");
+    }
+
+    /**
+     * Az EntityManagerFactory csak a migráció után indul
+     */
+    @Component
+    static class EntityManagerFactoryDependency extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependency() {
+            super(MoneySchemaMigration.class);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.slotmachine.server.config;
 
+import com.example.slotmachine.server.security.JwtAuthenticationFilter;
+import com.example.slotmachine.server.security.JwtUtil;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -8,6 +10,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
@@ -19,7 +22,7 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtUtil jwtUtil) throws Exception {
         http.csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
@@ -32,7 +35,9 @@ public class SecurityConfig {
             )
             .headers(headers -> headers.frameOptions().disable()) // For H2 console
             .httpBasic(basic -> basic.disable()) // Disable basic auth
-            .formLogin(form -> form.disable()); // Disable form loginy
+            .formLogin(form -> form.disable()) // Disable form loginy
+            // A JWT kérésenként egyszer kerül ellenőrzésre, a controllerek a JwtPrincipal-t olvassák
+            .addFilterBefore(new JwtAuthenticationFilter(jwtUtil), UsernamePasswordAuthenticationFilter.class);
             
 
         return http.build();
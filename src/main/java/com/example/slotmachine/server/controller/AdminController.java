@@ -1,10 +1,17 @@
 package com.example.slotmachine.server.controller;
 
+import com.example.slotmachine.server.engine.CompiledMathModel;
 import com.example.slotmachine.server.entity.GameTransaction;
 import com.example.slotmachine.server.entity.User;
+import com.example.slotmachine.server.service.GameEngine;
+import com.example.slotmachine.server.service.GameEngineRegistry;
 import com.example.slotmachine.server.service.GameService;
+import com.example.slotmachine.server.service.MathModelService;
+import com.example.slotmachine.server.service.OutcomeCatalogService;
+import com.example.slotmachine.server.service.SpinReplayService;
 import com.example.slotmachine.server.service.UserService;
 import com.example.slotmachine.server.service.TransactionCleanupService;
+import com.example.slotmachine.server.simulation.SimulationJobService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -15,8 +22,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -34,13 +44,32 @@ public class AdminController {
     @Autowired
     private TransactionCleanupService transactionCleanupService;
 
+    @Autowired
+    private SimulationJobService simulationJobService;
+
+    @Autowired
+    private MathModelService mathModelService;
+
+    @Autowired
+    private SpinReplayService spinReplayService;
+
+    @Autowired
+    private OutcomeCatalogService outcomeCatalogService;
+
+    @Autowired
+    private GameEngineRegistry gameEngineRegistry;
+
+    // Egy lekérdezésben visszaadott spin napló bejegyzések maximális száma
+    private static final int MAX_SPIN_HISTORY = 500;
+
     @PostMapping("/add-credits")
     public ResponseEntity<?> addCredits(@RequestBody Map<String, Object> request) {
         try {
             String username = (String) request.get("username");
-            Double amount = Double.valueOf(request.get("amount").toString());
+            // Összeg minor egységben (1 kredit = MONEY_SCALE)
+            Long amount = Long.valueOf(request.get("amount").toString());
 
-            if (username == null || amount == null || amount <= 0) {
+            if (username == null || amount <= 0) {
                 return ResponseEntity.badRequest().body("Invalid username or amount");
             }
 
@@ -120,9 +149,10 @@ public class AdminController {
     public ResponseEntity<?> updateUserBalance(@RequestBody Map<String, Object> request) {
         try {
             String username = (String) request.get("username");
-            Double newBalance = Double.valueOf(request.get("balance").toString());
+            // Balance minor egységben (1 kredit = MONEY_SCALE)
+            Long newBalance = Long.valueOf(request.get("balance").toString());
 
-            if (username == null || newBalance == null || newBalance < 0) {
+            if (username == null || newBalance < 0) {
                 return ResponseEntity.badRequest().body("Invalid username or balance");
             }
 
@@ -180,4 +210,115 @@ public class AdminController {
             return ResponseEntity.internalServerError().body("Failed to cleanup transactions: " + e.getMessage());
         }
     }
+
+    @PostMapping("/simulate")
+    public ResponseEntity<?> simulate(@RequestBody Map<String, Object> request) {
+        try {
+            long rounds = request.get("rounds") != null ? Long.parseLong(request.get("rounds").toString()) : 1_000_000L;
+            long seed = request.get("seed") != null ? Long.parseLong(request.get("seed").toString()) : System.nanoTime();
+            int threads = request.get("threads") != null
+                    ? Integer.parseInt(request.get("threads").toString())
+                    : SimulationJobService.maxThreads();
+
+            // A szimuláció a háttérben fut, az eredmény a job azonosítóval kérdezhető le
+            SimulationJobService.SimulationJob job = simulationJobService.submit(rounds, seed, threads);
+            return ResponseEntity.accepted().body(job);
+
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to start simulation: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/simulate/{jobId}")
+    public ResponseEntity<?> getSimulation(@PathVariable("jobId") long jobId) {
+        try {
+            return ResponseEntity.ok(simulationJobService.getJob(jobId));
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/math-model")
+    public ResponseEntity<?> getMathModel() {
+        return ResponseEntity.ok(mathModelService.getCurrentModel().toDefinition());
+    }
+
+    @PostMapping("/math-model/reload")
+    public ResponseEntity<?> reloadMathModel() {
+        try {
+            CompiledMathModel model = mathModelService.reload();
+            return ResponseEntity.ok("Math model reloaded: " + model.getName());
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("Invalid math model: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to reload math model: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/games")
+    public ResponseEntity<?> getGames() {
+        List<Map<String, Object>> games = new ArrayList<>();
+        for (GameEngine engine : gameEngineRegistry.getEngines()) {
+            Map<String, Object> game = new HashMap<>();
+            game.put("gameId", engine.getGameId());
+            game.put("modelName", engine.getMathModel().getName());
+            game.put("gridSize", engine.getMathModel().getGridSize());
+            games.add(game);
+        }
+        return ResponseEntity.ok(games);
+    }
+
+    @GetMapping("/catalog")
+    public ResponseEntity<?> getCatalogStatistics() {
+        try {
+            return ResponseEntity.ok(outcomeCatalogService.getStatistics());
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/spins/user/{username}")
+    public ResponseEntity<?> getUserSpins(@PathVariable("username") String username,
+                                          @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        try {
+            User user = userService.findByUsername(username)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            int pageSize = Math.max(1, Math.min(limit, MAX_SPIN_HISTORY));
+            return ResponseEntity.ok(spinReplayService.getRecentSpins(user, pageSize));
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to get spins: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/spins/{spinId}/replay")
+    public ResponseEntity<?> replaySpin(@PathVariable("spinId") Long spinId) {
+        try {
+            SpinReplayService.SpinReplay replay = spinReplayService.replay(spinId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("spinId", replay.getRecord().getId());
+            response.put("seed", replay.getRecord().getSeed());
+            response.put("betAmount", replay.getRecord().getBetAmount());
+            response.put("recordedPayout", replay.getRecord().getPayout());
+            response.put("replayedPayout", replay.getResult().getTotalPayout());
+            response.put("verified", replay.isVerified());
+            response.put("spin", replay.getResult());
+            return ResponseEntity.ok(response);
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to replay spin: " + e.getMessage());
+        }
+    }
 }
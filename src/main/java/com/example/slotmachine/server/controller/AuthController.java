@@ -3,10 +3,12 @@ package com.example.slotmachine.server.controller;
 import com.example.slotmachine.server.dto.LoginRequest;
 import com.example.slotmachine.server.dto.LoginResponse;
 import com.example.slotmachine.server.entity.User;
+import com.example.slotmachine.server.security.JwtPrincipal;
 import com.example.slotmachine.server.security.JwtUtil;
 import com.example.slotmachine.server.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -83,20 +85,21 @@ public class AuthController {
     }
 
     @GetMapping("/validate")
-    public ResponseEntity<?> validateToken(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> validateToken(@RequestHeader("Authorization") String authHeader,
+                                           @AuthenticationPrincipal JwtPrincipal principal) {
         try {
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
                 return ResponseEntity.badRequest().body("Invalid token format");
             }
 
             String token = authHeader.substring(7);
-            
-            if (!jwtUtil.validateToken(token) || jwtUtil.isTokenExpired(token)) {
+
+            // A tokent a JwtAuthenticationFilter már ellenőrizte
+            if (principal == null) {
                 return ResponseEntity.badRequest().body("Invalid or expired token");
             }
 
-            String username = jwtUtil.getUsernameFromToken(token);
-            Optional<User> userOpt = userService.findByUsername(username);
+            Optional<User> userOpt = userService.findByUsername(principal.getUsername());
             
             if (userOpt.isEmpty()) {
                 return ResponseEntity.badRequest().body("User not found");
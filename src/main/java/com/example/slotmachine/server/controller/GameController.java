@@ -1,23 +1,37 @@
 package com.example.slotmachine.server.controller;
 
 import com.example.slotmachine.server.dto.BalanceResponse;
+import com.example.slotmachine.server.dto.BatchSpinRequest;
+import com.example.slotmachine.server.dto.BatchSpinResponse;
+import com.example.slotmachine.server.dto.BonusBuyRequest;
+import com.example.slotmachine.server.dto.BonusRoundResponse;
+import com.example.slotmachine.server.dto.FairCommitmentResponse;
+import com.example.slotmachine.server.dto.FairVerifyResponse;
 import com.example.slotmachine.server.dto.SpinRequest;
 import com.example.slotmachine.server.dto.SpinResponse;
 import com.example.slotmachine.server.entity.User;
-import com.example.slotmachine.server.security.JwtUtil;
+import com.example.slotmachine.server.monitoring.SpinSerializeEvent;
+import com.example.slotmachine.server.security.JwtPrincipal;
 import com.example.slotmachine.server.service.GameService;
+import com.example.slotmachine.server.service.ProvablyFairService;
 import com.example.slotmachine.server.service.SlotMachineEngine;
+import com.example.slotmachine.server.service.SpinReplayService;
 import com.example.slotmachine.server.service.UserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,12 +47,18 @@ public class GameController {
     private UserService userService;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private ProvablyFairService provablyFairService;
+
+    @Autowired
+    private SpinReplayService spinReplayService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @GetMapping("/balance")
-    public ResponseEntity<?> getBalance(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getBalance(@AuthenticationPrincipal JwtPrincipal principal) {
         try {
-            User user = getUserFromToken(authHeader);
+            User user = getUser(principal);
             if (user == null) {
                 return ResponseEntity.badRequest().body("Invalid token or user not found");
             }
@@ -56,10 +76,10 @@ public class GameController {
     }
 
     @PostMapping("/spin")
-    public ResponseEntity<?> processSpin(@RequestHeader("Authorization") String authHeader, 
+    public ResponseEntity<?> processSpin(@AuthenticationPrincipal JwtPrincipal principal, 
                                        @RequestBody SpinRequest spinRequest) {
         try {
-            User user = getUserFromToken(authHeader);
+            User user = getUser(principal);
             if (user == null) {
                 return ResponseEntity.badRequest().body("Invalid token or user not found");
             }
@@ -74,11 +94,14 @@ public class GameController {
                 return ResponseEntity.badRequest().body("Invalid bet amount");
             }
 
-            // Új logika: a szerver generálja a szimbólumokat és számítja a nyereményt
+            // Új logika: a szerver generálja a szimbólumokat és számítja a nyereményt.
+            // Az isBonusMode mezőt figyelmen kívül hagyjuk: a free spineket csak a /bonus játssza le.
+            // Kliens seed-del a spin provably fair: a seed a játékos server seed láncából és a kliens seed-ből.
             SlotMachineEngine.SpinResult spinResult = gameService.processSpinNew(
                 user.getUsername(), 
-                spinRequest.getBetAmount(), 
-                spinRequest.getIsBonusMode()
+                spinRequest.getGameId(),
+                spinRequest.getBetAmount(),
+                spinRequest.getClientSeed()
             );
 
             // Get updated balance - refresh user from DB
@@ -88,30 +111,17 @@ public class GameController {
             }
 
             User updatedUser = userOpt.get();
-            
-            // Convert SpinResult to SpinResponse
-            List<SpinResponse.CascadeStepDto> cascadeSteps = spinResult.getCascadeSteps().stream()
-                .map(step -> new SpinResponse.CascadeStepDto(
-                    step.getMatchedClusters(),
-                    step.getPayout(),
-                    step.getGridAfterClear(),
-                    step.getGridAfterRefill()
-                ))
-                .collect(java.util.stream.Collectors.toList());
-
-            return ResponseEntity.ok(SpinResponse.success(
-                updatedUser.getBalance(), 
-                spinResult.getTotalPayout(),
-                spinResult.getInitialGrid(),
-                spinResult.getFinalGrid(),
-                cascadeSteps,
-                spinResult.isBonusTrigger(),
-                spinResult.isRetrigger()
-            ));
 
+            SpinSerializeEvent serialize = new SpinSerializeEvent();
+            serialize.begin();
+            return json(serialize, "/spin", 1, toSpinResponse(spinResult, updatedUser.getBalance()));
+
+        } catch (IllegalArgumentException e) {
+            // Ismeretlen játék azonosító vagy érvénytelen kliens seed
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (RuntimeException e) {
-            if (e.getMessage().equals("Insufficient balance")) {
-                return ResponseEntity.ok(SpinResponse.error("Insufficient balance"));
+            if (e.getMessage().equals("Insufficient balance") || e.getMessage().equals("Bonus round pending")) {
+                return ResponseEntity.ok(SpinResponse.error(e.getMessage()));
             }
             return ResponseEntity.internalServerError().body("Spin processing failed: " + e.getMessage());
         } catch (Exception e) {
@@ -119,59 +129,269 @@ public class GameController {
         }
     }
 
-    private User getUserFromToken(String authHeader) {
+    @PostMapping("/spin/batch")
+    public ResponseEntity<?> processSpinBatch(@AuthenticationPrincipal JwtPrincipal principal,
+                                              @RequestBody BatchSpinRequest batchRequest) {
         try {
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                return null;
+            User user = getUser(principal);
+            if (user == null) {
+                return ResponseEntity.badRequest().body("Invalid token or user not found");
             }
 
-            String token = authHeader.substring(7);
-            
-            if (!jwtUtil.validateToken(token) || jwtUtil.isTokenExpired(token)) {
-                return null;
+            // Check if user is still active
+            if (!user.getActive()) {
+                return ResponseEntity.status(403).body("USER_BANNED");
             }
 
-            // Try to get user by ID first (for renamed users)
-            Long userId = jwtUtil.getUserIdFromToken(token);
-            if (userId != null) {
-                Optional<User> userOpt = userService.findById(userId);
-                if (userOpt.isPresent()) {
-                    return userOpt.get();
-                }
+            // Validate batch request
+            if (batchRequest.getBetAmount() == null || batchRequest.getBetAmount() <= 0) {
+                return ResponseEntity.badRequest().body("Invalid bet amount");
             }
-            
-            // Fallback to username (for backward compatibility)
-            String username = jwtUtil.getUsernameFromToken(token);
-            if (username != null) {
-                Optional<User> userOpt = userService.findByUsername(username);
-                if (userOpt.isPresent()) {
-                    return userOpt.get();
-                }
+            if (batchRequest.getSpinCount() == null || batchRequest.getSpinCount() <= 0
+                    || batchRequest.getSpinCount() > GameService.MAX_BATCH_SPINS) {
+                return ResponseEntity.badRequest().body("Invalid spin count (1-" + GameService.MAX_BATCH_SPINS + ")");
             }
-            
-            return null;
 
+            // Minden spin egyetlen tranzakcióban, egyetlen token ellenőrzéssel
+            GameService.BatchSpinResult batch = gameService.processSpinBatch(
+                user.getUsername(),
+                batchRequest.getGameId(),
+                batchRequest.getBetAmount(),
+                batchRequest.getSpinCount()
+            );
+
+            SpinSerializeEvent serialize = new SpinSerializeEvent();
+            serialize.begin();
+            List<SpinResponse> spins = new ArrayList<>(batch.getSpins().size());
+            for (int i = 0; i < batch.getSpins().size(); i++) {
+                spins.add(toSpinResponse(batch.getSpins().get(i), batch.getBalanceAfter(i)));
+            }
+            long newBalance = batch.getBalanceAfter(batch.getSpins().size() - 1);
+
+            return json(serialize, "/spin/batch", spins.size(),
+                    BatchSpinResponse.success(newBalance, spins, batch.getStopReason().name()));
+
+        } catch (IllegalArgumentException e) {
+            // Ismeretlen játék azonosító
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            if ("Insufficient balance".equals(e.getMessage()) || "Bonus round pending".equals(e.getMessage())) {
+                return ResponseEntity.ok(BatchSpinResponse.error(e.getMessage()));
+            }
+            return ResponseEntity.internalServerError().body("Batch spin processing failed: " + e.getMessage());
         } catch (Exception e) {
-            return null;
+            return ResponseEntity.internalServerError().body("Batch spin processing failed: " + e.getMessage());
         }
     }
-    
-    private String getUsernameFromToken(String authHeader) {
+
+    @PostMapping("/bonus")
+    public ResponseEntity<?> processBonusRound(@AuthenticationPrincipal JwtPrincipal principal) {
         try {
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                return null;
+            User user = getUser(principal);
+            if (user == null) {
+                return ResponseEntity.badRequest().body("Invalid token or user not found");
             }
 
-            String token = authHeader.substring(7);
-            
-            if (!jwtUtil.validateToken(token) || jwtUtil.isTokenExpired(token)) {
-                return null;
+            // Check if user is still active
+            if (!user.getActive()) {
+                return ResponseEntity.status(403).body("USER_BANNED");
+            }
+
+            // A teljes bonus kör a szerveren fut, a kliens csak animálja a sorozatot
+            GameService.BonusRoundResult round = gameService.processBonusRound(user.getUsername());
+            SpinSerializeEvent serialize = new SpinSerializeEvent();
+            serialize.begin();
+            return json(serialize, "/bonus", round.getSpins().size(), toBonusRoundResponse(round));
+
+        } catch (RuntimeException e) {
+            if ("No bonus round pending".equals(e.getMessage())) {
+                return ResponseEntity.ok(BonusRoundResponse.error(e.getMessage()));
+            }
+            return ResponseEntity.internalServerError().body("Bonus round processing failed: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Bonus round processing failed: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/bonus/buy")
+    public ResponseEntity<?> processBonusBuy(@AuthenticationPrincipal JwtPrincipal principal,
+                                             @RequestBody BonusBuyRequest buyRequest) {
+        try {
+            User user = getUser(principal);
+            if (user == null) {
+                return ResponseEntity.badRequest().body("Invalid token or user not found");
+            }
+
+            // Check if user is still active
+            if (!user.getActive()) {
+                return ResponseEntity.status(403).body("USER_BANNED");
+            }
+
+            if (buyRequest.getBetAmount() == null || buyRequest.getBetAmount() <= 0) {
+                return ResponseEntity.badRequest().body("Invalid bet amount");
+            }
+
+            // Levonás, bonust indító spin és a teljes bonus kör egyetlen kérésben
+            GameService.BonusRoundResult round = gameService.processBonusBuy(user.getUsername(), buyRequest.getGameId(),
+                    buyRequest.getBetAmount());
+            SpinSerializeEvent serialize = new SpinSerializeEvent();
+            serialize.begin();
+            BonusRoundResponse response = toBonusRoundResponse(round);
+            response.setMessage("Bonus buy successful");
+            response.setPrice(round.getPrice());
+            response.setTriggerSpin(toSpinResponse(round.getTriggerSpin(), round.getBalanceBefore()));
+            return json(serialize, "/bonus/buy", round.getSpins().size() + 1, response);
+
+        } catch (IllegalArgumentException e) {
+            // Ismeretlen játék azonosító
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            if ("Insufficient balance".equals(e.getMessage()) || "Bonus round pending".equals(e.getMessage())) {
+                return ResponseEntity.ok(BonusRoundResponse.error(e.getMessage()));
+            }
+            return ResponseEntity.internalServerError().body("Bonus buy failed: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Bonus buy failed: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/fair/commitment")
+    public ResponseEntity<?> getFairCommitment(@AuthenticationPrincipal JwtPrincipal principal) {
+        try {
+            User user = getUser(principal);
+            if (user == null) {
+                return ResponseEntity.badRequest().body("Invalid token or user not found");
             }
 
-            return jwtUtil.getUsernameFromToken(token);
+            // A következő server seed hash-e: a kliens ennek ismeretében választja a kliens seed-et
+            ProvablyFairService.FairCommitment commitment = provablyFairService.commitment(user.getId());
+            return ResponseEntity.ok(new FairCommitmentResponse(commitment.getServerSeedHash(), commitment.getNonce()));
 
         } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to get commitment: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/fair/verify/{spinId}")
+    public ResponseEntity<?> verifyFairSpin(@AuthenticationPrincipal JwtPrincipal principal,
+                                            @PathVariable("spinId") Long spinId) {
+        try {
+            User user = getUser(principal);
+            if (user == null) {
+                return ResponseEntity.badRequest().body("Invalid token or user not found");
+            }
+
+            SpinReplayService.FairVerification verification = spinReplayService.verifyFair(spinId, user.getId());
+            SpinReplayService.SpinReplay replay = verification.getReplay();
+            FairVerifyResponse response = new FairVerifyResponse();
+            response.setSpinId(replay.getRecord().getId());
+            response.setServerSeed(replay.getRecord().getServerSeed());
+            response.setServerSeedHash(verification.getServerSeedHash());
+            response.setClientSeed(replay.getRecord().getClientSeed());
+            response.setNonce(replay.getRecord().getNonce());
+            response.setSeed(replay.getRecord().getSeed());
+            response.setDerivedSeed(verification.getDerivedSeed());
+            response.setRecordedPayout(replay.getRecord().getPayout());
+            response.setReplayedPayout(replay.getResult().getTotalPayout());
+            response.setVerified(verification.isVerified());
+            return ResponseEntity.ok(response);
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to verify spin: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Válasz JSON szerializálása itt (nem a message converterben), hogy a JFR esemény a szerializálást is mérje
+     */
+    private ResponseEntity<byte[]> json(SpinSerializeEvent event, String endpoint, int spins, Object body)
+            throws JsonProcessingException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint;
+            event.spins = spins;
+            event.bytes = bytes.length;
+            event.commit();
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(bytes);
+    }
+
+    /**
+     * BonusRoundResult átalakítása BonusRoundResponse DTO-vá
+     */
+    private BonusRoundResponse toBonusRoundResponse(GameService.BonusRoundResult round) {
+        List<SpinResponse> spins = new ArrayList<>(round.getSpins().size());
+        for (SlotMachineEngine.SpinResult spinResult : round.getSpins()) {
+            // A nyeremény a kör végén kerül jóváírásra, addig a kör előtti balance érvényes
+            spins.add(toSpinResponse(spinResult, round.getBalanceBefore()));
+        }
+
+        return BonusRoundResponse.success(
+            round.getNewBalance(),
+            round.getBetAmount(),
+            round.getTotalPayout(),
+            round.getFreeSpins(),
+            round.getRetriggerSpins(),
+            round.getRetriggers(),
+            spins
+        );
+    }
+
+    /**
+     * SpinResult átalakítása SpinResponse DTO-vá
+     */
+    private SpinResponse toSpinResponse(SlotMachineEngine.SpinResult spinResult, long newBalance) {
+        List<SpinResponse.CascadeStepDto> cascadeSteps = spinResult.getCascadeSteps().stream()
+            .map(step -> new SpinResponse.CascadeStepDto(
+                step.getMatchedClusters(),
+                step.getPayout(),
+                step.getGridAfterClear(),
+                step.getGridAfterRefill()
+            ))
+            .collect(java.util.stream.Collectors.toList());
+
+        SpinResponse response = SpinResponse.success(
+            newBalance,
+            spinResult.getTotalPayout(),
+            spinResult.getInitialGrid(),
+            spinResult.getFinalGrid(),
+            cascadeSteps,
+            spinResult.isBonusTrigger(),
+            spinResult.isRetrigger()
+        );
+        response.setSpinId(spinResult.getSpinId());
+        ProvablyFairService.FairSeed fairSeed = spinResult.getFairSeed();
+        if (fairSeed != null) {
+            response.setFairness(new SpinResponse.FairnessDto(fairSeed.getServerSeed(), fairSeed.getServerSeedHash(),
+                    fairSeed.getClientSeed(), fairSeed.getNonce(), fairSeed.getSeed(), fairSeed.getNextServerSeedHash()));
+        }
+        return response;
+    }
+
+    /**
+     * A szűrő által ellenőrzött token felhasználója (a token itt már nem kerül újra beolvasásra)
+     */
+    private User getUser(JwtPrincipal principal) {
+        if (principal == null) {
             return null;
         }
+
+        // Try to get user by ID first (for renamed users)
+        if (principal.getUserId() != null) {
+            Optional<User> userOpt = userService.findById(principal.getUserId());
+            if (userOpt.isPresent()) {
+                return userOpt.get();
+            }
+        }
+
+        // Fallback to username (for backward compatibility)
+        if (principal.getUsername() != null) {
+            return userService.findByUsername(principal.getUsername()).orElse(null);
+        }
+
+        return null;
     }
 }
@@ -0,0 +1,96 @@
+package com.example.slotmachine.server.differential;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.GridKernels;
+import com.example.slotmachine.server.engine.MathModelDefinition;
+import com.example.slotmachine.server.service.RngService;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Parancssori differenciális ellenőrzés a befagyasztott referencia motor ellen (Spring kontextus nélkül).
+ * A motor kapcsolói (kernelek, teljes újraszkennelés, union-find) külön-külön tanúsíthatók.
+ * Kilépési kód: 0 egyezés, 2 eltérés.
+ * Használat: DifferentialCli [--seeds N] [--from S] [--threads T] [--model path] [--grid-size G]
+ *            [--kernels scalar|vector|auto] [--full-scan true|false] [--union-find true|false]
+ */
+public class DifferentialCli {
+
+    public static void main(String[] args) throws IOException {
+        long seeds = 100_000_000L;
+        long from = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String modelPath = null;
+        int gridSize = 0;
+        String kernels = GridKernels.DEFAULT;
+        boolean fullScan = false;
+        boolean unionFind = false;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                usage("Missing value for " + arg);
+                return;
+            }
+            String value = args[++i].replace("_", "");
+            switch (arg) {
+                case "--seeds" -> seeds = (long) Double.parseDouble(value);
+                case "--from" -> from = Long.parseLong(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--model" -> modelPath = args[i];
+                case "--grid-size" -> gridSize = Integer.parseInt(value);
+                case "--kernels" -> kernels = value;
+                case "--full-scan" -> fullScan = Boolean.parseBoolean(value);
+                case "--union-find" -> unionFind = Boolean.parseBoolean(value);
+                default -> {
+                    usage("Unknown option: " + arg);
+                    return;
+                }
+            }
+        }
+
+        CompiledMathModel model;
+        if (modelPath == null) {
+            model = CompiledMathModel.loadDefault();
+        } else {
+            try (InputStream in = Files.newInputStream(Path.of(modelPath))) {
+                model = CompiledMathModel.load(in);
+            }
+        }
+        if (gridSize > 0) {
+            MathModelDefinition definition = model.toDefinition();
+            definition.setGridSize(gridSize);
+            model = CompiledMathModel.compile(definition);
+        }
+
+        RngService rngService = new RngService();
+        GridKernels gridKernels = GridKernels.named(kernels);
+        boolean incremental = !fullScan;
+        boolean labelled = unionFind;
+        DifferentialHarness harness = new DifferentialHarness(candidateModel -> {
+            SlotMachineEngine engine = new SlotMachineEngine(rngService, candidateModel);
+            engine.setGridKernels(gridKernels);
+            engine.setIncrementalCascades(incremental);
+            engine.setUnionFindCascades(labelled);
+            return engine;
+        });
+
+        System.out.println("Comparing " + seeds + " seeds from " + from + " on " + threads + " threads ("
+                + model.getName() + ", " + model.getGridSize() + "x" + model.getGridSize() + ", " + gridKernels.getName()
+                + " kernels, " + (fullScan ? "full scan" : "incremental") + (unionFind ? ", union-find" : "") + ")...");
+        DifferentialReport report = harness.run(model, from, seeds, threads);
+        System.out.print(report.toText());
+        System.exit(report.isEquivalent() ? 0 : 2);
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: DifferentialCli [--seeds N] [--from S] [--threads T] [--model path] [--grid-size G] "
+                + "[--kernels scalar|vector|auto] [--full-scan true|false] [--union-find true|false]");
+        System.exit(1);
+    }
+}
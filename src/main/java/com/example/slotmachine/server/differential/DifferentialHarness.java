@@ -0,0 +1,313 @@
+package com.example.slotmachine.server.differential;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.Grid;
+import com.example.slotmachine.server.engine.MathModelDefinition;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Differenciális ellenőrzés: a vizsgált motor és a befagyasztott ReferenceSpinEngine ugyanazzal az RNG folyammal
+ * (a motor RngService-ének forSeed(seed) folyama) játssza le ugyanazt a spint, és minden rács, klaszter és nyeremény
+ * összevetődik. A seed tartomány blokkokra bomlik és fork-join fában fut; a blokkok a már ismert első eltérés
+ * felett nem indulnak, így a talált seed a tartomány legkisebb eltérő seed-je.
+ * Az eltérés ezután zsugorodik: a legkisebb rács, amelyen még eltér, majd a legegyszerűbb tét és mód.
+ */
+public class DifferentialHarness {
+
+    static final int SEEDS_PER_BLOCK = 1 << 12;
+    // Zsugorításkor rácsméretenként ennyi cellányi spin fér a keresésbe (kis rácson több seed)
+    static final long SHRINK_CELL_BUDGET = 1L << 22;
+
+    private final Function<CompiledMathModel, SlotMachineEngine> candidates;
+    private final Function<CompiledMathModel, ReferenceSpinEngine> references;
+
+    /**
+     * @param candidates a vizsgált motor egy modellhez (zsugorításkor kisebb rácsú modellekhez is)
+     */
+    public DifferentialHarness(Function<CompiledMathModel, SlotMachineEngine> candidates) {
+        this(candidates, ReferenceSpinEngine::new);
+    }
+
+    public DifferentialHarness(Function<CompiledMathModel, SlotMachineEngine> candidates,
+                               Function<CompiledMathModel, ReferenceSpinEngine> references) {
+        this.candidates = candidates;
+        this.references = references;
+    }
+
+    /**
+     * Seed tartomány ellenőrzése, eltérés esetén zsugorítással
+     *
+     * @param fromSeed az első seed
+     * @param seeds    ellenőrzendő seed-ek száma
+     * @param threads  párhuzamos worker-ek száma
+     */
+    public DifferentialReport run(CompiledMathModel model, long fromSeed, long seeds, int threads) {
+        if (seeds <= 0) {
+            throw new IllegalArgumentException("Seeds must be positive: " + seeds);
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+
+        long start = System.nanoTime();
+        LongAdder compared = new LongAdder();
+        Divergence first = scan(model, fromSeed, seeds, threads, compared);
+        Divergence minimal = first != null ? shrink(model, first, threads) : null;
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return new DifferentialReport(model.getName(), fromSeed, seeds, compared.sum(), threads, elapsedMillis, first, minimal);
+    }
+
+    /**
+     * Egyetlen spin összevetése; null, ha a két motor minden részletben egyezik
+     */
+    public Divergence compare(CompiledMathModel model, long seed, int betAmount, boolean bonusMode) {
+        return compare(candidates.apply(model), references.apply(model), seed, betAmount, bonusMode);
+    }
+
+    /**
+     * Eltérés zsugorítása: először a legkisebb érvényes rácsméret, amelyen a seed-ek elején már van eltérés,
+     * aztán ugyanarra a seed-re a legkisebb tét bonus mód nélkül, ha az is eltér
+     */
+    public Divergence shrink(CompiledMathModel model, Divergence divergence, int threads) {
+        CompiledMathModel smallest = model;
+        Divergence shrunk = divergence;
+        for (int gridSize = 1; gridSize < model.getGridSize(); gridSize++) {
+            CompiledMathModel smaller = withGridSize(model, gridSize);
+            if (smaller == null) {
+                continue;
+            }
+            long seeds = Math.max(SEEDS_PER_BLOCK, SHRINK_CELL_BUDGET / smaller.getCells());
+            Divergence found = scan(smaller, 0, seeds, threads, new LongAdder());
+            if (found != null) {
+                smallest = smaller;
+                shrunk = found;
+                break;
+            }
+        }
+
+        SlotMachineEngine candidate = candidates.apply(smallest);
+        ReferenceSpinEngine reference = references.apply(smallest);
+        long seed = shrunk.getSeed();
+        int[] bets = {1, 1, shrunk.getBetAmount()};
+        boolean[] modes = {false, shrunk.isBonusMode(), false};
+        for (int i = 0; i < bets.length; i++) {
+            Divergence simpler = compare(candidate, reference, seed, bets[i], modes[i]);
+            if (simpler != null) {
+                return simpler;
+            }
+        }
+        return shrunk;
+    }
+
+    /**
+     * A tartomány legkisebb eltérő seed-je (a seed-hez tartozó téttel és móddal), vagy null
+     */
+    private Divergence scan(CompiledMathModel model, long fromSeed, long seeds, int threads, LongAdder compared) {
+        SlotMachineEngine candidate = candidates.apply(model);
+        ReferenceSpinEngine reference = references.apply(model);
+        AtomicLong firstBlock = new AtomicLong(Long.MAX_VALUE);
+        long blocks = (seeds + SEEDS_PER_BLOCK - 1) / SEEDS_PER_BLOCK;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new BlockRange(candidate, reference, fromSeed, seeds, 0, blocks, firstBlock, compared));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Egy blokk seed-jei sorban, az első eltérésig
+     */
+    private Divergence runBlock(SlotMachineEngine candidate, ReferenceSpinEngine reference,
+                                long fromSeed, long seeds, long block, LongAdder compared) {
+        long first = block * SEEDS_PER_BLOCK;
+        long count = Math.min(SEEDS_PER_BLOCK, seeds - first);
+        for (long i = 0; i < count; i++) {
+            long seed = fromSeed + first + i;
+            Divergence divergence = compare(candidate, reference, seed, betFor(seed), bonusModeFor(seed));
+            if (divergence != null) {
+                compared.add(i + 1);
+                return divergence;
+            }
+        }
+        compared.add(count);
+        return null;
+    }
+
+    // A seed-ek a téteket (1-10) és a bonus módot is végigjárják
+    static int betFor(long seed) {
+        return 1 + (int) Math.floorMod(seed, 10L);
+    }
+
+    static boolean bonusModeFor(long seed) {
+        return Math.floorMod(seed, 4L) == 0;
+    }
+
+    private static Divergence compare(SlotMachineEngine candidate, ReferenceSpinEngine reference,
+                                      long seed, int betAmount, boolean bonusMode) {
+        SlotMachineEngine.SpinResult actual = candidate.processSpin(betAmount, bonusMode, seed);
+        ReferenceSpinEngine.Spin expected = reference.processSpin(betAmount, bonusMode,
+                candidate.getRngService().forSeed(seed));
+        int gridSize = reference.getGridSize();
+        Mismatch mismatch = new Mismatch(seed, betAmount, bonusMode, gridSize);
+
+        Divergence divergence = mismatch.grid(-1, "initialGrid", expected.getInitialGrid(), actual.getInitialGrid());
+        if (divergence != null) {
+            return divergence;
+        }
+        List<ReferenceSpinEngine.Step> expectedSteps = expected.getSteps();
+        List<SlotMachineEngine.CascadeStep> actualSteps = actual.getCascadeSteps();
+        for (int i = 0; i < Math.min(expectedSteps.size(), actualSteps.size()); i++) {
+            ReferenceSpinEngine.Step expectedStep = expectedSteps.get(i);
+            SlotMachineEngine.CascadeStep actualStep = actualSteps.get(i);
+
+            Map<Integer, BitSet> expectedCells = cells(expectedStep.getMatchedClusters(), gridSize);
+            Map<Integer, BitSet> actualCells = cells(actualStep.getMatchedClusters(), gridSize);
+            if (!expectedCells.equals(actualCells)) {
+                return mismatch.at(i, "matchedClusters", expectedCells, actualCells);
+            }
+            if (expectedStep.getPayout() != actualStep.getPayout()) {
+                return mismatch.at(i, "payout", expectedStep.getPayout(), actualStep.getPayout());
+            }
+            divergence = mismatch.grid(i, "gridAfterClear", expectedStep.getGridAfterClear(), actualStep.getGridAfterClear());
+            if (divergence != null) {
+                return divergence;
+            }
+            divergence = mismatch.grid(i, "gridAfterRefill", expectedStep.getGridAfterRefill(), actualStep.getGridAfterRefill());
+            if (divergence != null) {
+                return divergence;
+            }
+        }
+        if (expectedSteps.size() != actualSteps.size()) {
+            return mismatch.at(-1, "cascadeSteps", expectedSteps.size(), actualSteps.size());
+        }
+        divergence = mismatch.grid(-1, "finalGrid", expected.getFinalGrid(), actual.getFinalGrid());
+        if (divergence != null) {
+            return divergence;
+        }
+        if (expected.getTotalPayout() != actual.getTotalPayout()) {
+            return mismatch.at(-1, "totalPayout", expected.getTotalPayout(), actual.getTotalPayout());
+        }
+        if (expected.isBonusTrigger() != actual.isBonusTrigger()) {
+            return mismatch.at(-1, "bonusTrigger", expected.isBonusTrigger(), actual.isBonusTrigger());
+        }
+        if (expected.isRetrigger() != actual.isRetrigger()) {
+            return mismatch.at(-1, "retrigger", expected.isRetrigger(), actual.isRetrigger());
+        }
+        return null;
+    }
+
+    // Klaszterek szimbólumonként cella halmazként (row * gridSize + col), a lista sorrendje implementációfüggő
+    private static Map<Integer, BitSet> cells(Map<Integer, List<int[]>> clusters, int gridSize) {
+        Map<Integer, BitSet> cells = new TreeMap<>();
+        clusters.forEach((symbol, positions) -> {
+            BitSet set = cells.computeIfAbsent(symbol, k -> new BitSet());
+            for (int[] position : positions) {
+                set.set(position[0] * gridSize + position[1]);
+            }
+        });
+        return cells;
+    }
+
+    /**
+     * A modell egy kisebb rácsra; null, ha a modell azon a rácson nem érvényes (pl. túl nagy nyeremény tábla)
+     */
+    private static CompiledMathModel withGridSize(CompiledMathModel model, int gridSize) {
+        MathModelDefinition definition = model.toDefinition();
+        definition.setGridSize(gridSize);
+        try {
+            return CompiledMathModel.compile(definition);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Eltérés leírás építése egy spin paramétereivel
+     */
+    private record Mismatch(long seed, int betAmount, boolean bonusMode, int gridSize) {
+
+        Divergence at(int step, String field, Object expected, Object actual) {
+            return new Divergence(seed, betAmount, bonusMode, gridSize, step, field,
+                    String.valueOf(expected), String.valueOf(actual));
+        }
+
+        // Az első eltérő cella, hogy a riport rövid maradjon nagy rácson is
+        Divergence grid(int step, String field, int[][] expected, Grid actual) {
+            if (actual.getSize() != gridSize) {
+                return at(step, field, "size " + gridSize, "size " + actual.getSize());
+            }
+            for (int row = 0; row < gridSize; row++) {
+                for (int col = 0; col < gridSize; col++) {
+                    if (expected[row][col] != actual.get(row, col)) {
+                        String cell = "row " + row + " col " + col + ": ";
+                        return at(step, field, cell + expected[row][col], cell + actual.get(row, col));
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Blokk-tartomány felezése; a bal fél eredménye elsőbbséget kap, így a legkisebb eltérő seed marad meg
+     */
+    private final class BlockRange extends RecursiveTask<Divergence> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient SlotMachineEngine candidate;
+        private final transient ReferenceSpinEngine reference;
+        private final long fromSeed;
+        private final long seeds;
+        private final long from;
+        private final long to;
+        private final AtomicLong firstBlock;
+        private final LongAdder compared;
+
+        BlockRange(SlotMachineEngine candidate, ReferenceSpinEngine reference, long fromSeed, long seeds,
+                   long from, long to, AtomicLong firstBlock, LongAdder compared) {
+            this.candidate = candidate;
+            this.reference = reference;
+            this.fromSeed = fromSeed;
+            this.seeds = seeds;
+            this.from = from;
+            this.to = to;
+            this.firstBlock = firstBlock;
+            this.compared = compared;
+        }
+
+        @Override
+        protected Divergence compute() {
+            // Egy már ismert eltérés utáni blokkok nem számítanak
+            if (from > firstBlock.get()) {
+                return null;
+            }
+            if (to - from == 1) {
+                Divergence divergence = runBlock(candidate, reference, fromSeed, seeds, from, compared);
+                if (divergence != null) {
+                    firstBlock.accumulateAndGet(from, Math::min);
+                }
+                return divergence;
+            }
+            long middle = (from + to) >>> 1;
+            BlockRange left = new BlockRange(candidate, reference, fromSeed, seeds, from, middle, firstBlock, compared);
+            BlockRange right = new BlockRange(candidate, reference, fromSeed, seeds, middle, to, firstBlock, compared);
+            right.fork();
+            Divergence leftDivergence = left.compute();
+            // A bal oldali eltérés után a jobb fél blokkjai már az elején kilépnek
+            Divergence rightDivergence = right.join();
+            return leftDivergence != null ? leftDivergence : rightDivergence;
+        }
+    }
+}
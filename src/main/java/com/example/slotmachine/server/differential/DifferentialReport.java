@@ -0,0 +1,66 @@
+package com.example.slotmachine.server.differential;
+
+import java.util.Locale;
+
+/**
+ * Egy differenciális futás eredménye: az összevetett seed-ek, az első eltérés és a zsugorított eset
+ */
+public class DifferentialReport {
+
+    private final String model;
+    private final long fromSeed;
+    private final long seeds;
+    private final long compared;
+    private final int threads;
+    private final long elapsedMillis;
+    private final Divergence firstDivergence;
+    private final Divergence minimalDivergence;
+
+    public DifferentialReport(String model, long fromSeed, long seeds, long compared, int threads, long elapsedMillis,
+                              Divergence firstDivergence, Divergence minimalDivergence) {
+        this.model = model;
+        this.fromSeed = fromSeed;
+        this.seeds = seeds;
+        this.compared = compared;
+        this.threads = threads;
+        this.elapsedMillis = elapsedMillis;
+        this.firstDivergence = firstDivergence;
+        this.minimalDivergence = minimalDivergence;
+    }
+
+    public boolean isEquivalent() {
+        return firstDivergence == null;
+    }
+
+    public String getModel() { return model; }
+
+    public long getFromSeed() { return fromSeed; }
+
+    public long getSeeds() { return seeds; }
+
+    public long getCompared() { return compared; }
+
+    public int getThreads() { return threads; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    public Divergence getFirstDivergence() { return firstDivergence; }
+
+    public Divergence getMinimalDivergence() { return minimalDivergence; }
+
+    public String toText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Model:               %s%n", model));
+        sb.append(String.format(Locale.ROOT, "Seeds:               %,d .. %,d (%,d compared, %d threads, %.1f s, %,.0f spins/s)%n",
+                fromSeed, fromSeed + seeds - 1, compared, threads, elapsedMillis / 1000.0,
+                elapsedMillis > 0 ? compared * 1000.0 / elapsedMillis : 0.0));
+        if (isEquivalent()) {
+            sb.append("Result:              EQUIVALENT (every grid, cluster and payout matches the reference)\n");
+            return sb.toString();
+        }
+        sb.append("Result:              DIVERGED\n");
+        sb.append("First divergence:    ").append(firstDivergence.toText());
+        sb.append("Minimal divergence:  ").append(minimalDivergence.toText());
+        return sb.toString();
+    }
+}
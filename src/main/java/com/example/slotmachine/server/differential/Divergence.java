@@ -0,0 +1,58 @@
+package com.example.slotmachine.server.differential;
+
+import java.util.Locale;
+
+/**
+ * Az első eltérés egy spinben a referencia és a vizsgált motor között: a spin paraméterei és az eltérő mező
+ */
+public class Divergence {
+
+    private final long seed;
+    private final int betAmount;
+    private final boolean bonusMode;
+    private final int gridSize;
+    // A cascade lépés indexe, -1 a teljes spinre vonatkozó mezőknél
+    private final int step;
+    private final String field;
+    private final String expected;
+    private final String actual;
+
+    public Divergence(long seed, int betAmount, boolean bonusMode, int gridSize,
+                      int step, String field, String expected, String actual) {
+        this.seed = seed;
+        this.betAmount = betAmount;
+        this.bonusMode = bonusMode;
+        this.gridSize = gridSize;
+        this.step = step;
+        this.field = field;
+        this.expected = expected;
+        this.actual = actual;
+    }
+
+    public long getSeed() { return seed; }
+
+    public int getBetAmount() { return betAmount; }
+
+    public boolean isBonusMode() { return bonusMode; }
+
+    public int getGridSize() { return gridSize; }
+
+    public int getStep() { return step; }
+
+    public String getField() { return field; }
+
+    public String getExpected() { return expected; }
+
+    public String getActual() { return actual; }
+
+    public String toText() {
+        String location = step >= 0 ? "step " + step + " " + field : field;
+        return String.format(Locale.ROOT, "seed %d, bet %d, %s, %dx%d grid: %s%n  expected: %s%n  actual:   %s%n",
+                seed, betAmount, bonusMode ? "bonus mode" : "base game", gridSize, gridSize, location, expected, actual);
+    }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+}
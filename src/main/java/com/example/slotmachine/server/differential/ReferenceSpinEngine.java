@@ -0,0 +1,367 @@
+package com.example.slotmachine.server.differential;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.MathModelDefinition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+import static com.example.slotmachine.client.GameSettings.MONEY_SCALE;
+
+/**
+ * Befagyasztott referencia motor a differenciális ellenőrzéshez: a tanúsított spin viselkedés egyszerű, lassú formában.
+ * int[][] rácsok, copyGrid pillanatképek, rekurzív findCluster, HashMap klaszterek, oszloponkénti tömörítés és feltöltés.
+ * A modellből csak a paramétereket veszi át (toDefinition), az alias táblát és a nyeremény táblát maga építi,
+ * így a motor, az AliasSampler vagy a CompiledMathModel optimalizálása nem változtatja meg.
+ * NE optimalizáld és ne javítsd: minden eltérés a tanúsított viselkedéstől újratanúsítást jelent.
+ */
+public class ReferenceSpinEngine {
+
+    private static final int EMPTY = -1;
+
+    private final int gridSize;
+    private final int clusterSize;
+    private final int scatterSymbol;
+    private final int bonusTriggerCount;
+    private final int retriggerCount;
+    private final double neighbourCopyChance;
+    private final double refillClusterChance;
+    private final double refillNeighbourChance;
+    private final long[][] payoutRows;
+    private final FrozenAlias symbols;
+    private final FrozenAlias nonScatter;
+    // Igaz: a jobb szomszéd a már tömörített oszlopból jön (NEM a tanúsított viselkedés, csak ellenpróbához)
+    private final boolean compactedRightNeighbour;
+
+    public ReferenceSpinEngine(CompiledMathModel model) {
+        this(model, false);
+    }
+
+    public ReferenceSpinEngine(CompiledMathModel model, boolean compactedRightNeighbour) {
+        MathModelDefinition definition = model.toDefinition();
+        this.gridSize = definition.getGridSize();
+        this.clusterSize = definition.getClusterSize();
+        this.scatterSymbol = definition.getScatterSymbol();
+        this.bonusTriggerCount = definition.getBonusTriggerCount();
+        this.retriggerCount = definition.getRetriggerCount();
+        this.neighbourCopyChance = definition.getNeighbourCopyChance();
+        this.refillClusterChance = definition.getRefillClusterChance();
+        this.refillNeighbourChance = definition.getRefillNeighbourChance();
+        long[][] rows = definition.getPayoutMultipliers();
+        this.payoutRows = new long[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            payoutRows[i] = rows[i].clone();
+        }
+        int[] weights = definition.getSymbolWeights().clone();
+        this.symbols = new FrozenAlias(weights);
+        weights[scatterSymbol] = 0;
+        this.nonScatter = new FrozenAlias(weights);
+        this.compactedRightNeighbour = compactedRightNeighbour;
+    }
+
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    /**
+     * Teljes spin a referencia szerkezettel
+     */
+    public Spin processSpin(int betAmount, boolean isBonusMode, RandomGenerator random) {
+        Spin result = new Spin();
+        result.initialGrid = generateSymbols(random);
+
+        int[][] currentGrid = copyGrid(result.initialGrid);
+        while (true) {
+            Map<Integer, List<int[]>> matchedClusters = checkForMatches(currentGrid);
+            if (matchedClusters.isEmpty()) {
+                break;
+            }
+
+            Step step = new Step();
+            step.matchedClusters = matchedClusters;
+            step.payout = calculatePayout(matchedClusters, betAmount);
+            result.totalPayout += step.payout;
+
+            clearMatchedSymbols(currentGrid, matchedClusters);
+            step.gridAfterClear = copyGrid(currentGrid);
+            dropAndRefillSymbols(currentGrid, random);
+            step.gridAfterRefill = copyGrid(currentGrid);
+            result.steps.add(step);
+        }
+
+        result.finalGrid = currentGrid;
+        int scatters = countScatters(result.initialGrid);
+        result.bonusTrigger = scatters >= bonusTriggerCount;
+        result.retrigger = isBonusMode && scatters >= retriggerCount;
+        return result;
+    }
+
+    private int[][] generateSymbols(RandomGenerator random) {
+        int[][] grid = new int[gridSize][gridSize];
+        boolean[] columnHasScatter = new boolean[gridSize];
+        int scatterCount = 0;
+
+        for (int row = 0; row < gridSize; row++) {
+            for (int col = 0; col < gridSize; col++) {
+                int symbol;
+                if (random.nextDouble() < neighbourCopyChance) {
+                    List<Integer> neighbors = new ArrayList<>();
+                    if (row > 0) neighbors.add(grid[row - 1][col]);
+                    if (row < gridSize - 1) neighbors.add(grid[row + 1][col]);
+                    if (col > 0) neighbors.add(grid[row][col - 1]);
+                    if (col < gridSize - 1) neighbors.add(grid[row][col + 1]);
+                    if (!neighbors.isEmpty()) {
+                        symbol = neighbors.get(random.nextInt(neighbors.size()));
+                    } else {
+                        symbol = symbols.sample(random);
+                    }
+                } else {
+                    symbol = symbols.sample(random);
+                }
+
+                if (symbol == scatterSymbol) {
+                    if (scatterCount >= bonusTriggerCount || columnHasScatter[col]) {
+                        symbol = nonScatter.sample(random);
+                    } else {
+                        scatterCount++;
+                        columnHasScatter[col] = true;
+                    }
+                }
+                grid[row][col] = symbol;
+            }
+        }
+        return grid;
+    }
+
+    private Map<Integer, List<int[]>> checkForMatches(int[][] grid) {
+        Map<Integer, List<int[]>> matchedClusters = new HashMap<>();
+        boolean[][] visited = new boolean[gridSize][gridSize];
+
+        for (int row = 0; row < gridSize; row++) {
+            for (int col = 0; col < gridSize; col++) {
+                if (!visited[row][col]) {
+                    List<int[]> cluster = new ArrayList<>();
+                    findCluster(row, col, grid[row][col], visited, cluster, grid);
+                    if (cluster.size() >= clusterSize) {
+                        matchedClusters.computeIfAbsent(grid[row][col], k -> new ArrayList<>()).addAll(cluster);
+                    }
+                }
+            }
+        }
+        return matchedClusters;
+    }
+
+    private void findCluster(int row, int col, int symbol, boolean[][] visited, List<int[]> cluster, int[][] grid) {
+        if (row < 0 || row >= gridSize || col < 0 || col >= gridSize || visited[row][col] || grid[row][col] != symbol) {
+            return;
+        }
+        visited[row][col] = true;
+        cluster.add(new int[]{row, col});
+
+        findCluster(row + 1, col, symbol, visited, cluster, grid);
+        findCluster(row - 1, col, symbol, visited, cluster, grid);
+        findCluster(row, col + 1, symbol, visited, cluster, grid);
+        findCluster(row, col - 1, symbol, visited, cluster, grid);
+    }
+
+    // Ugyanazon szimbólum klaszterei összevonva, a szorzó az összesített méretből
+    private long calculatePayout(Map<Integer, List<int[]>> matchedClusters, int betAmount) {
+        long totalPayout = 0;
+        for (Map.Entry<Integer, List<int[]>> entry : matchedClusters.entrySet()) {
+            totalPayout += (long) betAmount * MONEY_SCALE * multiplier(entry.getKey(), entry.getValue().size()) / 100;
+        }
+        return totalPayout;
+    }
+
+    // Szorzó századokban: a clusterSize-tól soronként, az utolsó sor a nagyobb klaszterekre is érvényes
+    private long multiplier(int symbol, int size) {
+        if (size < clusterSize) {
+            return 0;
+        }
+        return payoutRows[Math.min(size - clusterSize, payoutRows.length - 1)][symbol];
+    }
+
+    private void clearMatchedSymbols(int[][] grid, Map<Integer, List<int[]>> matchedClusters) {
+        for (List<int[]> positions : matchedClusters.values()) {
+            for (int[] position : positions) {
+                grid[position[0]][position[1]] = EMPTY;
+            }
+        }
+    }
+
+    // Oszloponként tömörít és tölt: a jobb szomszéd még a tömörítés előtti oszlopból jön
+    private void dropAndRefillSymbols(int[][] grid, RandomGenerator random) {
+        int[] holes = new int[gridSize];
+        if (compactedRightNeighbour) {
+            for (int col = 0; col < gridSize; col++) {
+                holes[col] = compactColumn(grid, col);
+            }
+        }
+        for (int col = 0; col < gridSize; col++) {
+            int emptyRow = compactedRightNeighbour ? holes[col] : compactColumn(grid, col);
+            while (emptyRow >= 0) {
+                if (random.nextDouble() < refillClusterChance) {
+                    grid[emptyRow][col] = suggestClusterSymbol(col, emptyRow, grid, random);
+                } else {
+                    grid[emptyRow][col] = symbols.sample(random);
+                }
+                emptyRow--;
+            }
+        }
+    }
+
+    // A legalsó üres sor indexe a tömörítés után (-1, ha nincs lyuk)
+    private int compactColumn(int[][] grid, int col) {
+        int emptyRow = gridSize - 1;
+        for (int row = gridSize - 1; row >= 0; row--) {
+            if (grid[row][col] != EMPTY) {
+                grid[emptyRow][col] = grid[row][col];
+                if (emptyRow != row) {
+                    grid[row][col] = EMPTY;
+                }
+                emptyRow--;
+            }
+        }
+        return emptyRow;
+    }
+
+    private int suggestClusterSymbol(int col, int row, int[][] grid, RandomGenerator random) {
+        List<Integer> possibleSymbols = new ArrayList<>();
+        if (col > 0 && grid[row][col - 1] != EMPTY) {
+            possibleSymbols.add(grid[row][col - 1]);
+        }
+        if (col < gridSize - 1 && grid[row][col + 1] != EMPTY) {
+            possibleSymbols.add(grid[row][col + 1]);
+        }
+        if (!possibleSymbols.isEmpty() && random.nextDouble() < refillNeighbourChance) {
+            return possibleSymbols.get(random.nextInt(possibleSymbols.size()));
+        }
+        return symbols.sample(random);
+    }
+
+    private int countScatters(int[][] grid) {
+        int count = 0;
+        for (int[] row : grid) {
+            for (int symbol : row) {
+                if (symbol == scatterSymbol) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private int[][] copyGrid(int[][] original) {
+        int[][] copy = new int[gridSize][];
+        for (int i = 0; i < gridSize; i++) {
+            copy[i] = original[i].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * A tanúsított Walker/Vose alias húzás befagyasztott másolata: egy nextInt(n * W) hívás, oszlop = u / W, érme = u % W.
+     * Ugyanazokból a súlyokból ugyanazt a táblát építi, mint az AliasSampler.
+     */
+    private static final class FrozenAlias {
+
+        private final int totalWeight;
+        private final int bound;
+        private final int[] threshold;
+        private final int[] alias;
+
+        FrozenAlias(int[] weights) {
+            int n = weights.length;
+            int total = 0;
+            for (int weight : weights) {
+                total = Math.addExact(total, weight);
+            }
+            this.totalWeight = total;
+            this.bound = Math.multiplyExact(n, total);
+            this.threshold = new int[n];
+            this.alias = new int[n];
+
+            long[] scaled = new long[n];
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int i = 0; i < n; i++) {
+                scaled[i] = (long) weights[i] * n;
+                if (scaled[i] < total) {
+                    small[smallCount++] = i;
+                } else {
+                    large[largeCount++] = i;
+                }
+            }
+            while (smallCount > 0 && largeCount > 0) {
+                int less = small[--smallCount];
+                int more = large[--largeCount];
+                threshold[less] = (int) scaled[less];
+                alias[less] = more;
+                scaled[more] -= total - scaled[less];
+                if (scaled[more] < total) {
+                    small[smallCount++] = more;
+                } else {
+                    large[largeCount++] = more;
+                }
+            }
+            while (largeCount > 0) {
+                int i = large[--largeCount];
+                threshold[i] = total;
+                alias[i] = i;
+            }
+            while (smallCount > 0) {
+                int i = small[--smallCount];
+                threshold[i] = total;
+                alias[i] = i;
+            }
+        }
+
+        int sample(RandomGenerator random) {
+            int u = random.nextInt(bound);
+            int column = u / totalWeight;
+            int coin = u - column * totalWeight;
+            return coin < threshold[column] ? column : alias[column];
+        }
+    }
+
+    public static class Spin {
+        private int[][] initialGrid;
+        private int[][] finalGrid;
+        private final List<Step> steps = new ArrayList<>();
+        private long totalPayout;
+        private boolean bonusTrigger;
+        private boolean retrigger;
+
+        public int[][] getInitialGrid() { return initialGrid; }
+
+        public int[][] getFinalGrid() { return finalGrid; }
+
+        public List<Step> getSteps() { return steps; }
+
+        public long getTotalPayout() { return totalPayout; }
+
+        public boolean isBonusTrigger() { return bonusTrigger; }
+
+        public boolean isRetrigger() { return retrigger; }
+    }
+
+    public static class Step {
+        private Map<Integer, List<int[]>> matchedClusters;
+        private long payout;
+        private int[][] gridAfterClear;
+        private int[][] gridAfterRefill;
+
+        public Map<Integer, List<int[]>> getMatchedClusters() { return matchedClusters; }
+
+        public long getPayout() { return payout; }
+
+        public int[][] getGridAfterClear() { return gridAfterClear; }
+
+        public int[][] getGridAfterRefill() { return gridAfterRefill; }
+    }
+}
@@ -1,23 +1,23 @@
 package com.example.slotmachine.server.dto;
 
 public class BalanceResponse {
-    private Double balance;
+    private Long balance; // minor egységben
     private String username;
 
     // Constructors
     public BalanceResponse() {}
 
-    public BalanceResponse(Double balance, String username) {
+    public BalanceResponse(Long balance, String username) {
         this.balance = balance;
         this.username = username;
     }
 
     // Getters and Setters
-    public Double getBalance() {
+    public Long getBalance() {
         return balance;
     }
 
-    public void setBalance(Double balance) {
+    public void setBalance(Long balance) {
         this.balance = balance;
     }
 
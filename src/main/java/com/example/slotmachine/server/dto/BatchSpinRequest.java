@@ -0,0 +1,40 @@
+package com.example.slotmachine.server.dto;
+
+public class BatchSpinRequest {
+    private Integer betAmount;
+    private Integer spinCount; // Lejátszandó spinek száma (autoplay)
+    private String gameId; // A játék azonosítója (üres = alapértelmezett játék)
+
+    // Constructors
+    public BatchSpinRequest() {}
+
+    public BatchSpinRequest(Integer betAmount, Integer spinCount) {
+        this.betAmount = betAmount;
+        this.spinCount = spinCount;
+    }
+
+    // Getters and Setters
+    public Integer getBetAmount() {
+        return betAmount;
+    }
+
+    public void setBetAmount(Integer betAmount) {
+        this.betAmount = betAmount;
+    }
+
+    public Integer getSpinCount() {
+        return spinCount;
+    }
+
+    public void setSpinCount(Integer spinCount) {
+        this.spinCount = spinCount;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(String gameId) {
+        this.gameId = gameId;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.slotmachine.server.dto;
+
+import java.util.List;
+
+public class BatchSpinResponse {
+    private boolean success;
+    private String message;
+    private Long newBalance; // minor egységben
+    private String stopReason; // COMPLETED, INSUFFICIENT_BALANCE vagy BONUS_TRIGGER
+    private List<SpinResponse> spins; // Minden spin a saját utána lévő balance-szal
+
+    // Constructors
+    public BatchSpinResponse() {}
+
+    public BatchSpinResponse(boolean success, String message, Long newBalance) {
+        this.success = success;
+        this.message = message;
+        this.newBalance = newBalance;
+    }
+
+    // Static factory methods
+    public static BatchSpinResponse success(Long newBalance, List<SpinResponse> spins, String stopReason) {
+        BatchSpinResponse response = new BatchSpinResponse(true, "Batch spin successful", newBalance);
+        response.setSpins(spins);
+        response.setStopReason(stopReason);
+        return response;
+    }
+
+    public static BatchSpinResponse error(String message) {
+        return new BatchSpinResponse(false, message, null);
+    }
+
+    // Getters and Setters
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Long getNewBalance() {
+        return newBalance;
+    }
+
+    public void setNewBalance(Long newBalance) {
+        this.newBalance = newBalance;
+    }
+
+    public String getStopReason() {
+        return stopReason;
+    }
+
+    public void setStopReason(String stopReason) {
+        this.stopReason = stopReason;
+    }
+
+    public List<SpinResponse> getSpins() {
+        return spins;
+    }
+
+    public void setSpins(List<SpinResponse> spins) {
+        this.spins = spins;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.slotmachine.server.dto;
+
+public class BonusBuyRequest {
+    private Integer betAmount; // A bonus kör tétje (kredit), az ár BONUS_PRICE x tét
+    private String gameId; // A játék azonosítója (üres = alapértelmezett játék)
+
+    // Constructors
+    public BonusBuyRequest() {}
+
+    public BonusBuyRequest(Integer betAmount) {
+        this.betAmount = betAmount;
+    }
+
+    // Getters and Setters
+    public Integer getBetAmount() {
+        return betAmount;
+    }
+
+    public void setBetAmount(Integer betAmount) {
+        this.betAmount = betAmount;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(String gameId) {
+        this.gameId = gameId;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.slotmachine.server.dto;
+
+import java.util.List;
+
+public class BonusRoundResponse {
+    private boolean success;
+    private String message;
+    private Long newBalance; // minor egységben, a teljes bonus nyeremény jóváírása után
+    private Integer betAmount; // a bonust indító spin tétje (kredit)
+    private Long totalPayout; // a teljes bonus kör nyereménye minor egységben
+    private Integer freeSpins; // kezdő free spinek száma
+    private Integer retriggerSpins; // retriggerenként járó extra spinek
+    private Integer retriggers;
+    private List<SpinResponse> spins; // A free spinek sorrendben, animációhoz
+    private Long price; // bonus vásárlásnál a levont ár minor egységben
+    private SpinResponse triggerSpin; // bonus vásárlásnál a bonust indító spin
+
+    // Constructors
+    public BonusRoundResponse() {}
+
+    public BonusRoundResponse(boolean success, String message, Long newBalance) {
+        this.success = success;
+        this.message = message;
+        this.newBalance = newBalance;
+    }
+
+    // Static factory methods
+    public static BonusRoundResponse success(Long newBalance, Integer betAmount, Long totalPayout, Integer freeSpins,
+                                             Integer retriggerSpins, Integer retriggers, List<SpinResponse> spins) {
+        BonusRoundResponse response = new BonusRoundResponse(true, "Bonus round successful", newBalance);
+        response.setBetAmount(betAmount);
+        response.setTotalPayout(totalPayout);
+        response.setFreeSpins(freeSpins);
+        response.setRetriggerSpins(retriggerSpins);
+        response.setRetriggers(retriggers);
+        response.setSpins(spins);
+        return response;
+    }
+
+    public static BonusRoundResponse error(String message) {
+        return new BonusRoundResponse(false, message, null);
+    }
+
+    // Getters and Setters
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Long getNewBalance() {
+        return newBalance;
+    }
+
+    public void setNewBalance(Long newBalance) {
+        this.newBalance = newBalance;
+    }
+
+    public Integer getBetAmount() {
+        return betAmount;
+    }
+
+    public void setBetAmount(Integer betAmount) {
+        this.betAmount = betAmount;
+    }
+
+    public Long getTotalPayout() {
+        return totalPayout;
+    }
+
+    public void setTotalPayout(Long totalPayout) {
+        this.totalPayout = totalPayout;
+    }
+
+    public Integer getFreeSpins() {
+        return freeSpins;
+    }
+
+    public void setFreeSpins(Integer freeSpins) {
+        this.freeSpins = freeSpins;
+    }
+
+    public Integer getRetriggerSpins() {
+        return retriggerSpins;
+    }
+
+    public void setRetriggerSpins(Integer retriggerSpins) {
+        this.retriggerSpins = retriggerSpins;
+    }
+
+    public Integer getRetriggers() {
+        return retriggers;
+    }
+
+    public void setRetriggers(Integer retriggers) {
+        this.retriggers = retriggers;
+    }
+
+    public List<SpinResponse> getSpins() {
+        return spins;
+    }
+
+    public void setSpins(List<SpinResponse> spins) {
+        this.spins = spins;
+    }
+
+    public Long getPrice() {
+        return price;
+    }
+
+    public void setPrice(Long price) {
+        this.price = price;
+    }
+
+    public SpinResponse getTriggerSpin() {
+        return triggerSpin;
+    }
+
+    public void setTriggerSpin(SpinResponse triggerSpin) {
+        this.triggerSpin = triggerSpin;
+    }
+}
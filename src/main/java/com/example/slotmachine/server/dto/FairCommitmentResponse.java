@@ -0,0 +1,34 @@
+package com.example.slotmachine.server.dto;
+
+/**
+ * A következő provably fair spin vállalása: a server seed hash-e és a nonce, a kliens seed választása előtt
+ */
+public class FairCommitmentResponse {
+    private String serverSeedHash;
+    private Long nonce;
+
+    // Constructors
+    public FairCommitmentResponse() {}
+
+    public FairCommitmentResponse(String serverSeedHash, Long nonce) {
+        this.serverSeedHash = serverSeedHash;
+        this.nonce = nonce;
+    }
+
+    // Getters and Setters
+    public String getServerSeedHash() {
+        return serverSeedHash;
+    }
+
+    public void setServerSeedHash(String serverSeedHash) {
+        this.serverSeedHash = serverSeedHash;
+    }
+
+    public Long getNonce() {
+        return nonce;
+    }
+
+    public void setNonce(Long nonce) {
+        this.nonce = nonce;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.slotmachine.server.dto;
+
+/**
+ * Provably fair spin ellenőrzése a szerveren: a seed-ek, a levezetett és a rögzített spin seed,
+ * valamint a visszajátszott és a rögzített nyeremény
+ */
+public class FairVerifyResponse {
+    private Long spinId;
+    private String serverSeed;
+    private String serverSeedHash;
+    private String clientSeed;
+    private Long nonce;
+    private Long seed; // a spin napló seed-je
+    private Long derivedSeed; // a seed-ekből levezetett spin seed
+    private Long recordedPayout; // minor egységben
+    private Long replayedPayout; // minor egységben
+    private boolean verified;
+
+    // Constructors
+    public FairVerifyResponse() {}
+
+    // Getters and Setters
+    public Long getSpinId() {
+        return spinId;
+    }
+
+    public void setSpinId(Long spinId) {
+        this.spinId = spinId;
+    }
+
+    public String getServerSeed() {
+        return serverSeed;
+    }
+
+    public void setServerSeed(String serverSeed) {
+        this.serverSeed = serverSeed;
+    }
+
+    public String getServerSeedHash() {
+        return serverSeedHash;
+    }
+
+    public void setServerSeedHash(String serverSeedHash) {
+        this.serverSeedHash = serverSeedHash;
+    }
+
+    public String getClientSeed() {
+        return clientSeed;
+    }
+
+    public void setClientSeed(String clientSeed) {
+        this.clientSeed = clientSeed;
+    }
+
+    public Long getNonce() {
+        return nonce;
+    }
+
+    public void setNonce(Long nonce) {
+        this.nonce = nonce;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    public Long getDerivedSeed() {
+        return derivedSeed;
+    }
+
+    public void setDerivedSeed(Long derivedSeed) {
+        this.derivedSeed = derivedSeed;
+    }
+
+    public Long getRecordedPayout() {
+        return recordedPayout;
+    }
+
+    public void setRecordedPayout(Long recordedPayout) {
+        this.recordedPayout = recordedPayout;
+    }
+
+    public Long getReplayedPayout() {
+        return replayedPayout;
+    }
+
+    public void setReplayedPayout(Long replayedPayout) {
+        this.replayedPayout = replayedPayout;
+    }
+
+    public boolean isVerified() {
+        return verified;
+    }
+
+    public void setVerified(boolean verified) {
+        this.verified = verified;
+    }
+}
@@ -3,12 +3,12 @@ package com.example.slotmachine.server.dto;
 public class LoginResponse {
     private String token;
     private String username;
-    private Double balance;
+    private Long balance; // minor egységben
 
     // Constructors
     public LoginResponse() {}
 
-    public LoginResponse(String token, String username, Double balance) {
+    public LoginResponse(String token, String username, Long balance) {
         this.token = token;
         this.username = username;
         this.balance = balance;
@@ -31,11 +31,11 @@ public class LoginResponse {
         this.username = username;
     }
 
-    public Double getBalance() {
+    public Long getBalance() {
         return balance;
     }
 
-    public void setBalance(Double balance) {
+    public void setBalance(Long balance) {
         this.balance = balance;
     }
 }
@@ -3,6 +3,8 @@ package com.example.slotmachine.server.dto;
 public class SpinRequest {
     private Integer betAmount;
     private Boolean isBonusMode; // Bonus mód jelzése
+    private String gameId; // A játék azonosítója (üres = alapértelmezett játék)
+    private String clientSeed; // Provably fair spin kliens seed-je (üres = normál spin)
 
     // Constructors
     public SpinRequest() {}
@@ -13,6 +15,11 @@ public class SpinRequest {
     }
 
 
+    public SpinRequest(Integer betAmount, Boolean isBonusMode, String clientSeed) {
+        this(betAmount, isBonusMode);
+        this.clientSeed = clientSeed;
+    }
+
     // Getters and Setters
     public Integer getBetAmount() {
         return betAmount;
@@ -30,4 +37,19 @@ public class SpinRequest {
         this.isBonusMode = isBonusMode;
     }
 
+    public String getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(String gameId) {
+        this.gameId = gameId;
+    }
+
+    public String getClientSeed() {
+        return clientSeed;
+    }
+
+    public void setClientSeed(String clientSeed) {
+        this.clientSeed = clientSeed;
+    }
 }
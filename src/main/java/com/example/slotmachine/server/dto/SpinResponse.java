@@ -1,25 +1,29 @@
 package com.example.slotmachine.server.dto;
 
+import com.example.slotmachine.server.engine.Grid;
+
 import java.util.List;
 import java.util.Map;
 
 public class SpinResponse {
     private boolean success;
     private String message;
-    private Double newBalance;
-    private Double totalPayout;
+    private Long newBalance; // minor egységben
+    private Long totalPayout; // minor egységben
     
-    // Új mezők a teljes játéklogika támogatásához
-    private int[][] initialGrid;
-    private int[][] finalGrid;
+    // Új mezők a teljes játéklogika támogatásához (a rácsok JSON-ban tömör base64 szövegként)
+    private Grid initialGrid;
+    private Grid finalGrid;
     private List<CascadeStepDto> cascadeSteps;
     private boolean bonusTrigger;
     private boolean retrigger;
+    private Long spinId; // a spin napló azonosítója (visszajátszáshoz)
+    private FairnessDto fairness; // provably fair spinnél a seed-ek (normál spinnél üres)
 
     // Constructors
     public SpinResponse() {}
 
-    public SpinResponse(boolean success, String message, Double newBalance, Double totalPayout) {
+    public SpinResponse(boolean success, String message, Long newBalance, Long totalPayout) {
         this.success = success;
         this.message = message;
         this.newBalance = newBalance;
@@ -27,8 +31,8 @@ public class SpinResponse {
     }
 
     // Static factory methods
-    public static SpinResponse success(Double newBalance, Double totalPayout, int[][] initialGrid, 
-                                     int[][] finalGrid, List<CascadeStepDto> cascadeSteps,
+    public static SpinResponse success(Long newBalance, Long totalPayout, Grid initialGrid, 
+                                     Grid finalGrid, List<CascadeStepDto> cascadeSteps,
                                      boolean bonusTrigger, boolean retrigger) {
         SpinResponse response = new SpinResponse(true, "Spin successful", newBalance, totalPayout);
         response.setInitialGrid(initialGrid);
@@ -60,35 +64,43 @@ public class SpinResponse {
         this.message = message;
     }
 
-    public Double getNewBalance() {
+    public Long getNewBalance() {
         return newBalance;
     }
 
-    public void setNewBalance(Double newBalance) {
+    public void setNewBalance(Long newBalance) {
         this.newBalance = newBalance;
     }
 
-    public Double getTotalPayout() {
+    public Long getSpinId() {
+        return spinId;
+    }
+
+    public void setSpinId(Long spinId) {
+        this.spinId = spinId;
+    }
+
+    public Long getTotalPayout() {
         return totalPayout;
     }
 
-    public void setTotalPayout(Double totalPayout) {
+    public void setTotalPayout(Long totalPayout) {
         this.totalPayout = totalPayout;
     }
 
-    public int[][] getInitialGrid() {
+    public Grid getInitialGrid() {
         return initialGrid;
     }
 
-    public void setInitialGrid(int[][] initialGrid) {
+    public void setInitialGrid(Grid initialGrid) {
         this.initialGrid = initialGrid;
     }
 
-    public int[][] getFinalGrid() {
+    public Grid getFinalGrid() {
         return finalGrid;
     }
 
-    public void setFinalGrid(int[][] finalGrid) {
+    public void setFinalGrid(Grid finalGrid) {
         this.finalGrid = finalGrid;
     }
 
@@ -116,21 +128,29 @@ public class SpinResponse {
         this.retrigger = retrigger;
     }
 
+    public FairnessDto getFairness() {
+        return fairness;
+    }
+
+    public void setFairness(FairnessDto fairness) {
+        this.fairness = fairness;
+    }
+
 
     /**
      * Cascade lépés DTO
      */
     public static class CascadeStepDto {
         private Map<Integer, List<int[]>> matchedClusters;
-        private double payout;
-        private int[][] gridAfterClear;
-        private int[][] gridAfterRefill;
+        private long payout; // minor egységben
+        private Grid gridAfterClear;
+        private Grid gridAfterRefill;
 
         // Constructors
         public CascadeStepDto() {}
 
-        public CascadeStepDto(Map<Integer, List<int[]>> matchedClusters, double payout, 
-                            int[][] gridAfterClear, int[][] gridAfterRefill) {
+        public CascadeStepDto(Map<Integer, List<int[]>> matchedClusters, long payout, 
+                            Grid gridAfterClear, Grid gridAfterRefill) {
             this.matchedClusters = matchedClusters;
             this.payout = payout;
             this.gridAfterClear = gridAfterClear;
@@ -141,13 +161,58 @@ public class SpinResponse {
         public Map<Integer, List<int[]>> getMatchedClusters() { return matchedClusters; }
         public void setMatchedClusters(Map<Integer, List<int[]>> matchedClusters) { this.matchedClusters = matchedClusters; }
 
-        public double getPayout() { return payout; }
-        public void setPayout(double payout) { this.payout = payout; }
+        public long getPayout() { return payout; }
+        public void setPayout(long payout) { this.payout = payout; }
+
+        public Grid getGridAfterClear() { return gridAfterClear; }
+        public void setGridAfterClear(Grid gridAfterClear) { this.gridAfterClear = gridAfterClear; }
+
+        public Grid getGridAfterRefill() { return gridAfterRefill; }
+        public void setGridAfterRefill(Grid gridAfterRefill) { this.gridAfterRefill = gridAfterRefill; }
+    }
+
+    /**
+     * Provably fair seed-ek DTO: a felfedett server seed, a spin előtt vállalt hash-e, a kliens seed, a nonce,
+     * a belőlük levezetett spin seed és a következő spin vállalása
+     */
+    public static class FairnessDto {
+        private String serverSeed;
+        private String serverSeedHash;
+        private String clientSeed;
+        private long nonce;
+        private long seed;
+        private String nextServerSeedHash;
+
+        // Constructors
+        public FairnessDto() {}
+
+        public FairnessDto(String serverSeed, String serverSeedHash, String clientSeed, long nonce, long seed,
+                           String nextServerSeedHash) {
+            this.serverSeed = serverSeed;
+            this.serverSeedHash = serverSeedHash;
+            this.clientSeed = clientSeed;
+            this.nonce = nonce;
+            this.seed = seed;
+            this.nextServerSeedHash = nextServerSeedHash;
+        }
+
+        // Getters and setters
+        public String getServerSeed() { return serverSeed; }
+        public void setServerSeed(String serverSeed) { this.serverSeed = serverSeed; }
+
+        public String getServerSeedHash() { return serverSeedHash; }
+        public void setServerSeedHash(String serverSeedHash) { this.serverSeedHash = serverSeedHash; }
+
+        public String getClientSeed() { return clientSeed; }
+        public void setClientSeed(String clientSeed) { this.clientSeed = clientSeed; }
+
+        public long getNonce() { return nonce; }
+        public void setNonce(long nonce) { this.nonce = nonce; }
 
-        public int[][] getGridAfterClear() { return gridAfterClear; }
-        public void setGridAfterClear(int[][] gridAfterClear) { this.gridAfterClear = gridAfterClear; }
+        public long getSeed() { return seed; }
+        public void setSeed(long seed) { this.seed = seed; }
 
-        public int[][] getGridAfterRefill() { return gridAfterRefill; }
-        public void setGridAfterRefill(int[][] gridAfterRefill) { this.gridAfterRefill = gridAfterRefill; }
+        public String getNextServerSeedHash() { return nextServerSeedHash; }
+        public void setNextServerSeedHash(String nextServerSeedHash) { this.nextServerSeedHash = nextServerSeedHash; }
     }
 }
@@ -0,0 +1,129 @@
+package com.example.slotmachine.server.engine;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Walker/Vose alias tábla egész súlyokkal.
+ * Minden oszlop kapacitása a súlyok összege (W), így a valószínűségek pontosak (w_i / W),
+ * és egy húzás egyetlen nextInt(n * W) hívás: oszlop = u / W, érme = u % W.
+ * A tábla megváltoztathatatlan, súlyváltozáskor újat kell építeni.
+ */
+public final class AliasSampler {
+
+    private final int[] weights;
+    private final int totalWeight;
+    private final int bound;
+    private final int[] threshold;
+    private final int[] alias;
+
+    public AliasSampler(int[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("At least one weight is required");
+        }
+        int total = 0;
+        for (int weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight: " + weight);
+            }
+            total = Math.addExact(total, weight);
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("All weights are zero");
+        }
+
+        this.weights = weights.clone();
+        this.totalWeight = total;
+        this.bound = Math.multiplyExact(n, total);
+        this.threshold = new int[n];
+        this.alias = new int[n];
+
+        // Skálázott súlyok: átlagosan pontosan W egység jut egy oszlopra
+        long[] scaled = new long[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = (long) weights[i] * n;
+            if (scaled[i] < total) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            threshold[less] = (int) scaled[less];
+            alias[less] = more;
+            scaled[more] -= total - scaled[less];
+            if (scaled[more] < total) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // A maradék oszlopok teljesen a saját szimbólumukhoz tartoznak
+        while (largeCount > 0) {
+            int i = large[--largeCount];
+            threshold[i] = total;
+            alias[i] = i;
+        }
+        while (smallCount > 0) {
+            int i = small[--smallCount];
+            threshold[i] = total;
+            alias[i] = i;
+        }
+    }
+
+    /**
+     * Egy szimbólum húzása O(1) időben, egyetlen véletlen egésszel
+     */
+    public int sample(RandomGenerator random) {
+        return sampleAt(random.nextInt(bound));
+    }
+
+    /**
+     * A húzás eredménye egy adott u értékre (0 <= u < getBound())
+     */
+    public int sampleAt(int u) {
+        int column = u / totalWeight;
+        int coin = u - column * totalWeight;
+        return coin < threshold[column] ? column : alias[column];
+    }
+
+    public int getBound() {
+        return bound;
+    }
+
+    public int getTotalWeight() {
+        return totalWeight;
+    }
+
+    public int size() {
+        return weights.length;
+    }
+
+    public int[] getWeights() {
+        return weights.clone();
+    }
+
+    /**
+     * Egy szimbólum valószínűsége
+     */
+    public double probability(int symbol) {
+        return (double) weights[symbol] / totalWeight;
+    }
+
+    /**
+     * Új sampler ugyanezekkel a súlyokkal, az adott szimbólum kizárásával
+     */
+    public AliasSampler without(int symbol) {
+        int[] filtered = Arrays.copyOf(weights, weights.length);
+        filtered[symbol] = 0;
+        return new AliasSampler(filtered);
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.slotmachine.server.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bitboard alapú klaszter keresés.
+ * A rács minden cellája egy bit egy long maszkban (bit index = row * gridSize + col),
+ * szimbólumonként egy maszk. Az elárasztás eltolás/ÉS dilatációval történik,
+ * így a keresés nem allokál és nem rekurzív.
+ * A maszk alapú keresés (findMatches, floodFill, dilate) csak egyszavas, legfeljebb 64 cellás rácson működik;
+ * nagyobb rácson a klasztereket a UnionFindClusterLabeler címkézi, az eredmény szimbólumonként több szó,
+ * ezeket a toClusterMap ugyanígy alakítja át.
+ */
+public final class BitboardClusterDetector {
+
+    private final int gridSize;
+    private final int clusterSize;
+    private final int words;
+    private final long fullMask;
+    private final long notFirstColumn;
+    private final long notLastColumn;
+
+    public BitboardClusterDetector(int gridSize, int clusterSize) {
+        if (gridSize <= 0 || gridSize > MathModelDefinition.MAX_GRID_SIZE) {
+            throw new IllegalArgumentException("Invalid grid size: " + gridSize);
+        }
+        this.gridSize = gridSize;
+        this.clusterSize = clusterSize;
+
+        int cells = gridSize * gridSize;
+        this.words = UnionFindClusterLabeler.maskWords(cells);
+        if (words > 1) {
+            // Nagy rács: nincs egyszavas bitboard
+            this.fullMask = 0;
+            this.notFirstColumn = 0;
+            this.notLastColumn = 0;
+            return;
+        }
+        this.fullMask = cells == Long.SIZE ? -1L : (1L << cells) - 1;
+
+        long firstColumn = 0;
+        long lastColumn = 0;
+        for (int row = 0; row < gridSize; row++) {
+            firstColumn |= 1L << (row * gridSize);
+            lastColumn |= 1L << (row * gridSize + gridSize - 1);
+        }
+        this.notFirstColumn = ~firstColumn & fullMask;
+        this.notLastColumn = ~lastColumn & fullMask;
+    }
+
+    /**
+     * Elfér-e a rács egyetlen 64 bites maszkban (a maszk alapú keresés csak ilyenkor használható)
+     */
+    public boolean isSingleWord() {
+        return words == 1;
+    }
+
+    /** Szimbólumonként a nyerő maszk szavainak száma */
+    public int getWords() {
+        return words;
+    }
+
+    private void requireSingleWord() {
+        if (words != 1) {
+            throw new IllegalStateException("Grid of " + gridSize + "x" + gridSize + " does not fit into a 64 bit board");
+        }
+    }
+
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    public long getFullMask() {
+        return fullMask;
+    }
+
+    /**
+     * Cella bit indexe
+     */
+    public int bitIndex(int row, int col) {
+        return row * gridSize + col;
+    }
+
+    /**
+     * Szimbólum maszkok felépítése egy rácsból (az üres, -1 cellák kimaradnak)
+     */
+    public void buildSymbolMasks(Grid grid, long[] symbolMasks) {
+        buildSymbolMasks(grid.cells(), symbolMasks);
+    }
+
+    /**
+     * Szimbólum maszkok felépítése egy lapos, sorfolytonos rácsból (az üres, -1 cellák kimaradnak)
+     */
+    public void buildSymbolMasks(byte[] grid, long[] symbolMasks) {
+        requireSingleWord();
+        Arrays.fill(symbolMasks, 0L);
+        for (int cell = 0; cell < grid.length; cell++) {
+            int symbol = grid[cell];
+            if (symbol >= 0) {
+                symbolMasks[symbol] |= 1L << cell;
+            }
+        }
+    }
+
+    /**
+     * Maszk kiterjesztése a négy ortogonális szomszédra
+     */
+    public long dilate(long mask) {
+        return (mask
+                | (mask << gridSize)
+                | (mask >>> gridSize)
+                | ((mask << 1) & notFirstColumn)
+                | ((mask >>> 1) & notLastColumn)) & fullMask;
+    }
+
+    /**
+     * Összefüggő komponens elárasztása a seed-ből az engedélyezett cellákon belül
+     */
+    public long floodFill(long seed, long allowed) {
+        long component = seed;
+        while (true) {
+            long next = dilate(component) & allowed;
+            if (next == component) {
+                return component;
+            }
+            component = next;
+        }
+    }
+
+    /**
+     * Nyerő klaszterek keresése maszkokon.
+     * A matchedOut[symbol] az adott szimbólum összes nyerő klaszterének uniója lesz.
+     *
+     * @return a talált nyerő klaszterek száma (0, ha nincs találat)
+     */
+    public int findMatches(long[] symbolMasks, long[] matchedOut) {
+        return findMatches(symbolMasks, matchedOut, 0);
+    }
+
+    /**
+     * Nyerő klaszterek keresése, az eredmény a matchedOut tömbbe kerül az offsettől kezdve
+     */
+    public int findMatches(long[] symbolMasks, long[] matchedOut, int offset) {
+        requireSingleWord();
+        int clusterCount = 0;
+        for (int symbol = 0; symbol < symbolMasks.length; symbol++) {
+            long remaining = symbolMasks[symbol];
+            long matched = 0;
+            // Ha a maradék cellák száma kisebb a minimális klaszternél, nem lehet több találat
+            while (Long.bitCount(remaining) >= clusterSize) {
+                long component = floodFill(Long.lowestOneBit(remaining), remaining);
+                remaining &= ~component;
+                if (Long.bitCount(component) >= clusterSize) {
+                    matched |= component;
+                    clusterCount++;
+                }
+            }
+            matchedOut[offset + symbol] = matched;
+        }
+        return clusterCount;
+    }
+
+    /**
+     * Inkrementális keresés egy cascade lépés után: csak a changed cellákat érintő komponenseket árasztja el.
+     * A változatlan cellák az előző lépésben nem voltak nyerő klaszterben (különben törlődtek volna),
+     * így egy csak változatlan cellákból álló komponens egy előző, nem nyerő komponens része, és maga sem nyerhet.
+     * Az eredmény ezért azonos a teljes kereséssel, ha changed lefedi az összes megváltozott cellát.
+     */
+    public int findMatches(long[] symbolMasks, long[] matchedOut, int offset, long changed) {
+        requireSingleWord();
+        int clusterCount = 0;
+        for (int symbol = 0; symbol < symbolMasks.length; symbol++) {
+            long remaining = symbolMasks[symbol];
+            long seeds = remaining & changed;
+            long matched = 0;
+            while (seeds != 0 && Long.bitCount(remaining) >= clusterSize) {
+                long component = floodFill(Long.lowestOneBit(seeds), remaining);
+                remaining &= ~component;
+                seeds &= ~component;
+                if (Long.bitCount(component) >= clusterSize) {
+                    matched |= component;
+                    clusterCount++;
+                }
+            }
+            matchedOut[offset + symbol] = matched;
+        }
+        return clusterCount;
+    }
+
+    /**
+     * A törlés, tömörítés és utántöltés után megváltozott cellák: oszloponként a legalsó törölt cella
+     * és minden fölötte lévő (ezek csúsznak le vagy töltődnek újra). Az érintetlen oszlopok és a
+     * legalsó törölt cella alatti részek változatlanok.
+     */
+    public long changedCells(long cleared) {
+        long changed = cleared;
+        // Felfelé kenés soronként duplázódó eltolással: log2(gridSize) lépés
+        for (int shift = gridSize; shift < gridSize * gridSize; shift <<= 1) {
+            changed |= changed >>> shift;
+        }
+        return changed;
+    }
+
+    /**
+     * Szimbólum maszkok frissítése csak a megváltozott cellákon (a többi bit változatlan)
+     */
+    public void updateSymbolMasks(byte[] grid, long[] symbolMasks, int symbolCount, long changed) {
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            symbolMasks[symbol] &= ~changed;
+        }
+        while (changed != 0) {
+            int cell = Long.numberOfTrailingZeros(changed);
+            int symbol = grid[cell];
+            if (symbol >= 0) {
+                symbolMasks[symbol] |= 1L << cell;
+            }
+            changed &= changed - 1;
+        }
+    }
+
+    /**
+     * Maszk alapú eredmény átalakítása a régi Map<Integer, List<int[]>> formára
+     */
+    public Map<Integer, List<int[]>> toClusterMap(long[] matched) {
+        return toClusterMap(matched, 0, matched.length / words);
+    }
+
+    /**
+     * Maszk alapú eredmény átalakítása egy nagyobb puffer [offset, offset + symbolCount * words) szeletéből
+     */
+    public Map<Integer, List<int[]>> toClusterMap(long[] matched, int offset, int symbolCount) {
+        Map<Integer, List<int[]>> matchedClusters = new HashMap<>();
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            int base = offset + symbol * words;
+            int size = 0;
+            for (int w = 0; w < words; w++) {
+                size += Long.bitCount(matched[base + w]);
+            }
+            if (size == 0) {
+                continue;
+            }
+            List<int[]> positions = new ArrayList<>(size);
+            for (int w = 0; w < words; w++) {
+                long mask = matched[base + w];
+                while (mask != 0) {
+                    int index = w * Long.SIZE + Long.numberOfTrailingZeros(mask);
+                    positions.add(new int[]{index / gridSize, index % gridSize});
+                    mask &= mask - 1;
+                }
+            }
+            matchedClusters.put(symbol, positions);
+        }
+        return matchedClusters;
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.slotmachine.server.engine;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Validált, lapos táblákká fordított, megváltoztathatatlan játék matematika.
+ * A motor egyetlen volatile referencián keresztül cseréli: a már futó spin a saját
+ * munkaterületéhez kötött modellen fejeződik be, az új spinek az újat kapják.
+ */
+public final class CompiledMathModel {
+
+    public static final String DEFAULT_RESOURCE = "/math/default-model.json";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String name;
+    private final int gridSize;
+    private final int cells;
+    private final int clusterSize;
+    private final int symbolCount;
+    private final int scatterSymbol;
+    private final int bonusTriggerCount;
+    private final int retriggerCount;
+    private final int freeSpins;
+    private final int retriggerSpins;
+    private final double neighbourCopyChance;
+    private final double refillClusterChance;
+    private final double refillNeighbourChance;
+
+    private final GridTopology topology;
+    // Oszloponként a cellák indexei alulról felfelé: columnCells[col * gridSize + k]
+    private final int[] columnCells;
+    // Oszlop bitmaszkok, csak 64 cellás vagy kisebb rácson
+    private final long[] columnMasks;
+    private final BitboardClusterDetector clusterDetector;
+    private final UnionFindClusterLabeler clusterLabeler;
+    private final AliasSampler symbols;
+    private final AliasSampler nonScatter;
+    // Szorzók századokban klaszterméret szerint: payouts[size * symbolCount + symbol], 0 a clusterSize alatt
+    private final long[] payouts;
+    // A forrás táblázat, a definíció visszaállításához
+    private final long[][] payoutRows;
+
+    private CompiledMathModel(MathModelDefinition definition) {
+        this.name = definition.getName();
+        this.gridSize = definition.getGridSize();
+        this.cells = gridSize * gridSize;
+        this.clusterSize = definition.getClusterSize();
+        this.symbolCount = definition.getSymbolWeights().length;
+        this.scatterSymbol = definition.getScatterSymbol();
+        this.bonusTriggerCount = definition.getBonusTriggerCount();
+        this.retriggerCount = definition.getRetriggerCount();
+        this.freeSpins = definition.getFreeSpins();
+        this.retriggerSpins = definition.getRetriggerSpins();
+        this.neighbourCopyChance = definition.getNeighbourCopyChance();
+        this.refillClusterChance = definition.getRefillClusterChance();
+        this.refillNeighbourChance = definition.getRefillNeighbourChance();
+
+        this.topology = new GridTopology(gridSize);
+        this.columnCells = new int[cells];
+        this.columnMasks = new long[gridSize];
+        for (int col = 0; col < gridSize; col++) {
+            for (int k = 0; k < gridSize; k++) {
+                int cell = (gridSize - 1 - k) * gridSize + col;
+                columnCells[col * gridSize + k] = cell;
+                if (cells <= Long.SIZE) {
+                    columnMasks[col] |= 1L << cell;
+                }
+            }
+        }
+        this.clusterDetector = new BitboardClusterDetector(gridSize, clusterSize);
+        this.clusterLabeler = new UnionFindClusterLabeler(gridSize, clusterSize);
+        this.symbols = new AliasSampler(definition.getSymbolWeights());
+        this.nonScatter = symbols.without(scatterSymbol);
+
+        long[][] rows = definition.getPayoutMultipliers();
+        this.payoutRows = new long[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            payoutRows[i] = rows[i].clone();
+        }
+        this.payouts = new long[(cells + 1) * symbolCount];
+        for (int size = clusterSize; size <= cells; size++) {
+            long[] row = payoutRows[Math.min(size - clusterSize, payoutRows.length - 1)];
+            System.arraycopy(row, 0, payouts, size * symbolCount, symbolCount);
+        }
+    }
+
+    /**
+     * Definíció validálása és fordítása
+     *
+     * @throws IllegalArgumentException ha a definíció hibás
+     */
+    public static CompiledMathModel compile(MathModelDefinition definition) {
+        definition.validate();
+        return new CompiledMathModel(definition);
+    }
+
+    /**
+     * Modell fájl (JSON) beolvasása és fordítása
+     */
+    public static CompiledMathModel load(InputStream in) throws IOException {
+        return compile(MAPPER.readValue(in, MathModelDefinition.class));
+    }
+
+    /**
+     * Modell fordítása a JSON szövegéből (pl. a spin konfiguráció archívumból)
+     */
+    public static CompiledMathModel fromJson(String json) throws IOException {
+        return compile(MAPPER.readValue(json, MathModelDefinition.class));
+    }
+
+    /**
+     * A modell definíciója JSON-ban (mindig ugyanaz a mezősorrend, ujjlenyomat képezhető belőle)
+     */
+    public String toJson() {
+        try {
+            return MAPPER.writeValueAsString(toDefinition());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize math model " + name, e);
+        }
+    }
+
+    /**
+     * A beépített alapértelmezett modell
+     */
+    public static CompiledMathModel loadDefault() {
+        try (InputStream in = CompiledMathModel.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing math model resource: " + DEFAULT_RESOURCE);
+            }
+            return load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + DEFAULT_RESOURCE, e);
+        }
+    }
+
+    /**
+     * A modell visszaalakítása definícióvá (szerkesztéshez, mentéshez)
+     */
+    public MathModelDefinition toDefinition() {
+        MathModelDefinition definition = new MathModelDefinition();
+        definition.setName(name);
+        definition.setGridSize(gridSize);
+        definition.setClusterSize(clusterSize);
+        definition.setScatterSymbol(scatterSymbol);
+        definition.setBonusTriggerCount(bonusTriggerCount);
+        definition.setRetriggerCount(retriggerCount);
+        definition.setFreeSpins(freeSpins);
+        definition.setRetriggerSpins(retriggerSpins);
+        definition.setNeighbourCopyChance(neighbourCopyChance);
+        definition.setRefillClusterChance(refillClusterChance);
+        definition.setRefillNeighbourChance(refillNeighbourChance);
+        definition.setSymbolWeights(symbols.getWeights());
+        long[][] rows = new long[payoutRows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = payoutRows[i].clone();
+        }
+        definition.setPayoutMultipliers(rows);
+        return definition;
+    }
+
+    /**
+     * Ugyanez a modell más szimbólum súlyokkal
+     */
+    public CompiledMathModel withSymbolWeights(int[] symbolWeights) {
+        if (symbolWeights.length != symbolCount) {
+            throw new IllegalArgumentException("Expected " + symbolCount + " symbol weights");
+        }
+        MathModelDefinition definition = toDefinition();
+        definition.setSymbolWeights(symbolWeights.clone());
+        return compile(definition);
+    }
+
+    /**
+     * Új, üres munkaterület ehhez a modellhez
+     */
+    public SpinScratch newScratch() {
+        return new SpinScratch(this);
+    }
+
+    /**
+     * Szorzó századokban egy klaszterhez (a clusterSize alatti méretekre 0)
+     */
+    public long multiplier(int symbol, int clusterSize) {
+        return payouts[Math.min(clusterSize, cells) * symbolCount + symbol];
+    }
+
+    public String getName() { return name; }
+
+    public int getGridSize() { return gridSize; }
+
+    public int getCells() { return cells; }
+
+    public int getClusterSize() { return clusterSize; }
+
+    /** Elfér-e a rács egy 64 bites bitboardban (különben union-find címkézés és oszloponkénti utántöltés) */
+    public boolean isBitboard() { return cells <= Long.SIZE; }
+
+    /** Szimbólumonként a nyerő maszk long szavainak száma */
+    public int getMaskWords() { return clusterLabeler.getWords(); }
+
+    public int getSymbolCount() { return symbolCount; }
+
+    public int getScatterSymbol() { return scatterSymbol; }
+
+    public int getBonusTriggerCount() { return bonusTriggerCount; }
+
+    public int getRetriggerCount() { return retriggerCount; }
+
+    public int getFreeSpins() { return freeSpins; }
+
+    public int getRetriggerSpins() { return retriggerSpins; }
+
+    /**
+     * Egy retrigger által adott free spinek: a retriggerSpins, de a kör összesen legfeljebb MAX_FREE_SPINS_PER_ROUND spint ad
+     *
+     * @param awarded a körben eddig megítélt free spinek száma
+     */
+    public int retriggerAward(int awarded) {
+        return Math.max(0, Math.min(retriggerSpins, MathModelDefinition.MAX_FREE_SPINS_PER_ROUND - awarded));
+    }
+
+    public double getNeighbourCopyChance() { return neighbourCopyChance; }
+
+    public double getRefillClusterChance() { return refillClusterChance; }
+
+    public double getRefillNeighbourChance() { return refillNeighbourChance; }
+
+    public GridTopology getTopology() { return topology; }
+
+    public int[] getColumnCells() { return columnCells; }
+
+    /** Az oszlop celláinak bitmaszkja (csak bitboard rácson) */
+    public long getColumnMask(int col) { return columnMasks[col]; }
+
+    public BitboardClusterDetector getClusterDetector() { return clusterDetector; }
+
+    public UnionFindClusterLabeler getClusterLabeler() { return clusterLabeler; }
+
+    public AliasSampler getSymbols() { return symbols; }
+
+    public AliasSampler getNonScatter() { return nonScatter; }
+}
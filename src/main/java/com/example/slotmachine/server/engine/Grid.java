@@ -0,0 +1,140 @@
+package com.example.slotmachine.server.engine;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Négyzetes szimbólum rács egyetlen lapos byte tömbben, sorfolytonosan (cella = sor * méret + oszlop, -1 = üres).
+ * Egy pillanatkép egy tömb (int[][] helyett méret + 1 tömb), a másolás egyetlen arraycopy.
+ * JSON-ban a cellák base64 szövegeként utazik, a méret a cellák számából adódik.
+ */
+public final class Grid {
+
+    public static final byte EMPTY = -1;
+
+    private final int size;
+    private final byte[] cells;
+
+    public Grid(int size) {
+        this(size, new byte[size * size]);
+    }
+
+    private Grid(int size, byte[] cells) {
+        this.size = size;
+        this.cells = cells;
+    }
+
+    /**
+     * Rács másolása egy lapos pufferből (pl. a munkaterület lépésenkénti rácsaiból)
+     */
+    public static Grid copyOf(byte[] flat, int offset, int size) {
+        return new Grid(size, Arrays.copyOfRange(flat, offset, offset + size * size));
+    }
+
+    /**
+     * Rács sorokból (tesztekhez és a régi int[][] formához)
+     */
+    public static Grid fromRows(int[][] rows) {
+        Grid grid = new Grid(rows.length);
+        for (int row = 0; row < rows.length; row++) {
+            if (rows[row].length != rows.length) {
+                throw new IllegalArgumentException("Grid must be square: row " + row + " has " + rows[row].length + " cells");
+            }
+            for (int col = 0; col < rows.length; col++) {
+                grid.set(row, col, rows[row][col]);
+            }
+        }
+        return grid;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int get(int row, int col) {
+        return cells[row * size + col];
+    }
+
+    public void set(int row, int col, int symbol) {
+        cells[row * size + col] = (byte) symbol;
+    }
+
+    public int get(int cell) {
+        return cells[cell];
+    }
+
+    public void set(int cell, int symbol) {
+        cells[cell] = (byte) symbol;
+    }
+
+    /** A cellák tömbje másolás nélkül (a motor közvetlenül ezen dolgozik) */
+    public byte[] cells() {
+        return cells;
+    }
+
+    public Grid copy() {
+        return new Grid(size, cells.clone());
+    }
+
+    /**
+     * Egy szimbólum előfordulásainak száma
+     */
+    public int count(int symbol) {
+        int count = 0;
+        for (byte cell : cells) {
+            if (cell == symbol) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int[][] toRows() {
+        int[][] rows = new int[size][size];
+        for (int cell = 0; cell < cells.length; cell++) {
+            rows[cell / size][cell % size] = cells[cell];
+        }
+        return rows;
+    }
+
+    @JsonValue
+    public String encode() {
+        return Base64.getEncoder().encodeToString(cells);
+    }
+
+    @JsonCreator
+    public static Grid decode(String encoded) {
+        byte[] cells = Base64.getDecoder().decode(encoded);
+        int size = (int) Math.sqrt(cells.length);
+        if (size * size != cells.length) {
+            throw new IllegalArgumentException("Grid must be square: " + cells.length + " cells");
+        }
+        return new Grid(size, cells);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Grid other && Arrays.equals(cells, other.cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(cells);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int symbol = get(row, col);
+                builder.append(symbol == EMPTY ? " ." : String.format("%2d", symbol));
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+}
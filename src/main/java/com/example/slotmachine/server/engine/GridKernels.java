@@ -0,0 +1,73 @@
+package com.example.slotmachine.server.engine;
+
+/**
+ * A teljes rácson futó motor műveletek (lapos, sorfolytonos byte rács, -1 = üres cella).
+ * Két megvalósítás van: skalár, és a jdk.incubator.vector modulra épülő SIMD változat.
+ * A kettő bitre azonos eredményt ad, így a választás a spinek kimenetelét nem befolyásolja.
+ * A maszkos műveletek (buildSymbolMasks, clearMasked, compactColumns) csak legfeljebb 64 cellás rácson használhatók.
+ */
+public interface GridKernels {
+
+    String SCALAR = "scalar";
+    String VECTOR = "vector";
+    String AUTO = "auto";
+    String DEFAULT = SCALAR;
+
+    String getName();
+
+    /**
+     * Egy szimbólum előfordulásainak száma a rácsban (pl. scatter számlálás)
+     */
+    int count(byte[] grid, int cells, int symbol);
+
+    /**
+     * Szimbólumonkénti bitmaszkok (bit = cella index), az üres cellák kimaradnak
+     */
+    void buildSymbolMasks(byte[] grid, int cells, long[] symbolMasks, int symbolCount);
+
+    /**
+     * A maszkokban (matched[offset..offset+symbolCount)) szereplő cellák ürítése
+     */
+    void clearMasked(byte[] grid, int cells, long[] matched, int offset, int symbolCount);
+
+    /**
+     * Az oszlopok tömörítése lefelé (a nem üres cellák az oszlop aljára csúsznak, sorrendtartóan).
+     * A tömörítés előtti rács a before tömbbe kerül, az oszloponkénti üres cellák száma a holes tömbbe.
+     */
+    void compactColumns(CompiledMathModel model, byte[] grid, byte[] before, int[] holes);
+
+    /**
+     * Megvalósítás kiválasztása név szerint: scalar, vector vagy auto (vector, ha elérhető).
+     * Ha a vector modul nincs betöltve (--add-modules jdk.incubator.vector), a skalár változat marad.
+     */
+    static GridKernels named(String name) {
+        String kernels = name == null || name.isBlank() ? DEFAULT : name.trim().toLowerCase();
+        switch (kernels) {
+            case SCALAR:
+                return ScalarGridKernels.INSTANCE;
+            case VECTOR:
+            case AUTO:
+                GridKernels vector = loadVectorKernels();
+                if (vector != null) {
+                    return vector;
+                }
+                if (VECTOR.equals(kernels)) {
+                    System.err.println("Vector kernels not available (run with --add-modules jdk.incubator.vector), using scalar");
+                }
+                return ScalarGridKernels.INSTANCE;
+            default:
+                throw new IllegalArgumentException("Unknown grid kernels: " + name);
+        }
+    }
+
+    private static GridKernels loadVectorKernels() {
+        try {
+            // Reflexióval töltjük be, hogy a modul hiánya ne akadályozza a skalár útvonalat
+            return (GridKernels) Class.forName("com.example.slotmachine.server.engine.VectorGridKernels")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
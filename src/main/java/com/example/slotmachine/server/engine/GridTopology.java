@@ -0,0 +1,57 @@
+package com.example.slotmachine.server.engine;
+
+/**
+ * Előre kiszámolt szomszédsági táblák egy négyzetes, sorfolytonos (row * gridSize + col) rácshoz.
+ * A szomszédok sorrendje megegyezik a generáláskor használttal: fölötte, alatta, balra, jobbra.
+ */
+public final class GridTopology {
+
+    public static final int MAX_NEIGHBOURS = 4;
+
+    private final int gridSize;
+    private final int cells;
+    private final int[] neighbours;
+    private final int[] neighbourCounts;
+
+    public GridTopology(int gridSize) {
+        if (gridSize <= 0) {
+            throw new IllegalArgumentException("Invalid grid size: " + gridSize);
+        }
+        this.gridSize = gridSize;
+        this.cells = gridSize * gridSize;
+        this.neighbours = new int[cells * MAX_NEIGHBOURS];
+        this.neighbourCounts = new int[cells];
+
+        for (int row = 0; row < gridSize; row++) {
+            for (int col = 0; col < gridSize; col++) {
+                int cell = row * gridSize + col;
+                int base = cell * MAX_NEIGHBOURS;
+                int count = 0;
+                if (row > 0) neighbours[base + count++] = cell - gridSize;
+                if (row < gridSize - 1) neighbours[base + count++] = cell + gridSize;
+                if (col > 0) neighbours[base + count++] = cell - 1;
+                if (col < gridSize - 1) neighbours[base + count++] = cell + 1;
+                neighbourCounts[cell] = count;
+            }
+        }
+    }
+
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    public int getCells() {
+        return cells;
+    }
+
+    public int neighbourCount(int cell) {
+        return neighbourCounts[cell];
+    }
+
+    /**
+     * A cella i-edik szomszédjának indexe (0 <= i < neighbourCount(cell))
+     */
+    public int neighbour(int cell, int i) {
+        return neighbours[cell * MAX_NEIGHBOURS + i];
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.slotmachine.server.engine;
+
+/**
+ * A játék matematikájának leírása, ahogy a modell fájlban (JSON) szerepel.
+ * Betöltés után a validate() ellenőrzi, majd a CompiledMathModel lapos táblákká fordítja.
+ */
+public class MathModelDefinition {
+
+    // A legnagyobb rács (mega grid); 64 cellás rácsig bitboard, fölötte union-find klaszter keresés
+    public static final int MAX_GRID_SIZE = 64;
+    // Egy bonus kör legfeljebb ennyi free spint ad a retriggerekkel együtt (a kör a felhasználó sorzárja alatt fut)
+    public static final int MAX_FREE_SPINS_PER_ROUND = 1000;
+
+    private String name;
+    private int gridSize;
+    private int clusterSize;
+    private int scatterSymbol;
+    private int bonusTriggerCount;
+    private int retriggerCount;
+    private int freeSpins;
+    private int retriggerSpins;
+    // Esély, hogy a generált cella egy szomszédját másolja
+    private double neighbourCopyChance;
+    // Esély, hogy az utántöltés klasztert próbál építeni, és azon belül a szomszéd másolására
+    private double refillClusterChance;
+    private double refillNeighbourChance;
+    private int[] symbolWeights;
+    // Szorzók századokban: az első sor a clusterSize méretű klaszteré, az utolsó sor a nagyobbaké is
+    private long[][] payoutMultipliers;
+
+    /**
+     * Teljes ellenőrzés - hibás modell soha nem kerül a motorba
+     *
+     * @throws IllegalArgumentException az első talált hibával
+     */
+    public void validate() {
+        require(name != null && !name.isBlank(), "Model name is missing");
+        require(gridSize > 0 && gridSize <= MAX_GRID_SIZE,
+                "Grid size must be between 1 and " + MAX_GRID_SIZE + ": " + gridSize);
+        require(clusterSize > 0 && clusterSize <= gridSize * gridSize, "Invalid cluster size: " + clusterSize);
+        require(symbolWeights != null && symbolWeights.length > 1 && symbolWeights.length <= Byte.MAX_VALUE,
+                "Symbol weights must list between 2 and " + Byte.MAX_VALUE + " symbols");
+        for (int weight : symbolWeights) {
+            require(weight >= 0, "Symbol weights must not be negative");
+        }
+        require(scatterSymbol >= 0 && scatterSymbol < symbolWeights.length, "Invalid scatter symbol: " + scatterSymbol);
+        boolean hasRegularSymbol = false;
+        for (int symbol = 0; symbol < symbolWeights.length; symbol++) {
+            hasRegularSymbol |= symbol != scatterSymbol && symbolWeights[symbol] > 0;
+        }
+        require(hasRegularSymbol, "At least one non-scatter symbol needs a positive weight");
+        require(symbolWeights[scatterSymbol] > 0, "Scatter symbol needs a positive weight, otherwise the bonus never triggers");
+        require(bonusTriggerCount > 0 && bonusTriggerCount <= gridSize,
+                "Bonus trigger count must fit into the grid columns: " + bonusTriggerCount);
+        require(retriggerCount > 0 && retriggerCount <= bonusTriggerCount, "Invalid retrigger count: " + retriggerCount);
+        require(freeSpins > 0 && freeSpins <= MAX_FREE_SPINS_PER_ROUND,
+                "Free spins must be between 1 and " + MAX_FREE_SPINS_PER_ROUND + ": " + freeSpins);
+        require(retriggerSpins >= 0 && retriggerSpins <= MAX_FREE_SPINS_PER_ROUND,
+                "Retrigger spins must be between 0 and " + MAX_FREE_SPINS_PER_ROUND + ": " + retriggerSpins);
+        requireChance(neighbourCopyChance, "neighbourCopyChance");
+        requireChance(refillClusterChance, "refillClusterChance");
+        requireChance(refillNeighbourChance, "refillNeighbourChance");
+        require(payoutMultipliers != null && payoutMultipliers.length > 0, "Payout table is missing");
+        require(payoutMultipliers.length <= gridSize * gridSize - clusterSize + 1,
+                "Payout table has more rows than possible cluster sizes");
+        for (long[] row : payoutMultipliers) {
+            require(row != null && row.length == symbolWeights.length,
+                    "Every payout row needs one multiplier per symbol");
+            for (long multiplier : row) {
+                require(multiplier >= 0, "Payout multipliers must not be negative");
+            }
+        }
+    }
+
+    private static void requireChance(double chance, String field) {
+        require(chance >= 0 && chance <= 1, field + " must be between 0 and 1: " + chance);
+    }
+
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    // Getters and setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public int getGridSize() { return gridSize; }
+    public void setGridSize(int gridSize) { this.gridSize = gridSize; }
+
+    public int getClusterSize() { return clusterSize; }
+    public void setClusterSize(int clusterSize) { this.clusterSize = clusterSize; }
+
+    public int getScatterSymbol() { return scatterSymbol; }
+    public void setScatterSymbol(int scatterSymbol) { this.scatterSymbol = scatterSymbol; }
+
+    public int getBonusTriggerCount() { return bonusTriggerCount; }
+    public void setBonusTriggerCount(int bonusTriggerCount) { this.bonusTriggerCount = bonusTriggerCount; }
+
+    public int getRetriggerCount() { return retriggerCount; }
+    public void setRetriggerCount(int retriggerCount) { this.retriggerCount = retriggerCount; }
+
+    public int getFreeSpins() { return freeSpins; }
+    public void setFreeSpins(int freeSpins) { this.freeSpins = freeSpins; }
+
+    public int getRetriggerSpins() { return retriggerSpins; }
+    public void setRetriggerSpins(int retriggerSpins) { this.retriggerSpins = retriggerSpins; }
+
+    public double getNeighbourCopyChance() { return neighbourCopyChance; }
+    public void setNeighbourCopyChance(double neighbourCopyChance) { this.neighbourCopyChance = neighbourCopyChance; }
+
+    public double getRefillClusterChance() { return refillClusterChance; }
+    public void setRefillClusterChance(double refillClusterChance) { this.refillClusterChance = refillClusterChance; }
+
+    public double getRefillNeighbourChance() { return refillNeighbourChance; }
+    public void setRefillNeighbourChance(double refillNeighbourChance) { this.refillNeighbourChance = refillNeighbourChance; }
+
+    public int[] getSymbolWeights() { return symbolWeights; }
+    public void setSymbolWeights(int[] symbolWeights) { this.symbolWeights = symbolWeights; }
+
+    public long[][] getPayoutMultipliers() { return payoutMultipliers; }
+    public void setPayoutMultipliers(long[][] payoutMultipliers) { this.payoutMultipliers = payoutMultipliers; }
+}
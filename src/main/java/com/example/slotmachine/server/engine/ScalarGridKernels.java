@@ -0,0 +1,75 @@
+package com.example.slotmachine.server.engine;
+
+import java.util.Arrays;
+
+/**
+ * Skalár rács műveletek - minden JVM-en elérhető, ez az alapértelmezett
+ */
+public final class ScalarGridKernels implements GridKernels {
+
+    public static final ScalarGridKernels INSTANCE = new ScalarGridKernels();
+
+    private static final byte EMPTY = -1;
+
+    private ScalarGridKernels() {}
+
+    @Override
+    public String getName() {
+        return SCALAR;
+    }
+
+    @Override
+    public int count(byte[] grid, int cells, int symbol) {
+        int count = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (grid[cell] == symbol) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void buildSymbolMasks(byte[] grid, int cells, long[] symbolMasks, int symbolCount) {
+        Arrays.fill(symbolMasks, 0, symbolCount, 0L);
+        for (int cell = 0; cell < cells; cell++) {
+            int symbol = grid[cell];
+            if (symbol >= 0) {
+                symbolMasks[symbol] |= 1L << cell;
+            }
+        }
+    }
+
+    @Override
+    public void clearMasked(byte[] grid, int cells, long[] matched, int offset, int symbolCount) {
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            long mask = matched[offset + symbol];
+            while (mask != 0) {
+                grid[Long.numberOfTrailingZeros(mask)] = EMPTY;
+                mask &= mask - 1;
+            }
+        }
+    }
+
+    @Override
+    public void compactColumns(CompiledMathModel model, byte[] grid, byte[] before, int[] holes) {
+        int gridSize = model.getGridSize();
+        System.arraycopy(grid, 0, before, 0, model.getCells());
+        for (int col = 0; col < gridSize; col++) {
+            int emptyRow = gridSize - 1;
+
+            // Az oszlop végigjárása alulról felfelé
+            for (int row = gridSize - 1; row >= 0; row--) {
+                int cell = row * gridSize + col;
+                if (grid[cell] != EMPTY) {
+                    grid[emptyRow * gridSize + col] = grid[cell];
+                    if (emptyRow != row) {
+                        grid[cell] = EMPTY;
+                    }
+                    emptyRow--;
+                }
+            }
+            holes[col] = emptyRow + 1;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.slotmachine.server.engine;
+
+import java.util.Arrays;
+
+/**
+ * Újrahasznosítható, szálankénti munkaterület egy spin futtatásához.
+ * A rácsok lapos byte tömbök (-1 = üres cella), a cascade lépések maszkjai és
+ * rácsai előre lefoglalt, szükség esetén növelt pufferekben tárolódnak,
+ * így egy spin futtatása egyensúlyi állapotban nem allokál.
+ * A munkaterület egy matematikai modellhez kötött, a rajta futó spin végig ezt a modellt használja.
+ * Egy példányt egyszerre csak egy szál használhat.
+ */
+public final class SpinScratch {
+
+    private static final int INITIAL_STEP_CAPACITY = 16;
+
+    private final CompiledMathModel model;
+    private final GridTopology topology;
+    private final int cells;
+    private final int symbolCount;
+    // Lépésenként és szimbólumonként a nyerő maszk szavainak száma (64 cellás rácsig 1)
+    private final int words;
+
+    private final byte[] grid;
+    private final byte[] initialGrid;
+    private final long[] symbolMasks;
+    private final byte[] refillSnapshot;
+    private final int[] columnHoles;
+    private final int[] labels;
+
+    private long[] stepMatched;
+    private byte[] stepGrids;
+    private long[] stepPayouts;
+    private int[] stepClusterCounts;
+    private int stepCount;
+
+    private int initialScatterCount;
+    private long totalPayout;
+
+    public SpinScratch(CompiledMathModel model) {
+        this.model = model;
+        this.topology = model.getTopology();
+        this.cells = model.getCells();
+        this.symbolCount = model.getSymbolCount();
+        this.words = model.getMaskWords();
+        this.grid = new byte[cells];
+        this.initialGrid = new byte[cells];
+        this.symbolMasks = new long[symbolCount];
+        this.refillSnapshot = new byte[cells];
+        this.columnHoles = new int[model.getGridSize()];
+        this.labels = new int[cells];
+        allocateSteps(INITIAL_STEP_CAPACITY);
+    }
+
+    /**
+     * Állapot nullázása egy új spin előtt
+     */
+    public void reset() {
+        Arrays.fill(grid, (byte) 0);
+        stepCount = 0;
+        initialScatterCount = 0;
+        totalPayout = 0;
+    }
+
+    /**
+     * Új cascade lépés megnyitása, szükség esetén a pufferek bővítésével
+     *
+     * @return a lépés indexe
+     */
+    public int beginStep() {
+        if (stepCount == stepPayouts.length) {
+            allocateSteps(stepPayouts.length * 2);
+        }
+        return stepCount++;
+    }
+
+    /**
+     * Az utoljára megnyitott lépés eldobása (ha nem volt találat)
+     */
+    public void abandonStep() {
+        stepCount--;
+    }
+
+    private void allocateSteps(int capacity) {
+        int matchedLength = capacity * symbolCount * words;
+        stepMatched = stepMatched == null ? new long[matchedLength] : Arrays.copyOf(stepMatched, matchedLength);
+        stepGrids = stepGrids == null ? new byte[capacity * cells] : Arrays.copyOf(stepGrids, capacity * cells);
+        stepPayouts = stepPayouts == null ? new long[capacity] : Arrays.copyOf(stepPayouts, capacity);
+        stepClusterCounts = stepClusterCounts == null ? new int[capacity] : Arrays.copyOf(stepClusterCounts, capacity);
+    }
+
+    /**
+     * A kezdő rács elmentése (a generálás után)
+     */
+    public void snapshotInitialGrid() {
+        System.arraycopy(grid, 0, initialGrid, 0, cells);
+    }
+
+    /**
+     * A rács elmentése a lépés utántöltése után
+     */
+    public void snapshotStepGrid(int step) {
+        System.arraycopy(grid, 0, stepGrids, step * cells, cells);
+    }
+
+    public CompiledMathModel getModel() {
+        return model;
+    }
+
+    public GridTopology getTopology() {
+        return topology;
+    }
+
+    public int getCells() {
+        return cells;
+    }
+
+    public int getSymbolCount() {
+        return symbolCount;
+    }
+
+    /** Az aktuális (munka) rács */
+    public byte[] getGrid() {
+        return grid;
+    }
+
+    public byte[] getInitialGrid() {
+        return initialGrid;
+    }
+
+    public long[] getSymbolMasks() {
+        return symbolMasks;
+    }
+
+    /** A rács az oszlopok tömörítése előtt (az utántöltés a jobb szomszédot innen olvassa) */
+    public byte[] getRefillSnapshot() {
+        return refillSnapshot;
+    }
+
+    /** Oszloponként az üres cellák száma a tömörítés után */
+    public int[] getColumnHoles() {
+        return columnHoles;
+    }
+
+    /** Union-find címke tömb a nagy rácsos klaszter kereséshez */
+    public int[] getLabels() {
+        return labels;
+    }
+
+    /**
+     * Lépésenkénti nyerő maszkok: a lépés szimbólumai a step * symbolCount * words offsettől,
+     * szimbólumonként words szó (64 cellás rácsig szimbólumonként egy long)
+     */
+    public long[] getStepMatched() {
+        return stepMatched;
+    }
+
+    public int stepMatchedOffset(int step) {
+        return step * symbolCount * words;
+    }
+
+    public int getMaskWords() {
+        return words;
+    }
+
+    /** Lépésenkénti rácsok az utántöltés után: a lépés rácsa a step * cells offsettől */
+    public byte[] getStepGrids() {
+        return stepGrids;
+    }
+
+    public int stepGridOffset(int step) {
+        return step * cells;
+    }
+
+    public long getStepPayout(int step) {
+        return stepPayouts[step];
+    }
+
+    public void setStepPayout(int step, long payout) {
+        stepPayouts[step] = payout;
+    }
+
+    public int getStepClusterCount(int step) {
+        return stepClusterCounts[step];
+    }
+
+    public void setStepClusterCount(int step, int clusterCount) {
+        stepClusterCounts[step] = clusterCount;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public int getInitialScatterCount() {
+        return initialScatterCount;
+    }
+
+    public void setInitialScatterCount(int initialScatterCount) {
+        this.initialScatterCount = initialScatterCount;
+    }
+
+    public long getTotalPayout() {
+        return totalPayout;
+    }
+
+    public void setTotalPayout(long totalPayout) {
+        this.totalPayout = totalPayout;
+    }
+}
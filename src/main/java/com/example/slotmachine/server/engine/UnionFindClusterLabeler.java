@@ -0,0 +1,113 @@
+package com.example.slotmachine.server.engine;
+
+import java.util.Arrays;
+
+/**
+ * Klaszter keresés tetszőleges méretű (legfeljebb 64x64) rácson kétmenetes, union-find alapú
+ * összefüggő komponens címkézéssel. Az első menet sorfolytonosan egyesíti a bal és a felső azonos
+ * szimbólumú szomszédot, a második menet a gyökerek méretéből jelöli a nyerő cellákat.
+ * Nem rekurzív és nem allokál: a címke tömb a munkaterületé, futási ideje a cellák számával lineáris.
+ * A nyerő maszkok szimbólumonként words darab long szóból állnak (bit = cella index % 64),
+ * 64 cellás vagy kisebb rácson ez ugyanaz az elrendezés, mint a BitboardClusterDetector eredménye.
+ */
+public final class UnionFindClusterLabeler {
+
+    private static final byte EMPTY = -1;
+
+    private final int gridSize;
+    private final int cells;
+    private final int clusterSize;
+    private final int words;
+
+    public UnionFindClusterLabeler(int gridSize, int clusterSize) {
+        if (gridSize <= 0 || gridSize > MathModelDefinition.MAX_GRID_SIZE) {
+            throw new IllegalArgumentException("Invalid grid size: " + gridSize);
+        }
+        this.gridSize = gridSize;
+        this.cells = gridSize * gridSize;
+        this.clusterSize = clusterSize;
+        this.words = maskWords(cells);
+    }
+
+    /**
+     * Egy cellánként egy bites maszk szavainak száma
+     */
+    public static int maskWords(int cells) {
+        return (cells + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * Nyerő klaszterek keresése a rácson.
+     * A matchedOut[offset + symbol * words + w] szavak az adott szimbólum nyerő klasztereinek uniója.
+     *
+     * @param labels legalább cells méretű munka tömb (gyökérnél a komponens mérete negatívan, máshol a szülő)
+     * @return a talált nyerő klaszterek száma
+     */
+    public int findMatches(byte[] grid, int[] labels, long[] matchedOut, int offset, int symbolCount) {
+        Arrays.fill(matchedOut, offset, offset + symbolCount * words, 0L);
+        Arrays.fill(labels, 0, cells, -1);
+
+        // Első menet: egyesítés a bal és a felső szomszéddal
+        for (int cell = 0; cell < cells; cell++) {
+            int symbol = grid[cell];
+            if (symbol == EMPTY) {
+                continue;
+            }
+            if (cell % gridSize > 0 && grid[cell - 1] == symbol) {
+                union(labels, cell, cell - 1);
+            }
+            if (cell >= gridSize && grid[cell - gridSize] == symbol) {
+                union(labels, cell, cell - gridSize);
+            }
+        }
+
+        // Második menet: a legalább clusterSize méretű komponensek cellái nyernek
+        int clusterCount = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            int symbol = grid[cell];
+            if (symbol == EMPTY) {
+                continue;
+            }
+            int root = find(labels, cell);
+            if (-labels[root] >= clusterSize) {
+                matchedOut[offset + symbol * words + (cell >>> 6)] |= 1L << cell;
+                if (root == cell) {
+                    clusterCount++;
+                }
+            }
+        }
+        return clusterCount;
+    }
+
+    // Gyökér keresése útfelezéssel
+    private static int find(int[] labels, int cell) {
+        while (labels[cell] >= 0) {
+            int parent = labels[cell];
+            if (labels[parent] >= 0) {
+                labels[cell] = labels[parent];
+            }
+            cell = parent;
+        }
+        return cell;
+    }
+
+    // Egyesítés méret szerint: a kisebb fa a nagyobb alá kerül
+    private static void union(int[] labels, int a, int b) {
+        int rootA = find(labels, a);
+        int rootB = find(labels, b);
+        if (rootA == rootB) {
+            return;
+        }
+        if (labels[rootA] > labels[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        labels[rootA] += labels[rootB];
+        labels[rootB] = rootA;
+    }
+}
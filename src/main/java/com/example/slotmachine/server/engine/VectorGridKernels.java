@@ -0,0 +1,106 @@
+package com.example.slotmachine.server.engine;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * SIMD rács műveletek a Vector API-val (jdk.incubator.vector, futtatás: --add-modules jdk.incubator.vector).
+ * A rács a platform preferált byte vektoraiban dolgozódik fel, a maradék sávokat maszk kezeli;
+ * az összehasonlítások maszkjai (toLong) közvetlenül a bitboard szavakat adják.
+ * Az oszlop tömörítésnél csak az üres cellák maszkja készül vektorosan: a lyuk nélküli oszlopok
+ * kimaradnak, a többi a legalsó lyuktól skalárisan csúszik le (a byte gather / scatter lassabb volt).
+ */
+public final class VectorGridKernels implements GridKernels {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final byte EMPTY = -1;
+
+    public VectorGridKernels() {
+        // Az osztály betöltése itt bukik el, ha a modul nem elérhető
+        if (SPECIES.length() > Long.SIZE) {
+            throw new IllegalStateException("Unsupported vector length: " + SPECIES.length());
+        }
+    }
+
+    @Override
+    public String getName() {
+        return VECTOR;
+    }
+
+    @Override
+    public int count(byte[] grid, int cells, int symbol) {
+        int count = 0;
+        for (int i = 0; i < cells; i += SPECIES.length()) {
+            VectorMask<Byte> inRange = SPECIES.indexInRange(i, cells);
+            ByteVector v = ByteVector.fromArray(SPECIES, grid, i, inRange);
+            count += v.compare(VectorOperators.EQ, (byte) symbol, inRange).trueCount();
+        }
+        return count;
+    }
+
+    @Override
+    public void buildSymbolMasks(byte[] grid, int cells, long[] symbolMasks, int symbolCount) {
+        Arrays.fill(symbolMasks, 0, symbolCount, 0L);
+        for (int i = 0; i < cells; i += SPECIES.length()) {
+            VectorMask<Byte> inRange = SPECIES.indexInRange(i, cells);
+            ByteVector v = ByteVector.fromArray(SPECIES, grid, i, inRange);
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                symbolMasks[symbol] |= v.compare(VectorOperators.EQ, (byte) symbol, inRange).toLong() << i;
+            }
+        }
+    }
+
+    @Override
+    public void clearMasked(byte[] grid, int cells, long[] matched, int offset, int symbolCount) {
+        long cleared = 0;
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            cleared |= matched[offset + symbol];
+        }
+        for (int i = 0; i < cells && cleared >>> i != 0; i += SPECIES.length()) {
+            VectorMask<Byte> inRange = SPECIES.indexInRange(i, cells);
+            VectorMask<Byte> clear = VectorMask.fromLong(SPECIES, cleared >>> i).and(inRange);
+            ByteVector.fromArray(SPECIES, grid, i, inRange)
+                    .blend(EMPTY, clear)
+                    .intoArray(grid, i, inRange);
+        }
+    }
+
+    @Override
+    public void compactColumns(CompiledMathModel model, byte[] grid, byte[] before, int[] holes) {
+        int gridSize = model.getGridSize();
+        int cells = model.getCells();
+        int[] columnCells = model.getColumnCells();
+        long emptyMask = 0;
+        for (int i = 0; i < cells; i += SPECIES.length()) {
+            VectorMask<Byte> inRange = SPECIES.indexInRange(i, cells);
+            ByteVector v = ByteVector.fromArray(SPECIES, grid, i, inRange);
+            v.intoArray(before, i, inRange);
+            emptyMask |= v.compare(VectorOperators.EQ, EMPTY, inRange).toLong() << i;
+        }
+
+        for (int col = 0; col < gridSize; col++) {
+            long columnEmpty = emptyMask & model.getColumnMask(col);
+            holes[col] = Long.bitCount(columnEmpty);
+            if (columnEmpty == 0) {
+                continue;
+            }
+            // A legalsó lyuk alatti cellák a helyükön maradnak (legnagyobb index = legalsó sor)
+            int base = col * gridSize;
+            int lowestHole = (Long.SIZE - 1 - Long.numberOfLeadingZeros(columnEmpty)) / gridSize;
+            int write = gridSize - 1 - lowestHole;
+            for (int k = write + 1; k < gridSize; k++) {
+                byte symbol = grid[columnCells[base + k]];
+                if (symbol != EMPTY) {
+                    grid[columnCells[base + write++]] = symbol;
+                }
+            }
+            while (write < gridSize) {
+                grid[columnCells[base + write++]] = EMPTY;
+            }
+        }
+    }
+}
@@ -28,14 +28,15 @@ public class GameTransaction {
     @Column(nullable = false)
     private TransactionType type;
     
+    // Összegek minor egységben (BIGINT)
     @Column(nullable = false)
-    private Double amount;
+    private long amount;
     
     @Column(name = "balance_before", nullable = false)
-    private Double balanceBefore;
+    private long balanceBefore;
     
     @Column(name = "balance_after", nullable = false)
-    private Double balanceAfter;
+    private long balanceAfter;
     
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -49,8 +50,8 @@ public class GameTransaction {
     // Constructors
     public GameTransaction() {}
     
-    public GameTransaction(User user, TransactionType type, Double amount, 
-                          Double balanceBefore, Double balanceAfter, String description) {
+    public GameTransaction(User user, TransactionType type, long amount, 
+                          long balanceBefore, long balanceAfter, String description) {
         this.user = user;
         this.type = type;
         this.amount = amount;
@@ -84,27 +85,27 @@ public class GameTransaction {
         this.type = type;
     }
 
-    public Double getAmount() {
+    public long getAmount() {
         return amount;
     }
 
-    public void setAmount(Double amount) {
+    public void setAmount(long amount) {
         this.amount = amount;
     }
 
-    public Double getBalanceBefore() {
+    public long getBalanceBefore() {
         return balanceBefore;
     }
 
-    public void setBalanceBefore(Double balanceBefore) {
+    public void setBalanceBefore(long balanceBefore) {
         this.balanceBefore = balanceBefore;
     }
 
-    public Double getBalanceAfter() {
+    public long getBalanceAfter() {
         return balanceAfter;
     }
 
-    public void setBalanceAfter(Double balanceAfter) {
+    public void setBalanceAfter(long balanceAfter) {
         this.balanceAfter = balanceAfter;
     }
 
@@ -0,0 +1,66 @@
+package com.example.slotmachine.server.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Egy spin visszajátszásához szükséges konfiguráció: motor verzió, RNG algoritmus és a teljes matematikai modell.
+ * Az azonosító a tartalom ujjlenyomata, így minden konfiguráció egyszer tárolódik, a spinek csak hivatkoznak rá.
+ */
+@Entity
+@Table(name = "spin_configurations")
+public class SpinConfiguration {
+    @Id
+    private Long id;
+
+    @Column(name = "engine_version", nullable = false)
+    private int engineVersion;
+
+    @Column(name = "rng_algorithm", nullable = false)
+    private String rngAlgorithm;
+
+    @Column(name = "model_name", nullable = false)
+    private String modelName;
+
+    // A modell definíciója JSON-ban
+    @Lob
+    @Column(name = "model_definition", nullable = false)
+    private String modelDefinition;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Constructors
+    public SpinConfiguration() {}
+
+    public SpinConfiguration(Long id, int engineVersion, String rngAlgorithm, String modelName, String modelDefinition) {
+        this.id = id;
+        this.engineVersion = engineVersion;
+        this.rngAlgorithm = rngAlgorithm;
+        this.modelName = modelName;
+        this.modelDefinition = modelDefinition;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public int getEngineVersion() { return engineVersion; }
+    public void setEngineVersion(int engineVersion) { this.engineVersion = engineVersion; }
+
+    public String getRngAlgorithm() { return rngAlgorithm; }
+    public void setRngAlgorithm(String rngAlgorithm) { this.rngAlgorithm = rngAlgorithm; }
+
+    public String getModelName() { return modelName; }
+    public void setModelName(String modelName) { this.modelName = modelName; }
+
+    public String getModelDefinition() { return modelDefinition; }
+    public void setModelDefinition(String modelDefinition) { this.modelDefinition = modelDefinition; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
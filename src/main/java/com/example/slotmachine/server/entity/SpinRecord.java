@@ -0,0 +1,106 @@
+package com.example.slotmachine.server.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Tömör spin napló: a rácsok helyett a seed és a konfiguráció, amelyből a spin pontosan visszajátszható
+ */
+@Entity
+@Table(name = "spin_records", indexes = @Index(name = "idx_spin_records_user", columnList = "user_id, created_at"))
+public class SpinRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // SpinConfiguration azonosító (motor + RNG + modell ujjlenyomat)
+    @Column(name = "configuration_id", nullable = false)
+    private long configurationId;
+
+    @Column(nullable = false)
+    private long seed;
+
+    @Column(name = "bet_amount", nullable = false)
+    private int betAmount;
+
+    // Nyeremény minor egységben
+    @Column(nullable = false)
+    private long payout;
+
+    @Column(name = "bonus_mode", nullable = false)
+    private boolean bonusMode;
+
+    // Provably fair spinnél a felfedett server seed, a kliens seed és a nonce (különben üres)
+    @Column(name = "server_seed", length = 64)
+    private String serverSeed;
+
+    @Column(name = "client_seed", length = 64)
+    private String clientSeed;
+
+    @Column
+    private Long nonce;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Constructors
+    public SpinRecord() {}
+
+    public SpinRecord(User user, long configurationId, long seed, int betAmount, long payout, boolean bonusMode) {
+        this.user = user;
+        this.configurationId = configurationId;
+        this.seed = seed;
+        this.betAmount = betAmount;
+        this.payout = payout;
+        this.bonusMode = bonusMode;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public long getConfigurationId() { return configurationId; }
+    public void setConfigurationId(long configurationId) { this.configurationId = configurationId; }
+
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+
+    public int getBetAmount() { return betAmount; }
+    public void setBetAmount(int betAmount) { this.betAmount = betAmount; }
+
+    public long getPayout() { return payout; }
+    public void setPayout(long payout) { this.payout = payout; }
+
+    public boolean isBonusMode() { return bonusMode; }
+    public void setBonusMode(boolean bonusMode) { this.bonusMode = bonusMode; }
+
+    public String getServerSeed() { return serverSeed; }
+    public void setServerSeed(String serverSeed) { this.serverSeed = serverSeed; }
+
+    public String getClientSeed() { return clientSeed; }
+    public void setClientSeed(String clientSeed) { this.clientSeed = clientSeed; }
+
+    public Long getNonce() { return nonce; }
+    public void setNonce(Long nonce) { this.nonce = nonce; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -22,7 +22,7 @@ public class User {
     private String password; // BCrypt hash
     
     @Column(nullable = false)
-    private Double balance = 0.0;
+    private long balance = 0; // minor egységben (BIGINT)
     
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -33,6 +33,12 @@ public class User {
     @Column(nullable = false)
     private Boolean active = true;
 
+    @Column(name = "pending_bonus_bet")
+    private Integer pendingBonusBet; // a bonust indító spin tétje, amíg a bonus kör nincs lejátszva
+
+    @Column(name = "pending_bonus_game")
+    private String pendingBonusGame; // a bonust indító játék azonosítója (null = alapértelmezett játék)
+
     // Constructors
     public User() {}
     
@@ -66,11 +72,11 @@ public class User {
         this.password = password;
     }
 
-    public Double getBalance() {
+    public long getBalance() {
         return balance;
     }
 
-    public void setBalance(Double balance) {
+    public void setBalance(long balance) {
         this.balance = balance;
     }
 
@@ -97,4 +103,20 @@ public class User {
     public void setActive(Boolean active) {
         this.active = active;
     }
+
+    public Integer getPendingBonusBet() {
+        return pendingBonusBet;
+    }
+
+    public void setPendingBonusBet(Integer pendingBonusBet) {
+        this.pendingBonusBet = pendingBonusBet;
+    }
+
+    public String getPendingBonusGame() {
+        return pendingBonusGame;
+    }
+
+    public void setPendingBonusGame(String pendingBonusGame) {
+        this.pendingBonusGame = pendingBonusGame;
+    }
 }
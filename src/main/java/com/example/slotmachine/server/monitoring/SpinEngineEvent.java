@@ -0,0 +1,45 @@
+package com.example.slotmachine.server.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR esemény: egy szerver spin a motorban (rács generálás, cascade lépések, SpinResult felépítése).
+ * Csak a küszöbnél lassabb spinek kerülnek a felvételbe; felvétel nélkül a költsége elhanyagolható.
+ */
+@Name("slotmachine.SpinEngine")
+@Label("Spin Engine")
+@Category({"Slot Machine", "Spin"})
+@Description("Engine time of one server spin")
+@Threshold("1 ms")
+@StackTrace(false)
+public class SpinEngineEvent extends Event {
+
+    @Label("Math Model")
+    public String model;
+
+    @Label("Bet Amount")
+    public int betAmount;
+
+    @Label("Bonus Mode")
+    public boolean bonusMode;
+
+    @Label("Cascade Steps")
+    public int cascades;
+
+    @Label("Clusters")
+    @Description("Winning clusters over all cascade steps")
+    public int clusters;
+
+    @Label("Payout")
+    @Description("Total payout in minor units")
+    public long payout;
+
+    @Label("Seed")
+    public long seed;
+}
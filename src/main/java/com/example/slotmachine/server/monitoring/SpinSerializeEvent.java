@@ -0,0 +1,32 @@
+package com.example.slotmachine.server.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR esemény: a spin válasz DTO felépítése és JSON szerializálása a GameController-ben
+ */
+@Name("slotmachine.SpinSerialize")
+@Label("Spin Serialize")
+@Category({"Slot Machine", "Spin"})
+@Description("Response mapping and JSON serialization of spin results")
+@Threshold("1 ms")
+@StackTrace(false)
+public class SpinSerializeEvent extends Event {
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Spins")
+    public int spins;
+
+    @Label("Response Size")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,94 @@
+package com.example.slotmachine.server.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR esemény: egy GameService művelet a zárolt felhasználó sorral, a balance módosítással és a mentésekkel.
+ * A sor zárolására várás külön mező, így látszik, hogy a lassú spin a zár vagy a mentés miatt lassú.
+ * A tranzakció commitja a szolgáltatás metódus után fut; azt a JDBC/socket események mutatják.
+ */
+@Name("slotmachine.WalletUpdate")
+@Label("Wallet Update")
+@Category({"Slot Machine", "Wallet"})
+@Description("Balance mutation and transaction saves of one game request")
+@Threshold("5 ms")
+@StackTrace(false)
+public class WalletUpdateEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Game")
+    public String gameId;
+
+    @Label("Spins")
+    public int spins;
+
+    @Label("Transactions")
+    public int transactions;
+
+    @Label("Lock Wait")
+    @Description("Time spent acquiring the user row lock")
+    @Timespan(Timespan.NANOSECONDS)
+    public long lockWait;
+
+    @Label("Save Time")
+    @Description("Time spent saving transactions, spin records and the user")
+    @Timespan(Timespan.NANOSECONDS)
+    public long saveTime;
+
+    // A következő szakasz kezdete (nem kerül a felvételbe)
+    private transient long mark;
+
+    /**
+     * Az esemény indítása a sor zárolása előtt
+     */
+    public void start() {
+        begin();
+        if (isEnabled()) {
+            mark = System.nanoTime();
+        }
+    }
+
+    /**
+     * A felhasználó sora zárolva: a zárra várás vége
+     */
+    public void locked() {
+        if (isEnabled()) {
+            long now = System.nanoTime();
+            lockWait = now - mark;
+            mark = now;
+        }
+    }
+
+    /**
+     * A mentések kezdete
+     */
+    public void saving() {
+        if (isEnabled()) {
+            mark = System.nanoTime();
+        }
+    }
+
+    /**
+     * A mentések vége: az esemény lezárása és rögzítése, ha a küszöb felett van
+     */
+    public void saved(String operation, String gameId, int spins, int transactions) {
+        end();
+        if (shouldCommit()) {
+            this.saveTime = System.nanoTime() - mark;
+            this.operation = operation;
+            this.gameId = gameId;
+            this.spins = spins;
+            this.transactions = transactions;
+            commit();
+        }
+    }
+}
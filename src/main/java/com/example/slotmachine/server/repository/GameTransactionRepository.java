@@ -14,10 +14,10 @@ public interface GameTransactionRepository extends JpaRepository<GameTransaction
     List<GameTransaction> findByUserOrderByCreatedAtDesc(User user);
     
     @Query("SELECT SUM(t.amount) FROM GameTransaction t WHERE t.user = :user AND t.type = 'BET' AND t.createdAt >= :since")
-    Double getTotalBetsForUserSince(User user, LocalDateTime since);
+    Long getTotalBetsForUserSince(User user, LocalDateTime since);
     
     @Query("SELECT SUM(t.amount) FROM GameTransaction t WHERE t.user = :user AND t.type = 'WIN' AND t.createdAt >= :since")
-    Double getTotalWinsForUserSince(User user, LocalDateTime since);
+    Long getTotalWinsForUserSince(User user, LocalDateTime since);
     
     void deleteByUser(User user);
 }
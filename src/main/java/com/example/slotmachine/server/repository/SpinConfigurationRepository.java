@@ -0,0 +1,9 @@
+package com.example.slotmachine.server.repository;
+
+import com.example.slotmachine.server.entity.SpinConfiguration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SpinConfigurationRepository extends JpaRepository<SpinConfiguration, Long> {
+}
@@ -0,0 +1,16 @@
+package com.example.slotmachine.server.repository;
+
+import com.example.slotmachine.server.entity.SpinRecord;
+import com.example.slotmachine.server.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SpinRecordRepository extends JpaRepository<SpinRecord, Long> {
+    List<SpinRecord> findByUserOrderByIdDesc(User user, Pageable pageable);
+
+    void deleteByUser(User user);
+}
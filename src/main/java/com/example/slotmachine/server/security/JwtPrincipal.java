@@ -0,0 +1,26 @@
+package com.example.slotmachine.server.security;
+
+import java.time.Instant;
+
+/**
+ * A kérés hitelesített felhasználója a JWT-ből. A szűrő kérésenként egyszer ellenőrzi a tokent,
+ * a controllerek ezt olvassák a SecurityContext-ből újbóli beolvasás helyett.
+ */
+public class JwtPrincipal {
+
+    private final Long userId; // a régi (felhasználó azonosító nélküli) tokenekben null
+    private final String username;
+    private final Instant expiresAt;
+
+    public JwtPrincipal(Long userId, String username, Instant expiresAt) {
+        this.userId = userId;
+        this.username = username;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getUserId() { return userId; }
+
+    public String getUsername() { return username; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+}
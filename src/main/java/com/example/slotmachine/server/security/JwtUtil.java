@@ -2,6 +2,7 @@ package com.example.slotmachine.server.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -14,6 +15,8 @@ import java.util.Date;
 public class JwtUtil {
     private final SecretKey secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
     private final int jwtExpiration = 86400000; // 24 hours
+    // Előre felépített, szálbiztos parser: nem kell tokenenként újra összerakni
+    private final JwtParser parser = Jwts.parser().verifyWith(secretKey).build();
 
     public String generateToken(String username) {
         return Jwts.builder()
@@ -34,59 +37,29 @@ public class JwtUtil {
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
-    }
-    
-    public Long getUserIdFromToken(String token) {
+    /**
+     * A token egyszeri ellenőrzése (aláírás, lejárat) és beolvasása; érvénytelen vagy lejárt tokennél null
+     */
+    public JwtPrincipal parse(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            
-            Object userIdObj = claims.get("userId");
-            if (userIdObj instanceof Integer) {
-                return ((Integer) userIdObj).longValue();
-            } else if (userIdObj instanceof Long) {
-                return (Long) userIdObj;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            Date expiration = claims.getExpiration();
+            if (expiration == null || expiration.before(new Date())) {
+                return null;
             }
-            return null;
+            return new JwtPrincipal(userId(claims), claims.getSubject(), expiration.toInstant());
         } catch (JwtException | IllegalArgumentException e) {
             return null;
         }
     }
 
-    public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            System.err.println("Token validation failed: " + e.getMessage());
-            return false;
-        }
-    }
-
-    public boolean isTokenExpired(String token) {
-        try {
-            Date expiration = Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload()
-                    .getExpiration();
-            return expiration.before(new Date());
-        } catch (JwtException | IllegalArgumentException e) {
-            return true;
+    private static Long userId(Claims claims) {
+        Object userIdObj = claims.get("userId");
+        if (userIdObj instanceof Integer) {
+            return ((Integer) userIdObj).longValue();
+        } else if (userIdObj instanceof Long) {
+            return (Long) userIdObj;
         }
+        return null;
     }
 }
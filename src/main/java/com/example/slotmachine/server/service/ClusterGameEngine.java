@@ -0,0 +1,44 @@
+package com.example.slotmachine.server.service;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+
+/**
+ * További játék a közös motoron: csak az azonosítót és a modellt tartja, a spineket a SlotMachineEngine futtatja
+ */
+public class ClusterGameEngine implements GameEngine {
+
+    private final String gameId;
+    private final SlotMachineEngine slotMachineEngine;
+    private final CompiledMathModel model;
+
+    public ClusterGameEngine(String gameId, SlotMachineEngine slotMachineEngine, CompiledMathModel model) {
+        this.gameId = gameId;
+        this.slotMachineEngine = slotMachineEngine;
+        this.model = model;
+    }
+
+    @Override
+    public String getGameId() {
+        return gameId;
+    }
+
+    @Override
+    public CompiledMathModel getMathModel() {
+        return model;
+    }
+
+    @Override
+    public SlotMachineEngine.SpinResult processSpin(CompiledMathModel model, int betAmount, boolean isBonusMode) {
+        return slotMachineEngine.processSpin(model, betAmount, isBonusMode);
+    }
+
+    @Override
+    public SlotMachineEngine.SpinResult processSpin(CompiledMathModel model, int betAmount, boolean isBonusMode, long seed) {
+        return slotMachineEngine.processSpin(model, betAmount, isBonusMode, seed);
+    }
+
+    @Override
+    public SlotMachineEngine.SpinResult processBonusTriggerSpin(CompiledMathModel model, int betAmount) {
+        return slotMachineEngine.processBonusTriggerSpin(model, betAmount);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.slotmachine.server.service;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+
+/**
+ * Egy játék (math variáns) a szerveren: azonosító és a saját előre fordított modellje.
+ * A spineket a közös SlotMachineEngine futtatja, így az RNG, a szálankénti munkaterületek és a rács műveletek
+ * minden játéknak közösek; egy további játék csak a modelljét (táblákat) tartja memóriában.
+ */
+public interface GameEngine {
+
+    String getGameId();
+
+    /**
+     * A játék aktuális modellje
+     */
+    CompiledMathModel getMathModel();
+
+    /**
+     * Spin egy rögzített modellen (egy bonus kör összes spinje ugyanazon a modellen fut)
+     */
+    SlotMachineEngine.SpinResult processSpin(CompiledMathModel model, int betAmount, boolean isBonusMode);
+
+    /**
+     * Spin egy rögzített modellen adott seed-del (provably fair spin: a seed a server és kliens seed-ből)
+     */
+    SlotMachineEngine.SpinResult processSpin(CompiledMathModel model, int betAmount, boolean isBonusMode, long seed);
+
+    /**
+     * Bonust indító spin (bonus vásárlás) egy rögzített modellen
+     */
+    SlotMachineEngine.SpinResult processBonusTriggerSpin(CompiledMathModel model, int betAmount);
+}
@@ -0,0 +1,120 @@
+package com.example.slotmachine.server.service;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A szerveren futó játékok játék azonosító szerint.
+ * Az alapértelmezett játék a SlotMachineEngine (a math model újratöltéssel és a katalógussal);
+ * további játékok a slotmachine.games listából (azonosító=modell fájl, vesszővel elválasztva),
+ * ezek ugyanazt az RNG-t és szálankénti munkaterületeket használják, csak a modelljük külön.
+ */
+@Service
+public class GameEngineRegistry {
+
+    @Autowired
+    private SlotMachineEngine slotMachineEngine;
+
+    @Autowired
+    private SpinReplayService spinReplayService;
+
+    @Value("${slotmachine.games:}")
+    private String games;
+
+    private final Map<String, GameEngine> engines = new ConcurrentHashMap<>();
+
+    public GameEngineRegistry() {}
+
+    public GameEngineRegistry(SlotMachineEngine slotMachineEngine) {
+        this.slotMachineEngine = slotMachineEngine;
+        engines.put(SlotMachineEngine.DEFAULT_GAME_ID, slotMachineEngine);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        engines.put(SlotMachineEngine.DEFAULT_GAME_ID, slotMachineEngine);
+        // Induláskor a hibás játék konfiguráció megállítja a szervert
+        for (Map.Entry<String, String> game : parseGames(games).entrySet()) {
+            CompiledMathModel model;
+            try (InputStream in = Files.newInputStream(Path.of(game.getValue()))) {
+                model = CompiledMathModel.load(in);
+            }
+            // Archiválás a regisztráció előtt: a spin útvonal már csak kiolvassa az ujjlenyomatot
+            spinReplayService.archive(model);
+            register(game.getKey(), model);
+            System.out.println("🎰 Jatek regisztralva: " + game.getKey() + " (" + model.getName() + ")");
+        }
+    }
+
+    /**
+     * Játék regisztrálása a közös motoron.
+     * A bonus vásárlás próbálkozási korlátja itt mérődik (és elutasítja a bonust nem indító modellt).
+     *
+     * @throws IllegalArgumentException ha az azonosító foglalt vagy hibás
+     */
+    public GameEngine register(String gameId, CompiledMathModel model) {
+        if (gameId == null || !gameId.matches("[A-Za-z0-9_-]{1,32}")) {
+            throw new IllegalArgumentException("Invalid game id: " + gameId);
+        }
+        slotMachineEngine.getBonusTriggerAttemptLimit(model);
+        GameEngine engine = new ClusterGameEngine(gameId, slotMachineEngine, model);
+        if (engines.putIfAbsent(gameId, engine) != null) {
+            throw new IllegalArgumentException("Game already registered: " + gameId);
+        }
+        return engine;
+    }
+
+    /**
+     * A játék motorja; üres azonosító esetén az alapértelmezett játék
+     *
+     * @throws IllegalArgumentException ismeretlen játék esetén
+     */
+    public GameEngine get(String gameId) {
+        if (gameId == null || gameId.isBlank()) {
+            return engines.get(SlotMachineEngine.DEFAULT_GAME_ID);
+        }
+        GameEngine engine = engines.get(gameId);
+        if (engine == null) {
+            throw new IllegalArgumentException("Unknown game: " + gameId);
+        }
+        return engine;
+    }
+
+    public boolean isDefault(GameEngine engine) {
+        return SlotMachineEngine.DEFAULT_GAME_ID.equals(engine.getGameId());
+    }
+
+    public List<GameEngine> getEngines() {
+        return List.copyOf(engines.values());
+    }
+
+    /**
+     * "id=path,id2=path2" feldolgozása sorrendtartó map-be
+     */
+    static Map<String, String> parseGames(String games) {
+        Map<String, String> parsed = new LinkedHashMap<>();
+        if (games == null || games.isBlank()) {
+            return parsed;
+        }
+        for (String entry : games.split(",")) {
+            int separator = entry.indexOf('=');
+            if (separator <= 0 || separator == entry.length() - 1) {
+                throw new IllegalArgumentException("Invalid game entry (expected id=model-path): " + entry.trim());
+            }
+            parsed.put(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim());
+        }
+        return parsed;
+    }
+}
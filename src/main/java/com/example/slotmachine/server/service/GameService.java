@@ -1,18 +1,27 @@
 package com.example.slotmachine.server.service;
 
+import com.example.slotmachine.client.Money;
 import com.example.slotmachine.server.dto.SpinResponse;
+import com.example.slotmachine.server.engine.CompiledMathModel;
 import com.example.slotmachine.server.entity.GameTransaction;
+import com.example.slotmachine.server.entity.SpinRecord;
 import com.example.slotmachine.server.entity.User;
+import com.example.slotmachine.server.monitoring.WalletUpdateEvent;
 import com.example.slotmachine.server.repository.GameTransactionRepository;
+import com.example.slotmachine.server.repository.SpinRecordRepository;
 import com.example.slotmachine.server.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static com.example.slotmachine.client.GameSettings.BONUS_PRICE;
+
 @Service
 @Transactional
 public class GameService {
@@ -24,65 +33,450 @@ public class GameService {
     private GameTransactionRepository transactionRepository;
 
     @Autowired
-    private SlotMachineEngine slotMachineEngine;
+    private GameEngineRegistry gameEngineRegistry;
+
+    @Autowired
+    private SpinRecordRepository spinRecordRepository;
+
+    @Autowired
+    private SpinReplayService spinReplayService;
+
+    @Autowired
+    private OutcomeCatalogService outcomeCatalogService;
+
+    @Autowired
+    private ProvablyFairService provablyFairService;
+
+    // Egy batch kérésben lejátszható spinek maximális száma
+    public static final int MAX_BATCH_SPINS = 100;
 
     /**
-     * Új spin feldolgozás - a szerver generálja a szimbólumokat és számítja a nyereményt
+     * Új spin feldolgozás - a szerver generálja a szimbólumokat és számítja a nyereményt.
+     * Mindig fizetett alapjáték spin; a free spineket a processBonusRound játssza le.
+     *
+     * @param gameId a játék azonosítója (null = alapértelmezett játék)
      */
-    public SlotMachineEngine.SpinResult processSpinNew(String username, Integer betAmount, Boolean isBonusMode) {
-        User user = userRepository.findByUsername(username)
+    public SlotMachineEngine.SpinResult processSpinNew(String username, String gameId, Integer betAmount) {
+        return processSpinNew(username, gameId, betAmount, null);
+    }
+
+    /**
+     * Spin kliens seed-del: megadva provably fair spin, a seed a játékos server seed láncából és a kliens seed-ből
+     *
+     * @param clientSeed a kliens seed (null = normál spin)
+     */
+    public SlotMachineEngine.SpinResult processSpinNew(String username, String gameId, Integer betAmount, String clientSeed) {
+        GameEngine engine = gameEngineRegistry.get(gameId);
+        if (clientSeed != null) {
+            ProvablyFairService.validateClientSeed(clientSeed);
+            // A katalógus kimenetei nem seed-ből állnak elő
+            if (usesCatalog(engine)) {
+                throw new IllegalArgumentException("Provably fair spins are not available for this game");
+            }
+        }
+        WalletUpdateEvent wallet = new WalletUpdateEvent();
+        wallet.start();
+        // Zárolt sor: a párhuzamos spin és bonus vásárlás nem írhatja felül egymás balance módosítását
+        User user = userRepository.findByUsernameForUpdate(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        wallet.locked();
+        requireNoPendingBonus(user);
 
-        // Ellenőrizzük, hogy van-e elég balance
-        if (user.getBalance() < betAmount) {
+        // Ellenőrizzük, hogy van-e elég balance (a tét egész kredit, a balance minor egység)
+        if (user.getBalance() < Money.toMinor(betAmount)) {
             throw new RuntimeException("Insufficient balance");
         }
 
-        Double balanceBefore = user.getBalance();
+        List<GameTransaction> transactions = new ArrayList<>(2);
+        List<SpinRecord> spinRecords = new ArrayList<>(1);
+        ProvablyFairService.FairSeed fairSeed = clientSeed != null ? provablyFairService.next(user.getId(), clientSeed) : null;
+        SlotMachineEngine.SpinResult spinResult = playSpin(engine, user, betAmount, fairSeed, transactions, spinRecords);
+
+        wallet.saving();
+        transactionRepository.saveAll(transactions);
+        saveSpinRecords(List.of(spinResult), spinRecords);
+        userRepository.save(user);
+        wallet.saved("SPIN", engine.getGameId(), 1, transactions.size());
+        return spinResult;
+    }
+
+    /**
+     * Több alapjáték spin egyetlen tranzakcióban (autoplay).
+     * Leáll, ha elfogy a balance, vagy ha egy spin bonust indít (a bonus kört a /bonus játssza le).
+     */
+    public BatchSpinResult processSpinBatch(String username, String gameId, Integer betAmount, Integer spinCount) {
+        GameEngine engine = gameEngineRegistry.get(gameId);
+        WalletUpdateEvent wallet = new WalletUpdateEvent();
+        wallet.start();
+        User user = userRepository.findByUsernameForUpdate(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        wallet.locked();
+        requireNoPendingBonus(user);
+
+        // Az első spinhez is kell elég balance, különben nincs mit visszaadni
+        long betMinor = Money.toMinor(betAmount);
+        if (user.getBalance() < betMinor) {
+            throw new RuntimeException("Insufficient balance");
+        }
+
+        BatchSpinResult batch = new BatchSpinResult(spinCount);
+        List<GameTransaction> transactions = new ArrayList<>(spinCount * 2);
+        List<SpinRecord> spinRecords = new ArrayList<>(spinCount);
+        for (int i = 0; i < spinCount; i++) {
+            if (user.getBalance() < betMinor) {
+                batch.setStopReason(BatchSpinResult.StopReason.INSUFFICIENT_BALANCE);
+                break;
+            }
+
+            SlotMachineEngine.SpinResult spinResult = playSpin(engine, user, betAmount, null, transactions, spinRecords);
+            batch.addSpin(spinResult, user.getBalance());
+
+            if (spinResult.isBonusTrigger()) {
+                batch.setStopReason(BatchSpinResult.StopReason.BONUS_TRIGGER);
+                break;
+            }
+        }
+
+        wallet.saving();
+        transactionRepository.saveAll(transactions);
+        saveSpinRecords(batch.getSpins(), spinRecords);
+        userRepository.save(user);
+        wallet.saved("BATCH", engine.getGameId(), batch.getSpins().size(), transactions.size());
+        return batch;
+    }
+
+    /**
+     * Egy spin lejátszása: tét levonása, spin, nyeremény jóváírása.
+     * A tranzakciók és a spin napló bejegyzés a listákba kerülnek, a mentés a hívó dolga.
+     *
+     * @param fairSeed provably fair spinnél a seed-ek (null = a motor saját seed-je)
+     */
+    private SlotMachineEngine.SpinResult playSpin(GameEngine engine, User user, Integer betAmount,
+                                                  ProvablyFairService.FairSeed fairSeed,
+                                                  List<GameTransaction> transactions, List<SpinRecord> spinRecords) {
+        long balanceBefore = user.getBalance();
+        long betMinor = Money.toMinor(betAmount);
         
         // Tét levonása
-        user.setBalance(user.getBalance() - betAmount);
+        user.setBalance(balanceBefore - betMinor);
         
         // Tét tranzakció rögzítése
-        GameTransaction betTransaction = new GameTransaction(
+        transactions.add(new GameTransaction(
                 user, 
                 GameTransaction.TransactionType.BET, 
-                -betAmount.doubleValue(), 
+                -betMinor, 
                 balanceBefore, 
                 user.getBalance(),
                 "Spin bet"
-        );
-        transactionRepository.save(betTransaction);
+        ));
 
-        // Spin feldolgozása a játékmotor segítségével
-        SlotMachineEngine.SpinResult spinResult = slotMachineEngine.processSpin(betAmount, isBonusMode != null ? isBonusMode : false);
+        SlotMachineEngine.SpinResult spinResult;
+        if (fairSeed != null) {
+            spinResult = engine.processSpin(currentModel(engine), betAmount, false, fairSeed.getSeed());
+            spinResult.setFairSeed(fairSeed);
+        } else {
+            spinResult = nextSpin(engine, currentModel(engine), betAmount, false);
+        }
 
         // Ha van nyeremény, hozzáadjuk
         if (spinResult.getTotalPayout() > 0) {
-            Double balanceBeforeWin = user.getBalance();
+            long balanceBeforeWin = user.getBalance();
             
             user.setBalance(user.getBalance() + spinResult.getTotalPayout());
             
             // Nyeremény tranzakció rögzítése
-            GameTransaction winTransaction = new GameTransaction(
+            transactions.add(new GameTransaction(
                     user,
                     GameTransaction.TransactionType.WIN,
                     spinResult.getTotalPayout(),
                     balanceBeforeWin,
                     user.getBalance(),
                     "Spin win"
-            );
-            transactionRepository.save(winTransaction);
+            ));
         }
 
-        userRepository.save(user);
+        // A bonus kör a trigger tétjével jár, és lejátszásáig nem indítható új spin
+        if (spinResult.isBonusTrigger()) {
+            user.setPendingBonusBet(betAmount);
+            user.setPendingBonusGame(engine.getGameId());
+        }
+
+        SpinRecord record = spinReplayService.newRecord(user, spinResult, false);
+        if (fairSeed != null) {
+            record.setServerSeed(fairSeed.getServerSeed());
+            record.setClientSeed(fairSeed.getClientSeed());
+            record.setNonce(fairSeed.getNonce());
+        }
+        spinRecords.add(record);
         return spinResult;
     }
 
+    /**
+     * A függő bonus kör teljes lejátszása egy tranzakcióban: az összes free spin a retriggerekkel együtt.
+     * A free spinekért nincs tét levonás, a teljes nyeremény egyszerre kerül jóváírásra.
+     */
+    public BonusRoundResult processBonusRound(String username) {
+        WalletUpdateEvent wallet = new WalletUpdateEvent();
+        wallet.start();
+        // Zárolt sor: párhuzamos kérésekből a bonus kör csak egyszer játszható le
+        User user = userRepository.findByUsernameForUpdate(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        wallet.locked();
+        Integer betAmount = user.getPendingBonusBet();
+        if (betAmount == null) {
+            throw new RuntimeException("No bonus round pending");
+        }
+
+        // A kör azon a játékon fut, amelyik indította
+        GameEngine engine = gameEngineRegistry.get(user.getPendingBonusGame());
+        List<GameTransaction> transactions = new ArrayList<>(1);
+        List<SpinRecord> spinRecords = new ArrayList<>();
+        BonusRoundResult round = playBonusRound(engine, user, currentModel(engine), betAmount, transactions, spinRecords);
+
+        wallet.saving();
+        transactionRepository.saveAll(transactions);
+        saveSpinRecords(round.getSpins(), spinRecords);
+        userRepository.save(user);
+        wallet.saved("BONUS", engine.getGameId(), round.getSpins().size(), transactions.size());
+        return round;
+    }
+
+    /**
+     * Bonus vásárlás BONUS_PRICE x tét áron: a levonás, a bonust indító spin és a teljes bonus kör egy tranzakcióban.
+     * A felhasználó sora zárolt, így párhuzamos vásárlásoknál sincs dupla levonás vagy túlköltés.
+     */
+    public BonusRoundResult processBonusBuy(String username, String gameId, Integer betAmount) {
+        GameEngine engine = gameEngineRegistry.get(gameId);
+        WalletUpdateEvent wallet = new WalletUpdateEvent();
+        wallet.start();
+        User user = userRepository.findByUsernameForUpdate(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        wallet.locked();
+        requireNoPendingBonus(user);
+
+        long price = Money.toMinor(betAmount) * BONUS_PRICE;
+        if (user.getBalance() < price) {
+            throw new RuntimeException("Insufficient balance");
+        }
+
+        long balanceBefore = user.getBalance();
+        user.setBalance(balanceBefore - price);
+        List<GameTransaction> transactions = new ArrayList<>(3);
+        transactions.add(new GameTransaction(
+                user,
+                GameTransaction.TransactionType.BET,
+                -price,
+                balanceBefore,
+                user.getBalance(),
+                "Bonus buy"
+        ));
+
+        // A bonust indító spin a saját nyereményével együtt jár a vásárlással; a kör ugyanazon a modellen fut
+        CompiledMathModel model = currentModel(engine);
+        SlotMachineEngine.SpinResult triggerSpin = nextBonusTriggerSpin(engine, model, betAmount);
+        if (triggerSpin.getTotalPayout() > 0) {
+            long balanceBeforeWin = user.getBalance();
+            user.setBalance(balanceBeforeWin + triggerSpin.getTotalPayout());
+            transactions.add(new GameTransaction(
+                    user,
+                    GameTransaction.TransactionType.WIN,
+                    triggerSpin.getTotalPayout(),
+                    balanceBeforeWin,
+                    user.getBalance(),
+                    "Spin win"
+            ));
+        }
+        List<SpinRecord> spinRecords = new ArrayList<>();
+        spinRecords.add(spinReplayService.newRecord(user, triggerSpin, false));
+
+        BonusRoundResult round = playBonusRound(engine, user, model, betAmount, transactions, spinRecords);
+        round.setPrice(price);
+        round.setTriggerSpin(triggerSpin);
+
+        List<SlotMachineEngine.SpinResult> spins = new ArrayList<>(round.getSpins().size() + 1);
+        spins.add(triggerSpin);
+        spins.addAll(round.getSpins());
+        wallet.saving();
+        transactionRepository.saveAll(transactions);
+        saveSpinRecords(spins, spinRecords);
+        userRepository.save(user);
+        wallet.saved("BONUS_BUY", engine.getGameId(), spins.size(), transactions.size());
+        return round;
+    }
+
+    /**
+     * A bonus kör lejátszása a (zárolt) felhasználóra: az összes free spin a retriggerekkel együtt,
+     * a teljes nyeremény egyetlen jóváírással. A mentés a hívó dolga.
+     */
+    private BonusRoundResult playBonusRound(GameEngine engine, User user, CompiledMathModel model, int betAmount,
+                                            List<GameTransaction> transactions, List<SpinRecord> spinRecords) {
+        // A kör minden spinje ugyanazon a modellen fut, akkor is, ha közben modellcsere történik
+        BonusRoundResult round = new BonusRoundResult(betAmount, model.getFreeSpins(), model.getRetriggerSpins());
+        playFreeSpins(model, round, () -> nextSpin(engine, model, betAmount, true));
+        for (SlotMachineEngine.SpinResult spinResult : round.getSpins()) {
+            spinRecords.add(spinReplayService.newRecord(user, spinResult, true));
+        }
+
+        long balanceBefore = user.getBalance();
+        round.setBalanceBefore(balanceBefore);
+        if (round.getTotalPayout() > 0) {
+            user.setBalance(balanceBefore + round.getTotalPayout());
+            transactions.add(new GameTransaction(
+                    user,
+                    GameTransaction.TransactionType.WIN,
+                    round.getTotalPayout(),
+                    balanceBefore,
+                    user.getBalance(),
+                    "Bonus win (" + round.getSpins().size() + " free spins)"
+            ));
+        }
+        user.setPendingBonusBet(null);
+        user.setPendingBonusGame(null);
+        round.setNewBalance(user.getBalance());
+        return round;
+    }
+
+    /**
+     * A free spin sorozat lejátszása a kör eredményébe: retriggerenként retriggerSpins új spin,
+     * összesen legfeljebb MAX_FREE_SPINS_PER_ROUND, így a sorzár alatt futó kör mindig véges
+     */
+    static void playFreeSpins(CompiledMathModel model, BonusRoundResult round, Supplier<SlotMachineEngine.SpinResult> spins) {
+        int remaining = model.getFreeSpins();
+        while (remaining > 0) {
+            remaining--;
+            SlotMachineEngine.SpinResult spinResult = spins.get();
+            round.addSpin(spinResult);
+            if (spinResult.isRetrigger()) {
+                remaining += model.retriggerAward(round.getSpins().size() + remaining);
+            }
+        }
+    }
+
+    /**
+     * Egy spin a megadott modellen a játék motorjával, vagy a kimenet katalógusból, ha be van állítva
+     * (a katalógus csak az alapértelmezett játékot szolgálja ki, a modellje rögzített, ilyenkor a currentModel() azonos vele)
+     */
+    private SlotMachineEngine.SpinResult nextSpin(GameEngine engine, CompiledMathModel model, int betAmount, boolean isBonusMode) {
+        return usesCatalog(engine)
+                ? outcomeCatalogService.spin(betAmount, isBonusMode)
+                : engine.processSpin(model, betAmount, isBonusMode);
+    }
+
+    /**
+     * Bonust indító spin (bonus vásárlás) a játék motorjával, vagy a katalógus bonust indító bejegyzéseiből
+     */
+    private SlotMachineEngine.SpinResult nextBonusTriggerSpin(GameEngine engine, CompiledMathModel model, int betAmount) {
+        return usesCatalog(engine)
+                ? outcomeCatalogService.bonusTriggerSpin(betAmount)
+                : engine.processBonusTriggerSpin(model, betAmount);
+    }
+
+    private CompiledMathModel currentModel(GameEngine engine) {
+        return usesCatalog(engine) ? outcomeCatalogService.getModel() : engine.getMathModel();
+    }
+
+    private boolean usesCatalog(GameEngine engine) {
+        return outcomeCatalogService.isEnabled() && gameEngineRegistry.isDefault(engine);
+    }
+
+    private void requireNoPendingBonus(User user) {
+        if (user.getPendingBonusBet() != null) {
+            throw new RuntimeException("Bonus round pending");
+        }
+    }
+
+    /**
+     * Spin napló mentése; a generált azonosító visszakerül a spin eredményekbe
+     */
+    private void saveSpinRecords(List<SlotMachineEngine.SpinResult> spins, List<SpinRecord> spinRecords) {
+        List<SpinRecord> saved = spinRecordRepository.saveAll(spinRecords);
+        for (int i = 0; i < saved.size(); i++) {
+            spins.get(i).setSpinId(saved.get(i).getId());
+        }
+    }
+
 
     public List<GameTransaction> getUserTransactions(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return transactionRepository.findByUserOrderByCreatedAtDesc(user);
     }
+
+    /**
+     * Batch spin eredménye: a spinek és a balance minden spin után
+     */
+    public static class BatchSpinResult {
+        public enum StopReason { COMPLETED, INSUFFICIENT_BALANCE, BONUS_TRIGGER }
+
+        private final List<SlotMachineEngine.SpinResult> spins;
+        private final long[] balances; // minor egységben, spinenként
+        private StopReason stopReason = StopReason.COMPLETED;
+
+        public BatchSpinResult(int capacity) {
+            this.spins = new ArrayList<>(capacity);
+            this.balances = new long[capacity];
+        }
+
+        public void addSpin(SlotMachineEngine.SpinResult spinResult, long balanceAfter) {
+            balances[spins.size()] = balanceAfter;
+            spins.add(spinResult);
+        }
+
+        public List<SlotMachineEngine.SpinResult> getSpins() { return spins; }
+
+        public long getBalanceAfter(int spin) { return balances[spin]; }
+
+        public StopReason getStopReason() { return stopReason; }
+        public void setStopReason(StopReason stopReason) { this.stopReason = stopReason; }
+    }
+
+    /**
+     * Bonus kör eredménye: a free spinek sorrendben és a teljes nyeremény
+     */
+    public static class BonusRoundResult {
+        private final int betAmount;
+        private final int freeSpins;
+        private final int retriggerSpins;
+        private final List<SlotMachineEngine.SpinResult> spins;
+        private long totalPayout; // minor egységben
+        private int retriggers;
+        private long balanceBefore;
+        private long newBalance;
+        private Long price; // bonus vásárlásnál a levont ár minor egységben
+        private SlotMachineEngine.SpinResult triggerSpin; // bonus vásárlásnál a bonust indító spin
+
+        public BonusRoundResult(int betAmount, int freeSpins, int retriggerSpins) {
+            this.betAmount = betAmount;
+            this.freeSpins = freeSpins;
+            this.retriggerSpins = retriggerSpins;
+            this.spins = new ArrayList<>(freeSpins);
+        }
+
+        public void addSpin(SlotMachineEngine.SpinResult spinResult) {
+            spins.add(spinResult);
+            totalPayout += spinResult.getTotalPayout();
+            if (spinResult.isRetrigger()) {
+                retriggers++;
+            }
+        }
+
+        public int getBetAmount() { return betAmount; }
+        public int getFreeSpins() { return freeSpins; }
+        public int getRetriggerSpins() { return retriggerSpins; }
+        public List<SlotMachineEngine.SpinResult> getSpins() { return spins; }
+        public long getTotalPayout() { return totalPayout; }
+        public int getRetriggers() { return retriggers; }
+
+        public long getBalanceBefore() { return balanceBefore; }
+        public void setBalanceBefore(long balanceBefore) { this.balanceBefore = balanceBefore; }
+
+        public long getNewBalance() { return newBalance; }
+        public void setNewBalance(long newBalance) { this.newBalance = newBalance; }
+
+        public Long getPrice() { return price; }
+        public void setPrice(Long price) { this.price = price; }
+
+        public SlotMachineEngine.SpinResult getTriggerSpin() { return triggerSpin; }
+        public void setTriggerSpin(SlotMachineEngine.SpinResult triggerSpin) { this.triggerSpin = triggerSpin; }
+    }
 }
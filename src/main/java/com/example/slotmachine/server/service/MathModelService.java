@@ -0,0 +1,108 @@
+package com.example.slotmachine.server.service;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A játék matematikai modelljének betöltése és cseréje futás közben.
+ * Ha a slotmachine.math-model.path be van állítva, a fájl változásait figyeli és automatikusan újratölt;
+ * hibás modell esetén a motor a régin fut tovább.
+ */
+@Service
+public class MathModelService {
+
+    @Autowired
+    private SlotMachineEngine slotMachineEngine;
+
+    @Autowired
+    private SpinReplayService spinReplayService;
+
+    @Value("${slotmachine.math-model.path:}")
+    private String modelPath;
+
+    // Az utoljára betöltött vagy elutasított fájl módosítási ideje: egy hibás fájlt csak egyszer próbálunk
+    private long seenModifiedAt;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!modelPath.isBlank()) {
+            // Induláskor a hibás modell fájl megállítja a szervert
+            reload();
+        } else {
+            // A beépített modell is archiválva és mérve legyen, mielőtt az első spin lefut
+            spinReplayService.archive(slotMachineEngine.getMathModel());
+            slotMachineEngine.getBonusTriggerAttemptLimit(slotMachineEngine.getMathModel());
+        }
+    }
+
+    /**
+     * Modell újratöltése a fájlból (vagy a beépített alapértelmezettből) és atomikus cseréje
+     *
+     * @throws IllegalArgumentException ha a modell hibás - ilyenkor a régi marad érvényben
+     */
+    public synchronized CompiledMathModel reload() throws IOException {
+        CompiledMathModel model;
+        if (modelPath.isBlank()) {
+            model = CompiledMathModel.loadDefault();
+        } else {
+            Path path = Path.of(modelPath);
+            seenModifiedAt = Files.getLastModifiedTime(path).toMillis();
+            try (InputStream in = Files.newInputStream(path)) {
+                model = CompiledMathModel.load(in);
+            }
+        }
+        requireSameLayout(slotMachineEngine.getMathModel(), model);
+        // A bonus vásárlás próbálkozási korlátja a csere előtt mérődik (és elutasítja a bonust nem indító modellt)
+        slotMachineEngine.getBonusTriggerAttemptLimit(model);
+        // Archiválás a csere előtt: a spin útvonal már csak kiolvassa az ujjlenyomatot
+        spinReplayService.archive(model);
+        slotMachineEngine.setMathModel(model);
+        System.out.println("🎰 Matematikai modell betoltve: " + model.getName());
+        return model;
+    }
+
+    /**
+     * Modell fájl figyelése - változás esetén újratöltés
+     */
+    @Scheduled(fixedDelayString = "${slotmachine.math-model.poll-interval-ms:5000}")
+    public void reloadIfChanged() {
+        if (modelPath.isBlank()) {
+            return;
+        }
+        try {
+            if (Files.getLastModifiedTime(Path.of(modelPath)).toMillis() != seenModifiedAt) {
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Matematikai modell ujratoltese sikertelen, a regi marad: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A kliensek a rács méretét és a szimbólum képeket a GameSettings-ből veszik:
+     * futás közben csak ugyanilyen elrendezésű modell cserélhető be
+     */
+    static void requireSameLayout(CompiledMathModel running, CompiledMathModel model) {
+        if (model.getGridSize() != running.getGridSize()
+                || model.getSymbolCount() != running.getSymbolCount()
+                || model.getScatterSymbol() != running.getScatterSymbol()) {
+            throw new IllegalArgumentException("Math model changes the grid layout (grid " + model.getGridSize()
+                    + ", " + model.getSymbolCount() + " symbols, scatter " + model.getScatterSymbol()
+                    + "), the running model has grid " + running.getGridSize() + ", " + running.getSymbolCount()
+                    + " symbols, scatter " + running.getScatterSymbol());
+        }
+    }
+
+    public CompiledMathModel getCurrentModel() {
+        return slotMachineEngine.getMathModel();
+    }
+}
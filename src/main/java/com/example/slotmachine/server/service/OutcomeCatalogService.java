@@ -0,0 +1,120 @@
+package com.example.slotmachine.server.service;
+
+import com.example.slotmachine.server.catalog.CatalogStatistics;
+import com.example.slotmachine.server.catalog.OutcomeCatalog;
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.SpinScratch;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Spinek kiszolgálása előre generált kimenet katalógusból (slotmachine.catalog.path).
+ * Ha be van állítva, a spin egy egyenletes véletlen katalógus bejegyzés, a motor futtatása nélkül;
+ * az RTP a katalógus tanúsított, pontos értéke. A katalógus saját math modellt hordoz,
+ * a math model újratöltése ilyenkor nem hat a spinekre.
+ */
+@Service
+public class OutcomeCatalogService {
+
+    @Autowired
+    private SlotMachineEngine slotMachineEngine;
+
+    @Autowired
+    private SpinReplayService spinReplayService;
+
+    @Value("${slotmachine.catalog.path:}")
+    private String catalogPath;
+
+    private OutcomeCatalog catalog;
+    private ThreadLocal<SpinScratch> scratch;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (catalogPath.isBlank()) {
+            return;
+        }
+
+        // Induláskor a hibás vagy nem illeszkedő katalógus megállítja a szervert
+        OutcomeCatalog opened = OutcomeCatalog.open(Path.of(catalogPath));
+        String rngAlgorithm = slotMachineEngine.getRngService().getAlgorithm();
+        if (opened.getEngineVersion() != SlotMachineEngine.ENGINE_VERSION || !opened.getRngAlgorithm().equals(rngAlgorithm)) {
+            opened.close();
+            throw new IllegalStateException("Catalog was generated with engine version " + opened.getEngineVersion()
+                    + " and " + opened.getRngAlgorithm() + ", server runs engine version "
+                    + SlotMachineEngine.ENGINE_VERSION + " and " + rngAlgorithm);
+        }
+
+        try {
+            MathModelService.requireSameLayout(slotMachineEngine.getMathModel(), opened.getModel());
+        } catch (IllegalArgumentException e) {
+            opened.close();
+            throw e;
+        }
+        spinReplayService.archive(opened.getModel());
+        catalog = opened;
+        scratch = ThreadLocal.withInitial(() -> opened.getModel().newScratch());
+        System.out.println("🎰 Kimenet katalogus betoltve: " + catalog.getEntries() + " bejegyzes, RTP "
+                + catalog.getStatistics().getRtp().toPlainString());
+    }
+
+    public boolean isEnabled() {
+        return catalog != null;
+    }
+
+    /**
+     * Spin a katalógusból: egyenletes véletlen bejegyzés, a tétre skálázva.
+     * A seed a bejegyzés eredeti seed-je, így a spin a motorral visszajátszható.
+     */
+    public SlotMachineEngine.SpinResult spin(int betAmount, boolean isBonusMode) {
+        long index = slotMachineEngine.getRngService().threadGenerator().nextLong(catalog.getEntries());
+        SpinScratch spin = scratch.get();
+        catalog.read(index, spin, betAmount);
+
+        SlotMachineEngine.SpinResult result = slotMachineEngine.toSpinResult(spin, betAmount, isBonusMode);
+        result.setSeed(catalog.getSeed(index));
+        result.setModel(catalog.getModel());
+        return result;
+    }
+
+    /**
+     * Bonust indító spin a katalógusból (bonus vásárlás): egyenletes véletlen a bonust indító bejegyzések közül
+     */
+    public SlotMachineEngine.SpinResult bonusTriggerSpin(int betAmount) {
+        int triggers = catalog.getBonusTriggerEntryCount();
+        if (triggers == 0) {
+            throw new IllegalStateException("Outcome catalog has no bonus trigger entries");
+        }
+        long index = catalog.getBonusTriggerEntry(slotMachineEngine.getRngService().threadGenerator().nextInt(triggers));
+        SpinScratch spin = scratch.get();
+        catalog.read(index, spin, betAmount);
+
+        SlotMachineEngine.SpinResult result = slotMachineEngine.toSpinResult(spin, betAmount, false);
+        result.setSeed(catalog.getSeed(index));
+        result.setModel(catalog.getModel());
+        return result;
+    }
+
+    public CompiledMathModel getModel() {
+        return catalog.getModel();
+    }
+
+    public CatalogStatistics getStatistics() {
+        if (catalog == null) {
+            throw new RuntimeException("Outcome catalog not enabled");
+        }
+        return catalog.getStatistics();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (catalog != null) {
+            catalog.close();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.slotmachine.server.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bizonyíthatóan tisztességes (provably fair) spin seed-ek.
+ * Minden játékos saját server seed hash láncot kap; a spin seed a server seed, a kliens seed és a nonce
+ * (a láncszem sorszáma) SHA-256 hash-éből képzett 64 bites érték, ebből a motor a szokásos forSeed() generátort kapja.
+ * A láncokat egy háttérszál előre, tömbösen számolja egy pufferbe, így a spin útvonalon csak a seed levezetése
+ * (egyetlen hash) fut. Elfogyó láncnál a játékos újat kap, ennek vállalását az utolsó spin válasza már hozza.
+ * Egy láncszem csak a spin tranzakció véglegesítésével fogy el: visszagörgetéskor a lánc visszalép, így a kliens
+ * nem lát rést a nonce-ok között. A tétlen játékosok láncai kikerülnek a memóriából; visszatérve új vállalást kapnak.
+ */
+@Service
+public class ProvablyFairService {
+
+    // Egy lánc hossza (spinek száma egy vállalással); játékosonként egy lánc van a memóriában (32 byte / spin)
+    public static final int CHAIN_LENGTH = 1024;
+    public static final int MAX_CLIENT_SEED_LENGTH = 64;
+    // Előre kiszámolt, kiosztásra váró láncok száma
+    private static final int READY_CHAINS = 16;
+    // Ennyi tétlenség után a játékos lánca kikerül a memóriából
+    static final long IDLE_CHAIN_MILLIS = 30 * 60 * 1000L;
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(SeedChain::sha256);
+
+    private final int chainLength;
+    private final BlockingQueue<SeedChain> readyChains;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Map<Long, SeedChain> chains = new ConcurrentHashMap<>();
+    private final ExecutorService generator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fair-seed-chains");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ProvablyFairService() {
+        this(CHAIN_LENGTH, READY_CHAINS);
+    }
+
+    ProvablyFairService(int chainLength, int readyChains) {
+        this.chainLength = chainLength;
+        this.readyChains = new ArrayBlockingQueue<>(readyChains);
+        generator.execute(this::fillReadyChains);
+    }
+
+    /**
+     * Háttérszál: a puffer folyamatos feltöltése (a put blokkol, amíg nincs hely)
+     */
+    private void fillReadyChains() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                readyChains.put(SeedChain.generate(chainLength, secureRandom));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Új lánc a pufferből; ha a puffer épp kiürült, helyben generálunk (ritka, csak tömeges láncváltáskor)
+     */
+    private SeedChain takeChain() {
+        SeedChain chain = readyChains.poll();
+        return chain != null ? chain : SeedChain.generate(chainLength, secureRandom);
+    }
+
+    /**
+     * A játékos aktuális lánca: új játékosnál friss lánc, kimerült láncnál az utolsó spinnel már kiosztott utód
+     */
+    private SeedChain activeChain(SeedChain chain) {
+        if (chain == null) {
+            return takeChain();
+        }
+        return chain.isExhausted() ? chain.getSuccessor() : chain;
+    }
+
+    /**
+     * A játékos következő server seed-jének hash-e (a vállalás), amit a kliens seed választása előtt lát
+     */
+    public FairCommitment commitment(Long userId) {
+        FairCommitment[] commitment = new FairCommitment[1];
+        chains.compute(userId, (id, chain) -> {
+            SeedChain current = activeChain(chain);
+            current.touch(System.currentTimeMillis());
+            commitment[0] = new FairCommitment(current.nextHash(), current.getUsed() + 1);
+            return current;
+        });
+        return commitment[0];
+    }
+
+    /**
+     * A következő server seed felhasználása egy spinhez a kliens seed-del.
+     * Tranzakcióban hívva a tranzakció visszagörgetése visszaadja a láncszemet (release).
+     *
+     * @throws IllegalArgumentException érvénytelen kliens seed esetén
+     */
+    public FairSeed next(Long userId, String clientSeed) {
+        validateClientSeed(clientSeed);
+        FairSeed[] drawn = new FairSeed[1];
+        chains.compute(userId, (id, chain) -> {
+            SeedChain current = activeChain(chain);
+            current.touch(System.currentTimeMillis());
+            int nonce = current.next();
+            String serverSeed = current.link(nonce);
+            String nextHash;
+            if (current.isExhausted()) {
+                // Az utód már most kiosztásra kerül, hogy a válasz a következő vállalást is hozza
+                if (current.getSuccessor() == null) {
+                    current.setSuccessor(takeChain());
+                }
+                nextHash = current.getSuccessor().nextHash();
+            } else {
+                // Egy láncon belül a következő vállalás maga a most felfedett seed
+                nextHash = serverSeed;
+            }
+            drawn[0] = new FairSeed(serverSeed, current.link(nonce - 1), clientSeed, nonce,
+                    deriveSeed(serverSeed, clientSeed, nonce), nextHash);
+            return current;
+        });
+        releaseOnRollback(userId, drawn[0]);
+        return drawn[0];
+    }
+
+    private void releaseOnRollback(Long userId, FairSeed seed) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    release(userId, seed);
+                }
+            }
+        });
+    }
+
+    /**
+     * Egy el nem küldött (visszagörgetett) spin láncszemének visszaadása: a következő spin ugyanezt a seed-et kapja.
+     * Ha közben a játékos újabb spinje már húzott, a láncszem kimarad; a kliens ezt a vállalás eltéréséből látja,
+     * és új vállalást kér.
+     */
+    public void release(Long userId, FairSeed seed) {
+        chains.computeIfPresent(userId, (id, chain) -> {
+            chain.rewind((int) seed.getNonce(), seed.getServerSeed());
+            return chain;
+        });
+    }
+
+    /**
+     * A tétlen játékosok láncainak eltávolítása; a kimerült láncok helyére az utódjuk kerül
+     */
+    @Scheduled(fixedDelayString = "${slotmachine.fair.evict-interval-ms:60000}")
+    public void evictIdleChains() {
+        evictIdleChains(System.currentTimeMillis());
+    }
+
+    void evictIdleChains(long now) {
+        for (Long userId : chains.keySet()) {
+            chains.computeIfPresent(userId, (id, chain) -> {
+                if (now - chain.getLastUsed() > IDLE_CHAIN_MILLIS) {
+                    return null;
+                }
+                if (!chain.isExhausted()) {
+                    return chain;
+                }
+                SeedChain successor = chain.getSuccessor();
+                successor.touch(chain.getLastUsed());
+                return successor;
+            });
+        }
+    }
+
+    int getChainCount() {
+        return chains.size();
+    }
+
+    public static void validateClientSeed(String clientSeed) {
+        if (clientSeed == null || clientSeed.isBlank() || clientSeed.length() > MAX_CLIENT_SEED_LENGTH) {
+            throw new IllegalArgumentException("Invalid client seed (1-" + MAX_CLIENT_SEED_LENGTH + " characters)");
+        }
+    }
+
+    /**
+     * Spin seed: SHA-256("serverSeed:clientSeed:nonce") első 8 byte-ja (big-endian), a server seed hex alakban
+     */
+    public static long deriveSeed(String serverSeed, String clientSeed, long nonce) {
+        MessageDigest digest = DIGEST.get();
+        byte[] hash = digest.digest((serverSeed + ":" + clientSeed + ":" + nonce).getBytes(StandardCharsets.UTF_8));
+        return ByteBuffer.wrap(hash).getLong();
+    }
+
+    /**
+     * Hex server seed hash-e hex alakban (a lánc egy lépése visszafelé)
+     */
+    public static String hashServerSeed(String serverSeed) {
+        return HexFormat.of().formatHex(DIGEST.get().digest(HexFormat.of().parseHex(serverSeed)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        generator.shutdownNow();
+    }
+
+    /**
+     * A következő spin vállalása
+     */
+    public static class FairCommitment {
+        private final String serverSeedHash;
+        private final long nonce;
+
+        public FairCommitment(String serverSeedHash, long nonce) {
+            this.serverSeedHash = serverSeedHash;
+            this.nonce = nonce;
+        }
+
+        public String getServerSeedHash() { return serverSeedHash; }
+        public long getNonce() { return nonce; }
+    }
+
+    /**
+     * Egy spin seed-jei: a felfedett server seed, a vállalt hash-e, a kliens seed, a nonce, a levezetett
+     * spin seed és a következő spin vállalása
+     */
+    public static class FairSeed {
+        private final String serverSeed;
+        private final String serverSeedHash;
+        private final String clientSeed;
+        private final long nonce;
+        private final long seed;
+        private final String nextServerSeedHash;
+
+        public FairSeed(String serverSeed, String serverSeedHash, String clientSeed, long nonce, long seed,
+                        String nextServerSeedHash) {
+            this.serverSeed = serverSeed;
+            this.serverSeedHash = serverSeedHash;
+            this.clientSeed = clientSeed;
+            this.nonce = nonce;
+            this.seed = seed;
+            this.nextServerSeedHash = nextServerSeedHash;
+        }
+
+        public String getServerSeed() { return serverSeed; }
+        public String getServerSeedHash() { return serverSeedHash; }
+        public String getClientSeed() { return clientSeed; }
+        public long getNonce() { return nonce; }
+        public long getSeed() { return seed; }
+        public String getNextServerSeedHash() { return nextServerSeedHash; }
+    }
+}
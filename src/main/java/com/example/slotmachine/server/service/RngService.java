@@ -0,0 +1,74 @@
+package com.example.slotmachine.server.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Véletlenszám réteg a játékmotorhoz.
+ * Minden spin saját generátort kap egy 64 bites seed-ből (a seed naplózható és visszajátszható),
+ * a seed-eket szálankénti, a gyökérből split-tel leválasztott forrás adja,
+ * így a párhuzamos spinek nem versengenek egyetlen közös atomikus seed-en.
+ */
+@Component
+public class RngService {
+
+    public static final String DEFAULT_ALGORITHM = "L64X128MixRandom";
+
+    private final String algorithm;
+    private final RandomGeneratorFactory<RandomGenerator> factory;
+    private final SplittableRandom root;
+    private final ThreadLocal<SplittableRandom> seedSource;
+    private final ThreadLocal<RandomGenerator> threadGenerator;
+
+    public RngService() {
+        this(DEFAULT_ALGORITHM, null);
+    }
+
+    @Autowired
+    public RngService(@Value("${slotmachine.rng.algorithm:" + DEFAULT_ALGORITHM + "}") String algorithm,
+                      @Value("${slotmachine.rng.seed:#{null}}") Long masterSeed) {
+        this.algorithm = algorithm;
+        this.factory = RandomGeneratorFactory.of(algorithm);
+        this.root = new SplittableRandom(masterSeed != null ? masterSeed : new SecureRandom().nextLong());
+        this.seedSource = ThreadLocal.withInitial(this::splitRoot);
+        this.threadGenerator = ThreadLocal.withInitial(() -> factory.create(seedSource.get().nextLong()));
+    }
+
+    private SplittableRandom splitRoot() {
+        // Csak szálanként egyszer fut, ezért a szinkronizáció nem kerül a spin útvonalára
+        synchronized (root) {
+            return root.split();
+        }
+    }
+
+    /**
+     * Új spin seed a hívó szál saját forrásából
+     */
+    public long nextSeed() {
+        return seedSource.get().nextLong();
+    }
+
+    /**
+     * Determinisztikus generátor egy adott seed-hez (visszajátszáshoz és auditáláshoz)
+     */
+    public RandomGenerator forSeed(long seed) {
+        return factory.create(seed);
+    }
+
+    /**
+     * A hívó szál saját generátora olyan húzásokhoz, amelyeket nem kell visszajátszani
+     */
+    public RandomGenerator threadGenerator() {
+        return threadGenerator.get();
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.slotmachine.server.service;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+
+/**
+ * Előre kiszámolt server seed hash lánc: h[n] véletlen, h[k-1] = SHA-256(h[k]).
+ * A k-adik spin a h[k] seed-et kapja, amit a már kiadott h[k-1] köt le (az első spinét a h[0] vállalás),
+ * így a szerver a kliens seed ismeretében sem cserélheti le. A láncot egy spinhez nem kell hash-elni, csak olvasni.
+ */
+final class SeedChain {
+
+    static final int HASH_BYTES = 32;
+
+    private final byte[] links;
+    private final int length;
+    private int used;
+    // Az utolsó láncszem kiadásakor kapott következő lánc (ennek vállalását az utolsó spin válasza hozza)
+    private SeedChain successor;
+    private volatile long lastUsed;
+
+    private SeedChain(byte[] links, int length) {
+        this.links = links;
+        this.length = length;
+    }
+
+    /**
+     * Lánc generálása (háttérszálon): a véletlen végpontból visszafelé hash-elve
+     */
+    static SeedChain generate(int length, SecureRandom random) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Chain length must be positive: " + length);
+        }
+        byte[] links = new byte[(length + 1) * HASH_BYTES];
+        byte[] link = new byte[HASH_BYTES];
+        random.nextBytes(link);
+        System.arraycopy(link, 0, links, length * HASH_BYTES, HASH_BYTES);
+        MessageDigest digest = sha256();
+        for (int k = length; k > 0; k--) {
+            digest.update(links, k * HASH_BYTES, HASH_BYTES);
+            try {
+                digest.digest(links, (k - 1) * HASH_BYTES, HASH_BYTES);
+            } catch (DigestException e) {
+                throw new IllegalStateException("SHA-256 digest failed", e);
+            }
+        }
+        return new SeedChain(links, length);
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * A következő server seed (a használt láncszemek száma nő)
+     */
+    int next() {
+        if (isExhausted()) {
+            throw new IllegalStateException("Seed chain exhausted");
+        }
+        return ++used;
+    }
+
+    /**
+     * Egy visszagörgetett spin láncszemének visszaadása; csak ha azóta nem húzott újabb spin ebből a láncból
+     *
+     * @return true, ha a nonce ismét a következő láncszem
+     */
+    boolean rewind(int nonce, String serverSeed) {
+        if (used != nonce || !link(nonce).equals(serverSeed)) {
+            return false;
+        }
+        used--;
+        return true;
+    }
+
+    /**
+     * A k-adik láncszem hex alakban (k = 0 a vállalás)
+     */
+    String link(int k) {
+        return HexFormat.of().formatHex(links, k * HASH_BYTES, (k + 1) * HASH_BYTES);
+    }
+
+    /**
+     * A következő server seed hash-e: ezt látja a kliens, mielőtt a kliens seed-jét választja
+     */
+    String nextHash() {
+        return link(used);
+    }
+
+    int getUsed() {
+        return used;
+    }
+
+    boolean isExhausted() {
+        return used == length;
+    }
+
+    SeedChain getSuccessor() {
+        return successor;
+    }
+
+    void setSuccessor(SeedChain successor) {
+        this.successor = successor;
+    }
+
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    void touch(long now) {
+        lastUsed = now;
+    }
+}
@@ -1,223 +1,600 @@
 package com.example.slotmachine.server.service;
 
 import com.example.slotmachine.client.Pair;
+import com.example.slotmachine.server.engine.BitboardClusterDetector;
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.Grid;
+import com.example.slotmachine.server.engine.GridKernels;
+import com.example.slotmachine.server.engine.GridTopology;
+import com.example.slotmachine.server.engine.SpinScratch;
+import com.example.slotmachine.server.engine.UnionFindClusterLabeler;
+import com.example.slotmachine.server.monitoring.SpinEngineEvent;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
 
-import static com.example.slotmachine.client.GameSettings.*;
+import static com.example.slotmachine.client.GameSettings.MONEY_SCALE;
 
 /**
- * Szerver-oldali slot machine játékmotor
+ * Szerver-oldali slot machine játékmotor, egyben az alapértelmezett játék (DEFAULT_GAME_ID)
  * Tartalmazza a teljes játéklogikát: szimbólum generálás, klaszter keresés, nyeremény számítás
+ * A spin egy szálankénti SpinScratch munkaterületen fut lapos rácsokkal és maszkokkal,
+ * a SpinResult objektumgráf csak a legvégén készül el.
+ * A játék matematikája (rács, súlyok, szorzók) egy CompiledMathModel-ből jön, amely futás közben
+ * cserélhető: minden spin a munkaterületéhez kötött modellen fut végig.
+ * A teljes rácsos műveletek (maszkok, törlés, oszlop tömörítés) a GridKernels megvalósításon futnak
+ * (slotmachine.engine.kernels = scalar | vector | auto).
  */
 @Component
-public class SlotMachineEngine {
-
-    private final Random random = new Random();
-
-    // Szimbólum valószínűségek és szorzók (átmásolva a SlotMachine.java-ból)
-    private final double[] symbolProbabilities = {12,12,12,14,14,16,15,4,1};  // Összesen 100%
-    private final double[][] payoutMultipliers = {
-            // 5 szimbólum - legalacsonyabb klaszterméret
-            {0.20, 0.25, 0.30, 0.35, 0.40, 0.5, 0.75, 1.00, 2.5},   // 5 szimbólum
-            {0.25, 0.30, 0.40, 0.45, 0.50, 0.75, 1.0, 1.50, 3.5},   // 6 szimbólum
-            {0.30, 0.40, 0.50, 0.55, 0.74, 1.00, 1.25, 1.75, 4.5},   // 7 szimbólum
-            {0.40, 0.50, 0.75, 0.80, 1.00, 1.25, 1.50, 2.00, 6.0},   // 8 szimbólum
-            {0.50, 0.75, 1.00, 1.20, 0.25, 1.50, 2.00, 2.50, 6.5},   // 9 szimbólum
-            {1.00, 1.25, 1.50, 1.70, 2.00, 3.00, 4.00, 5.00, 7.0},    // 10 szimbólum
-            {1.50, 2.00, 2.50, 2.75, 3.00, 4.50, 6.00, 7.50, 10.0},   // 11 szimbólum
-            {2.50, 3.00, 3.50, 4.50, 5.00, 10.00, 12.50, 15.00, 20.0},   // 12 szimbólum
-            {5.00, 6.00, 8.00, 9.00, 10.00, 20.00, 30.00, 35.00, 40.0},    // 13 szimbólum
-            {10.00, 12.00, 15.00, 18.00, 10.00, 40.00, 60.00, 70.00, 80.0},    // 14 szimbólum
-            {20.00, 25.00, 30.00, 35.00, 40.00, 60.00, 100.00, 150.00, 160.0},    // 15 szimbólum vagy több
-    };
+public class SlotMachineEngine implements GameEngine {
+
+    // Az alapértelmezett játék azonosítója (gameId nélküli kérések)
+    public static final String DEFAULT_GAME_ID = "default";
+
+    private static final byte EMPTY = Grid.EMPTY;
+
+    // A spin algoritmus verziója: növelni kell, ha ugyanaz a seed és modell más kimenetelt adna (visszajátszás)
+    public static final int ENGINE_VERSION = 1;
+
+    // Szorzók századokban (MULTIPLIER_SCALE): 25 = 0.25x - a nyeremény egész aritmetikával, pontosan számolható
+    private static final int MULTIPLIER_SCALE = 100;
+
+    // A bonus gyakoriság méréséhez generált kezdő rácsok száma (modellenként egyszer) és a mérés seed-je
+    private static final int BONUS_TRIGGER_SAMPLE = 100_000;
+    private static final long BONUS_TRIGGER_SAMPLE_SEED = 0x5EEDB0B05L;
+    // Bonus vásárlásnál a keresés ekkora valószínűséggel fut ki a próbálkozási korlátba
+    private static final double BONUS_TRIGGER_FAILURE_PROBABILITY = 1e-9;
+
+    private final RngService rngService;
+    private volatile CompiledMathModel model;
+    private volatile GridKernels kernels = GridKernels.named(GridKernels.DEFAULT);
+    // Cascade lépések után csak a megváltozott cellákat érintő klaszterek keresése (false = teljes újrakeresés)
+    private volatile boolean incrementalCascades = true;
+    private volatile boolean unionFindCascades = false;
+    // Szálanként néhány munkaterület modell szerint (közvetlen leképezés): több játék egy szálon sem foglal újra
+    private static final int SCRATCH_SLOTS = 8;
+    private final ThreadLocal<SpinScratch[]> scratch = ThreadLocal.withInitial(() -> new SpinScratch[SCRATCH_SLOTS]);
+    // Modellenként a bonust indító rács keresésének próbálkozási korlátja
+    private final Map<CompiledMathModel, Integer> bonusTriggerAttempts = new ConcurrentHashMap<>();
+
+    public SlotMachineEngine() {
+        this(new RngService());
+    }
+
+    public SlotMachineEngine(RngService rngService) {
+        this(rngService, CompiledMathModel.loadDefault());
+    }
+
+    @Autowired
+    public SlotMachineEngine(RngService rngService,
+                             @Value("${slotmachine.engine.kernels:" + GridKernels.DEFAULT + "}") String kernels) {
+        this(rngService, CompiledMathModel.loadDefault());
+        this.kernels = GridKernels.named(kernels);
+    }
+
+    public SlotMachineEngine(RngService rngService, CompiledMathModel model) {
+        this.rngService = rngService;
+        this.model = model;
+    }
+
+    public RngService getRngService() {
+        return rngService;
+    }
+
+    public GridKernels getGridKernels() {
+        return kernels;
+    }
+
+    /**
+     * Rács műveletek cseréje (az eredményt nem befolyásolja, csak a sebességet)
+     */
+    public void setGridKernels(GridKernels kernels) {
+        this.kernels = kernels;
+    }
+
+    public boolean isIncrementalCascades() {
+        return incrementalCascades;
+    }
+
+    /**
+     * Inkrementális cascade kiértékelés ki/bekapcsolása (az eredményt nem befolyásolja, csak a sebességet)
+     */
+    @Value("${slotmachine.engine.incremental:true}")
+    public void setIncrementalCascades(boolean incrementalCascades) {
+        this.incrementalCascades = incrementalCascades;
+    }
+
+    public boolean isUnionFindCascades() {
+        return unionFindCascades;
+    }
+
+    /**
+     * Union-find klaszter keresés és oszloponkénti utántöltés kikényszerítése kis rácson is
+     * (64 cellánál nagyobb rácson mindig ez fut; az eredmény azonos, tesztekhez és mérésekhez)
+     */
+    public void setUnionFindCascades(boolean unionFindCascades) {
+        this.unionFindCascades = unionFindCascades;
+    }
+
+    @Override
+    public String getGameId() {
+        return DEFAULT_GAME_ID;
+    }
+
+    @Override
+    public CompiledMathModel getMathModel() {
+        return model;
+    }
+
+    /**
+     * Matematikai modell cseréje futás közben, a spinek megállítása nélkül.
+     * A már futó spinek a régi modellen fejeződnek be.
+     */
+    public void setMathModel(CompiledMathModel model) {
+        this.model = model;
+    }
+
+    /**
+     * Új, üres munkaterület az aktuális modellhez
+     */
+    public SpinScratch newScratch() {
+        return model.newScratch();
+    }
+
+    /**
+     * A szál munkaterülete az adott modellhez (modellcsere után egyszer újra lefoglalva)
+     */
+    private SpinScratch scratchFor(CompiledMathModel model) {
+        SpinScratch[] slots = scratch.get();
+        int slot = Math.floorMod(System.identityHashCode(model), SCRATCH_SLOTS);
+        SpinScratch spin = slots[slot];
+        if (spin == null || spin.getModel() != model) {
+            spin = model.newScratch();
+            slots[slot] = spin;
+        }
+        return spin;
+    }
 
     /**
      * Teljes spin feldolgozása
      */
     public SpinResult processSpin(int betAmount, boolean isBonusMode) {
-        SpinResult result = new SpinResult();
-        result.setBetAmount(betAmount);
-        result.setInitialGrid(generateSymbols());
-        
+        return processSpin(betAmount, isBonusMode, rngService.nextSeed());
+    }
+
+    /**
+     * Spin feldolgozása egy rögzített modellen (pl. egy bonus kör összes spinje ugyanazon a modellen)
+     */
+    @Override
+    public SpinResult processSpin(CompiledMathModel model, int betAmount, boolean isBonusMode) {
+        return processSpin(model, betAmount, isBonusMode, rngService.nextSeed());
+    }
+
+    /**
+     * Spin feldolgozása egy adott seed-del - ugyanaz a seed mindig ugyanazt az eredményt adja
+     */
+    public SpinResult processSpin(int betAmount, boolean isBonusMode, long seed) {
+        return processSpin(model, betAmount, isBonusMode, seed);
+    }
+
+    /**
+     * Spin egy rögzített modellen adott seed-del
+     */
+    @Override
+    public SpinResult processSpin(CompiledMathModel model, int betAmount, boolean isBonusMode, long seed) {
+        SpinEngineEvent event = new SpinEngineEvent();
+        event.begin();
+        SpinScratch spin = scratchFor(model);
+        runSpin(spin, betAmount, rngService.forSeed(seed));
+        SpinResult result = toSpinResult(spin, betAmount, isBonusMode);
+        result.setSeed(seed);
+        result.setModel(spin.getModel());
+        commitSpinEvent(event, spin, betAmount, isBonusMode, seed);
+        return result;
+    }
+
+    /**
+     * JFR spin esemény lezárása; a mezők csak akkor töltődnek, ha az esemény a küszöb felett van és rögzül
+     */
+    private static void commitSpinEvent(SpinEngineEvent event, SpinScratch spin, int betAmount, boolean isBonusMode, long seed) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        int clusters = 0;
+        for (int step = 0; step < spin.getStepCount(); step++) {
+            clusters += spin.getStepClusterCount(step);
+        }
+        event.model = spin.getModel().getName();
+        event.betAmount = betAmount;
+        event.bonusMode = isBonusMode;
+        event.cascades = spin.getStepCount();
+        event.clusters = clusters;
+        event.payout = spin.getTotalPayout();
+        event.seed = seed;
+        event.commit();
+    }
+
+    /**
+     * Bonust indító spin (bonus vásárlás): az első olyan véletlen seed, amelynek kezdő rácsa elég scattert tartalmaz.
+     * Csak a kezdő rácsot generáljuk seed-enként, a cascade a megtalált seed-del egyszer fut le;
+     * a spin így egy valódi motor spin, ami a seed-jével ugyanúgy visszajátszható.
+     */
+    public SpinResult processBonusTriggerSpin(int betAmount) {
+        return processBonusTriggerSpin(model, betAmount);
+    }
+
+    /**
+     * Bonust indító spin egy rögzített modellen
+     */
+    @Override
+    public SpinResult processBonusTriggerSpin(CompiledMathModel model, int betAmount) {
+        // A JFR esemény a kezdő rács keresését is tartalmazza
+        SpinEngineEvent event = new SpinEngineEvent();
+        event.begin();
+        SpinScratch spin = scratchFor(model);
+        int bonusTriggerCount = spin.getModel().getBonusTriggerCount();
+        int maxAttempts = getBonusTriggerAttemptLimit(spin.getModel());
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            long seed = rngService.nextSeed();
+            spin.reset();
+            generateSymbols(spin, rngService.forSeed(seed));
+            if (spin.getInitialScatterCount() < bonusTriggerCount) {
+                continue;
+            }
+
+            runSpin(spin, betAmount, rngService.forSeed(seed));
+            SpinResult result = toSpinResult(spin, betAmount, false);
+            result.setSeed(seed);
+            result.setModel(spin.getModel());
+            commitSpinEvent(event, spin, betAmount, false, seed);
+            return result;
+        }
+        throw new IllegalStateException("No bonus trigger found in " + maxAttempts + " attempts");
+    }
+
+    /**
+     * A bonust indító rács keresésének próbálkozási korlátja a modell mért bonus gyakoriságából:
+     * ennyi próbálkozás csak BONUS_TRIGGER_FAILURE_PROBABILITY eséllyel marad eredmény nélkül.
+     * Modellenként egyszer mér; a modell cseréjekor érdemes előre meghívni, hogy ne a spin útvonalon fusson.
+     *
+     * @throws IllegalArgumentException ha a modell a mintában egyszer sem indítja a bonust
+     */
+    public int getBonusTriggerAttemptLimit(CompiledMathModel model) {
+        return bonusTriggerAttempts.computeIfAbsent(model, this::measureBonusTriggerAttemptLimit);
+    }
+
+    private int measureBonusTriggerAttemptLimit(CompiledMathModel model) {
+        SpinScratch spin = model.newScratch();
+        RandomGenerator random = rngService.forSeed(BONUS_TRIGGER_SAMPLE_SEED);
+        int triggers = 0;
+        for (int i = 0; i < BONUS_TRIGGER_SAMPLE; i++) {
+            spin.reset();
+            generateSymbols(spin, random);
+            if (spin.getInitialScatterCount() >= model.getBonusTriggerCount()) {
+                triggers++;
+            }
+        }
+        if (triggers == 0) {
+            throw new IllegalArgumentException("Math model " + model.getName() + " did not trigger the bonus in "
+                    + BONUS_TRIGGER_SAMPLE + " sample grids");
+        }
+
+        double triggerRate = (double) triggers / BONUS_TRIGGER_SAMPLE;
+        if (triggerRate >= 1) {
+            return 1;
+        }
+        return (int) Math.ceil(Math.log(BONUS_TRIGGER_FAILURE_PROBABILITY) / Math.log1p(-triggerRate));
+    }
+
+    /**
+     * Spin futtatása a munkaterületen, objektumgráf felépítése nélkül.
+     * Az eredmény (rácsok, lépések, nyeremény) a munkaterületen marad.
+     * A spin a munkaterülethez kötött modellt használja.
+     *
+     * @return a teljes nyeremény minor egységben
+     */
+    public long runSpin(SpinScratch spin, int betAmount, RandomGenerator random) {
+        CompiledMathModel model = spin.getModel();
+        if (!model.isBitboard() || unionFindCascades) {
+            return runLabelledSpin(spin, betAmount, random);
+        }
+        BitboardClusterDetector clusterDetector = model.getClusterDetector();
+        GridKernels kernels = this.kernels;
+        int cells = model.getCells();
+        int symbolCount = model.getSymbolCount();
+        spin.reset();
+        byte[] grid = spin.getGrid();
+        long[] symbolMasks = spin.getSymbolMasks();
+        long[] stepMatched = spin.getStepMatched();
+
+        generateSymbols(spin, random);
+        spin.snapshotInitialGrid();
+
         // Feldolgozzuk az összes klasztert (cascade mechanizmus)
-        List<CascadeStep> cascadeSteps = new ArrayList<>();
-        int[][] currentGrid = copyGrid(result.getInitialGrid());
-        double totalPayout = 0;
-        
+        long totalPayout = 0;
+        boolean incremental = incrementalCascades;
+        // Az első lépésben minden cella új; utána csak a törlés és utántöltés által érintett cellák
+        long changed = clusterDetector.getFullMask();
+        kernels.buildSymbolMasks(grid, cells, symbolMasks, symbolCount);
         while (true) {
-            Map<Integer, List<int[]>> matchedClusters = checkForMatches(currentGrid);
-            if (matchedClusters.isEmpty()) {
+            int step = spin.beginStep();
+            // A pufferek bővülhettek
+            stepMatched = spin.getStepMatched();
+            int offset = spin.stepMatchedOffset(step);
+            int clusterCount = incremental
+                    ? clusterDetector.findMatches(symbolMasks, stepMatched, offset, changed)
+                    : clusterDetector.findMatches(symbolMasks, stepMatched, offset);
+            if (clusterCount == 0) {
+                spin.abandonStep();
                 break;
             }
-            
-            CascadeStep step = new CascadeStep();
-            step.setMatchedClusters(matchedClusters);
-            
-            double stepPayout = calculatePayout(matchedClusters, betAmount);
-            step.setPayout(stepPayout);
+
+            long stepPayout = calculatePayout(model, stepMatched, offset, betAmount);
+            spin.setStepPayout(step, stepPayout);
+            spin.setStepClusterCount(step, clusterCount);
             totalPayout += stepPayout;
-            
-            // Töröljük a matched szimbólumokat
-            clearMatchedSymbols(currentGrid, matchedClusters);
-            step.setGridAfterClear(copyGrid(currentGrid));
-            
-            // Feltöltjük új szimbólumokkal
-            dropAndRefillSymbols(currentGrid);
-            step.setGridAfterRefill(copyGrid(currentGrid));
-            
-            cascadeSteps.add(step);
+
+            // Töröljük a matched szimbólumokat, majd feltöltjük új szimbólumokkal
+            kernels.clearMasked(grid, cells, stepMatched, offset, symbolCount);
+            dropAndRefillSymbols(kernels, spin, grid, random);
+            spin.snapshotStepGrid(step);
+
+            if (incremental) {
+                long cleared = 0;
+                for (int symbol = 0; symbol < symbolCount; symbol++) {
+                    cleared |= stepMatched[offset + symbol];
+                }
+                changed = clusterDetector.changedCells(cleared);
+                clusterDetector.updateSymbolMasks(grid, symbolMasks, symbolCount, changed);
+            } else {
+                kernels.buildSymbolMasks(grid, cells, symbolMasks, symbolCount);
+            }
         }
-        
-        result.setCascadeSteps(cascadeSteps);
-        result.setFinalGrid(currentGrid);
-        result.setTotalPayout(totalPayout);
-        
-        // Bonus trigger ellenőrzése
-        result.setBonusTrigger(checkForBonusTrigger(result.getInitialGrid()));
-        result.setRetrigger(isBonusMode && checkForRetrigger(result.getInitialGrid()));
-        
-        return result;
+
+        spin.setTotalPayout(totalPayout);
+        return totalPayout;
     }
 
     /**
-     * Szimbólumok generálása
+     * Spin nagy rácson: lépésenként union-find címkézés, többszavas nyerő maszkok,
+     * és pillanatkép nélküli, oszloponkénti tömörítés-feltöltés. A véletlen húzások sorrendje azonos
+     * a bitboard útvonaléval, így 64 cellás vagy kisebb rácson a két útvonal eredménye megegyezik.
      */
-    public int[][] generateSymbols() {
-        int[][] generatedSymbols = new int[GRID_SIZE][GRID_SIZE];
-        
-        // Track scatter symbols per column
-        boolean[] columnHasScatter = new boolean[GRID_SIZE];
-        int scatterCount = 0;
-        
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                int symbol;
-                if (random.nextDouble() < 0.3) {
-                    List<Integer> neighbors = new ArrayList<>();
-                    // Fölötte lévő szomszéd
-                    if (row > 0) neighbors.add(generatedSymbols[row - 1][col]);
-                    // Alatta lévő szomszéd
-                    if (row < GRID_SIZE - 1) neighbors.add(generatedSymbols[row + 1][col]);
-                    // Balra lévő szomszéd
-                    if (col > 0) neighbors.add(generatedSymbols[row][col - 1]);
-                    // Jobbra lévő szomszéd
-                    if (col < GRID_SIZE - 1) neighbors.add(generatedSymbols[row][col + 1]);
-                    if (!neighbors.isEmpty()) {
-                        symbol = neighbors.get(random.nextInt(neighbors.size()));
-                    } else {
-                        symbol = generateSymbol();
-                    }
-                } else {
-                    symbol = generateSymbol();
-                }
-                
-                // Check if this is a scatter symbol
-                if (symbol == SCATTER_SYMBOL) {
-                    // Only allow scatter if:
-                    // 1. We haven't reached the maximum scatter count
-                    // 2. This column doesn't already have a scatter
-                    if (scatterCount >= BONUS_TRIGGER_COUNT || columnHasScatter[col]) {
-                        // Generate a different symbol instead
-                        symbol = generateNonScatterSymbol();
-                    } else {
-                        // This is a valid scatter placement
-                        scatterCount++;
-                        columnHasScatter[col] = true;
-                    }
-                }
-                
-                generatedSymbols[row][col] = symbol;
+    private long runLabelledSpin(SpinScratch spin, int betAmount, RandomGenerator random) {
+        CompiledMathModel model = spin.getModel();
+        UnionFindClusterLabeler clusterLabeler = model.getClusterLabeler();
+        int symbolCount = model.getSymbolCount();
+        spin.reset();
+        byte[] grid = spin.getGrid();
+        int[] labels = spin.getLabels();
+
+        generateSymbols(spin, random);
+        spin.snapshotInitialGrid();
+
+        long totalPayout = 0;
+        while (true) {
+            int step = spin.beginStep();
+            long[] stepMatched = spin.getStepMatched();
+            int offset = spin.stepMatchedOffset(step);
+            int clusterCount = clusterLabeler.findMatches(grid, labels, stepMatched, offset, symbolCount);
+            if (clusterCount == 0) {
+                spin.abandonStep();
+                break;
+            }
+
+            long stepPayout = calculatePayout(model, stepMatched, offset, betAmount);
+            spin.setStepPayout(step, stepPayout);
+            spin.setStepClusterCount(step, clusterCount);
+            totalPayout += stepPayout;
+
+            clearMatched(grid, stepMatched, offset, symbolCount, model.getMaskWords());
+            streamingDropAndRefill(model, grid, random);
+            spin.snapshotStepGrid(step);
+        }
+
+        spin.setTotalPayout(totalPayout);
+        return totalPayout;
+    }
+
+    // A nyerő maszkok celláinak ürítése (szimbólumonként words szó, a w. szó a w * 64. cellától)
+    private static void clearMatched(byte[] grid, long[] matched, int offset, int symbolCount, int words) {
+        for (int i = 0; i < symbolCount * words; i++) {
+            long mask = matched[offset + i];
+            int base = (i % words) * Long.SIZE;
+            while (mask != 0) {
+                grid[base + Long.numberOfTrailingZeros(mask)] = EMPTY;
+                mask &= mask - 1;
             }
         }
-        return generatedSymbols;
     }
 
     /**
-     * Véletlenszerű szimbólum generálása a valószínűségek alapján
+     * A munkaterület tartalmának átalakítása SpinResult objektummá
      */
-    private int generateSymbol() {
-        int randomValue = random.nextInt(100);
-        double cumulativeProbability = 0;
-        for (int i = 0; i < symbolProbabilities.length; i++) {
-            cumulativeProbability += symbolProbabilities[i];
-            if (randomValue < cumulativeProbability) {
-                return i;
-            }
+    public SpinResult toSpinResult(SpinScratch spin, int betAmount, boolean isBonusMode) {
+        CompiledMathModel model = spin.getModel();
+        int gridSize = model.getGridSize();
+        int symbolCount = model.getSymbolCount();
+        SpinResult result = new SpinResult();
+        result.setBetAmount(betAmount);
+        result.setInitialGrid(Grid.copyOf(spin.getInitialGrid(), 0, gridSize));
+
+        List<CascadeStep> cascadeSteps = new ArrayList<>(spin.getStepCount());
+        byte[] stepGrids = spin.getStepGrids();
+        long[] stepMatched = spin.getStepMatched();
+        byte[] previousGrid = spin.getInitialGrid();
+        int previousOffset = 0;
+        for (int step = 0; step < spin.getStepCount(); step++) {
+            int matchedOffset = spin.stepMatchedOffset(step);
+
+            CascadeStep cascadeStep = new CascadeStep();
+            cascadeStep.setMatchedClusters(model.getClusterDetector().toClusterMap(stepMatched, matchedOffset, symbolCount));
+            cascadeStep.setPayout(spin.getStepPayout(step));
+
+            // A törlés utáni rács az előző rácsból és a nyerő maszkokból áll elő
+            Grid gridAfterClear = Grid.copyOf(previousGrid, previousOffset, gridSize);
+            clearMatched(gridAfterClear.cells(), stepMatched, matchedOffset, symbolCount, model.getMaskWords());
+            cascadeStep.setGridAfterClear(gridAfterClear);
+
+            previousGrid = stepGrids;
+            previousOffset = spin.stepGridOffset(step);
+            cascadeStep.setGridAfterRefill(Grid.copyOf(previousGrid, previousOffset, gridSize));
+            cascadeSteps.add(cascadeStep);
         }
-        return symbolProbabilities.length - 1;
+
+        result.setCascadeSteps(cascadeSteps);
+        result.setFinalGrid(Grid.copyOf(previousGrid, previousOffset, gridSize));
+        result.setTotalPayout(spin.getTotalPayout());
+
+        // Bonus trigger ellenőrzése
+        result.setBonusTrigger(isBonusTrigger(spin));
+        result.setRetrigger(isBonusMode && isRetrigger(spin));
+
+        return result;
     }
 
     /**
-     * Non-scatter szimbólum generálása
+     * Bonus trigger ellenőrzése a munkaterület kezdő rácsán
      */
-    private int generateNonScatterSymbol() {
-        int symbol;
-        do {
-            symbol = generateSymbol();
-        } while (symbol == SCATTER_SYMBOL);
-        return symbol;
+    public boolean isBonusTrigger(SpinScratch spin) {
+        return spin.getInitialScatterCount() >= spin.getModel().getBonusTriggerCount();
     }
 
     /**
-     * Klaszterek keresése
+     * Retrigger ellenőrzése a munkaterület kezdő rácsán (bonus módban)
      */
-    public Map<Integer, List<int[]>> checkForMatches(int[][] grid) {
-        Map<Integer, List<int[]>> matchedClusters = new HashMap<>();
-        boolean[][] visited = new boolean[GRID_SIZE][GRID_SIZE];
+    public boolean isRetrigger(SpinScratch spin) {
+        return spin.getInitialScatterCount() >= spin.getModel().getRetriggerCount();
+    }
 
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                if (!visited[row][col]) {
-                    List<int[]> cluster = new ArrayList<>();
-                    findCluster(row, col, grid[row][col], visited, cluster, grid);
+    /**
+     * Szimbólumok generálása
+     */
+    public Grid generateSymbols() {
+        SpinScratch spin = scratchFor(model);
+        spin.reset();
+        generateSymbols(spin, rngService.threadGenerator());
+        return Grid.copyOf(spin.getGrid(), 0, spin.getModel().getGridSize());
+    }
 
-                    if (cluster.size() >= CLUSTER_SIZE) {
-                        matchedClusters
-                                .computeIfAbsent(grid[row][col], k -> new ArrayList<>())
-                                .addAll(cluster);
-                    }
+    /**
+     * Szimbólumok generálása a munkaterület rácsába (a kezdő rács önmagában is auditálható)
+     */
+    public void generateSymbols(SpinScratch spin, RandomGenerator random) {
+        CompiledMathModel model = spin.getModel();
+        GridTopology topology = model.getTopology();
+        int gridSize = model.getGridSize();
+        int scatterSymbol = model.getScatterSymbol();
+        int bonusTriggerCount = model.getBonusTriggerCount();
+        double neighbourCopyChance = model.getNeighbourCopyChance();
+        byte[] grid = spin.getGrid();
+
+        // Track scatter symbols per column
+        long columnHasScatter = 0;
+        int scatterCount = 0;
+
+        for (int cell = 0; cell < grid.length; cell++) {
+            int col = cell % gridSize;
+            int symbol;
+            if (random.nextDouble() < neighbourCopyChance) {
+                // Szomszéd másolása (fölötte, alatta, balra, jobbra; a még nem generált cellák 0-k)
+                int neighbourCount = topology.neighbourCount(cell);
+                if (neighbourCount > 0) {
+                    symbol = grid[topology.neighbour(cell, random.nextInt(neighbourCount))];
+                } else {
+                    symbol = model.getSymbols().sample(random);
+                }
+            } else {
+                symbol = model.getSymbols().sample(random);
+            }
+
+            // Check if this is a scatter symbol
+            if (symbol == scatterSymbol) {
+                // Only allow scatter if:
+                // 1. We haven't reached the maximum scatter count
+                // 2. This column doesn't already have a scatter
+                if (scatterCount >= bonusTriggerCount || (columnHasScatter & (1L << col)) != 0) {
+                    // Generate a different symbol instead (scatter nélküli alias tábla, egyetlen húzás)
+                    symbol = model.getNonScatter().sample(random);
+                } else {
+                    // This is a valid scatter placement
+                    scatterCount++;
+                    columnHasScatter |= 1L << col;
                 }
             }
+
+            grid[cell] = (byte) symbol;
         }
-        return matchedClusters;
+        spin.setInitialScatterCount(scatterCount);
     }
 
     /**
-     * Klaszter keresése rekurzívan
+     * Szimbólum súlyok cseréje - a modell (és az alias táblák) csak ilyenkor fordul újra
      */
-    private void findCluster(int row, int col, int symbol, boolean[][] visited, List<int[]> cluster, int[][] grid) {
-        if (row < 0 || row >= GRID_SIZE || col < 0 || col >= GRID_SIZE || 
-            visited[row][col] || grid[row][col] != symbol) {
-            return;
-        }
-        visited[row][col] = true;
-        cluster.add(new int[]{row, col});
+    public void setSymbolWeights(int[] symbolWeights) {
+        model = model.withSymbolWeights(symbolWeights);
+    }
 
-        findCluster(row + 1, col, symbol, visited, cluster, grid);
-        findCluster(row - 1, col, symbol, visited, cluster, grid);
-        findCluster(row, col + 1, symbol, visited, cluster, grid);
-        findCluster(row, col - 1, symbol, visited, cluster, grid);
+    public int[] getSymbolWeights() {
+        return model.getSymbols().getWeights();
     }
 
     /**
-     * Nyeremény számítása
+     * Klaszterek keresése (bitboard elárasztással, nagy rácson union-find címkézéssel)
      */
-    private double calculatePayout(Map<Integer, List<int[]>> matchedClusters, int betAmount) {
-        double totalPayout = 0;
+    public Map<Integer, List<int[]>> checkForMatches(Grid grid) {
+        CompiledMathModel model = this.model;
+        BitboardClusterDetector clusterDetector = model.getClusterDetector();
+        SpinScratch spin = scratchFor(model);
+        long[] matched = new long[model.getSymbolCount() * model.getMaskWords()];
+        int clusterCount;
+        if (model.isBitboard() && !unionFindCascades) {
+            long[] symbolMasks = spin.getSymbolMasks();
+            clusterDetector.buildSymbolMasks(grid.cells(), symbolMasks);
+            clusterCount = clusterDetector.findMatches(symbolMasks, matched);
+        } else {
+            clusterCount = model.getClusterLabeler().findMatches(grid.cells(), spin.getLabels(), matched, 0, model.getSymbolCount());
+        }
+        if (clusterCount == 0) {
+            return new HashMap<>();
+        }
+        return clusterDetector.toClusterMap(matched);
+    }
 
-        for (Map.Entry<Integer, List<int[]>> entry : matchedClusters.entrySet()) {
-            int symbol = entry.getKey();
-            int clusterSize = entry.getValue().size();
-            Pair<Double, Integer> multiplierInfo = getPayoutMultiplier(symbol, clusterSize);
-            double payout = betAmount * multiplierInfo.first;
-            totalPayout += payout;
+    /**
+     * Klaszterek keresése maszkokon - allokációmentes változat
+     *
+     * @return a talált nyerő klaszterek száma
+     */
+    public int checkForMatches(long[] symbolMasks, long[] matchedOut) {
+        return model.getClusterDetector().findMatches(symbolMasks, matchedOut);
+    }
+
+    /**
+     * Nyeremény számítása a nyerő maszkokból minor egységben (szimbólumonként növekvő sorrendben)
+     */
+    private long calculatePayout(CompiledMathModel model, long[] matched, int offset, int betAmount) {
+        long totalPayout = 0;
+        long betMinor = (long) betAmount * MONEY_SCALE;
+
+        int words = model.getMaskWords();
+        for (int symbol = 0; symbol < model.getSymbolCount(); symbol++) {
+            int size = 0;
+            for (int w = 0; w < words; w++) {
+                size += Long.bitCount(matched[offset + symbol * words + w]);
+            }
+            if (size != 0) {
+                totalPayout += betMinor * model.multiplier(symbol, size) / MULTIPLIER_SCALE;
+            }
         }
 
         return totalPayout;
@@ -227,48 +604,76 @@ public class SlotMachineEngine {
      * Szorzó lekérése
      */
     public Pair<Double, Integer> getPayoutMultiplier(int symbol, int clusterSize) {
-        int multiplierIndex = Math.min(clusterSize - CLUSTER_SIZE, payoutMultipliers.length - 1);
-        double multiplier = payoutMultipliers[multiplierIndex][symbol];
-        return new Pair<>(multiplier, clusterSize);
+        return new Pair<>((double) model.multiplier(symbol, clusterSize) / MULTIPLIER_SCALE, clusterSize);
+    }
+
+    /**
+     * Üres helyek feltöltése új szimbólumokkal
+     */
+    void dropAndRefillSymbols(Grid grid) {
+        dropAndRefillSymbols(kernels, scratchFor(model), grid.cells(), rngService.threadGenerator());
     }
 
     /**
-     * Matched szimbólumok törlése
+     * Üres helyek feltöltése a lapos rácsban a megadott generátorral (az aktuális modellel)
      */
-    private void clearMatchedSymbols(int[][] grid, Map<Integer, List<int[]>> matchedClusters) {
-        for (Map.Entry<Integer, List<int[]>> entry : matchedClusters.entrySet()) {
-            for (int[] position : entry.getValue()) {
-                grid[position[0]][position[1]] = -1;  // Üresítjük a matched szimbólumokat
+    void dropAndRefillSymbols(byte[] grid, RandomGenerator random) {
+        dropAndRefillSymbols(kernels, scratchFor(model), grid, random);
+    }
+
+    /**
+     * Oszlopok tömörítése, majd feltöltés oszloponként balról jobbra, felülről az üres helyekre.
+     * A jobb szomszéd a tömörítés előtti rácsból jön, ahogy az oszloponkénti tömörítés-feltöltésnél.
+     */
+    private void dropAndRefillSymbols(GridKernels kernels, SpinScratch spin, byte[] grid, RandomGenerator random) {
+        CompiledMathModel model = spin.getModel();
+        if (!model.isBitboard()) {
+            streamingDropAndRefill(model, grid, random);
+            return;
+        }
+        int gridSize = model.getGridSize();
+        double refillClusterChance = model.getRefillClusterChance();
+        byte[] before = spin.getRefillSnapshot();
+        int[] holes = spin.getColumnHoles();
+        kernels.compactColumns(model, grid, before, holes);
+
+        for (int col = 0; col < gridSize; col++) {
+            // Üres helyek feltöltése új szimbólumokkal a legfelső sorban
+            for (int emptyRow = holes[col] - 1; emptyRow >= 0; emptyRow--) {
+                if (random.nextDouble() < refillClusterChance) {  // Esély a klaszterformációra
+                    grid[emptyRow * gridSize + col] = (byte) suggestClusterSymbol(model, col, emptyRow, grid, before, random);
+                } else {
+                    grid[emptyRow * gridSize + col] = (byte) model.getSymbols().sample(random);  // Véletlenszerű szimbólum
+                }
             }
         }
     }
 
     /**
-     * Üres helyek feltöltése új szimbólumokkal
+     * Tömörítés és feltöltés egyetlen menetben, oszloponként balról jobbra, pillanatkép nélkül.
+     * A jobb szomszéd oszlop ilyenkor még érintetlen, így ugyanazt adja, mint a tömörítés előtti pillanatkép.
      */
-    private void dropAndRefillSymbols(int[][] grid) {
-        for (int col = 0; col < GRID_SIZE; col++) {
-            int emptyRow = GRID_SIZE - 1;
-
-            // Az oszlop végigjárása alulról felfelé
-            for (int row = GRID_SIZE - 1; row >= 0; row--) {
-                if (grid[row][col] != -1) {
-                    grid[emptyRow][col] = grid[row][col];
+    private void streamingDropAndRefill(CompiledMathModel model, byte[] grid, RandomGenerator random) {
+        int gridSize = model.getGridSize();
+        double refillClusterChance = model.getRefillClusterChance();
+        for (int col = 0; col < gridSize; col++) {
+            int emptyRow = gridSize - 1;
+            for (int row = gridSize - 1; row >= 0; row--) {
+                int cell = row * gridSize + col;
+                if (grid[cell] != EMPTY) {
+                    grid[emptyRow * gridSize + col] = grid[cell];
                     if (emptyRow != row) {
-                        grid[row][col] = -1;
+                        grid[cell] = EMPTY;
                     }
                     emptyRow--;
                 }
             }
-
-            // Üres helyek feltöltése új szimbólumokkal a legfelső sorban
-            while (emptyRow >= 0) {
-                if (random.nextDouble() < 0.2) {  // 20% esély a klaszterformációra
-                    grid[emptyRow][col] = suggestClusterSymbol(col, emptyRow, grid);
+            for (; emptyRow >= 0; emptyRow--) {
+                if (random.nextDouble() < refillClusterChance) {
+                    grid[emptyRow * gridSize + col] = (byte) suggestClusterSymbol(model, col, emptyRow, grid, grid, random);
                 } else {
-                    grid[emptyRow][col] = generateSymbol();  // Véletlenszerű szimbólum
+                    grid[emptyRow * gridSize + col] = (byte) model.getSymbols().sample(random);
                 }
-                emptyRow--;
             }
         }
     }
@@ -276,65 +681,41 @@ public class SlotMachineEngine {
     /**
      * Klaszter formáció javaslata
      */
-    private int suggestClusterSymbol(int col, int row, int[][] grid) {
-        List<Integer> possibleSymbols = new ArrayList<>();
-
-        // Nézd meg az összes szomszédot
-        if (col > 0 && grid[row][col - 1] != -1) {  // Balra
-            possibleSymbols.add(grid[row][col - 1]);
-        }
-        if (col < GRID_SIZE - 1 && grid[row][col + 1] != -1) {  // Jobbra
-            possibleSymbols.add(grid[row][col + 1]);
-        }
+    private int suggestClusterSymbol(CompiledMathModel model, int col, int row, byte[] grid, byte[] before,
+                                     RandomGenerator random) {
+        int gridSize = model.getGridSize();
+        int cell = row * gridSize + col;
+        int left = col > 0 ? grid[cell - 1] : EMPTY;  // Balra (már feltöltött oszlop)
+        int right = col < gridSize - 1 ? before[cell + 1] : EMPTY;  // Jobbra (még tömörítetlen oszlop)
+        int candidates = (left != EMPTY ? 1 : 0) + (right != EMPTY ? 1 : 0);
 
         // Ha van lehetséges szimbólum, válassz közülük nagyobb eséllyel
-        if (!possibleSymbols.isEmpty() && random.nextDouble() < 0.8) {  // 80% esély a szomszéd másolására
-            return possibleSymbols.get(random.nextInt(possibleSymbols.size()));
+        if (candidates > 0 && random.nextDouble() < model.getRefillNeighbourChance()) {  // Esély a szomszéd másolására
+            int pick = random.nextInt(candidates);
+            return pick == 0 && left != EMPTY ? left : right;
         }
 
         // Ha nincs releváns szomszéd, vagy nem másolunk, generáljunk egy véletlenszerű szimbólumot
-        return generateSymbol();
+        return model.getSymbols().sample(random);
     }
 
     /**
      * Bonus trigger ellenőrzése
      */
-    public boolean checkForBonusTrigger(int[][] grid) {
-        int scatterCount = 0;
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                if (grid[row][col] == SCATTER_SYMBOL) {
-                    scatterCount++;
-                }
-            }
-        }
-        return scatterCount >= BONUS_TRIGGER_COUNT;
+    public boolean checkForBonusTrigger(Grid grid) {
+        return countScatters(grid) >= model.getBonusTriggerCount();
     }
 
     /**
      * Retrigger ellenőrzése
      */
-    public boolean checkForRetrigger(int[][] grid) {
-        int scatterCount = 0;
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                if (grid[row][col] == SCATTER_SYMBOL) {
-                    scatterCount++;
-                }
-            }
-        }
-        return scatterCount >= RETRIGGER_COUNT;
+    public boolean checkForRetrigger(Grid grid) {
+        return countScatters(grid) >= model.getRetriggerCount();
     }
 
-    /**
-     * Grid másolása
-     */
-    private int[][] copyGrid(int[][] original) {
-        int[][] copy = new int[GRID_SIZE][GRID_SIZE];
-        for (int i = 0; i < GRID_SIZE; i++) {
-            System.arraycopy(original[i], 0, copy[i], 0, GRID_SIZE);
-        }
-        return copy;
+    private int countScatters(Grid grid) {
+        byte[] cells = grid.cells();
+        return kernels.count(cells, cells.length, model.getScatterSymbol());
     }
 
     /**
@@ -342,32 +723,49 @@ public class SlotMachineEngine {
      */
     public static class SpinResult {
         private int betAmount;
-        private int[][] initialGrid;
-        private int[][] finalGrid;
+        private long seed;
+        private CompiledMathModel model; // a modell, amelyen a spin futott
+        private Long spinId;
+        private Grid initialGrid;
+        private Grid finalGrid;
         private List<CascadeStep> cascadeSteps;
-        private double totalPayout;
+        private long totalPayout; // minor egységben
         private boolean bonusTrigger;
         private boolean retrigger;
+        private ProvablyFairService.FairSeed fairSeed; // provably fair spinnél a seed-ek
 
         // Getters and setters
         public int getBetAmount() { return betAmount; }
         public void setBetAmount(int betAmount) { this.betAmount = betAmount; }
 
-        public int[][] getInitialGrid() { return initialGrid; }
-        public void setInitialGrid(int[][] initialGrid) { this.initialGrid = initialGrid; }
+        public long getSeed() { return seed; }
+        public void setSeed(long seed) { this.seed = seed; }
+
+        @JsonIgnore
+        public CompiledMathModel getModel() { return model; }
+        public void setModel(CompiledMathModel model) { this.model = model; }
 
-        public int[][] getFinalGrid() { return finalGrid; }
-        public void setFinalGrid(int[][] finalGrid) { this.finalGrid = finalGrid; }
+        public Long getSpinId() { return spinId; }
+        public void setSpinId(Long spinId) { this.spinId = spinId; }
+
+        public Grid getInitialGrid() { return initialGrid; }
+        public void setInitialGrid(Grid initialGrid) { this.initialGrid = initialGrid; }
+
+        public Grid getFinalGrid() { return finalGrid; }
+        public void setFinalGrid(Grid finalGrid) { this.finalGrid = finalGrid; }
 
         public List<CascadeStep> getCascadeSteps() { return cascadeSteps; }
         public void setCascadeSteps(List<CascadeStep> cascadeSteps) { this.cascadeSteps = cascadeSteps; }
 
-        public double getTotalPayout() { return totalPayout; }
-        public void setTotalPayout(double totalPayout) { this.totalPayout = totalPayout; }
+        public long getTotalPayout() { return totalPayout; }
+        public void setTotalPayout(long totalPayout) { this.totalPayout = totalPayout; }
 
         public boolean isBonusTrigger() { return bonusTrigger; }
         public void setBonusTrigger(boolean bonusTrigger) { this.bonusTrigger = bonusTrigger; }
 
+        public ProvablyFairService.FairSeed getFairSeed() { return fairSeed; }
+        public void setFairSeed(ProvablyFairService.FairSeed fairSeed) { this.fairSeed = fairSeed; }
+
         public boolean isRetrigger() { return retrigger; }
         public void setRetrigger(boolean retrigger) { this.retrigger = retrigger; }
     }
@@ -377,21 +775,21 @@ public class SlotMachineEngine {
      */
     public static class CascadeStep {
         private Map<Integer, List<int[]>> matchedClusters;
-        private double payout;
-        private int[][] gridAfterClear;
-        private int[][] gridAfterRefill;
+        private long payout; // minor egységben
+        private Grid gridAfterClear;
+        private Grid gridAfterRefill;
 
         // Getters and setters
         public Map<Integer, List<int[]>> getMatchedClusters() { return matchedClusters; }
         public void setMatchedClusters(Map<Integer, List<int[]>> matchedClusters) { this.matchedClusters = matchedClusters; }
 
-        public double getPayout() { return payout; }
-        public void setPayout(double payout) { this.payout = payout; }
+        public long getPayout() { return payout; }
+        public void setPayout(long payout) { this.payout = payout; }
 
-        public int[][] getGridAfterClear() { return gridAfterClear; }
-        public void setGridAfterClear(int[][] gridAfterClear) { this.gridAfterClear = gridAfterClear; }
+        public Grid getGridAfterClear() { return gridAfterClear; }
+        public void setGridAfterClear(Grid gridAfterClear) { this.gridAfterClear = gridAfterClear; }
 
-        public int[][] getGridAfterRefill() { return gridAfterRefill; }
-        public void setGridAfterRefill(int[][] gridAfterRefill) { this.gridAfterRefill = gridAfterRefill; }
+        public Grid getGridAfterRefill() { return gridAfterRefill; }
+        public void setGridAfterRefill(Grid gridAfterRefill) { this.gridAfterRefill = gridAfterRefill; }
     }
 }
@@ -0,0 +1,211 @@
+package com.example.slotmachine.server.service;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.entity.SpinConfiguration;
+import com.example.slotmachine.server.entity.SpinRecord;
+import com.example.slotmachine.server.entity.User;
+import com.example.slotmachine.server.repository.SpinConfigurationRepository;
+import com.example.slotmachine.server.repository.SpinRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spin napló és visszajátszás.
+ * Spinenként csak a seed, a tét, a nyeremény és a konfiguráció ujjlenyomata kerül mentésre;
+ * a rácsok és a kaszkád lépések kérésre a motorral újra előállíthatók.
+ */
+@Service
+public class SpinReplayService {
+
+    @Autowired
+    private SpinRecordRepository spinRecordRepository;
+
+    @Autowired
+    private SpinConfigurationRepository spinConfigurationRepository;
+
+    @Autowired
+    private SlotMachineEngine slotMachineEngine;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Az archivált modellek ujjlenyomata (identitás szerint; a modell csak cserekor archiválódik)
+    private final Map<CompiledMathModel, Long> configurationIds = new ConcurrentHashMap<>();
+
+    // Visszajátszó motorok konfigurációnként (a régi modellek is visszajátszhatók maradnak)
+    private final Map<Long, SlotMachineEngine> replayEngines = new ConcurrentHashMap<>();
+
+    /**
+     * Napló bejegyzés egy lejátszott spinhez (a mentés a hívó dolga)
+     */
+    public SpinRecord newRecord(User user, SlotMachineEngine.SpinResult spinResult, boolean isBonusMode) {
+        return new SpinRecord(user, configurationIdFor(spinResult.getModel()), spinResult.getSeed(),
+                spinResult.getBetAmount(), spinResult.getTotalPayout(), isBonusMode);
+    }
+
+    /**
+     * Az archivált modell ujjlenyomata - zár és adatbázis hozzáférés nélkül, a spin útvonalon hívható
+     */
+    public long configurationIdFor(CompiledMathModel model) {
+        Long id = configurationIds.get(model);
+        if (id == null) {
+            throw new IllegalStateException("Math model " + model.getName() + " was not archived before use");
+        }
+        return id;
+    }
+
+    /**
+     * A modell + motor verzió + RNG algoritmus ujjlenyomatának archiválása.
+     * A modell cseréjekor hívandó (MathModelService, OutcomeCatalogService), mielőtt a modell spinekben megjelenik;
+     * saját tranzakcióban ment, spin tranzakción és sorzáron kívül.
+     */
+    public long archive(CompiledMathModel model) {
+        Long known = configurationIds.get(model);
+        if (known != null) {
+            return known;
+        }
+
+        String rngAlgorithm = slotMachineEngine.getRngService().getAlgorithm();
+        String modelJson = model.toJson();
+        long id = fingerprint(SlotMachineEngine.ENGINE_VERSION, rngAlgorithm, modelJson);
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.executeWithoutResult(status -> {
+            if (!spinConfigurationRepository.existsById(id)) {
+                spinConfigurationRepository.save(new SpinConfiguration(
+                        id, SlotMachineEngine.ENGINE_VERSION, rngAlgorithm, model.getName(), modelJson));
+            }
+        });
+
+        configurationIds.put(model, id);
+        return id;
+    }
+
+    /**
+     * Spin újrajátszása a napló alapján; a nyereménynek egyeznie kell a rögzítettel
+     */
+    @Transactional(readOnly = true)
+    public SpinReplay replay(Long spinId) {
+        SpinRecord record = spinRecordRepository.findById(spinId)
+                .orElseThrow(() -> new RuntimeException("Spin not found"));
+
+        SlotMachineEngine engine = replayEngines.computeIfAbsent(record.getConfigurationId(), id ->
+                createReplayEngine(spinConfigurationRepository.findById(id)
+                        .orElseThrow(() -> new RuntimeException("Spin configuration not found: " + id))));
+        SlotMachineEngine.SpinResult result = engine.processSpin(record.getBetAmount(), record.isBonusMode(), record.getSeed());
+        result.setSpinId(record.getId());
+
+        return new SpinReplay(record, result, result.getTotalPayout() == record.getPayout());
+    }
+
+    /**
+     * Provably fair spin ellenőrzése: a seed-ekből levezetett spin seed a naplózott seed,
+     * és a visszajátszott nyeremény a rögzített. Csak a saját spinek kérdezhetők le.
+     */
+    @Transactional(readOnly = true)
+    public FairVerification verifyFair(Long spinId, Long userId) {
+        SpinRecord record = spinRecordRepository.findById(spinId)
+                .filter(found -> found.getUser().getId().equals(userId))
+                .orElseThrow(() -> new RuntimeException("Spin not found"));
+        if (record.getServerSeed() == null) {
+            throw new RuntimeException("Spin was not played in provably fair mode");
+        }
+
+        long derivedSeed = ProvablyFairService.deriveSeed(record.getServerSeed(), record.getClientSeed(), record.getNonce());
+        SpinReplay replay = replay(spinId);
+        return new FairVerification(replay, ProvablyFairService.hashServerSeed(record.getServerSeed()), derivedSeed,
+                derivedSeed == record.getSeed() && replay.isVerified());
+    }
+
+    /**
+     * Egy felhasználó legutóbbi spinjei (legújabb elöl)
+     */
+    @Transactional(readOnly = true)
+    public List<SpinRecord> getRecentSpins(User user, int limit) {
+        return spinRecordRepository.findByUserOrderByIdDesc(user, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Motor az archivált konfigurációból (a rögzített RNG algoritmussal és modellel)
+     */
+    static SlotMachineEngine createReplayEngine(SpinConfiguration configuration) {
+        if (configuration.getEngineVersion() != SlotMachineEngine.ENGINE_VERSION) {
+            throw new RuntimeException("Spin was played on engine version " + configuration.getEngineVersion()
+                    + ", current version is " + SlotMachineEngine.ENGINE_VERSION);
+        }
+
+        try {
+            CompiledMathModel model = CompiledMathModel.fromJson(configuration.getModelDefinition());
+            return new SlotMachineEngine(new RngService(configuration.getRngAlgorithm(), null), model);
+        } catch (IOException e) {
+            throw new RuntimeException("Invalid archived math model: " + e.getMessage());
+        }
+    }
+
+    static long fingerprint(int engineVersion, String rngAlgorithm, String modelJson) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((engineVersion + "\n" + rngAlgorithm + "\n" + modelJson)
+                    .getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(hash).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Visszajátszás eredménye
+     */
+    public static class SpinReplay {
+        private final SpinRecord record;
+        private final SlotMachineEngine.SpinResult result;
+        private final boolean verified;
+
+        public SpinReplay(SpinRecord record, SlotMachineEngine.SpinResult result, boolean verified) {
+            this.record = record;
+            this.result = result;
+            this.verified = verified;
+        }
+
+        public SpinRecord getRecord() { return record; }
+        public SlotMachineEngine.SpinResult getResult() { return result; }
+        public boolean isVerified() { return verified; }
+    }
+
+    /**
+     * Provably fair ellenőrzés eredménye
+     */
+    public static class FairVerification {
+        private final SpinReplay replay;
+        private final String serverSeedHash;
+        private final long derivedSeed;
+        private final boolean verified;
+
+        public FairVerification(SpinReplay replay, String serverSeedHash, long derivedSeed, boolean verified) {
+            this.replay = replay;
+            this.serverSeedHash = serverSeedHash;
+            this.derivedSeed = derivedSeed;
+            this.verified = verified;
+        }
+
+        public SpinReplay getReplay() { return replay; }
+        public String getServerSeedHash() { return serverSeedHash; }
+        public long getDerivedSeed() { return derivedSeed; }
+        public boolean isVerified() { return verified; }
+    }
+}
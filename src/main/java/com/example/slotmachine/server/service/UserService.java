@@ -3,6 +3,7 @@ package com.example.slotmachine.server.service;
 import com.example.slotmachine.server.entity.User;
 import com.example.slotmachine.server.repository.UserRepository;
 import com.example.slotmachine.server.repository.GameTransactionRepository;
+import com.example.slotmachine.server.repository.SpinRecordRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -21,6 +22,9 @@ public class UserService {
     
     @Autowired
     private GameTransactionRepository gameTransactionRepository;
+
+    @Autowired
+    private SpinRecordRepository spinRecordRepository;
     
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -41,7 +45,7 @@ public class UserService {
         User user = new User();
         user.setUsername(username);
         user.setPassword(passwordEncoder.encode(password));
-        user.setBalance(0.0);
+        user.setBalance(0);
         
         return userRepository.save(user);
     }
@@ -55,12 +59,12 @@ public class UserService {
         userRepository.save(user);
     }
 
-    public void updateBalance(User user, Double newBalance) {
+    public void updateBalance(User user, long newBalance) {
         user.setBalance(newBalance);
         userRepository.save(user);
     }
 
-    public void addCredits(String username, Double amount) {
+    public void addCredits(String username, long amount) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
@@ -88,7 +92,7 @@ public class UserService {
         userRepository.save(user);
     }
 
-    public void setUserBalance(String username, Double newBalance) {
+    public void setUserBalance(String username, long newBalance) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
@@ -101,8 +105,9 @@ public class UserService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        // Először töröljük a felhasználóhoz tartozó tranzakciókat
+        // Először töröljük a felhasználóhoz tartozó tranzakciókat és spin naplót
         gameTransactionRepository.deleteByUser(user);
+        spinRecordRepository.deleteByUser(user);
         
         // Majd töröljük magát a felhasználót
         userRepository.delete(user);
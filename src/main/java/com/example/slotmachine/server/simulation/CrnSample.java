@@ -0,0 +1,136 @@
+package com.example.slotmachine.server.simulation;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.SpinScratch;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Rögzített körök a hangoláshoz (common random numbers): körönként a nyerő (szimbólum, klaszterméret) események.
+ * A cascade lefolyása csak a rácstól függ, a nyeremény táblától nem, ezért egy szimbólum súly készlethez egyszer kell
+ * lejátszani a köröket, és bármely nyeremény tábla pontos eredménye a rögzített eseményekből újraszámolható.
+ * Egy esemény kulcsa a CompiledMathModel lapos táblájának indexe: min(méret, cellák) * szimbólumszám + szimbólum.
+ */
+final class CrnSample {
+
+    private final int[] events;
+    private final int eventCount;
+    // A k. kör eseményei: roundEnd[k - 1] .. roundEnd[k] (az első kör 0-tól)
+    private final int[] roundEnd;
+    private final int rounds;
+    // A motor által fizetett összeg 1-es téttel (minor egység), a visszajátszás ellenőrzéséhez
+    private final long enginePayout;
+
+    private CrnSample(int[] events, int eventCount, int[] roundEnd, int rounds, long enginePayout) {
+        this.events = events;
+        this.eventCount = eventCount;
+        this.roundEnd = roundEnd;
+        this.rounds = rounds;
+        this.enginePayout = enginePayout;
+    }
+
+    /**
+     * Egy blokk köreinek lejátszása és rögzítése (alapjáték spin + az általa indított free spin sorozat)
+     */
+    static CrnSample record(SlotMachineEngine engine, CompiledMathModel model, RandomGenerator random, int rounds) {
+        SpinScratch spin = model.newScratch();
+        int symbolCount = model.getSymbolCount();
+        int words = model.getMaskWords();
+        int cells = model.getCells();
+        int[] events = new int[rounds * 2];
+        int[] roundEnd = new int[rounds];
+        int eventCount = 0;
+        long enginePayout = 0;
+
+        for (int round = 0; round < rounds; round++) {
+            int remaining = 1;
+            int awarded = 0;
+            boolean bonus = false;
+            while (remaining > 0) {
+                remaining--;
+                enginePayout += engine.runSpin(spin, 1, random);
+                long[] matched = spin.getStepMatched();
+                for (int step = 0; step < spin.getStepCount(); step++) {
+                    int offset = spin.stepMatchedOffset(step);
+                    for (int symbol = 0; symbol < symbolCount; symbol++) {
+                        // Ugyanazon szimbólum klaszterei összevonva fizetnek, mint a motorban
+                        int size = 0;
+                        for (int w = 0; w < words; w++) {
+                            size += Long.bitCount(matched[offset + symbol * words + w]);
+                        }
+                        if (size > 0) {
+                            if (eventCount == events.length) {
+                                events = Arrays.copyOf(events, events.length * 2);
+                            }
+                            events[eventCount++] = Math.min(size, cells) * symbolCount + symbol;
+                        }
+                    }
+                }
+                if (!bonus && engine.isBonusTrigger(spin)) {
+                    bonus = true;
+                    awarded = model.getFreeSpins();
+                    remaining += awarded;
+                } else if (bonus && engine.isRetrigger(spin)) {
+                    int award = model.retriggerAward(awarded);
+                    awarded += award;
+                    remaining += award;
+                }
+            }
+            roundEnd[round] = eventCount;
+        }
+        return new CrnSample(events, eventCount, roundEnd, rounds, enginePayout);
+    }
+
+    /**
+     * Két egymást követő blokk összefűzése (a sorrend rögzített, az eredmény nem függ az ütemezéstől)
+     */
+    CrnSample append(CrnSample next) {
+        int[] mergedEvents = Arrays.copyOf(events, eventCount + next.eventCount);
+        System.arraycopy(next.events, 0, mergedEvents, eventCount, next.eventCount);
+        int[] mergedEnds = Arrays.copyOf(roundEnd, rounds + next.rounds);
+        for (int i = 0; i < next.rounds; i++) {
+            mergedEnds[rounds + i] = eventCount + next.roundEnd[i];
+        }
+        return new CrnSample(mergedEvents, mergedEvents.length, mergedEnds, mergedEnds.length, enginePayout + next.enginePayout);
+    }
+
+    /**
+     * A rögzített körök eredménye egy lapos nyeremény táblával (századokban, a CompiledMathModel indexelésével)
+     */
+    Metrics evaluate(long[] payouts) {
+        long total = 0;
+        long hits = 0;
+        long max = 0;
+        int start = 0;
+        for (int round = 0; round < rounds; round++) {
+            int end = roundEnd[round];
+            long win = 0;
+            for (int i = start; i < end; i++) {
+                win += payouts[events[i]];
+            }
+            total += win;
+            if (win > 0) {
+                hits++;
+            }
+            max = Math.max(max, win);
+            start = end;
+        }
+        double scale = 100.0;
+        return new Metrics(total / scale / rounds, (double) hits / rounds, max / scale);
+    }
+
+    int getRounds() {
+        return rounds;
+    }
+
+    long getEnginePayout() {
+        return enginePayout;
+    }
+
+    /**
+     * Körönkénti mutatók tét-egységben
+     */
+    record Metrics(double rtp, double hitFrequency, double maxWin) {}
+}
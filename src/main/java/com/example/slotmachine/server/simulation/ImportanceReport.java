@@ -0,0 +1,154 @@
+package com.example.slotmachine.server.simulation;
+
+import java.util.Locale;
+
+/**
+ * Importance sampling eredménye: likelihood ratio-val súlyozott becslések 95%-os konfidencia intervallummal.
+ * Az egyenértékű spin szám azt mutatja, hány sima (súlyozatlan) spin adna ugyanilyen szűk intervallumot;
+ * kevés mintavételezett találat mellett a szórás becslése megbízhatatlan, ilyenkor nem jelenik meg.
+ */
+public class ImportanceReport {
+
+    private static final double Z_95 = 1.959963984540054;
+    // Ennyi találat alatt a konfidencia intervallum csak tájékoztató
+    static final long MIN_HITS = 30;
+
+    private long spins;
+    private long seed;
+    private int threads;
+    private long elapsedMillis;
+    private double targetMultiple;
+    private double eliteLevel;
+    private int tailClusterSize;
+    private double copyChance;
+    private double[] symbolProbabilities;
+    private double meanWeight;
+    private double effectiveSampleSize;
+    private long tailSpins;
+    private double maxWin;
+    private final double[] estimate = new double[ImportanceStats.METRICS];
+    private final double[] low = new double[ImportanceStats.METRICS];
+    private final double[] high = new double[ImportanceStats.METRICS];
+    private final double[] equivalentSpins = new double[ImportanceStats.METRICS];
+    private final long[] hits = new long[ImportanceStats.METRICS];
+
+    public ImportanceReport() {}
+
+    /**
+     * Riport készítése az összevont statisztikákból
+     */
+    static ImportanceReport from(ImportanceStats stats, long seed, int threads, long elapsedMillis,
+                                 double targetMultiple, double eliteLevel, int tailClusterSize, ImportanceTilt tilt) {
+        ImportanceReport report = new ImportanceReport();
+        long n = stats.getSpins();
+        report.spins = n;
+        report.seed = seed;
+        report.threads = threads;
+        report.elapsedMillis = elapsedMillis;
+        report.targetMultiple = targetMultiple;
+        report.eliteLevel = eliteLevel;
+        report.tailClusterSize = tailClusterSize;
+        report.copyChance = tilt.getCopyChance();
+        report.symbolProbabilities = new double[tilt.getModel().getSymbolCount()];
+        for (int symbol = 0; symbol < report.symbolProbabilities.length; symbol++) {
+            report.symbolProbabilities[symbol] = tilt.getSymbolProbability(symbol);
+        }
+        report.tailSpins = stats.getTailSpins();
+        report.maxWin = stats.getMaxWin();
+        if (n == 0) {
+            return report;
+        }
+        report.meanWeight = stats.getSumWeight() / n;
+        report.effectiveSampleSize = stats.getSumWeight() * stats.getSumWeight() / stats.getSumWeightSquared();
+
+        for (int metric = 0; metric < ImportanceStats.METRICS; metric++) {
+            // Az f * W átlaga torzítatlan becslés; a szórása adja az intervallumot
+            double mean = stats.getSumWeighted(metric) / n;
+            double variance = Math.max(0, stats.getSumWeightedSquared(metric) / n - mean * mean) * n / Math.max(1, n - 1);
+            double standardError = Math.sqrt(variance / n);
+            report.estimate[metric] = mean;
+            report.low[metric] = Math.max(0, mean - Z_95 * standardError);
+            report.high[metric] = mean + Z_95 * standardError;
+            report.hits[metric] = stats.getHits(metric);
+            // Sima mintavétel szórása (E_p[f^2] is súlyozva becsülve) a súlyozott szóráshoz képest
+            double plainVariance = Math.max(0, stats.getSumSquaredWeighted(metric) / n - mean * mean);
+            report.equivalentSpins[metric] = variance > 0 ? n * plainVariance / variance : 0;
+        }
+        return report;
+    }
+
+    public String toText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Base spins:          %,d (seed %d, %d threads, %.1f s, target %.0fx)%n",
+                spins, seed, threads, elapsedMillis / 1000.0, targetMultiple));
+        sb.append(String.format(Locale.ROOT, "Tilt:                fitted to wins >= %.1fx: copy chance %.4f, symbols",
+                eliteLevel, copyChance));
+        for (double probability : symbolProbabilities) {
+            sb.append(String.format(Locale.ROOT, " %.3f", probability));
+        }
+        sb.append(String.format(Locale.ROOT, "%nWeights:             mean %.4f, effective sample size %,.0f%n",
+                meanWeight, effectiveSampleSize));
+        sb.append(String.format(Locale.ROOT, "Base RTP:            %.4f%%  (95%% CI %.4f%% .. %.4f%%, %s)%n",
+                estimate[ImportanceStats.RTP] * 100, low[ImportanceStats.RTP] * 100, high[ImportanceStats.RTP] * 100,
+                precision(ImportanceStats.RTP)));
+        sb.append(String.format(Locale.ROOT, "Tail RTP (%d+):      %.6f%%  (95%% CI %.6f%% .. %.6f%%, %,d sampled spins, %s)%n",
+                tailClusterSize, estimate[ImportanceStats.TAIL_RTP] * 100, low[ImportanceStats.TAIL_RTP] * 100,
+                high[ImportanceStats.TAIL_RTP] * 100, tailSpins, precision(ImportanceStats.TAIL_RTP)));
+        for (int i = 0; i < ImportanceStats.EXCEEDANCE_LIMITS.length; i++) {
+            int metric = 2 + i;
+            sb.append(String.format(Locale.ROOT, "P(win >= %4.0fx):     %.3e  (95%% CI %.3e .. %.3e, %,d sampled spins, %s)%n",
+                    ImportanceStats.EXCEEDANCE_LIMITS[i], estimate[metric], low[metric], high[metric], hits[metric],
+                    precision(metric)));
+        }
+        sb.append(String.format(Locale.ROOT, "Max sampled win:     %.2f x bet%n", maxWin));
+        return sb.toString();
+    }
+
+    private String precision(int metric) {
+        if (hits[metric] < MIN_HITS) {
+            return "too few samples";
+        }
+        return String.format(Locale.ROOT, "~%,.0f plain spins", equivalentSpins[metric]);
+    }
+
+    public long getSpins() { return spins; }
+
+    public double getTargetMultiple() { return targetMultiple; }
+
+    public double getEliteLevel() { return eliteLevel; }
+
+    public double getCopyChance() { return copyChance; }
+
+    public double getMeanWeight() { return meanWeight; }
+
+    public double getEffectiveSampleSize() { return effectiveSampleSize; }
+
+    public long getTailSpins() { return tailSpins; }
+
+    public double getMaxWin() { return maxWin; }
+
+    public double getRtp() { return estimate[ImportanceStats.RTP]; }
+
+    public double getRtpLow() { return low[ImportanceStats.RTP]; }
+
+    public double getRtpHigh() { return high[ImportanceStats.RTP]; }
+
+    public double getTailRtp() { return estimate[ImportanceStats.TAIL_RTP]; }
+
+    public double getTailRtpLow() { return low[ImportanceStats.TAIL_RTP]; }
+
+    public double getTailRtpHigh() { return high[ImportanceStats.TAIL_RTP]; }
+
+    public double getTailRtpEquivalentSpins() { return equivalentSpins[ImportanceStats.TAIL_RTP]; }
+
+    /** P(spin nyeremény >= EXCEEDANCE_LIMITS[index]) */
+    public double getExceedance(int index) { return estimate[2 + index]; }
+
+    public double getExceedanceLow(int index) { return low[2 + index]; }
+
+    public double getExceedanceHigh(int index) { return high[2 + index]; }
+
+    public double getExceedanceEquivalentSpins(int index) { return equivalentSpins[2 + index]; }
+
+    public long getExceedanceHits(int index) { return hits[2 + index]; }
+}
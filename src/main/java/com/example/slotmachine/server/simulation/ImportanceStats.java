@@ -0,0 +1,93 @@
+package com.example.slotmachine.server.simulation;
+
+/**
+ * Importance sampling worker statisztikái: minden mutatóhoz a súlyozott összegek (f * W, (f * W)^2, f^2 * W).
+ * A mutatók alapjáték spinenként, tét-egységben: 0 = RTP, 1 = tail RTP (a nagy klaszterek nyereménye),
+ * 2.. = P(spin nyeremény &gt;= EXCEEDANCE_LIMITS[i]).
+ */
+public class ImportanceStats {
+
+    // Tét-szorzó határok a nagy nyeremények valószínűségéhez (a szorzótábla felső sorainak nagyságrendje)
+    public static final double[] EXCEEDANCE_LIMITS = {10, 20, 40, 80, 160};
+    static final int RTP = 0;
+    static final int TAIL_RTP = 1;
+    static final int METRICS = 2 + EXCEEDANCE_LIMITS.length;
+
+    private long spins;
+    private double sumWeight;
+    private double sumWeightSquared;
+    private long tailSpins;
+    private double maxWin;
+    private final double[] sumWeighted = new double[METRICS];
+    private final double[] sumWeightedSquared = new double[METRICS];
+    private final double[] sumSquaredWeighted = new double[METRICS];
+    private final long[] hits = new long[METRICS];
+
+    /**
+     * Egy spin rögzítése a likelihood ratio súlyával
+     *
+     * @param win     a spin nyereménye tét-egységben
+     * @param tailWin ebből a tail klaszterek nyereménye
+     */
+    public void recordSpin(double win, double tailWin, double weight) {
+        spins++;
+        sumWeight += weight;
+        sumWeightSquared += weight * weight;
+        if (tailWin > 0) {
+            tailSpins++;
+        }
+        maxWin = Math.max(maxWin, win);
+        record(RTP, win, weight);
+        record(TAIL_RTP, tailWin, weight);
+        for (int i = 0; i < EXCEEDANCE_LIMITS.length; i++) {
+            record(2 + i, win >= EXCEEDANCE_LIMITS[i] ? 1 : 0, weight);
+        }
+    }
+
+    private void record(int metric, double value, double weight) {
+        double weighted = value * weight;
+        sumWeighted[metric] += weighted;
+        sumWeightedSquared[metric] += weighted * weighted;
+        sumSquaredWeighted[metric] += value * value * weight;
+        if (value != 0) {
+            hits[metric]++;
+        }
+    }
+
+    /**
+     * Egy másik worker eredményeinek hozzáadása
+     */
+    public ImportanceStats merge(ImportanceStats other) {
+        spins += other.spins;
+        sumWeight += other.sumWeight;
+        sumWeightSquared += other.sumWeightSquared;
+        tailSpins += other.tailSpins;
+        maxWin = Math.max(maxWin, other.maxWin);
+        for (int i = 0; i < METRICS; i++) {
+            sumWeighted[i] += other.sumWeighted[i];
+            sumWeightedSquared[i] += other.sumWeightedSquared[i];
+            sumSquaredWeighted[i] += other.sumSquaredWeighted[i];
+            hits[i] += other.hits[i];
+        }
+        return this;
+    }
+
+    public long getSpins() { return spins; }
+
+    public double getSumWeight() { return sumWeight; }
+
+    public double getSumWeightSquared() { return sumWeightSquared; }
+
+    public long getTailSpins() { return tailSpins; }
+
+    public double getMaxWin() { return maxWin; }
+
+    public double getSumWeighted(int metric) { return sumWeighted[metric]; }
+
+    public double getSumWeightedSquared(int metric) { return sumWeightedSquared[metric]; }
+
+    public double getSumSquaredWeighted(int metric) { return sumSquaredWeighted[metric]; }
+
+    /** A mutatóhoz nem nulla értékkel hozzájáruló (mintavételezett) spinek száma */
+    public long getHits(int metric) { return hits[metric]; }
+}
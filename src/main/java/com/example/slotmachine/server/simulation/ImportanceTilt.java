@@ -0,0 +1,140 @@
+package com.example.slotmachine.server.simulation;
+
+import com.example.slotmachine.server.engine.AliasSampler;
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.GridTopology;
+
+/**
+ * Az importance sampling billentett paraméterei (megváltoztathatatlan, a workerek közösen használják):
+ * a generálás szomszéd másolási esélye és a szimbólum eloszlás. A paramétereket a cross-entropy módszer
+ * illeszti: a próbafutás elit spinjeiben (a legjobb 1%, legfeljebb a cél szorzóig) mért, súlyozott gyakoriságok
+ * lesznek az új értékek.
+ */
+final class ImportanceTilt {
+
+    // A billentett szimbólum súlyok skálája (egész súlyok kellenek az alias táblához)
+    private static final int SYMBOL_SCALE = 1 << 20;
+    // Ennyi részben marad névleges minden illesztett paraméter, így egyetlen húzás súlya sem lehet 10-nél nagyobb
+    private static final double NOMINAL_FLOOR = 0.1;
+    // A cross-entropy lépések simítása (az új becslés súlya)
+    private static final double SMOOTHING = 0.7;
+    // A névleges alias tábla legfeljebb ekkora lehet (az előkép táblák mérete)
+    private static final int MAX_SYMBOL_BOUND = 1 << 22;
+
+    private final CompiledMathModel model;
+    private final double copyChance;
+    private final double logCopyRatio;
+    private final double logNoCopyRatio;
+    private final double[] symbolProbabilities;
+    private final double[] logSymbolRatio;
+    private final AliasSampler tiltedSymbols;
+    // A névleges alias tábla húzásai szimbólumonként: ezekből választva a motor pontosan a billentett szimbólumot kapja
+    private final int[][] preimages;
+
+    private ImportanceTilt(CompiledMathModel model, double copyChance, double[] symbolProbabilities, int[][] preimages) {
+        AliasSampler symbols = model.getSymbols();
+        int symbolCount = symbols.size();
+        int[] weights = new int[symbolCount];
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            // Ahol a névleges valószínűség pozitív, a billentett is az (különben a becslés torzítana)
+            weights[symbol] = symbols.probability(symbol) > 0
+                    ? Math.max(1, (int) Math.round(symbolProbabilities[symbol] * SYMBOL_SCALE))
+                    : 0;
+        }
+        this.model = model;
+        this.copyChance = copyChance;
+        double nominalCopyChance = model.getNeighbourCopyChance();
+        this.logCopyRatio = Math.log(copyChance / nominalCopyChance);
+        this.logNoCopyRatio = Math.log((1 - copyChance) / (1 - nominalCopyChance));
+        this.tiltedSymbols = new AliasSampler(weights);
+        this.symbolProbabilities = new double[symbolCount];
+        this.logSymbolRatio = new double[symbolCount];
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            // A kerekített súlyokból számolva: a likelihood ratio pontosan a ténylegesen használt eloszlásé
+            this.symbolProbabilities[symbol] = tiltedSymbols.probability(symbol);
+            this.logSymbolRatio[symbol] = weights[symbol] > 0
+                    ? Math.log(symbolProbabilities[symbol] / symbols.probability(symbol))
+                    : 0;
+        }
+        this.preimages = preimages;
+    }
+
+    /**
+     * Névleges paraméterek (billentés nélkül)
+     */
+    static ImportanceTilt nominal(CompiledMathModel model) {
+        double copyChance = model.getNeighbourCopyChance();
+        if (copyChance <= 0 || copyChance >= 1) {
+            throw new IllegalArgumentException("Importance sampling needs a neighbour copy chance between 0 and 1: " + copyChance);
+        }
+        AliasSampler symbols = model.getSymbols();
+        // A szimbólum húzásokat a határukról ismeri fel a TiltedRandom: ez nem eshet egybe a szomszéd választással
+        if (symbols.getBound() <= GridTopology.MAX_NEIGHBOURS || symbols.getBound() > MAX_SYMBOL_BOUND) {
+            throw new IllegalArgumentException("Unsupported symbol weights for importance sampling: " + symbols.getBound());
+        }
+        int symbolCount = symbols.size();
+        int[] counts = new int[symbolCount];
+        for (int u = 0; u < symbols.getBound(); u++) {
+            counts[symbols.sampleAt(u)]++;
+        }
+        int[][] preimages = new int[symbolCount][];
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            preimages[symbol] = new int[counts[symbol]];
+            counts[symbol] = 0;
+        }
+        for (int u = 0; u < symbols.getBound(); u++) {
+            int symbol = symbols.sampleAt(u);
+            preimages[symbol][counts[symbol]++] = u;
+        }
+        double[] probabilities = new double[symbolCount];
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            probabilities[symbol] = symbols.probability(symbol);
+        }
+        return new ImportanceTilt(model, copyChance, probabilities, preimages);
+    }
+
+    /**
+     * Cross-entropy lépés: az elit spinek súlyozott gyakoriságai, a névleges értékkel keverve és az előző
+     * paraméterekkel simítva
+     *
+     * @param copies        az elit spinek súlyozott másolási döntései
+     * @param copyDecisions az elit spinek súlyozott generálási döntései
+     * @param symbolDraws   az elit spinek súlyozott szimbólum húzásai szimbólumonként
+     */
+    ImportanceTilt refit(double copies, double copyDecisions, double[] symbolDraws) {
+        AliasSampler symbols = model.getSymbols();
+        double nominalCopyChance = model.getNeighbourCopyChance();
+        double eliteCopyChance = copyDecisions > 0 ? copies / copyDecisions : nominalCopyChance;
+        double fittedCopyChance = NOMINAL_FLOOR * nominalCopyChance + (1 - NOMINAL_FLOOR) * eliteCopyChance;
+        double nextCopyChance = SMOOTHING * fittedCopyChance + (1 - SMOOTHING) * copyChance;
+
+        int symbolCount = symbols.size();
+        double draws = 0;
+        for (double count : symbolDraws) {
+            draws += count;
+        }
+        double[] next = new double[symbolCount];
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            double fitted = NOMINAL_FLOOR * symbols.probability(symbol)
+                    + (1 - NOMINAL_FLOOR) * (draws > 0 ? symbolDraws[symbol] / draws : symbols.probability(symbol));
+            next[symbol] = SMOOTHING * fitted + (1 - SMOOTHING) * symbolProbabilities[symbol];
+        }
+        return new ImportanceTilt(model, nextCopyChance, next, preimages);
+    }
+
+    CompiledMathModel getModel() { return model; }
+
+    double getCopyChance() { return copyChance; }
+
+    double getLogCopyRatio() { return logCopyRatio; }
+
+    double getLogNoCopyRatio() { return logNoCopyRatio; }
+
+    double getSymbolProbability(int symbol) { return symbolProbabilities[symbol]; }
+
+    double getLogSymbolRatio(int symbol) { return logSymbolRatio[symbol]; }
+
+    AliasSampler getTiltedSymbols() { return tiltedSymbols; }
+
+    int[] getPreimage(int symbol) { return preimages[symbol]; }
+}
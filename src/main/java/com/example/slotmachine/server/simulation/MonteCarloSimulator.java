@@ -0,0 +1,364 @@
+package com.example.slotmachine.server.simulation;
+
+import com.example.slotmachine.client.Money;
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.SpinScratch;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.random.RandomGenerator;
+
+/**
+ * Párhuzamos Monte Carlo szimulátor a játékmotor matematikájának méréséhez (RTP, találati arány, volatilitás).
+ * A futás fix méretű blokkokra bomlik, minden blokk saját, a master seed-ből és a blokk indexéből
+ * származtatott RNG folyamot és saját munkaterületet kap, így az eredmény csak a seed-től függ,
+ * a szálak számától nem. A blokkok statisztikái fork-join fában vonódnak össze.
+ * A teljes futás az induláskor aktuális matematikai modellen megy, egy közbeni modellcsere nem keveredik bele.
+ */
+@Service
+public class MonteCarloSimulator {
+
+    static final int ROUNDS_PER_BLOCK = 1 << 16;
+    // Importance sampling: cross-entropy próbafutások (kör és spin szám), az elit spinek aránya és legkisebb száma
+    // egy körben, és a főfutás névleges spinjeinek aránya
+    static final int PILOT_ROUNDS = 6;
+    static final int PILOT_SPINS = 1 << 15;
+    static final double ELITE_SHARE = 0.01;
+    static final int MIN_ELITE_SPINS = 50;
+    static final double NOMINAL_SHARE = 0.2;
+
+    @Autowired
+    private SlotMachineEngine engine;
+
+    public MonteCarloSimulator() {}
+
+    public MonteCarloSimulator(SlotMachineEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Szimuláció futtatása az összes elérhető magon
+     */
+    public SimulationReport simulate(long rounds, long seed) {
+        return simulate(rounds, seed, Runtime.getRuntime().availableProcessors(), 1);
+    }
+
+    /**
+     * Szimuláció futtatása
+     *
+     * @param rounds  lejátszandó körök száma (alapjáték spin + az általa indított bonus)
+     * @param seed    master seed, ugyanaz a seed ugyanazt a riportot adja
+     * @param threads párhuzamos worker-ek száma
+     * @param bet     tét körönként (a nyeremények tét-egységben kerülnek a riportba)
+     */
+    public SimulationReport simulate(long rounds, long seed, int threads, int bet) {
+        if (rounds <= 0) {
+            throw new IllegalArgumentException("Rounds must be positive: " + rounds);
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+        if (bet <= 0) {
+            throw new IllegalArgumentException("Bet must be positive: " + bet);
+        }
+
+        long blocks = (rounds + ROUNDS_PER_BLOCK - 1) / ROUNDS_PER_BLOCK;
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        SimulationStats stats;
+        try {
+            stats = pool.invoke(new BlockRange(engine.getMathModel(), 0, blocks, rounds, seed, bet));
+        } finally {
+            pool.shutdown();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return SimulationReport.from(stats, seed, threads, elapsedMillis);
+    }
+
+    /**
+     * Importance sampling a ritka, nagy nyereményekhez (alapjáték spinenként).
+     * A generálás másolási döntései és a szimbólum húzások billentett eloszlásból jönnek (TiltedRandom), amelyet
+     * cross-entropy próbafutások illesztenek a cél szorzó feletti nyereményekre; a főfutás spinjeinek NOMINAL_SHARE
+     * része névleges marad (defenzív keverék). Minden spin a likelihood ratio-jával súlyozva számít, a becslések
+     * torzítatlanok. A bonus sorozatok nem játszódnak le (azok RTP-je a sima szimulációval jól mérhető).
+     *
+     * @param targetMultiple  a nyeremény szorzó (tét-egységben), amely felé a mintavétel billen; 0 = sima mintavétel
+     * @param tailClusterSize a tail RTP-be számító legkisebb klaszter
+     */
+    public ImportanceReport simulateImportance(long spins, long seed, int threads, int bet, double targetMultiple,
+                                               int tailClusterSize) {
+        if (spins <= 0) {
+            throw new IllegalArgumentException("Spins must be positive: " + spins);
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+        if (bet <= 0) {
+            throw new IllegalArgumentException("Bet must be positive: " + bet);
+        }
+        if (targetMultiple < 0) {
+            throw new IllegalArgumentException("Target multiple must not be negative: " + targetMultiple);
+        }
+        CompiledMathModel model = engine.getMathModel();
+        ImportanceTilt tilt = ImportanceTilt.nominal(model);
+
+        long start = System.nanoTime();
+        // Cross-entropy: szintről szintre a cél szorzóig (ha a próbafutásokban nincs nyeremény, marad a névleges eloszlás)
+        double level = 0;
+        for (int round = 0; round < PILOT_ROUNDS && level < targetMultiple; round++) {
+            PilotFit fit = fitTilt(tilt, seed, round, bet, level, targetMultiple);
+            if (fit.level() <= level) {
+                break;
+            }
+            tilt = fit.tilt();
+            level = fit.level();
+        }
+        double nominalShare = level > 0 ? NOMINAL_SHARE : 1;
+
+        long blocks = (spins + ROUNDS_PER_BLOCK - 1) / ROUNDS_PER_BLOCK;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ImportanceStats stats;
+        try {
+            stats = pool.invoke(new ImportanceBlockRange(tilt, 0, blocks, spins, seed, bet, nominalShare, tailClusterSize));
+        } finally {
+            pool.shutdown();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return ImportanceReport.from(stats, seed, threads, elapsedMillis, targetMultiple, level, tailClusterSize, tilt);
+    }
+
+    /**
+     * Egy cross-entropy kör: PILOT_SPINS billentett spin saját RNG folyammal; az elit szint a nyeremények felső
+     * ELITE_SHARE része (legfeljebb a cél szorzó), az új paraméterek az elit spinek súlyozott döntéseiből.
+     * Ha ez nem haladja meg az előző szintet (a nyeremény eloszlás lépcsős), a legjobb MIN_ELITE_SPINS spin a mérce.
+     */
+    PilotFit fitTilt(ImportanceTilt tilt, long seed, int round, int bet, double previousLevel, double targetMultiple) {
+        CompiledMathModel model = tilt.getModel();
+        TiltedRandom random = new TiltedRandom(engine.getRngService().forSeed(blockSeed(~seed, round)), tilt);
+        SpinScratch spin = model.newScratch();
+        double betMinor = Money.toMinor(bet);
+        double[] wins = new double[PILOT_SPINS];
+        double[] weights = new double[PILOT_SPINS];
+        int[] copies = new int[PILOT_SPINS];
+        int[] copyDecisions = new int[PILOT_SPINS];
+        int[][] symbolDraws = new int[PILOT_SPINS][];
+        for (int i = 0; i < PILOT_SPINS; i++) {
+            random.beginSpin(true);
+            wins[i] = engine.runSpin(spin, bet, random) / betMinor;
+            weights[i] = random.getWeight(0);
+            copies[i] = random.getCopies();
+            copyDecisions[i] = random.getCopyDecisions();
+            symbolDraws[i] = random.getSymbolCounts().clone();
+        }
+
+        double[] sorted = wins.clone();
+        Arrays.sort(sorted);
+        double level = sorted[(int) (PILOT_SPINS * (1 - ELITE_SHARE))];
+        if (level <= previousLevel) {
+            level = sorted[PILOT_SPINS - MIN_ELITE_SPINS];
+        }
+        level = Math.min(targetMultiple, level);
+        if (level <= previousLevel) {
+            return new PilotFit(tilt, previousLevel);
+        }
+        double eliteCopies = 0;
+        double eliteCopyDecisions = 0;
+        double[] eliteSymbols = new double[model.getSymbolCount()];
+        for (int i = 0; i < PILOT_SPINS; i++) {
+            if (wins[i] >= level) {
+                eliteCopies += weights[i] * copies[i];
+                eliteCopyDecisions += weights[i] * copyDecisions[i];
+                for (int symbol = 0; symbol < eliteSymbols.length; symbol++) {
+                    eliteSymbols[symbol] += weights[i] * symbolDraws[i][symbol];
+                }
+            }
+        }
+        return new PilotFit(tilt.refit(eliteCopies, eliteCopyDecisions, eliteSymbols), level);
+    }
+
+    /**
+     * Egy cross-entropy kör eredménye: az illesztett paraméterek és az elit szint (ha nem nőtt, a paraméterek változatlanok)
+     */
+    record PilotFit(ImportanceTilt tilt, double level) {}
+
+    /**
+     * Egy importance sampling blokk a billentett paraméterekkel; a névleges spinek egyenletesen elszórva,
+     * pontosan nominalShare arányban
+     */
+    ImportanceStats runImportanceBlock(ImportanceTilt tilt, long block, long totalSpins, long seed,
+                                       int bet, double nominalShare, int tailClusterSize) {
+        CompiledMathModel model = tilt.getModel();
+        long first = block * ROUNDS_PER_BLOCK;
+        long count = Math.min(ROUNDS_PER_BLOCK, totalSpins - first);
+        TiltedRandom random = new TiltedRandom(engine.getRngService().forSeed(blockSeed(seed, block)), tilt);
+        SpinScratch spin = model.newScratch();
+        ImportanceStats stats = new ImportanceStats();
+        double betMinor = Money.toMinor(bet);
+        int symbolCount = model.getSymbolCount();
+        int words = model.getMaskWords();
+        double tiltedShare = 1 - nominalShare;
+        for (long i = 0; i < count; i++) {
+            random.beginSpin(Math.floor((i + 1) * tiltedShare) > Math.floor(i * tiltedShare));
+            double win = engine.runSpin(spin, bet, random) / betMinor;
+            // A tail klaszterek nyereménye ugyanúgy, ahogy a motor fizeti (azonos szimbólum klaszterei összevonva)
+            long tailPayout = 0;
+            long[] matched = spin.getStepMatched();
+            for (int step = 0; step < spin.getStepCount(); step++) {
+                int offset = spin.stepMatchedOffset(step);
+                for (int symbol = 0; symbol < symbolCount; symbol++) {
+                    int size = 0;
+                    for (int w = 0; w < words; w++) {
+                        size += Long.bitCount(matched[offset + symbol * words + w]);
+                    }
+                    if (size >= tailClusterSize) {
+                        tailPayout += Money.toMinor(bet) * model.multiplier(symbol, size) / 100;
+                    }
+                }
+            }
+            stats.recordSpin(win, tailPayout / betMinor, random.getWeight(nominalShare));
+        }
+        return stats;
+    }
+
+    /**
+     * Egy blokk lejátszása a saját RNG folyamával
+     */
+    SimulationStats runBlock(CompiledMathModel model, long block, long totalRounds, long seed, int bet) {
+        long first = block * ROUNDS_PER_BLOCK;
+        long count = Math.min(ROUNDS_PER_BLOCK, totalRounds - first);
+        RandomGenerator random = engine.getRngService().forSeed(blockSeed(seed, block));
+        SpinScratch spin = model.newScratch();
+        SimulationStats stats = new SimulationStats();
+        for (long i = 0; i < count; i++) {
+            playRound(spin, random, bet, stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Egy kör: alapjáték spin, trigger esetén a teljes free spin sorozat a retriggerekkel együtt
+     */
+    private void playRound(SpinScratch spin, RandomGenerator random, int bet, SimulationStats stats) {
+        // A motor minor egységben fizet, a statisztika tét-egységben számol
+        double betMinor = Money.toMinor(bet);
+        double baseWin = engine.runSpin(spin, bet, random) / betMinor;
+        stats.recordBaseSpin(baseWin, spin.getStepCount());
+        double roundWin = baseWin;
+
+        if (engine.isBonusTrigger(spin)) {
+            CompiledMathModel model = spin.getModel();
+            int remaining = model.getFreeSpins();
+            int played = 0;
+            int retriggers = 0;
+            double bonusWin = 0;
+            while (remaining > 0) {
+                remaining--;
+                played++;
+                bonusWin += engine.runSpin(spin, bet, random) / betMinor;
+                if (engine.isRetrigger(spin)) {
+                    // A szerverrel azonos felső határ a kör free spinjeire
+                    remaining += model.retriggerAward(played + remaining);
+                    retriggers++;
+                }
+            }
+            stats.recordBonusSession(bonusWin, played, retriggers);
+            roundWin += bonusWin;
+        }
+
+        stats.recordRound(roundWin);
+    }
+
+    /**
+     * Független seed egy blokkhoz (SplitMix64 keverés)
+     */
+    static long blockSeed(long seed, long block) {
+        long z = seed + (block + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Importance sampling blokk-tartomány felezése, fix összevonási sorrenddel
+     */
+    private final class ImportanceBlockRange extends RecursiveTask<ImportanceStats> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient ImportanceTilt tilt;
+        private final long from;
+        private final long to;
+        private final long totalSpins;
+        private final long seed;
+        private final int bet;
+        private final double nominalShare;
+        private final int tailClusterSize;
+
+        ImportanceBlockRange(ImportanceTilt tilt, long from, long to, long totalSpins, long seed,
+                             int bet, double nominalShare, int tailClusterSize) {
+            this.tilt = tilt;
+            this.from = from;
+            this.to = to;
+            this.totalSpins = totalSpins;
+            this.seed = seed;
+            this.bet = bet;
+            this.nominalShare = nominalShare;
+            this.tailClusterSize = tailClusterSize;
+        }
+
+        @Override
+        protected ImportanceStats compute() {
+            if (to - from == 1) {
+                return runImportanceBlock(tilt, from, totalSpins, seed, bet, nominalShare, tailClusterSize);
+            }
+            long middle = (from + to) >>> 1;
+            ImportanceBlockRange left = new ImportanceBlockRange(tilt, from, middle, totalSpins, seed, bet, nominalShare, tailClusterSize);
+            ImportanceBlockRange right = new ImportanceBlockRange(tilt, middle, to, totalSpins, seed, bet, nominalShare, tailClusterSize);
+            left.fork();
+            ImportanceStats rightStats = right.compute();
+            return left.join().merge(rightStats);
+        }
+    }
+
+    /**
+     * Blokk-tartomány felezése, amíg egyetlen blokk marad
+     */
+    private final class BlockRange extends RecursiveTask<SimulationStats> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient CompiledMathModel model;
+        private final long from;
+        private final long to;
+        private final long totalRounds;
+        private final long seed;
+        private final int bet;
+
+        BlockRange(CompiledMathModel model, long from, long to, long totalRounds, long seed, int bet) {
+            this.model = model;
+            this.from = from;
+            this.to = to;
+            this.totalRounds = totalRounds;
+            this.seed = seed;
+            this.bet = bet;
+        }
+
+        @Override
+        protected SimulationStats compute() {
+            if (to - from == 1) {
+                return runBlock(model, from, totalRounds, seed, bet);
+            }
+            long middle = (from + to) >>> 1;
+            BlockRange left = new BlockRange(model, from, middle, totalRounds, seed, bet);
+            BlockRange right = new BlockRange(model, middle, to, totalRounds, seed, bet);
+            left.fork();
+            SimulationStats rightStats = right.compute();
+            // Fix összevonási sorrend: a lebegőpontos összegek nem függnek az ütemezéstől
+            return left.join().merge(rightStats);
+        }
+    }
+}
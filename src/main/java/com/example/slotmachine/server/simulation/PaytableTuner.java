@@ -0,0 +1,357 @@
+package com.example.slotmachine.server.simulation;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.MathModelDefinition;
+import com.example.slotmachine.server.service.RngService;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Szimbólum súlyok és nyeremény tábla hangolása cél RTP-re, találati arányra és max nyereményre.
+ * Külső kör: párhuzamos koordináta-ereszkedés a szimbólum súlyokon (a scatter súlya marad); minden jelölt ugyanazokkal
+ * a blokk seed-ekkel játssza le a rövid szimulációt (common random numbers), így a jelöltek különbsége nem zaj.
+ * Belső kör: a rögzített mintán (CrnSample) a nyeremény tábla skálázása (globális, soronkénti és szimbólumonkénti
+ * szorzó) egy-egy pontos, milliszekundumos újraszámolással; a soronkénti és szimbólumonkénti szorzó korlátos,
+ * így a tábla formája (a sorok és szimbólumok aránya) nagyjából megmarad.
+ * A tábla mindig monoton: nagyobb klaszter és magasabb indexű (értékesebb) szimbólum nem fizethet kevesebbet.
+ */
+public class PaytableTuner {
+
+    static final int ROUNDS_PER_BLOCK = 1 << 13;
+    static final double INITIAL_STEP = 0.25;
+    static final double MIN_WEIGHT_STEP = 0.02;
+    static final double MIN_SCALE_STEP = 0.0005;
+    static final int MAX_SWEEPS = 30;
+    // A soronkénti és szimbólumonkénti szorzó legfeljebb ennyiszeresére / ennyied részére viheti a táblát (a forma marad)
+    static final double MAX_SHAPE_DRIFT = 2.0;
+    // A belső kör újraszámolásainak felső korlátja egy jelöltre
+    static final int MAX_SCALE_EVALUATIONS = 4000;
+
+    private final RngService rngService;
+
+    public PaytableTuner(RngService rngService) {
+        this.rngService = rngService;
+    }
+
+    /**
+     * Hangolás egy kiinduló modellből
+     *
+     * @param rounds  körök száma jelöltenként (a rövid szimuláció hossza)
+     * @param seed    a közös véletlen számok master seed-je
+     * @param threads párhuzamos worker-ek száma
+     */
+    public TuningResult tune(CompiledMathModel base, TuningTarget target, int rounds, long seed, int threads) {
+        if (rounds <= 0) {
+            throw new IllegalArgumentException("Rounds must be positive: " + rounds);
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+
+        long start = System.nanoTime();
+        MathModelDefinition definition = base.toDefinition();
+        long[][] shape = monotonePayouts(definition.getPayoutMultipliers(), definition.getScatterSymbol());
+        int scales = 1 + shape.length + definition.getSymbolWeights().length;
+        double[] unitScales = new double[scales];
+        Arrays.fill(unitScales, 1.0);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Candidate best = pool.invoke(new Evaluation(definition, shape, definition.getSymbolWeights(), unitScales,
+                    target, rounds, seed));
+            int evaluations = 1;
+            int sweeps = 0;
+            double step = INITIAL_STEP;
+            while (step >= MIN_WEIGHT_STEP && sweeps < MAX_SWEEPS && !target.isMet(best.metrics)) {
+                sweeps++;
+                List<Evaluation> proposals = new ArrayList<>();
+                for (int symbol = 0; symbol < best.weights.length; symbol++) {
+                    if (symbol == definition.getScatterSymbol()) {
+                        continue;
+                    }
+                    for (int direction : new int[]{1, -1}) {
+                        int[] weights = best.weights.clone();
+                        weights[symbol] = Math.max(1, (int) Math.round(weights[symbol] * (1 + direction * step)));
+                        if (weights[symbol] != best.weights[symbol]) {
+                            proposals.add(new Evaluation(definition, shape, weights, best.scales, target, rounds, seed));
+                        }
+                    }
+                }
+                // Minden jelölt párhuzamosan; a legjobb javító lépés nyer, egyenlőségnél a korábbi
+                List<Candidate> candidates = pool.invoke(new EvaluateAll(proposals));
+                evaluations += candidates.size();
+                Candidate improved = best;
+                for (Candidate candidate : candidates) {
+                    if (candidate.score < improved.score) {
+                        improved = candidate;
+                    }
+                }
+                if (improved == best) {
+                    step /= 2;
+                } else {
+                    best = improved;
+                }
+            }
+
+            CompiledMathModel tuned = best.toModel(definition, base.getName() + "-tuned");
+            // Független ellenőrzés a következő master seed-del: a hangolás nem csak a rögzített mintára illik
+            CrnSample holdout = pool.invoke(new RecordRange(new SlotMachineEngine(rngService, tuned), tuned,
+                    seed + 1, 0, blockCount(rounds), rounds));
+            CrnSample.Metrics holdoutMetrics = holdout.evaluate(flatPayouts(tuned, best.table));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            return new TuningResult(tuned, target, best.metrics, holdoutMetrics, target.isMet(best.metrics),
+                    rounds, seed, threads, evaluations, sweeps, elapsedMillis);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Monoton vetítés: soronként (klaszterméret) a nem-scatter szimbólumok index szerint nem csökkenők,
+     * oszloponként (szimbólum) a nagyobb klaszter nem fizet kevesebbet. Az első vetítés a másodikat túléli.
+     */
+    static long[][] monotonePayouts(long[][] rows, int scatterSymbol) {
+        long[][] result = new long[rows.length][];
+        for (int row = 0; row < rows.length; row++) {
+            result[row] = rows[row].clone();
+            long previous = 0;
+            for (int symbol = 0; symbol < result[row].length; symbol++) {
+                if (symbol == scatterSymbol) {
+                    continue;
+                }
+                result[row][symbol] = Math.max(result[row][symbol], previous);
+                previous = result[row][symbol];
+            }
+        }
+        for (int row = 1; row < result.length; row++) {
+            for (int symbol = 0; symbol < result[row].length; symbol++) {
+                result[row][symbol] = Math.max(result[row][symbol], result[row - 1][symbol]);
+            }
+        }
+        return result;
+    }
+
+    static boolean isMonotone(long[][] rows, int scatterSymbol) {
+        long[][] projected = monotonePayouts(rows, scatterSymbol);
+        for (int row = 0; row < rows.length; row++) {
+            if (!Arrays.equals(rows[row], projected[row])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Skálázott, kerekített (legalább 1 század) és monotonra vetített tábla;
+     * a skálák: [globális, soronkénti..., szimbólumonkénti...]
+     */
+    static long[][] scaledPayouts(long[][] shape, double[] scales, int scatterSymbol) {
+        long[][] rows = new long[shape.length][];
+        for (int row = 0; row < shape.length; row++) {
+            rows[row] = new long[shape[row].length];
+            for (int symbol = 0; symbol < shape[row].length; symbol++) {
+                double scaled = shape[row][symbol] * scales[0] * scales[1 + row] * scales[1 + shape.length + symbol];
+                rows[row][symbol] = Math.max(1, Math.round(scaled));
+            }
+        }
+        return monotonePayouts(rows, scatterSymbol);
+    }
+
+    /**
+     * A tábla a CompiledMathModel lapos indexelésével (méret * szimbólumszám + szimbólum)
+     */
+    static long[] flatPayouts(CompiledMathModel model, long[][] rows) {
+        int symbolCount = model.getSymbolCount();
+        int clusterSize = model.getClusterSize();
+        long[] payouts = new long[(model.getCells() + 1) * symbolCount];
+        for (int size = clusterSize; size <= model.getCells(); size++) {
+            long[] row = rows[Math.min(size - clusterSize, rows.length - 1)];
+            System.arraycopy(row, 0, payouts, size * symbolCount, symbolCount);
+        }
+        return payouts;
+    }
+
+    private static long blockCount(int rounds) {
+        return (rounds + ROUNDS_PER_BLOCK - 1) / ROUNDS_PER_BLOCK;
+    }
+
+    /**
+     * Egy jelölt: súlyok, skálák, a belőlük kapott tábla és a mutatói a rögzített mintán
+     */
+    private static final class Candidate {
+        private final int[] weights;
+        private final double[] scales;
+        private final long[][] table;
+        private final CrnSample.Metrics metrics;
+        private final double score;
+
+        Candidate(int[] weights, double[] scales, long[][] table, CrnSample.Metrics metrics, double score) {
+            this.weights = weights;
+            this.scales = scales;
+            this.table = table;
+            this.metrics = metrics;
+            this.score = score;
+        }
+
+        CompiledMathModel toModel(MathModelDefinition base, String name) {
+            MathModelDefinition definition = copyOf(base);
+            definition.setName(name);
+            definition.setSymbolWeights(weights.clone());
+            long[][] rows = new long[table.length][];
+            for (int i = 0; i < table.length; i++) {
+                rows[i] = table[i].clone();
+            }
+            definition.setPayoutMultipliers(rows);
+            return CompiledMathModel.compile(definition);
+        }
+    }
+
+    private static MathModelDefinition copyOf(MathModelDefinition definition) {
+        return CompiledMathModel.compile(definition).toDefinition();
+    }
+
+    /**
+     * Egy súly készlet kiértékelése: a közös seed-ekkel rögzített minta, majd a tábla skálák illesztése rajta
+     */
+    private final class Evaluation extends RecursiveTask<Candidate> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient MathModelDefinition base;
+        private final long[][] shape;
+        private final int[] weights;
+        private final double[] scales;
+        private final transient TuningTarget target;
+        private final int rounds;
+        private final long seed;
+
+        Evaluation(MathModelDefinition base, long[][] shape, int[] weights, double[] scales,
+                   TuningTarget target, int rounds, long seed) {
+            this.base = base;
+            this.shape = shape;
+            this.weights = weights;
+            this.scales = scales;
+            this.target = target;
+            this.rounds = rounds;
+            this.seed = seed;
+        }
+
+        @Override
+        protected Candidate compute() {
+            MathModelDefinition definition = copyOf(base);
+            definition.setSymbolWeights(weights.clone());
+            CompiledMathModel model = CompiledMathModel.compile(definition);
+            CrnSample sample = new RecordRange(new SlotMachineEngine(rngService, model), model, seed,
+                    0, blockCount(rounds), rounds).invoke();
+            return fitScales(model, sample);
+        }
+
+        // Koordináta-ereszkedés a skálákon, első javító lépéssel; lépés felezés, ha egyik irány sem javít
+        private Candidate fitScales(CompiledMathModel model, CrnSample sample) {
+            int scatterSymbol = model.getScatterSymbol();
+            double[] current = scales.clone();
+            long[][] table = scaledPayouts(shape, current, scatterSymbol);
+            CrnSample.Metrics metrics = sample.evaluate(flatPayouts(model, table));
+            double score = target.score(metrics);
+
+            int evaluations = 0;
+            double step = INITIAL_STEP;
+            while (step >= MIN_SCALE_STEP && evaluations < MAX_SCALE_EVALUATIONS) {
+                boolean improved = false;
+                for (int i = 0; i < current.length && !improved; i++) {
+                    for (int direction : new int[]{1, -1}) {
+                        double[] trial = current.clone();
+                        trial[i] *= 1 + direction * step;
+                        if (i > 0 && (trial[i] > MAX_SHAPE_DRIFT || trial[i] < 1 / MAX_SHAPE_DRIFT)) {
+                            continue;
+                        }
+                        long[][] trialTable = scaledPayouts(shape, trial, scatterSymbol);
+                        CrnSample.Metrics trialMetrics = sample.evaluate(flatPayouts(model, trialTable));
+                        double trialScore = target.score(trialMetrics);
+                        evaluations++;
+                        if (trialScore < score) {
+                            current = trial;
+                            table = trialTable;
+                            metrics = trialMetrics;
+                            score = trialScore;
+                            improved = true;
+                            break;
+                        }
+                    }
+                }
+                if (!improved) {
+                    step /= 2;
+                }
+            }
+            return new Candidate(weights, current, table, metrics, score);
+        }
+    }
+
+    /**
+     * Jelöltek párhuzamos kiértékelése, az eredmények a jelöltek sorrendjében
+     */
+    private static final class EvaluateAll extends RecursiveTask<List<Candidate>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Evaluation> evaluations;
+
+        EvaluateAll(List<Evaluation> evaluations) {
+            this.evaluations = evaluations;
+        }
+
+        @Override
+        protected List<Candidate> compute() {
+            ForkJoinTask.invokeAll(evaluations);
+            List<Candidate> candidates = new ArrayList<>();
+            for (Evaluation evaluation : evaluations) {
+                candidates.add(evaluation.join());
+            }
+            return candidates;
+        }
+    }
+
+    /**
+     * Blokk-tartomány felezése; a blokkok a MonteCarloSimulator seed keverésével kapnak saját RNG folyamot
+     */
+    private final class RecordRange extends RecursiveTask<CrnSample> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient SlotMachineEngine engine;
+        private final transient CompiledMathModel model;
+        private final long seed;
+        private final long from;
+        private final long to;
+        private final int rounds;
+
+        RecordRange(SlotMachineEngine engine, CompiledMathModel model, long seed, long from, long to, int rounds) {
+            this.engine = engine;
+            this.model = model;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+            this.rounds = rounds;
+        }
+
+        @Override
+        protected CrnSample compute() {
+            if (to - from == 1) {
+                int count = (int) Math.min(ROUNDS_PER_BLOCK, rounds - from * ROUNDS_PER_BLOCK);
+                return CrnSample.record(engine, model, rngService.forSeed(MonteCarloSimulator.blockSeed(seed, from)), count);
+            }
+            long middle = (from + to) >>> 1;
+            RecordRange left = new RecordRange(engine, model, seed, from, middle, rounds);
+            RecordRange right = new RecordRange(engine, model, seed, middle, to, rounds);
+            left.fork();
+            CrnSample rightSample = right.compute();
+            return left.join().append(rightSample);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.slotmachine.server.simulation;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admin szimulációk háttérben, egyszerre legfeljebb egy futással.
+ * A kérés azonnal visszatér egy job azonosítóval, az eredmény ezzel kérdezhető le;
+ * a körök és szálak száma korlátozott, hogy egy kérés ne foglalhassa le a szervert.
+ */
+@Service
+public class SimulationJobService {
+
+    // Egy futás maximális köreinek száma (1e9 kör néhány perc az összes magon)
+    public static final long MAX_ROUNDS = 1_000_000_000L;
+    // A megőrzött befejezett jobok száma
+    private static final int MAX_KEPT_JOBS = 20;
+
+    @Autowired
+    private MonteCarloSimulator monteCarloSimulator;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "simulation-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Map<Long, SimulationJob> jobs = new ConcurrentHashMap<>();
+
+    public SimulationJobService() {}
+
+    public SimulationJobService(MonteCarloSimulator monteCarloSimulator) {
+        this.monteCarloSimulator = monteCarloSimulator;
+    }
+
+    public static int maxThreads() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Szimuláció indítása a háttérben
+     *
+     * @throws IllegalArgumentException ha a paraméterek a korlátokon kívül esnek
+     * @throws IllegalStateException    ha már fut egy szimuláció
+     */
+    public SimulationJob submit(long rounds, long seed, int threads) {
+        if (rounds <= 0 || rounds > MAX_ROUNDS) {
+            throw new IllegalArgumentException("Rounds must be between 1 and " + MAX_ROUNDS);
+        }
+        if (threads <= 0 || threads > maxThreads()) {
+            throw new IllegalArgumentException("Threads must be between 1 and " + maxThreads());
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A simulation is already running");
+        }
+
+        SimulationJob job = new SimulationJob(nextId.getAndIncrement(), rounds, seed, threads);
+        jobs.put(job.getId(), job);
+        jobs.keySet().removeIf(id -> id <= job.getId() - MAX_KEPT_JOBS);
+        try {
+            executor.execute(() -> {
+                try {
+                    job.complete(monteCarloSimulator.simulate(rounds, seed, threads, 1));
+                } catch (RuntimeException e) {
+                    job.fail(e.getMessage());
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        return job;
+    }
+
+    public SimulationJob getJob(long id) {
+        SimulationJob job = jobs.get(id);
+        if (job == null) {
+            throw new RuntimeException("Simulation job not found: " + id);
+        }
+        return job;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Egy háttér szimuláció állapota és (befejezés után) riportja
+     */
+    public static class SimulationJob {
+        public enum Status { RUNNING, COMPLETED, FAILED }
+
+        private final long id;
+        private final long rounds;
+        private final long seed;
+        private final int threads;
+        private volatile Status status = Status.RUNNING;
+        private volatile SimulationReport report;
+        private volatile String error;
+
+        SimulationJob(long id, long rounds, long seed, int threads) {
+            this.id = id;
+            this.rounds = rounds;
+            this.seed = seed;
+            this.threads = threads;
+        }
+
+        void complete(SimulationReport report) {
+            this.report = report;
+            this.status = Status.COMPLETED;
+        }
+
+        void fail(String error) {
+            this.error = error;
+            this.status = Status.FAILED;
+        }
+
+        public long getId() { return id; }
+        public long getRounds() { return rounds; }
+        public long getSeed() { return seed; }
+        public int getThreads() { return threads; }
+        public Status getStatus() { return status; }
+        public SimulationReport getReport() { return report; }
+        public String getError() { return error; }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.slotmachine.server.simulation;
+
+import java.util.Locale;
+
+/**
+ * Szimuláció eredménye: RTP, találati gyakoriság, volatilitás és eloszlások 95%-os konfidencia intervallummal
+ */
+public class SimulationReport {
+
+    private static final double Z_95 = 1.959963984540054;
+
+    private long rounds;
+    private long seed;
+    private int threads;
+    private long elapsedMillis;
+    private double rtp;
+    private double rtpLow;
+    private double rtpHigh;
+    private double baseRtp;
+    private double bonusRtp;
+    private double hitFrequency;
+    private double hitFrequencyLow;
+    private double hitFrequencyHigh;
+    private double standardDeviation;
+    private double bonusFrequency;
+    private double averageBonusWin;
+    private double averageFreeSpinsPerBonus;
+    private long retriggers;
+    private double maxWin;
+    private double[] cascadeDepthDistribution;
+    private double[] winDistribution;
+
+    public SimulationReport() {}
+
+    /**
+     * Riport készítése az összevont statisztikákból
+     */
+    public static SimulationReport from(SimulationStats stats, long seed, int threads, long elapsedMillis) {
+        SimulationReport report = new SimulationReport();
+        long n = stats.getRounds();
+        report.rounds = n;
+        report.seed = seed;
+        report.threads = threads;
+        report.elapsedMillis = elapsedMillis;
+        if (n == 0) {
+            return report;
+        }
+
+        // Körönkénti nyeremény (tét-egységben) átlaga és szórása
+        double mean = stats.getTotalWin() / n;
+        double variance = Math.max(0, stats.getSumRoundWinSquared() / n - mean * mean) * n / Math.max(1, n - 1);
+        double standardError = Math.sqrt(variance / n);
+
+        report.rtp = mean;
+        report.rtpLow = mean - Z_95 * standardError;
+        report.rtpHigh = mean + Z_95 * standardError;
+        report.baseRtp = stats.getBaseWin() / n;
+        report.bonusRtp = stats.getBonusWin() / n;
+        report.standardDeviation = Math.sqrt(variance);
+
+        double hitFrequency = (double) stats.getHits() / n;
+        double hitError = Math.sqrt(hitFrequency * (1 - hitFrequency) / n);
+        report.hitFrequency = hitFrequency;
+        report.hitFrequencyLow = hitFrequency - Z_95 * hitError;
+        report.hitFrequencyHigh = hitFrequency + Z_95 * hitError;
+
+        report.bonusFrequency = (double) stats.getBonusTriggers() / n;
+        if (stats.getBonusTriggers() > 0) {
+            report.averageBonusWin = stats.getBonusWin() / stats.getBonusTriggers();
+            report.averageFreeSpinsPerBonus = (double) stats.getFreeSpins() / stats.getBonusTriggers();
+        }
+        report.retriggers = stats.getRetriggers();
+        report.maxWin = stats.getMaxRoundWin();
+        report.cascadeDepthDistribution = normalize(stats.getCascadeDepths(), n);
+        report.winDistribution = normalize(stats.getWinBuckets(), n);
+        return report;
+    }
+
+    private static double[] normalize(long[] counts, long total) {
+        double[] distribution = new double[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            distribution[i] = (double) counts[i] / total;
+        }
+        return distribution;
+    }
+
+    /**
+     * Olvasható szöveges riport (CLI kimenet)
+     */
+    public String toText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Rounds:              %,d (seed %d, %d threads, %.1f s, %,.0f rounds/s)%n",
+                rounds, seed, threads, elapsedMillis / 1000.0, elapsedMillis > 0 ? rounds * 1000.0 / elapsedMillis : 0.0));
+        sb.append(String.format(Locale.ROOT, "RTP:                 %.4f%%  (95%% CI %.4f%% .. %.4f%%)%n", rtp * 100, rtpLow * 100, rtpHigh * 100));
+        sb.append(String.format(Locale.ROOT, "  base game:         %.4f%%%n", baseRtp * 100));
+        sb.append(String.format(Locale.ROOT, "  bonus:             %.4f%%%n", bonusRtp * 100));
+        sb.append(String.format(Locale.ROOT, "Hit frequency:       %.4f%%  (95%% CI %.4f%% .. %.4f%%)%n", hitFrequency * 100, hitFrequencyLow * 100, hitFrequencyHigh * 100));
+        sb.append(String.format(Locale.ROOT, "Volatility (SD):     %.4f x bet%n", standardDeviation));
+        sb.append(String.format(Locale.ROOT, "Bonus frequency:     1 in %.1f rounds%n", bonusFrequency > 0 ? 1 / bonusFrequency : Double.POSITIVE_INFINITY));
+        sb.append(String.format(Locale.ROOT, "Average bonus win:   %.4f x bet (%.2f free spins, %,d retriggers)%n", averageBonusWin, averageFreeSpinsPerBonus, retriggers));
+        sb.append(String.format(Locale.ROOT, "Max win:             %.2f x bet%n", maxWin));
+        sb.append("Cascade depth (base game):\n");
+        for (int i = 0; i < cascadeDepthDistribution.length; i++) {
+            if (cascadeDepthDistribution[i] > 0) {
+                String label = i == SimulationStats.MAX_CASCADE_DEPTH ? i + "+" : String.valueOf(i);
+                sb.append(String.format(Locale.ROOT, "  %4s: %.6f%%%n", label, cascadeDepthDistribution[i] * 100));
+            }
+        }
+        sb.append("Round win distribution (x bet):\n");
+        double[] limits = SimulationStats.WIN_BUCKET_LIMITS;
+        for (int i = 0; i < winDistribution.length; i++) {
+            String label;
+            if (i == 0) {
+                label = "0";
+            } else if (i == limits.length) {
+                label = ">= " + (int) limits[limits.length - 1];
+            } else {
+                label = (i == 1 ? "> 0" : ">= " + (int) limits[i - 1]) + " and < " + (int) limits[i];
+            }
+            sb.append(String.format(Locale.ROOT, "  %-18s %.6f%%%n", label, winDistribution[i] * 100));
+        }
+        return sb.toString();
+    }
+
+    // Getters
+    public long getRounds() { return rounds; }
+    public long getSeed() { return seed; }
+    public int getThreads() { return threads; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public double getRtp() { return rtp; }
+    public double getRtpLow() { return rtpLow; }
+    public double getRtpHigh() { return rtpHigh; }
+    public double getBaseRtp() { return baseRtp; }
+    public double getBonusRtp() { return bonusRtp; }
+    public double getHitFrequency() { return hitFrequency; }
+    public double getHitFrequencyLow() { return hitFrequencyLow; }
+    public double getHitFrequencyHigh() { return hitFrequencyHigh; }
+    public double getStandardDeviation() { return standardDeviation; }
+    public double getBonusFrequency() { return bonusFrequency; }
+    public double getAverageBonusWin() { return averageBonusWin; }
+    public double getAverageFreeSpinsPerBonus() { return averageFreeSpinsPerBonus; }
+    public long getRetriggers() { return retriggers; }
+    public double getMaxWin() { return maxWin; }
+    public double[] getCascadeDepthDistribution() { return cascadeDepthDistribution; }
+    public double[] getWinDistribution() { return winDistribution; }
+}
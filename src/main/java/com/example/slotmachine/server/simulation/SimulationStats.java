@@ -0,0 +1,105 @@
+package com.example.slotmachine.server.simulation;
+
+/**
+ * Egy szimulációs worker összesített statisztikái.
+ * Minden érték tét-egységben van (nyeremény / tét), a worker-ek eredményei merge-el vonhatók össze.
+ * Egy kör = egy alapjáték spin és az általa indított teljes bonus (free spin) sorozat.
+ */
+public class SimulationStats {
+
+    public static final int MAX_CASCADE_DEPTH = 32;
+    // Nyeremény hisztogram alsó határai tét-szorzóban: 0, (0,1), [1,2), [2,5) ... [1000, ∞)
+    public static final double[] WIN_BUCKET_LIMITS = {0, 1, 2, 5, 10, 20, 50, 100, 500, 1000};
+
+    private long rounds;
+    private long hits;
+    private double baseWin;
+    private double bonusWin;
+    private double sumRoundWinSquared;
+    private double maxRoundWin;
+    private long bonusTriggers;
+    private long retriggers;
+    private long freeSpins;
+    private final long[] cascadeDepths = new long[MAX_CASCADE_DEPTH + 1];
+    private final long[] winBuckets = new long[WIN_BUCKET_LIMITS.length + 1];
+
+    /**
+     * Egy alapjáték spin rögzítése
+     */
+    public void recordBaseSpin(double win, int cascadeDepth) {
+        baseWin += win;
+        if (win > 0) {
+            hits++;
+        }
+        cascadeDepths[Math.min(cascadeDepth, MAX_CASCADE_DEPTH)]++;
+    }
+
+    /**
+     * Egy lejátszott bonus sorozat rögzítése
+     */
+    public void recordBonusSession(double win, int spinsPlayed, int retriggerCount) {
+        bonusTriggers++;
+        bonusWin += win;
+        freeSpins += spinsPlayed;
+        retriggers += retriggerCount;
+    }
+
+    /**
+     * Egy teljes kör lezárása a kör összes nyereményével
+     */
+    public void recordRound(double roundWin) {
+        rounds++;
+        sumRoundWinSquared += roundWin * roundWin;
+        if (roundWin > maxRoundWin) {
+            maxRoundWin = roundWin;
+        }
+        winBuckets[winBucket(roundWin)]++;
+    }
+
+    private static int winBucket(double win) {
+        if (win <= 0) {
+            return 0;
+        }
+        int bucket = 1;
+        while (bucket < WIN_BUCKET_LIMITS.length && win >= WIN_BUCKET_LIMITS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    /**
+     * Egy másik worker eredményeinek hozzáadása
+     */
+    public SimulationStats merge(SimulationStats other) {
+        rounds += other.rounds;
+        hits += other.hits;
+        baseWin += other.baseWin;
+        bonusWin += other.bonusWin;
+        sumRoundWinSquared += other.sumRoundWinSquared;
+        maxRoundWin = Math.max(maxRoundWin, other.maxRoundWin);
+        bonusTriggers += other.bonusTriggers;
+        retriggers += other.retriggers;
+        freeSpins += other.freeSpins;
+        for (int i = 0; i < cascadeDepths.length; i++) {
+            cascadeDepths[i] += other.cascadeDepths[i];
+        }
+        for (int i = 0; i < winBuckets.length; i++) {
+            winBuckets[i] += other.winBuckets[i];
+        }
+        return this;
+    }
+
+    // Getters
+    public long getRounds() { return rounds; }
+    public long getHits() { return hits; }
+    public double getBaseWin() { return baseWin; }
+    public double getBonusWin() { return bonusWin; }
+    public double getTotalWin() { return baseWin + bonusWin; }
+    public double getSumRoundWinSquared() { return sumRoundWinSquared; }
+    public double getMaxRoundWin() { return maxRoundWin; }
+    public long getBonusTriggers() { return bonusTriggers; }
+    public long getRetriggers() { return retriggers; }
+    public long getFreeSpins() { return freeSpins; }
+    public long[] getCascadeDepths() { return cascadeDepths.clone(); }
+    public long[] getWinBuckets() { return winBuckets.clone(); }
+}
@@ -0,0 +1,68 @@
+package com.example.slotmachine.server.simulation;
+
+import com.example.slotmachine.server.engine.GridKernels;
+import com.example.slotmachine.server.service.RngService;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+
+/**
+ * Parancssori RTP szimulátor (Spring kontextus nélkül)
+ * Importance sampling mód (--importance X): alapjáték spinek a legalább X-szeres nyeremények felé billentve, súlyozott becslésekkel.
+ * Használat: SimulatorCli [--rounds N] [--seed S] [--threads T] [--bet B] [--kernels scalar|vector|auto]
+ *            [--importance X] [--tail-cluster SIZE]
+ */
+public class SimulatorCli {
+
+    public static void main(String[] args) {
+        long rounds = 10_000_000L;
+        long seed = System.nanoTime();
+        int threads = Runtime.getRuntime().availableProcessors();
+        int bet = 1;
+        String kernels = GridKernels.DEFAULT;
+        double target = -1;
+        int tailClusterSize = 15;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                usage("Missing value for " + arg);
+                return;
+            }
+            String value = args[++i].replace("_", "");
+            switch (arg) {
+                case "--rounds", "--spins" -> rounds = (long) Double.parseDouble(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--bet" -> bet = Integer.parseInt(value);
+                case "--kernels" -> kernels = value;
+                case "--importance" -> target = Double.parseDouble(value);
+                case "--tail-cluster" -> tailClusterSize = Integer.parseInt(value);
+                default -> {
+                    usage("Unknown option: " + arg);
+                    return;
+                }
+            }
+        }
+
+        SlotMachineEngine engine = new SlotMachineEngine(new RngService(), kernels);
+        if (target >= 0) {
+            System.out.println("Importance sampling " + rounds + " base spins on " + threads + " threads (seed " + seed
+                    + ", target " + target + "x, tail clusters of " + tailClusterSize + "+)...");
+            ImportanceReport report = new MonteCarloSimulator(engine)
+                    .simulateImportance(rounds, seed, threads, bet, target, tailClusterSize);
+            System.out.print(report.toText());
+            return;
+        }
+        System.out.println("Simulating " + rounds + " rounds on " + threads + " threads (seed " + seed
+                + ", " + engine.getGridKernels().getName() + " kernels)...");
+        MonteCarloSimulator simulator = new MonteCarloSimulator(engine);
+        SimulationReport report = simulator.simulate(rounds, seed, threads, bet);
+        System.out.print(report.toText());
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: SimulatorCli [--rounds N] [--seed S] [--threads T] [--bet B] [--kernels scalar|vector|auto] "
+                + "[--importance X] [--tail-cluster SIZE]");
+        System.exit(1);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.slotmachine.server.simulation;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Importance sampling generátor a motor elé. Billentett spinben a generálás szomszéd másolási döntései
+ * (a spin első getCells() darab nextDouble() húzása) és minden alias tábla húzás (generálás, feltöltés,
+ * suggestClusterSymbol) az ImportanceTilt eloszlását követi; névleges spinben minden húzás változatlan.
+ * A motor nem tud a billentésről: a szimbólum húzás a névleges alias tábla egy olyan u értéke, amely épp
+ * a billentett szimbólumot adja. A spin súlya p / (s * p + (1 - s) * q), ahol s a névleges spinek aránya
+ * (defenzív keverék: s &gt; 0 esetén a súly legfeljebb 1 / s).
+ */
+final class TiltedRandom implements RandomGenerator {
+
+    private final RandomGenerator delegate;
+    private final ImportanceTilt tilt;
+    private final double nominalCopyChance;
+    private final int copyDecisions;
+    private final int symbolBound;
+    private boolean tilted;
+    private int doubles;
+    // Az aktuális spin döntései (a cross-entropy illesztéshez) és log(q / p)
+    private int copies;
+    private final int[] symbolCounts;
+    private double logDensityRatio;
+
+    TiltedRandom(RandomGenerator delegate, ImportanceTilt tilt) {
+        CompiledMathModel model = tilt.getModel();
+        this.delegate = delegate;
+        this.tilt = tilt;
+        this.nominalCopyChance = model.getNeighbourCopyChance();
+        this.copyDecisions = model.getCells();
+        this.symbolBound = model.getSymbols().getBound();
+        this.symbolCounts = new int[model.getSymbolCount()];
+    }
+
+    /**
+     * Új spin kezdése: billentett vagy névleges húzásokkal
+     */
+    void beginSpin(boolean tilted) {
+        this.tilted = tilted;
+        doubles = 0;
+        copies = 0;
+        logDensityRatio = 0;
+        Arrays.fill(symbolCounts, 0);
+    }
+
+    @Override
+    public double nextDouble() {
+        double u = delegate.nextDouble();
+        if (doubles >= copyDecisions) {
+            return u;
+        }
+        doubles++;
+        double copyChance = tilt.getCopyChance();
+        double x = u;
+        if (tilted) {
+            // Inverz eloszlásfüggvény: a [0, névleges esély) tartomány valószínűsége a billentett esély
+            x = u < copyChance
+                    ? u / copyChance * nominalCopyChance
+                    : Math.min(nominalCopyChance + (u - copyChance) / (1 - copyChance) * (1 - nominalCopyChance),
+                            Math.nextDown(1.0));
+        }
+        if (x < nominalCopyChance) {
+            copies++;
+            logDensityRatio += tilt.getLogCopyRatio();
+        } else {
+            logDensityRatio += tilt.getLogNoCopyRatio();
+        }
+        return x;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound != symbolBound) {
+            return delegate.nextInt(bound);
+        }
+        int u;
+        int symbol;
+        if (tilted) {
+            symbol = tilt.getTiltedSymbols().sample(delegate);
+            int[] preimage = tilt.getPreimage(symbol);
+            u = preimage[delegate.nextInt(preimage.length)];
+        } else {
+            u = delegate.nextInt(bound);
+            symbol = tilt.getModel().getSymbols().sampleAt(u);
+        }
+        symbolCounts[symbol]++;
+        logDensityRatio += tilt.getLogSymbolRatio(symbol);
+        return u;
+    }
+
+    @Override
+    public int nextInt() {
+        return delegate.nextInt();
+    }
+
+    @Override
+    public long nextLong() {
+        return delegate.nextLong();
+    }
+
+    /**
+     * Az aktuális spin súlya a keverékben: p / (s * p + (1 - s) * q)
+     */
+    double getWeight(double nominalShare) {
+        return 1 / (nominalShare + (1 - nominalShare) * Math.exp(logDensityRatio));
+    }
+
+    int getCopies() { return copies; }
+
+    int getCopyDecisions() { return doubles; }
+
+    int[] getSymbolCounts() { return symbolCounts; }
+}
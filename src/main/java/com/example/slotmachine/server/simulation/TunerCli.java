@@ -0,0 +1,88 @@
+package com.example.slotmachine.server.simulation;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.MathModelDefinition;
+import com.example.slotmachine.server.service.RngService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Parancssori paytable hangoló (Spring kontextus nélkül); a hangolt modellt a motor által betölthető JSON-ba írja.
+ * Használat: TunerCli --rtp R --hit H [--max-win X] [--rounds N] [--seed S] [--threads T] [--model path]
+ *            [--name NAME] [--out path]
+ */
+public class TunerCli {
+
+    public static void main(String[] args) throws IOException {
+        double rtp = 0;
+        double hitFrequency = 0;
+        double maxWin = 0;
+        int rounds = 200_000;
+        long seed = 1L;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String modelPath = null;
+        String name = null;
+        Path out = Path.of("tuned-model.json");
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                usage("Missing value for " + arg);
+                return;
+            }
+            String value = args[++i].replace("_", "");
+            switch (arg) {
+                case "--rtp" -> rtp = Double.parseDouble(value);
+                case "--hit" -> hitFrequency = Double.parseDouble(value);
+                case "--max-win" -> maxWin = Double.parseDouble(value);
+                case "--rounds" -> rounds = (int) Double.parseDouble(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--model" -> modelPath = args[i];
+                case "--name" -> name = args[i];
+                case "--out" -> out = Path.of(args[i]);
+                default -> {
+                    usage("Unknown option: " + arg);
+                    return;
+                }
+            }
+        }
+        if (rtp <= 0 || hitFrequency <= 0) {
+            usage("--rtp and --hit are required (fractions, e.g. --rtp 0.96 --hit 0.30)");
+            return;
+        }
+
+        CompiledMathModel base;
+        if (modelPath == null) {
+            base = CompiledMathModel.loadDefault();
+        } else {
+            try (InputStream in = Files.newInputStream(Path.of(modelPath))) {
+                base = CompiledMathModel.load(in);
+            }
+        }
+
+        System.out.println("Tuning " + base.getName() + " on " + threads + " threads (" + rounds + " rounds per candidate, seed " + seed + ")...");
+        TuningResult result = new PaytableTuner(new RngService()).tune(base, new TuningTarget(rtp, hitFrequency, maxWin),
+                rounds, seed, threads);
+        System.out.print(result.toText());
+
+        MathModelDefinition definition = result.getModel().toDefinition();
+        if (name != null) {
+            definition.setName(name);
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(out.toFile(), definition);
+        System.out.println("Model written to " + out.toAbsolutePath() + " (load it with slotmachine.math-model.path)");
+        System.exit(result.isTargetMet() ? 0 : 2);
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: TunerCli --rtp R --hit H [--max-win X] [--rounds N] [--seed S] [--threads T] "
+                + "[--model path] [--name NAME] [--out path]");
+        System.exit(1);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.slotmachine.server.simulation;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * A hangolás eredménye: a hangolt modell, a mutatói a rögzített mintán és egy független ellenőrző mintán
+ */
+public class TuningResult {
+
+    private final CompiledMathModel model;
+    private final TuningTarget target;
+    private final CrnSample.Metrics metrics;
+    private final CrnSample.Metrics holdout;
+    private final boolean targetMet;
+    private final int rounds;
+    private final long seed;
+    private final int threads;
+    private final int evaluations;
+    private final int sweeps;
+    private final long elapsedMillis;
+
+    TuningResult(CompiledMathModel model, TuningTarget target, CrnSample.Metrics metrics, CrnSample.Metrics holdout,
+                 boolean targetMet, int rounds, long seed, int threads, int evaluations, int sweeps, long elapsedMillis) {
+        this.model = model;
+        this.target = target;
+        this.metrics = metrics;
+        this.holdout = holdout;
+        this.targetMet = targetMet;
+        this.rounds = rounds;
+        this.seed = seed;
+        this.threads = threads;
+        this.evaluations = evaluations;
+        this.sweeps = sweeps;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public CompiledMathModel getModel() { return model; }
+
+    public boolean isTargetMet() { return targetMet; }
+
+    public double getRtp() { return metrics.rtp(); }
+
+    public double getHitFrequency() { return metrics.hitFrequency(); }
+
+    public double getMaxWin() { return metrics.maxWin(); }
+
+    public double getHoldoutRtp() { return holdout.rtp(); }
+
+    public double getHoldoutHitFrequency() { return holdout.hitFrequency(); }
+
+    public int getEvaluations() { return evaluations; }
+
+    public int getSweeps() { return sweeps; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    public String toText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Model:               %s (%s)%n", model.getName(), targetMet ? "target met" : "target NOT met"));
+        sb.append(String.format(Locale.ROOT, "Search:              %d candidates, %d sweeps, %,d rounds each (seed %d, %d threads, %.1f s, %.2f s/candidate)%n",
+                evaluations, sweeps, rounds, seed, threads, elapsedMillis / 1000.0, elapsedMillis / 1000.0 / Math.max(1, evaluations)));
+        sb.append(String.format(Locale.ROOT, "RTP:                 %.4f%%  (target %.4f%%, holdout %.4f%%)%n",
+                metrics.rtp() * 100, target.getRtp() * 100, holdout.rtp() * 100));
+        sb.append(String.format(Locale.ROOT, "Hit frequency:       %.4f%%  (target %.4f%%, holdout %.4f%%)%n",
+                metrics.hitFrequency() * 100, target.getHitFrequency() * 100, holdout.hitFrequency() * 100));
+        sb.append(String.format(Locale.ROOT, "Max win:             %.2f x bet  (target %s, holdout %.2f x bet)%n",
+                metrics.maxWin(), target.getMaxWin() > 0 ? String.format(Locale.ROOT, "%.2f x bet", target.getMaxWin()) : "none",
+                holdout.maxWin()));
+        sb.append("Symbol weights:      ").append(Arrays.toString(model.toDefinition().getSymbolWeights())).append('\n');
+        sb.append("Payout multipliers (hundredths, by cluster size from ").append(model.getClusterSize()).append("):\n");
+        for (long[] row : model.toDefinition().getPayoutMultipliers()) {
+            sb.append("  ").append(Arrays.toString(row)).append('\n');
+        }
+        return sb.toString();
+    }
+}
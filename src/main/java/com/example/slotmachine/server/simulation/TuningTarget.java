@@ -0,0 +1,69 @@
+package com.example.slotmachine.server.simulation;
+
+/**
+ * A hangolás célja tét-egységben: RTP, találati arány (nyerő körök aránya) és max nyeremény, tűréshatárokkal.
+ * A max nyeremény a rögzített minta legnagyobb köre; 0 esetén nem cél.
+ */
+public class TuningTarget {
+
+    private final double rtp;
+    private final double hitFrequency;
+    private final double maxWin;
+    private double rtpTolerance = 0.002;
+    private double hitFrequencyTolerance = 0.005;
+    // A max nyereménynél arányos (logaritmikus) eltérés számít
+    private double maxWinTolerance = 0.10;
+
+    public TuningTarget(double rtp, double hitFrequency, double maxWin) {
+        if (rtp <= 0 || rtp > 10) {
+            throw new IllegalArgumentException("Target RTP must be between 0 and 10: " + rtp);
+        }
+        if (hitFrequency <= 0 || hitFrequency >= 1) {
+            throw new IllegalArgumentException("Target hit frequency must be between 0 and 1: " + hitFrequency);
+        }
+        if (maxWin < 0) {
+            throw new IllegalArgumentException("Target max win must not be negative: " + maxWin);
+        }
+        this.rtp = rtp;
+        this.hitFrequency = hitFrequency;
+        this.maxWin = maxWin;
+    }
+
+    /**
+     * Négyzetes eltérés a céltól tűréshatár egységekben (0 = pontos találat)
+     */
+    double score(CrnSample.Metrics metrics) {
+        double rtpError = (metrics.rtp() - rtp) / rtpTolerance;
+        double hitError = (metrics.hitFrequency() - hitFrequency) / hitFrequencyTolerance;
+        double score = rtpError * rtpError + hitError * hitError;
+        if (maxWin > 0) {
+            double maxWinError = Math.log(Math.max(metrics.maxWin(), 1e-9) / maxWin) / maxWinTolerance;
+            score += maxWinError * maxWinError;
+        }
+        return score;
+    }
+
+    /**
+     * Minden megadott mutató a tűréshatáron belül van-e
+     */
+    boolean isMet(CrnSample.Metrics metrics) {
+        return Math.abs(metrics.rtp() - rtp) <= rtpTolerance
+                && Math.abs(metrics.hitFrequency() - hitFrequency) <= hitFrequencyTolerance
+                && (maxWin <= 0 || Math.abs(Math.log(Math.max(metrics.maxWin(), 1e-9) / maxWin)) <= maxWinTolerance);
+    }
+
+    public double getRtp() { return rtp; }
+
+    public double getHitFrequency() { return hitFrequency; }
+
+    public double getMaxWin() { return maxWin; }
+
+    public double getRtpTolerance() { return rtpTolerance; }
+    public void setRtpTolerance(double rtpTolerance) { this.rtpTolerance = rtpTolerance; }
+
+    public double getHitFrequencyTolerance() { return hitFrequencyTolerance; }
+    public void setHitFrequencyTolerance(double hitFrequencyTolerance) { this.hitFrequencyTolerance = hitFrequencyTolerance; }
+
+    public double getMaxWinTolerance() { return maxWinTolerance; }
+    public void setMaxWinTolerance(double maxWinTolerance) { this.maxWinTolerance = maxWinTolerance; }
+}
@@ -0,0 +1,51 @@
+package com.example.slotmachine.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tesztek a Money átváltásokhoz
+ */
+@DisplayName("Money Tests")
+public class MoneyTest {
+
+    @Test
+    @DisplayName("Should convert whole credits to minor units")
+    public void testToMinorFromInt() {
+        assertEquals(1000, Money.toMinor(10));
+        assertEquals(0, Money.toMinor(0));
+        assertEquals(-500, Money.toMinor(-5));
+    }
+
+    @Test
+    @DisplayName("Should round fractional credits to the nearest minor unit")
+    public void testToMinorFromDouble() {
+        assertEquals(250075, Money.toMinor(2500.75));
+        assertEquals(30, Money.toMinor(0.1 + 0.2));
+    }
+
+    @Test
+    @DisplayName("Should floor to whole credits")
+    public void testWholeCredits() {
+        assertEquals(25, Money.wholeCredits(2599));
+        assertEquals(-1, Money.wholeCredits(-1));
+    }
+
+    @Test
+    @DisplayName("Should parse credit text exactly")
+    public void testParseCredits() {
+        assertEquals(1250, Money.parseCredits("12.5"));
+        assertEquals(1000, Money.parseCredits(" 10 "));
+        assertEquals(1, Money.parseCredits("0.005"));
+        assertThrows(NumberFormatException.class, () -> Money.parseCredits("abc"));
+    }
+
+    @Test
+    @DisplayName("Should format minor units as credits")
+    public void testFormat() {
+        assertEquals("12.50", Money.format(1250));
+        assertEquals("-0.05", Money.format(-5));
+        assertEquals(Money.parseCredits(Money.format(987654321L)), 987654321L);
+    }
+}
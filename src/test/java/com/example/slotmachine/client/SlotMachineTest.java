@@ -8,8 +8,14 @@ import org.junit.jupiter.api.Nested;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.example.slotmachine.server.dto.BalanceResponse;
+import com.example.slotmachine.server.dto.BatchSpinResponse;
+import com.example.slotmachine.server.dto.BonusRoundResponse;
 import com.example.slotmachine.server.dto.SpinResponse;
 import com.example.slotmachine.server.dto.LoginResponse;
+import com.example.slotmachine.server.engine.Grid;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Tesztek a SlotMachine osztályhoz
@@ -191,13 +197,111 @@ public class SlotMachineTest {
         @DisplayName("Should end bonus mode correctly")
         public void testEndBonusMode() {
             slotMachine.startBonusMode();
-            slotMachine.addBonusPayout(500.0);
+            slotMachine.addBonusPayout(Money.toMinor(500));
             slotMachine.endBonusMode();
             
             // isBonusMode() method doesn't exist
             assertEquals(0, slotMachine.getRemainingFreeSpins());
-            assertEquals(0.0, slotMachine.getBonusPayout());
-            assertEquals(500, slotMachine.getBalance());
+            // A bonus nyeremény csak kijelzésre marad meg, a balance-hoz a szerver adja hozzá
+            assertEquals(500.0, slotMachine.getBonusPayout());
+            assertEquals(0, slotMachine.getBalance());
+        }
+
+        @Test
+        @DisplayName("Should play the whole bonus round with one server request")
+        public void testPlayBonusRoundOnServer() {
+            slotMachine.setBalance(1000);
+            slotMachine.startBonusMode();
+            assertFalse(slotMachine.hasBonusRound());
+
+            assertTrue(slotMachine.playBonusRoundOnServer());
+            assertEquals(1, mockApiClient.bonusRequests);
+            assertTrue(slotMachine.hasBonusRound());
+            assertEquals(2, slotMachine.getRemainingFreeSpins());
+
+            // A második spin retriggerel, így összesen 3 free spin jön
+            int played = 0;
+            while (slotMachine.hasFreeSpins()) {
+                assertNotNull(slotMachine.nextBonusSpin());
+                played++;
+            }
+            assertEquals(3, played);
+            assertEquals(30.0, slotMachine.getBonusPayout());
+            // A balance a free spinek alatt nem változik
+            assertEquals(1000, slotMachine.getBalance());
+
+            slotMachine.endBonusMode();
+            assertEquals(1030, slotMachine.getBalance());
+            assertFalse(slotMachine.hasBonusRound());
+            assertEquals(1, mockApiClient.bonusRequests);
+        }
+
+        @Test
+        @DisplayName("Should not credit the bonus when the server round fails")
+        public void testPlayBonusRoundOnServerFailure() {
+            slotMachine.setBalance(1000);
+            mockApiClient.setShouldSucceed(false);
+            slotMachine.startBonusMode();
+
+            assertFalse(slotMachine.playBonusRoundOnServer());
+            assertFalse(slotMachine.hasBonusRound());
+
+            slotMachine.endBonusMode();
+            assertEquals(1000, slotMachine.getBalance());
+        }
+
+        @Test
+        @DisplayName("Should buy the bonus with one server request")
+        public void testBuyBonusOnServer() {
+            slotMachine.setBalance(1000);
+
+            SpinResponse triggerSpin = slotMachine.buyBonusOnServer(2);
+            assertNotNull(triggerSpin);
+            assertTrue(triggerSpin.isBonusTrigger());
+            assertEquals(1, mockApiClient.bonusRequests);
+            // Az ár levonva, a bonus nyeremény a kör végén érvényes
+            assertEquals(800, slotMachine.getBalance());
+
+            // A megvásárolt kör a bonus mód indításakor megmarad
+            slotMachine.startBonusMode();
+            assertTrue(slotMachine.hasBonusRound());
+            assertEquals(2, slotMachine.getRemainingFreeSpins());
+            while (slotMachine.hasFreeSpins()) {
+                assertNotNull(slotMachine.nextBonusSpin());
+            }
+            assertEquals(30.0, slotMachine.getBonusPayout());
+
+            slotMachine.endBonusMode();
+            assertEquals(830, slotMachine.getBalance());
+            assertEquals(1, mockApiClient.bonusRequests);
+        }
+
+        @Test
+        @DisplayName("Should not change the balance when the bonus buy is rejected")
+        public void testBuyBonusOnServerFailure() {
+            slotMachine.setBalance(1000);
+            mockApiClient.setSpinMessage("Insufficient balance");
+            mockApiClient.setShouldSucceed(false);
+
+            assertNull(slotMachine.buyBonusOnServer(2));
+            assertFalse(slotMachine.hasBonusRound());
+            assertFalse(slotMachine.isBonusPending());
+            assertEquals(1000, slotMachine.getBalance());
+        }
+
+        @Test
+        @DisplayName("Should flag a pending bonus round rejected by the server")
+        public void testBonusPending() {
+            mockApiClient.setSpinMessage("Bonus round pending");
+            mockApiClient.setShouldSucceed(false);
+
+            assertNull(slotMachine.processSpinOnServer(100, false));
+            assertTrue(slotMachine.isBonusPending());
+
+            mockApiClient.setShouldSucceed(true);
+            slotMachine.startBonusMode();
+            assertTrue(slotMachine.playBonusRoundOnServer());
+            assertFalse(slotMachine.isBonusPending());
         }
 
         @Test
@@ -247,8 +351,8 @@ public class SlotMachineTest {
         @DisplayName("Should add bonus payout correctly")
         public void testAddBonusPayout() {
             slotMachine.startBonusMode();
-            slotMachine.addBonusPayout(100.0);
-            slotMachine.addBonusPayout(50.0);
+            slotMachine.addBonusPayout(Money.toMinor(100));
+            slotMachine.addBonusPayout(Money.toMinor(50));
             
             assertEquals(150.0, slotMachine.getBonusPayout());
         }
@@ -261,18 +365,19 @@ public class SlotMachineTest {
         @Test
         @DisplayName("Should return symbols grid")
         public void testGetSymbols() {
-            int[][] symbols = slotMachine.getSymbols();
+            Grid symbols = slotMachine.getSymbols();
             assertNotNull(symbols);
-            assertEquals(GameSettings.GRID_SIZE, symbols.length);
-            assertEquals(GameSettings.GRID_SIZE, symbols[0].length);
+            assertEquals(GameSettings.GRID_SIZE, symbols.getSize());
+            assertEquals(GameSettings.GRID_SIZE * GameSettings.GRID_SIZE, symbols.cells().length);
         }
 
         @Test
         @DisplayName("Should have correct grid dimensions")
         public void testGridDimensions() {
-            int[][] symbols = slotMachine.getSymbols();
-            
-            for (int[] row : symbols) {
+            Grid symbols = slotMachine.getSymbols();
+
+            assertEquals(GameSettings.GRID_SIZE, symbols.toRows().length);
+            for (int[] row : symbols.toRows()) {
                 assertEquals(GameSettings.GRID_SIZE, row.length);
             }
         }
@@ -331,6 +436,46 @@ public class SlotMachineTest {
             assertTrue(listener.wasNotified);
             assertEquals(3000.0, listener.lastBalance);
         }
+
+        @Test
+        @DisplayName("Should serve autoplay spins from one batch request")
+        public void testAutoplaySpinsFromBatch() {
+            mockApiClient.setMockBalance(1000.0);
+
+            SpinResponse first = slotMachine.nextAutoplaySpin(200, 3);
+            assertNotNull(first);
+            assertEquals(1, mockApiClient.batchRequests);
+            assertEquals(2, slotMachine.getQueuedSpinCount());
+            assertEquals(800, slotMachine.getBalance());
+
+            slotMachine.nextAutoplaySpin(200, 2);
+            slotMachine.nextAutoplaySpin(200, 1);
+            assertEquals(1, mockApiClient.batchRequests);
+            assertEquals(0, slotMachine.getQueuedSpinCount());
+            assertEquals(400, slotMachine.getBalance());
+        }
+
+        @Test
+        @DisplayName("Should sync balance when queued autoplay spins are discarded")
+        public void testClearQueuedSpins() {
+            mockApiClient.setMockBalance(1000.0);
+
+            slotMachine.nextAutoplaySpin(200, 4);
+            assertEquals(800, slotMachine.getBalance());
+
+            slotMachine.clearQueuedSpins();
+            assertEquals(0, slotMachine.getQueuedSpinCount());
+            assertEquals(200, slotMachine.getBalance());
+        }
+
+        @Test
+        @DisplayName("Should handle batch spin failure")
+        public void testAutoplaySpinFailure() {
+            mockApiClient.setShouldSucceed(false);
+
+            assertNull(slotMachine.nextAutoplaySpin(200, 5));
+            assertEquals(0, slotMachine.getQueuedSpinCount());
+        }
     }
 
     @Nested
@@ -393,6 +538,9 @@ public class SlotMachineTest {
         private double mockBalance = 1000.0;
         private boolean shouldThrowBannedException = false;
         private boolean shouldThrowDeletedException = false;
+        private int batchRequests = 0;
+        private int bonusRequests = 0;
+        private String spinMessage = "Failed";
 
         public MockApiClient() {
             super("http://localhost:8080");
@@ -414,6 +562,10 @@ public class SlotMachineTest {
             this.shouldThrowDeletedException = shouldThrow;
         }
 
+        public void setSpinMessage(String spinMessage) {
+            this.spinMessage = spinMessage;
+        }
+
         @Override
         public SpinResponse processSpin(Integer betAmount, Boolean isBonusMode) {
             if (shouldThrowBannedException) {
@@ -422,16 +574,75 @@ public class SlotMachineTest {
             if (shouldSucceed) {
                 SpinResponse response = new SpinResponse();
                 response.setSuccess(true);
-                response.setNewBalance(mockBalance);
+                response.setNewBalance(Money.toMinor(mockBalance));
                 response.setMessage("Success");
                 return response;
             }
             SpinResponse response = new SpinResponse();
             response.setSuccess(false);
-            response.setMessage("Failed");
+            response.setMessage(spinMessage);
             return response;
         }
 
+        @Override
+        public BonusRoundResponse processBonusRound() {
+            bonusRequests++;
+            if (!shouldSucceed) {
+                return BonusRoundResponse.error("No bonus round pending");
+            }
+            // 2 free spin + 1 retrigger spin, spinenként 10 kredit nyeremény
+            List<SpinResponse> spins = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                SpinResponse response = new SpinResponse();
+                response.setSuccess(true);
+                response.setNewBalance(Money.toMinor(mockBalance));
+                response.setTotalPayout(Money.toMinor(10));
+                response.setRetrigger(i == 1);
+                spins.add(response);
+            }
+            mockBalance += 30;
+            return BonusRoundResponse.success(Money.toMinor(mockBalance), 100, Money.toMinor(30), 2, 1, 1, spins);
+        }
+
+        @Override
+        public BonusRoundResponse buyBonus(Integer betAmount) {
+            bonusRequests++;
+            if (!shouldSucceed) {
+                return BonusRoundResponse.error(spinMessage);
+            }
+            mockBalance -= betAmount * GameSettings.BONUS_PRICE;
+            SpinResponse triggerSpin = new SpinResponse();
+            triggerSpin.setSuccess(true);
+            triggerSpin.setNewBalance(Money.toMinor(mockBalance));
+            triggerSpin.setBonusTrigger(true);
+
+            BonusRoundResponse response = processBonusRound();
+            bonusRequests--;
+            response.setPrice(Money.toMinor(betAmount * GameSettings.BONUS_PRICE));
+            response.setTriggerSpin(triggerSpin);
+            return response;
+        }
+
+        @Override
+        public BatchSpinResponse processSpinBatch(Integer betAmount, Integer spinCount) {
+            batchRequests++;
+            if (!shouldSucceed) {
+                return BatchSpinResponse.error("Failed");
+            }
+            // Minden spin levonja a tétet, nyeremény nélkül
+            List<SpinResponse> spins = new ArrayList<>();
+            double balance = mockBalance;
+            for (int i = 0; i < spinCount; i++) {
+                balance -= betAmount;
+                SpinResponse response = new SpinResponse();
+                response.setSuccess(true);
+                response.setNewBalance(Money.toMinor(balance));
+                spins.add(response);
+            }
+            mockBalance = balance;
+            return BatchSpinResponse.success(Money.toMinor(balance), spins, "COMPLETED");
+        }
+
         @Override
         public BalanceResponse getBalance() {
             if (shouldThrowBannedException) {
@@ -441,7 +652,7 @@ public class SlotMachineTest {
                 throw new RuntimeException("Felhasználó törölve lett");
             }
             BalanceResponse response = new BalanceResponse();
-            response.setBalance(mockBalance);
+            response.setBalance(Money.toMinor(mockBalance));
             return response;
         }
 
@@ -0,0 +1,91 @@
+package com.example.slotmachine.server.audit;
+
+import com.example.slotmachine.server.service.RngService;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Tesztek az RNG és szimbólum generálás audithoz: p-értékek, szabályok, determinisztikus futás, gyenge generátor
+ */
+@DisplayName("RNG Audit Tests")
+public class RngAuditTest {
+
+    private final RngAudit audit = new RngAudit(new SlotMachineEngine(new RngService(RngService.DEFAULT_ALGORITHM, 1L)));
+
+    @Test
+    @DisplayName("Should compute known chi-square and normal p-values")
+    public void testKnownPValues() {
+        assertEquals(0.05, AuditStatistics.chiSquarePValue(3.841459, 1), 1e-5);
+        assertEquals(0.05, AuditStatistics.chiSquarePValue(18.307038, 10), 1e-5);
+        // Két szabadsági fokon a p-érték pontosan exp(-x/2); nagy szabadsági fokon a lánctört ág fut
+        assertEquals(Math.exp(-10), AuditStatistics.chiSquarePValue(20, 2), 1e-12);
+        assertEquals(0.5, AuditStatistics.chiSquarePValue(1022.33, 1023), 2e-3);
+        assertEquals(1.0, AuditStatistics.chiSquarePValue(0, 5));
+        assertEquals(0.05, AuditStatistics.normalTwoSidedPValue(1.959964), 1e-6);
+        assertEquals(0.05, AuditStatistics.normalTwoSidedPValue(-1.959964), 1e-6);
+    }
+
+    @Test
+    @DisplayName("Should pass every test and rule for the production generator")
+    public void testProductionGeneratorPasses() {
+        AuditReport report = audit.run(4_000_000, 7L, 2);
+
+        assertTrue(report.isPassed(), report.toText());
+        assertEquals(4_000_000, report.getDraws());
+        assertEquals(4_000_000 / 49, report.getGrids());
+        assertTrue(report.getChecks().stream().anyMatch(check -> check.getName().contains("one scatter per column")));
+        assertTrue(report.toText().contains("(bonus trigger)"));
+    }
+
+    @Test
+    @DisplayName("Should give the same report for the same seed regardless of thread count")
+    public void testDeterministicAcrossThreads() {
+        long draws = RngAudit.DRAWS_PER_BLOCK + 12_345;
+        AuditReport single = audit.run(draws, 3L, 1);
+        AuditReport parallel = audit.run(draws, 3L, 3);
+
+        assertEquals(single.getChecks().size(), parallel.getChecks().size());
+        for (int i = 0; i < single.getChecks().size(); i++) {
+            assertEquals(single.getChecks().get(i).getStatistic(), parallel.getChecks().get(i).getStatistic());
+            assertEquals(single.getChecks().get(i).getPValue(), parallel.getChecks().get(i).getPValue());
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail the serial tests for a correlated generator")
+    public void testWeakGeneratorFails() {
+        // Weyl sorozat: egyenletes, de az egymást követő húzások egy egyenesen fekszenek
+        RngService weyl = new RngService(RngService.DEFAULT_ALGORITHM, 1L) {
+            @Override
+            public RandomGenerator forSeed(long seed) {
+                return new RandomGenerator() {
+                    private long state = seed;
+
+                    @Override
+                    public long nextLong() {
+                        return state += 0x9E3779B97F4A7C15L;
+                    }
+                };
+            }
+        };
+        AuditReport report = new RngAudit(new SlotMachineEngine(weyl)).run(1_000_000, 5L, 1);
+
+        assertFalse(report.isPassed());
+        assertFalse(check(report, "Serial pairs").isPassed(), report.toText());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid arguments")
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> audit.run(0, 1L, 1));
+        assertThrows(IllegalArgumentException.class, () -> audit.run(1000, 1L, 0));
+    }
+
+    private static AuditCheck check(AuditReport report, String prefix) {
+        return report.getChecks().stream().filter(c -> c.getName().startsWith(prefix)).findFirst().orElseThrow();
+    }
+}
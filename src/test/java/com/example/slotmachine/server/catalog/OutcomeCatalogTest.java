@@ -0,0 +1,123 @@
+package com.example.slotmachine.server.catalog;
+
+import com.example.slotmachine.server.engine.SpinScratch;
+import com.example.slotmachine.server.service.RngService;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Tesztek a kimenet katalógushoz: a visszaolvasott bejegyzés azonos a motor spinjével
+ */
+@DisplayName("OutcomeCatalog Tests")
+public class OutcomeCatalogTest {
+
+    private static final int ENTRIES = 2000;
+
+    private SlotMachineEngine engine;
+    private Path file;
+    private CatalogStatistics written;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        engine = new SlotMachineEngine(new RngService(RngService.DEFAULT_ALGORITHM, 1L));
+        file = Files.createTempFile("outcomes", ".cat");
+        written = new OutcomeCatalogWriter(engine).generate(file, ENTRIES, 42L);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    @DisplayName("Should replay every entry identically with the engine")
+    public void testEntriesMatchEngine() throws IOException {
+        try (OutcomeCatalog catalog = OutcomeCatalog.open(file)) {
+            assertEquals(ENTRIES, catalog.getEntries());
+            assertEquals(RngService.DEFAULT_ALGORITHM, catalog.getRngAlgorithm());
+            SpinScratch spin = catalog.getModel().newScratch();
+
+            for (int index = 0; index < ENTRIES; index++) {
+                catalog.read(index, spin, 3);
+                SlotMachineEngine.SpinResult served = engine.toSpinResult(spin, 3, true);
+                SlotMachineEngine.SpinResult live = engine.processSpin(3, true, catalog.getSeed(index));
+
+                assertEquals(live.getInitialGrid(), served.getInitialGrid(), "entry " + index);
+                assertEquals(live.getFinalGrid(), served.getFinalGrid(), "entry " + index);
+                assertEquals(live.getTotalPayout(), served.getTotalPayout(), "entry " + index);
+                assertEquals(live.getCascadeSteps().size(), served.getCascadeSteps().size(), "entry " + index);
+                assertEquals(live.isBonusTrigger(), served.isBonusTrigger(), "entry " + index);
+                assertEquals(live.isRetrigger(), served.isRetrigger(), "entry " + index);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should store exact statistics of its entries")
+    public void testStatistics() throws IOException {
+        try (OutcomeCatalog catalog = OutcomeCatalog.open(file)) {
+            CatalogStatistics statistics = catalog.getStatistics();
+            assertEquals(written, statistics);
+
+            long totalPayout = 0;
+            SpinScratch spin = catalog.getModel().newScratch();
+            for (int index = 0; index < ENTRIES; index++) {
+                catalog.read(index, spin, 1);
+                totalPayout += spin.getTotalPayout();
+            }
+            assertEquals(totalPayout, statistics.getTotalPayout());
+            assertEquals(0, statistics.getRtp().compareTo(
+                    BigDecimal.valueOf(totalPayout).divide(BigDecimal.valueOf(ENTRIES * 100L))));
+        }
+    }
+
+    @Test
+    @DisplayName("Should index exactly the bonus trigger entries")
+    public void testBonusTriggerEntries() throws IOException {
+        try (OutcomeCatalog catalog = OutcomeCatalog.open(file)) {
+            assertEquals(written.getBonusTriggers(), catalog.getBonusTriggerEntryCount());
+
+            SpinScratch spin = catalog.getModel().newScratch();
+            for (int i = 0; i < catalog.getBonusTriggerEntryCount(); i++) {
+                catalog.read(catalog.getBonusTriggerEntry(i), spin, 1);
+                assertTrue(engine.isBonusTrigger(spin), "trigger entry " + i);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a corrupted catalog")
+    public void testCorruption() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            long position = channel.size() / 2;
+            channel.read(b, position);
+            b.put(0, (byte) (b.get(0) ^ 1)).rewind();
+            channel.write(b, position);
+        }
+
+        IOException e = assertThrows(IOException.class, () -> OutcomeCatalog.open(file));
+        assertTrue(e.getMessage().contains("checksum"));
+    }
+
+    @Test
+    @DisplayName("Should reject out of range indexes")
+    public void testIndexRange() throws IOException {
+        try (OutcomeCatalog catalog = OutcomeCatalog.open(file)) {
+            assertThrows(IndexOutOfBoundsException.class, () -> catalog.getSeed(ENTRIES));
+            assertThrows(IndexOutOfBoundsException.class, () -> catalog.getSeed(-1));
+        }
+    }
+}
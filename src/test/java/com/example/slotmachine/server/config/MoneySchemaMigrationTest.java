@@ -0,0 +1,100 @@
+package com.example.slotmachine.server.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tesztek a pénz oszlopok migrációjához: megszakítás után újrafuttatva sem skáláz kétszer
+ */
+@DisplayName("MoneySchemaMigration Tests")
+public class MoneySchemaMigrationTest {
+
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:migration" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE USERS (ID BIGINT PRIMARY KEY, BALANCE DOUBLE NOT NULL)");
+        jdbc.execute("CREATE TABLE GAME_TRANSACTIONS (ID BIGINT PRIMARY KEY, AMOUNT DOUBLE NOT NULL, "
+                + "BALANCE_BEFORE DOUBLE NOT NULL, BALANCE_AFTER DOUBLE NOT NULL)");
+        jdbc.update("INSERT INTO USERS VALUES (1, 12.34)");
+        jdbc.update("INSERT INTO GAME_TRANSACTIONS VALUES (1, -0.5, 12.84, 12.34)");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbc.execute("SHUTDOWN");
+    }
+
+    @Test
+    @DisplayName("Should convert credits to minor units once")
+    public void testMigrateTwice() {
+        new MoneySchemaMigration(jdbc).migrate();
+        new MoneySchemaMigration(jdbc).migrate();
+
+        assertEquals(1234L, jdbc.queryForObject("SELECT BALANCE FROM USERS", Long.class));
+        assertEquals(-50L, jdbc.queryForObject("SELECT AMOUNT FROM GAME_TRANSACTIONS", Long.class));
+        assertEquals(1284L, jdbc.queryForObject("SELECT BALANCE_BEFORE FROM GAME_TRANSACTIONS", Long.class));
+        assertEquals("BIGINT", columnType("USERS", "BALANCE"));
+        assertEquals("NO", jdbc.queryForObject("SELECT IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS "
+                + "WHERE TABLE_NAME = 'USERS' AND COLUMN_NAME = 'BALANCE'", String.class));
+    }
+
+    @Test
+    @DisplayName("Should resume after a crash before the old column was dropped")
+    public void testResumeAfterCopy() {
+        // Megszakadt futás: az új oszlop már létezik és részben ki van töltve
+        jdbc.execute("ALTER TABLE USERS ADD COLUMN BALANCE_MINOR BIGINT");
+        jdbc.update("UPDATE USERS SET BALANCE_MINOR = 1234");
+
+        new MoneySchemaMigration(jdbc).migrate();
+
+        assertEquals(1234L, jdbc.queryForObject("SELECT BALANCE FROM USERS", Long.class));
+        assertNull(columnType("USERS", "BALANCE_MINOR"));
+    }
+
+    @Test
+    @DisplayName("Should resume after a crash between drop and rename")
+    public void testResumeAfterDrop() {
+        jdbc.execute("ALTER TABLE USERS ADD COLUMN BALANCE_MINOR BIGINT");
+        jdbc.update("UPDATE USERS SET BALANCE_MINOR = ROUND(BALANCE * 100)");
+        jdbc.execute("ALTER TABLE USERS DROP COLUMN BALANCE");
+
+        new MoneySchemaMigration(jdbc).migrate();
+
+        assertEquals(1234L, jdbc.queryForObject("SELECT BALANCE FROM USERS", Long.class));
+        assertEquals("BIGINT", columnType("USERS", "BALANCE"));
+    }
+
+    @Test
+    @DisplayName("Should add the missing NOT NULL after a crash between rename and constraint")
+    public void testResumeAfterRename() {
+        jdbc.execute("ALTER TABLE USERS ADD COLUMN BALANCE_MINOR BIGINT");
+        jdbc.update("UPDATE USERS SET BALANCE_MINOR = ROUND(BALANCE * 100)");
+        jdbc.execute("ALTER TABLE USERS DROP COLUMN BALANCE");
+        jdbc.execute("ALTER TABLE USERS ALTER COLUMN BALANCE_MINOR RENAME TO BALANCE");
+        assertEquals("YES", isNullable("USERS", "BALANCE"));
+
+        new MoneySchemaMigration(jdbc).migrate();
+
+        assertEquals(1234L, jdbc.queryForObject("SELECT BALANCE FROM USERS", Long.class));
+        assertEquals("NO", isNullable("USERS", "BALANCE"));
+    }
+
+    private String isNullable(String table, String column) {
+        return jdbc.queryForObject("SELECT IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = ? AND COLUMN_NAME = ?",
+                String.class, table, column);
+    }
+
+    private String columnType(String table, String column) {
+        return jdbc.queryForList("SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = ? AND COLUMN_NAME = ?",
+                String.class, table, column).stream().findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.slotmachine.server.differential;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.MathModelDefinition;
+import com.example.slotmachine.server.service.RngService;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tesztek a differenciális ellenőrzéshez: egyező motoroknál nincs eltérés, egy szándékos eltérésnél
+ * a legkisebb eltérő seed kerül elő, és a zsugorítás kisebb rácsra és egyszerűbb tétre visz
+ */
+@DisplayName("DifferentialHarness Tests")
+public class DifferentialHarnessTest {
+
+    private final RngService rngService = new RngService(RngService.DEFAULT_ALGORITHM, 11L);
+    private final CompiledMathModel model = CompiledMathModel.loadDefault();
+
+    @Test
+    @DisplayName("Should find no divergence between the engine and the reference")
+    public void testEquivalent() {
+        DifferentialHarness harness = new DifferentialHarness(m -> new SlotMachineEngine(rngService, m));
+
+        DifferentialReport report = harness.run(model, 1_000, 20_000, 4);
+
+        assertTrue(report.isEquivalent(), report.toText());
+        assertEquals(20_000, report.getCompared());
+        assertNull(report.getMinimalDivergence());
+    }
+
+    @Test
+    @DisplayName("Should report the lowest divergent seed regardless of thread count")
+    public void testLowestDivergentSeed() {
+        // A tömörített jobb szomszédot olvasó referencia szándékosan eltér a motortól
+        DifferentialHarness harness = new DifferentialHarness(m -> new SlotMachineEngine(rngService, m),
+                m -> new ReferenceSpinEngine(m, true));
+
+        DifferentialReport single = harness.run(model, 0, 200_000, 1);
+        DifferentialReport parallel = harness.run(model, 0, 200_000, 8);
+
+        assertFalse(single.isEquivalent());
+        long seed = single.getFirstDivergence().getSeed();
+        assertEquals(seed, parallel.getFirstDivergence().getSeed());
+        for (long lower = 0; lower < seed; lower++) {
+            assertNull(harness.compare(model, lower, DifferentialHarness.betFor(lower), DifferentialHarness.bonusModeFor(lower)),
+                    "seed " + lower);
+        }
+        assertTrue(single.getCompared() >= seed + 1);
+    }
+
+    @Test
+    @DisplayName("Should shrink the divergence to a smaller grid and the simplest bet")
+    public void testShrink() {
+        DifferentialHarness harness = new DifferentialHarness(m -> new SlotMachineEngine(rngService, m),
+                m -> new ReferenceSpinEngine(m, true));
+        MathModelDefinition definition = model.toDefinition();
+        definition.setGridSize(9);
+        CompiledMathModel larger = CompiledMathModel.compile(definition);
+
+        DifferentialReport report = harness.run(larger, 0, 50_000, 4);
+        Divergence minimal = report.getMinimalDivergence();
+
+        assertNotNull(minimal);
+        assertTrue(minimal.getGridSize() < 9, minimal.toText());
+        assertEquals(1, minimal.getBetAmount());
+        assertFalse(minimal.isBonusMode());
+        // A zsugorított eset önmagában is reprodukálja az eltérést
+        MathModelDefinition shrunk = model.toDefinition();
+        shrunk.setGridSize(minimal.getGridSize());
+        assertNotNull(harness.compare(CompiledMathModel.compile(shrunk), minimal.getSeed(), 1, false));
+        assertTrue(report.toText().contains("DIVERGED"));
+    }
+}
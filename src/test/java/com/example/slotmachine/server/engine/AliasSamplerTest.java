@@ -0,0 +1,72 @@
+package com.example.slotmachine.server.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * Tesztek az AliasSampler osztályhoz
+ */
+@DisplayName("AliasSampler Tests")
+public class AliasSamplerTest {
+
+    private static final int[] WEIGHTS = {12, 12, 12, 14, 14, 16, 15, 4, 1};
+
+    @Test
+    @DisplayName("Should reproduce the weights exactly over the whole draw range")
+    public void testExactDistribution() {
+        AliasSampler sampler = new AliasSampler(WEIGHTS);
+        int[] counts = new int[WEIGHTS.length];
+        for (int u = 0; u < sampler.getBound(); u++) {
+            counts[sampler.sampleAt(u)]++;
+        }
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            // Minden szimbólum pontosan n * w_i értékhez tartozik
+            assertEquals(WEIGHTS.length * WEIGHTS[i], counts[i], "Symbol " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Should never draw an excluded symbol")
+    public void testWithoutSymbol() {
+        AliasSampler sampler = new AliasSampler(WEIGHTS).without(8);
+        int[] counts = new int[WEIGHTS.length];
+        for (int u = 0; u < sampler.getBound(); u++) {
+            counts[sampler.sampleAt(u)]++;
+        }
+        assertEquals(0, counts[8]);
+        assertEquals(99, sampler.getTotalWeight());
+        for (int i = 0; i < 8; i++) {
+            assertEquals(WEIGHTS.length * WEIGHTS[i], counts[i], "Symbol " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Should stay within range when sampling randomly")
+    public void testRandomSampling() {
+        AliasSampler sampler = new AliasSampler(WEIGHTS);
+        Random random = new Random(7);
+        for (int i = 0; i < 10000; i++) {
+            int symbol = sampler.sample(random);
+            assertTrue(symbol >= 0 && symbol < WEIGHTS.length);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject invalid weights")
+    public void testInvalidWeights() {
+        assertThrows(IllegalArgumentException.class, () -> new AliasSampler(new int[0]));
+        assertThrows(IllegalArgumentException.class, () -> new AliasSampler(new int[]{0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasSampler(new int[]{1, -1}));
+    }
+
+    @Test
+    @DisplayName("Should report probabilities from the weights")
+    public void testProbability() {
+        AliasSampler sampler = new AliasSampler(WEIGHTS);
+        assertEquals(0.16, sampler.probability(5), 1e-12);
+        assertEquals(0.01, sampler.probability(8), 1e-12);
+    }
+}
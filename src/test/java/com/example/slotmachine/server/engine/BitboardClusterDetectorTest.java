@@ -0,0 +1,220 @@
+package com.example.slotmachine.server.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.example.slotmachine.client.GameSettings.*;
+
+/**
+ * Tesztek a BitboardClusterDetector osztályhoz
+ */
+@DisplayName("BitboardClusterDetector Tests")
+public class BitboardClusterDetectorTest {
+
+    private BitboardClusterDetector detector;
+
+    @BeforeEach
+    public void setUp() {
+        detector = new BitboardClusterDetector(GRID_SIZE, CLUSTER_SIZE);
+    }
+
+    @Test
+    @DisplayName("Should reject mask based search on grids larger than 64 cells")
+    public void testRejectsTooLargeGrid() {
+        assertThrows(IllegalArgumentException.class, () -> new BitboardClusterDetector(MathModelDefinition.MAX_GRID_SIZE + 1, CLUSTER_SIZE));
+        BitboardClusterDetector large = new BitboardClusterDetector(9, CLUSTER_SIZE);
+        assertFalse(large.isSingleWord());
+        assertEquals(2, large.getWords());
+        assertThrows(IllegalStateException.class, () -> large.findMatches(new long[SYMBOL_COUNT], new long[SYMBOL_COUNT * 2]));
+    }
+
+    @Test
+    @DisplayName("Should not connect cells across row boundaries")
+    public void testNoWrapAround() {
+        int[][] grid = filledGrid();
+        // Az első sor utolsó 3 cellája és a második sor első 2 cellája bitindexben szomszédos, de a rácson nem
+        for (int col = GRID_SIZE - 3; col < GRID_SIZE; col++) grid[0][col] = 0;
+        grid[1][0] = 0;
+        grid[1][1] = 0;
+
+        long[] masks = new long[SYMBOL_COUNT];
+        long[] matched = new long[SYMBOL_COUNT];
+        detector.buildSymbolMasks(Grid.fromRows(grid), masks);
+
+        assertEquals(0, detector.findMatches(masks, matched));
+        assertEquals(0L, matched[0]);
+    }
+
+    @Test
+    @DisplayName("Should merge separate clusters of the same symbol")
+    public void testSeparateClustersSameSymbol() {
+        int[][] grid = filledGrid();
+        for (int col = 0; col < CLUSTER_SIZE; col++) {
+            grid[0][col] = 2;
+            grid[GRID_SIZE - 1][col] = 2;
+        }
+
+        long[] masks = new long[SYMBOL_COUNT];
+        long[] matched = new long[SYMBOL_COUNT];
+        detector.buildSymbolMasks(Grid.fromRows(grid), masks);
+
+        assertEquals(2, detector.findMatches(masks, matched));
+        assertEquals(2 * CLUSTER_SIZE, Long.bitCount(matched[2]));
+        assertEquals(2 * CLUSTER_SIZE, detector.toClusterMap(matched).get(2).size());
+    }
+
+    @Test
+    @DisplayName("Should match recursive flood fill on random grids")
+    public void testMatchesRecursiveReference() {
+        Random random = new Random(42);
+        long[] masks = new long[SYMBOL_COUNT];
+        long[] matched = new long[SYMBOL_COUNT];
+
+        for (int i = 0; i < 5000; i++) {
+            int[][] grid = new int[GRID_SIZE][GRID_SIZE];
+            // Kevés szimbólum, hogy sok és nagy klaszter legyen
+            int symbols = 2 + random.nextInt(4);
+            for (int row = 0; row < GRID_SIZE; row++) {
+                for (int col = 0; col < GRID_SIZE; col++) {
+                    grid[row][col] = random.nextInt(symbols);
+                }
+            }
+
+            detector.buildSymbolMasks(Grid.fromRows(grid), masks);
+            detector.findMatches(masks, matched);
+            Map<Integer, List<int[]>> actual = detector.toClusterMap(matched);
+            long[] expected = referenceMatches(grid);
+
+            for (int symbol = 0; symbol < SYMBOL_COUNT; symbol++) {
+                assertEquals(expected[symbol], matched[symbol], "Mismatch for symbol " + symbol);
+                int expectedSize = Long.bitCount(expected[symbol]);
+                int actualSize = actual.containsKey(symbol) ? actual.get(symbol).size() : 0;
+                assertEquals(expectedSize, actualSize);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should mark cleared cells and everything above them as changed")
+    public void testChangedCells() {
+        long cleared = 1L << detector.bitIndex(4, 2) | 1L << detector.bitIndex(6, 5);
+        long changed = detector.changedCells(cleared);
+
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                boolean expected = (col == 2 && row <= 4) || (col == 5 && row <= 6);
+                assertEquals(expected, (changed & 1L << detector.bitIndex(row, col)) != 0, row + "," + col);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should find the same clusters incrementally as the full scan after a cascade")
+    public void testIncrementalMatchesFullScan() {
+        Random random = new Random(7);
+        long[] masks = new long[SYMBOL_COUNT];
+        long[] matched = new long[SYMBOL_COUNT];
+        long[] fullMatched = new long[SYMBOL_COUNT];
+        long[] incrementalMatched = new long[SYMBOL_COUNT];
+        long[] incrementalMasks = new long[SYMBOL_COUNT];
+        int cascades = 0;
+
+        for (int i = 0; i < 5000; i++) {
+            int symbols = 2 + random.nextInt(4);
+            byte[] grid = new byte[GRID_SIZE * GRID_SIZE];
+            for (int cell = 0; cell < grid.length; cell++) {
+                grid[cell] = (byte) random.nextInt(symbols);
+            }
+            detector.buildSymbolMasks(grid, masks);
+            System.arraycopy(masks, 0, incrementalMasks, 0, SYMBOL_COUNT);
+
+            // Néhány cascade lépés: törlés, tömörítés, véletlen utántöltés, majd a két keresés összevetése
+            // (kevés szimbólummal a lánc szinte sosem ér véget, ezért legfeljebb 8 lépés)
+            for (int step = 0; step < 8 && detector.findMatches(masks, matched) > 0; step++) {
+                long cleared = 0;
+                for (long mask : matched) {
+                    cleared |= mask;
+                }
+                clearAndRefill(grid, cleared, random, symbols);
+                long changed = detector.changedCells(cleared);
+
+                detector.buildSymbolMasks(grid, masks);
+                detector.updateSymbolMasks(grid, incrementalMasks, SYMBOL_COUNT, changed);
+                assertArrayEquals(masks, incrementalMasks, "grid " + i);
+
+                int fullCount = detector.findMatches(masks, fullMatched, 0);
+                int incrementalCount = detector.findMatches(incrementalMasks, incrementalMatched, 0, changed);
+                assertEquals(fullCount, incrementalCount, "grid " + i);
+                assertArrayEquals(fullMatched, incrementalMatched, "grid " + i);
+                cascades++;
+            }
+        }
+        assertTrue(cascades > 1000, "too few cascades: " + cascades);
+    }
+
+    private void clearAndRefill(byte[] grid, long cleared, Random random, int symbols) {
+        for (int col = 0; col < GRID_SIZE; col++) {
+            int emptyRow = GRID_SIZE - 1;
+            for (int row = GRID_SIZE - 1; row >= 0; row--) {
+                int cell = detector.bitIndex(row, col);
+                if ((cleared & 1L << cell) == 0) {
+                    grid[detector.bitIndex(emptyRow--, col)] = grid[cell];
+                }
+            }
+            for (; emptyRow >= 0; emptyRow--) {
+                grid[detector.bitIndex(emptyRow, col)] = (byte) random.nextInt(symbols);
+            }
+        }
+    }
+
+    private int[][] filledGrid() {
+        // Sakktábla minta két szimbólummal, amelyben nincs klaszter
+        int[][] grid = new int[GRID_SIZE][GRID_SIZE];
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                grid[row][col] = 5 + (row + col) % 2;
+            }
+        }
+        return grid;
+    }
+
+    // Az eredeti rekurzív findCluster logika, maszkokra fordítva
+    private long[] referenceMatches(int[][] grid) {
+        long[] result = new long[SYMBOL_COUNT];
+        boolean[][] visited = new boolean[GRID_SIZE][GRID_SIZE];
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                if (!visited[row][col]) {
+                    List<int[]> cluster = new ArrayList<>();
+                    findCluster(row, col, grid[row][col], visited, cluster, grid);
+                    if (cluster.size() >= CLUSTER_SIZE) {
+                        for (int[] position : cluster) {
+                            result[grid[row][col]] |= 1L << (position[0] * GRID_SIZE + position[1]);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private void findCluster(int row, int col, int symbol, boolean[][] visited, List<int[]> cluster, int[][] grid) {
+        if (row < 0 || row >= GRID_SIZE || col < 0 || col >= GRID_SIZE
+                || visited[row][col] || grid[row][col] != symbol) {
+            return;
+        }
+        visited[row][col] = true;
+        cluster.add(new int[]{row, col});
+        findCluster(row + 1, col, symbol, visited, cluster, grid);
+        findCluster(row - 1, col, symbol, visited, cluster, grid);
+        findCluster(row, col + 1, symbol, visited, cluster, grid);
+        findCluster(row, col - 1, symbol, visited, cluster, grid);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.slotmachine.server.engine;
+
+import com.example.slotmachine.server.service.RngService;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Tesztek a CompiledMathModel osztályhoz
+ */
+@DisplayName("CompiledMathModel Tests")
+public class CompiledMathModelTest {
+
+    @Nested
+    @DisplayName("Compilation Tests")
+    class CompilationTests {
+
+        @Test
+        @DisplayName("Should compile the bundled default model")
+        public void testDefaultModel() {
+            CompiledMathModel model = CompiledMathModel.loadDefault();
+
+            assertEquals("default", model.getName());
+            assertEquals(7, model.getGridSize());
+            assertEquals(49, model.getCells());
+            assertEquals(9, model.getSymbolCount());
+            assertEquals(8, model.getScatterSymbol());
+            assertEquals(49, model.getTopology().getCells());
+            assertArrayEquals(new int[]{12, 12, 12, 14, 14, 16, 15, 4, 1}, model.getSymbols().getWeights());
+            assertEquals(0, model.getNonScatter().probability(8));
+        }
+
+        @Test
+        @DisplayName("Should flatten the payout table by cluster size")
+        public void testPayoutLookup() {
+            CompiledMathModel model = CompiledMathModel.loadDefault();
+
+            assertEquals(0, model.multiplier(0, 4));
+            assertEquals(20, model.multiplier(0, 5));
+            assertEquals(250, model.multiplier(8, 5));
+            assertEquals(16000, model.multiplier(8, 15));
+            // Az utolsó sor a nagyobb klaszterekre is érvényes
+            assertEquals(16000, model.multiplier(8, 49));
+            assertEquals(16000, model.multiplier(8, 100));
+        }
+
+        @Test
+        @DisplayName("Should round-trip through the definition")
+        public void testToDefinition() {
+            CompiledMathModel model = CompiledMathModel.loadDefault();
+            CompiledMathModel copy = CompiledMathModel.compile(model.toDefinition());
+
+            for (int size = 0; size <= model.getCells(); size++) {
+                for (int symbol = 0; symbol < model.getSymbolCount(); symbol++) {
+                    assertEquals(model.multiplier(symbol, size), copy.multiplier(symbol, size));
+                }
+            }
+            assertArrayEquals(model.getSymbols().getWeights(), copy.getSymbols().getWeights());
+        }
+
+        @Test
+        @DisplayName("Should rebuild samplers with new symbol weights")
+        public void testWithSymbolWeights() {
+            CompiledMathModel model = CompiledMathModel.loadDefault();
+            CompiledMathModel reweighted = model.withSymbolWeights(new int[]{1, 1, 1, 1, 1, 1, 1, 1, 1});
+
+            assertEquals(1.0 / 9, reweighted.getSymbols().probability(0), 1e-12);
+            assertEquals(12.0 / 100, model.getSymbols().probability(0), 1e-12);
+            assertThrows(IllegalArgumentException.class, () -> model.withSymbolWeights(new int[]{1, 2}));
+        }
+    }
+
+    @Nested
+    @DisplayName("Validation Tests")
+    class ValidationTests {
+
+        @Test
+        @DisplayName("Should reject invalid definitions")
+        public void testInvalidDefinitions() {
+            assertInvalid(d -> d.setGridSize(0));
+            assertInvalid(d -> d.setGridSize(MathModelDefinition.MAX_GRID_SIZE + 1));
+            assertInvalid(d -> d.setScatterSymbol(9));
+            assertInvalid(d -> d.setClusterSize(0));
+            assertInvalid(d -> d.setRefillClusterChance(1.5));
+            assertInvalid(d -> d.setBonusTriggerCount(8));
+            assertInvalid(d -> d.setRetriggerCount(5));
+            assertInvalid(d -> d.setFreeSpins(MathModelDefinition.MAX_FREE_SPINS_PER_ROUND + 1));
+            assertInvalid(d -> d.setRetriggerSpins(MathModelDefinition.MAX_FREE_SPINS_PER_ROUND + 1));
+            assertInvalid(d -> d.setSymbolWeights(new int[]{0, 0, 0, 0, 0, 0, 0, 0, 1}));
+            assertInvalid(d -> d.getSymbolWeights()[8] = 0);
+            assertInvalid(d -> d.getPayoutMultipliers()[3] = new long[]{1, 2, 3});
+            assertInvalid(d -> d.getPayoutMultipliers()[0][0] = -1);
+        }
+
+        @Test
+        @DisplayName("Should reject unknown fields in the model file")
+        public void testUnknownField() {
+            String json = "{\"name\":\"typo\",\"gridSzie\":7}";
+            assertThrows(Exception.class, () ->
+                    CompiledMathModel.load(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+        }
+
+        private void assertInvalid(Consumer<MathModelDefinition> change) {
+            MathModelDefinition definition = CompiledMathModel.loadDefault().toDefinition();
+            change.accept(definition);
+            assertThrows(IllegalArgumentException.class, () -> CompiledMathModel.compile(definition));
+        }
+    }
+
+    @Nested
+    @DisplayName("Hot Swap Tests")
+    class HotSwapTests {
+
+        @Test
+        @DisplayName("Should finish spins on the old model and start new ones on the new model")
+        public void testSwap() {
+            CompiledMathModel original = CompiledMathModel.loadDefault();
+            MathModelDefinition smaller = original.toDefinition();
+            smaller.setName("small");
+            smaller.setGridSize(6);
+            CompiledMathModel replacement = CompiledMathModel.compile(smaller);
+
+            SlotMachineEngine engine = new SlotMachineEngine(new RngService(RngService.DEFAULT_ALGORITHM, 1L), original);
+            SpinScratch inFlight = engine.newScratch();
+            engine.setMathModel(replacement);
+
+            // A csere előtt lefoglalt munkaterület a régi modellen fut végig
+            engine.runSpin(inFlight, 1, engine.getRngService().forSeed(5L));
+            assertSame(original, inFlight.getModel());
+            assertEquals(49, inFlight.getCells());
+
+            SlotMachineEngine.SpinResult result = engine.processSpin(1, false, 5L);
+            assertEquals(6, result.getInitialGrid().getSize());
+            assertEquals(6, result.getFinalGrid().getSize());
+        }
+
+        @Test
+        @DisplayName("Should keep a pinned model for a whole bonus round across a swap")
+        public void testPinnedModel() {
+            CompiledMathModel original = CompiledMathModel.loadDefault();
+            MathModelDefinition smaller = original.toDefinition();
+            smaller.setGridSize(6);
+            SlotMachineEngine engine = new SlotMachineEngine(new RngService(RngService.DEFAULT_ALGORITHM, 1L), original);
+
+            SlotMachineEngine.SpinResult first = engine.processSpin(original, 1, true);
+            engine.setMathModel(CompiledMathModel.compile(smaller));
+            SlotMachineEngine.SpinResult second = engine.processSpin(original, 1, true);
+
+            assertSame(original, first.getModel());
+            assertSame(original, second.getModel());
+            assertEquals(7, second.getInitialGrid().getSize());
+        }
+
+        @Test
+        @DisplayName("Should give the same spin for the same seed on an identical model")
+        public void testSameResultAfterReload() {
+            SlotMachineEngine engine = new SlotMachineEngine(new RngService(RngService.DEFAULT_ALGORITHM, 1L));
+            SlotMachineEngine.SpinResult before = engine.processSpin(10, false, 99L);
+            engine.setMathModel(CompiledMathModel.loadDefault());
+            SlotMachineEngine.SpinResult after = engine.processSpin(10, false, 99L);
+
+            assertEquals(before.getInitialGrid(), after.getInitialGrid());
+            assertEquals(before.getTotalPayout(), after.getTotalPayout());
+        }
+    }
+}
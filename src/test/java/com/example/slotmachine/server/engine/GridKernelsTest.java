@@ -0,0 +1,124 @@
+package com.example.slotmachine.server.engine;
+
+import com.example.slotmachine.server.service.RngService;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.SplittableRandom;
+
+/**
+ * Tesztek a GridKernels megvalósításokhoz: a vector változatnak bitre azonosnak kell lennie a skalárral
+ */
+@DisplayName("GridKernels Tests")
+public class GridKernelsTest {
+
+    private static final int GRIDS = 2000;
+
+    private final CompiledMathModel model = CompiledMathModel.loadDefault();
+    private GridKernels scalar;
+    private GridKernels vector;
+
+    @BeforeEach
+    public void setUp() {
+        scalar = GridKernels.named(GridKernels.SCALAR);
+        vector = GridKernels.named(GridKernels.VECTOR);
+    }
+
+    @Test
+    @DisplayName("Should select kernels by name")
+    public void testNamed() {
+        assertEquals(GridKernels.SCALAR, scalar.getName());
+        assertEquals(GridKernels.SCALAR, GridKernels.named(null).getName());
+        assertNotNull(GridKernels.named(GridKernels.AUTO));
+        assertThrows(IllegalArgumentException.class, () -> GridKernels.named("gpu"));
+    }
+
+    @Test
+    @DisplayName("Scalar kernels should compact columns like gravity")
+    public void testScalarCompaction() {
+        // 7x7 rács, a 0. oszlopban két lyuk (1. és 4. sor)
+        byte[] grid = new byte[model.getCells()];
+        for (int cell = 0; cell < grid.length; cell++) {
+            grid[cell] = (byte) (cell / 7);
+        }
+        grid[7] = -1;
+        grid[28] = -1;
+        byte[] before = new byte[grid.length];
+        int[] holes = new int[7];
+
+        scalar.compactColumns(model, grid, before, holes);
+
+        assertArrayEquals(new int[]{2, 0, 0, 0, 0, 0, 0}, holes);
+        byte[] column = new byte[7];
+        for (int row = 0; row < 7; row++) {
+            column[row] = grid[row * 7];
+        }
+        assertArrayEquals(new byte[]{-1, -1, 0, 2, 3, 5, 6}, column);
+        assertEquals(-1, before[7]);
+        assertEquals(4, before[28 + 1]);
+    }
+
+    @Test
+    @DisplayName("Vector kernels should match scalar kernels on random grids")
+    public void testVectorMatchesScalar() {
+        assumeTrue(GridKernels.VECTOR.equals(vector.getName()), "jdk.incubator.vector not available");
+        SplittableRandom random = new SplittableRandom(42);
+        int cells = model.getCells();
+        int symbols = model.getSymbolCount();
+
+        for (int i = 0; i < GRIDS; i++) {
+            byte[] grid = new byte[cells];
+            for (int cell = 0; cell < cells; cell++) {
+                grid[cell] = (byte) random.nextInt(symbols);
+            }
+            long[] matched = new long[symbols];
+            for (int symbol = 0; symbol < symbols; symbol++) {
+                matched[symbol] = random.nextLong() & random.nextLong() & ((1L << cells) - 1);
+            }
+
+            assertEquals(scalar.count(grid, cells, 8), vector.count(grid, cells, 8));
+
+            long[] scalarMasks = new long[symbols];
+            long[] vectorMasks = new long[symbols];
+            scalar.buildSymbolMasks(grid, cells, scalarMasks, symbols);
+            vector.buildSymbolMasks(grid, cells, vectorMasks, symbols);
+            assertArrayEquals(scalarMasks, vectorMasks);
+
+            byte[] scalarGrid = grid.clone();
+            byte[] vectorGrid = grid.clone();
+            scalar.clearMasked(scalarGrid, cells, matched, 0, symbols);
+            vector.clearMasked(vectorGrid, cells, matched, 0, symbols);
+            assertArrayEquals(scalarGrid, vectorGrid);
+
+            byte[] scalarBefore = new byte[cells];
+            byte[] vectorBefore = new byte[cells];
+            int[] scalarHoles = new int[model.getGridSize()];
+            int[] vectorHoles = new int[model.getGridSize()];
+            scalar.compactColumns(model, scalarGrid, scalarBefore, scalarHoles);
+            vector.compactColumns(model, vectorGrid, vectorBefore, vectorHoles);
+            assertArrayEquals(scalarGrid, vectorGrid);
+            assertArrayEquals(scalarBefore, vectorBefore);
+            assertArrayEquals(scalarHoles, vectorHoles);
+        }
+    }
+
+    @Test
+    @DisplayName("Engine should produce identical spins with either kernels")
+    public void testEngineResultsIdentical() {
+        assumeTrue(GridKernels.VECTOR.equals(vector.getName()), "jdk.incubator.vector not available");
+        SlotMachineEngine scalarEngine = new SlotMachineEngine(new RngService(RngService.DEFAULT_ALGORITHM, 1L), GridKernels.SCALAR);
+        SlotMachineEngine vectorEngine = new SlotMachineEngine(new RngService(RngService.DEFAULT_ALGORITHM, 1L), GridKernels.VECTOR);
+
+        for (long seed = 0; seed < 500; seed++) {
+            SlotMachineEngine.SpinResult expected = scalarEngine.processSpin(10, false, seed);
+            SlotMachineEngine.SpinResult actual = vectorEngine.processSpin(10, false, seed);
+            assertEquals(expected.getFinalGrid(), actual.getFinalGrid(), "seed " + seed);
+            assertEquals(expected.getTotalPayout(), actual.getTotalPayout(), "seed " + seed);
+            assertEquals(expected.getCascadeSteps().size(), actual.getCascadeSteps().size(), "seed " + seed);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.slotmachine.server.engine;
+
+import com.example.slotmachine.server.dto.SpinResponse;
+import com.example.slotmachine.server.service.RngService;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+/**
+ * Tesztek a lapos Grid rácshoz és a tömör JSON formájához
+ */
+@DisplayName("Grid Tests")
+public class GridTest {
+
+    @Test
+    @DisplayName("Should address cells row by row")
+    public void testRowColumnAccess() {
+        Grid grid = new Grid(7);
+        grid.set(2, 3, 5);
+        grid.set(6, 6, Grid.EMPTY);
+
+        assertEquals(5, grid.get(2, 3));
+        assertEquals(5, grid.get(2 * 7 + 3));
+        assertEquals(Grid.EMPTY, grid.get(48));
+        assertEquals(1, grid.count(5));
+        assertEquals(5, grid.toRows()[2][3]);
+        assertEquals(grid, Grid.fromRows(grid.toRows()));
+    }
+
+    @Test
+    @DisplayName("Should copy independently from a flat buffer")
+    public void testCopy() {
+        byte[] buffer = {9, 9, 1, 2, 3, 4};
+        Grid grid = Grid.copyOf(buffer, 2, 2);
+        buffer[2] = 0;
+        Grid copy = grid.copy();
+        copy.set(0, 0, 7);
+
+        assertEquals(1, grid.get(0, 0));
+        assertEquals(4, grid.get(1, 1));
+        assertNotEquals(grid, copy);
+    }
+
+    @Test
+    @DisplayName("Should round-trip through the compact encoding")
+    public void testEncodeDecode() {
+        Grid grid = new Grid(7);
+        for (int cell = 0; cell < 49; cell++) {
+            grid.set(cell, cell % 10 - 1);
+        }
+
+        assertEquals(grid, Grid.decode(grid.encode()));
+        assertEquals(68, grid.encode().length());
+        assertThrows(IllegalArgumentException.class, () -> Grid.decode("AAAA"));
+        assertThrows(IllegalArgumentException.class, () -> Grid.fromRows(new int[][]{{1, 2}, {3}}));
+    }
+
+    @Test
+    @DisplayName("Should serialize spin responses with string grids")
+    public void testSpinResponseJson() throws Exception {
+        SlotMachineEngine engine = new SlotMachineEngine(new RngService(RngService.DEFAULT_ALGORITHM, 3L));
+        SlotMachineEngine.SpinResult result = engine.processSpin(10, false, 12345L);
+        List<SpinResponse.CascadeStepDto> steps = result.getCascadeSteps().stream()
+                .map(step -> new SpinResponse.CascadeStepDto(step.getMatchedClusters(), step.getPayout(),
+                        step.getGridAfterClear(), step.getGridAfterRefill()))
+                .toList();
+        SpinResponse response = SpinResponse.success(100L, result.getTotalPayout(), result.getInitialGrid(),
+                result.getFinalGrid(), steps, false, false);
+
+        ObjectMapper mapper = new ObjectMapper();
+        String json = mapper.writeValueAsString(response);
+        SpinResponse parsed = mapper.readValue(json, SpinResponse.class);
+
+        assertTrue(json.contains("\"initialGrid\":\"" + result.getInitialGrid().encode() + "\""));
+        assertEquals(result.getInitialGrid(), parsed.getInitialGrid());
+        assertEquals(result.getFinalGrid(), parsed.getFinalGrid());
+        for (int i = 0; i < steps.size(); i++) {
+            assertEquals(steps.get(i).getGridAfterClear(), parsed.getCascadeSteps().get(i).getGridAfterClear());
+            assertEquals(steps.get(i).getGridAfterRefill(), parsed.getCascadeSteps().get(i).getGridAfterRefill());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.slotmachine.server.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.example.slotmachine.client.GameSettings.*;
+
+/**
+ * Tesztek a UnionFindClusterLabeler osztályhoz
+ */
+@DisplayName("UnionFindClusterLabeler Tests")
+public class UnionFindClusterLabelerTest {
+
+    private static final int MAX = MathModelDefinition.MAX_GRID_SIZE;
+
+    @Test
+    @DisplayName("Should match the bitboard detector on random grids")
+    public void testMatchesBitboard() {
+        Random random = new Random(42);
+        for (int gridSize = 7; gridSize <= 8; gridSize++) {
+            BitboardClusterDetector detector = new BitboardClusterDetector(gridSize, CLUSTER_SIZE);
+            UnionFindClusterLabeler labeler = new UnionFindClusterLabeler(gridSize, CLUSTER_SIZE);
+            int cells = gridSize * gridSize;
+            byte[] grid = new byte[cells];
+            int[] labels = new int[cells];
+            long[] masks = new long[SYMBOL_COUNT];
+            long[] expected = new long[SYMBOL_COUNT];
+            long[] actual = new long[SYMBOL_COUNT];
+
+            for (int i = 0; i < 5000; i++) {
+                int symbols = 2 + random.nextInt(4);
+                for (int cell = 0; cell < cells; cell++) {
+                    // Néhány üres cella is, mint törlés után
+                    grid[cell] = random.nextInt(10) == 0 ? Grid.EMPTY : (byte) random.nextInt(symbols);
+                }
+                detector.buildSymbolMasks(grid, masks);
+                int expectedCount = detector.findMatches(masks, expected);
+                int actualCount = labeler.findMatches(grid, labels, actual, 0, SYMBOL_COUNT);
+
+                assertEquals(expectedCount, actualCount);
+                assertArrayEquals(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should match a breadth-first reference on grids larger than 64 cells")
+    public void testMatchesReferenceOnLargeGrids() {
+        Random random = new Random(7);
+        for (int gridSize : new int[]{9, 16, 33}) {
+            UnionFindClusterLabeler labeler = new UnionFindClusterLabeler(gridSize, CLUSTER_SIZE);
+            int words = labeler.getWords();
+            byte[] grid = new byte[gridSize * gridSize];
+            int[] labels = new int[grid.length];
+            long[] actual = new long[SYMBOL_COUNT * words];
+
+            for (int i = 0; i < 500; i++) {
+                int symbols = 2 + random.nextInt(4);
+                for (int cell = 0; cell < grid.length; cell++) {
+                    grid[cell] = (byte) random.nextInt(symbols);
+                }
+                long[] expected = new long[SYMBOL_COUNT * words];
+                int expectedCount = referenceMatches(grid, gridSize, words, expected);
+
+                assertEquals(expectedCount, labeler.findMatches(grid, labels, actual, 0, SYMBOL_COUNT));
+                assertArrayEquals(expected, actual, "grid size " + gridSize);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should label a full 64x64 grid as a single cluster")
+    public void testSingleSymbolMegaGrid() {
+        UnionFindClusterLabeler labeler = new UnionFindClusterLabeler(MAX, CLUSTER_SIZE);
+        byte[] grid = new byte[MAX * MAX];
+        long[] matched = new long[SYMBOL_COUNT * labeler.getWords()];
+
+        assertEquals(1, labeler.findMatches(grid, new int[grid.length], matched, 0, SYMBOL_COUNT));
+        for (int w = 0; w < labeler.getWords(); w++) {
+            assertEquals(-1L, matched[w]);
+        }
+        for (int w = labeler.getWords(); w < matched.length; w++) {
+            assertEquals(0L, matched[w]);
+        }
+    }
+
+    @Test
+    @DisplayName("Should follow a serpentine cluster across all rows without recursion")
+    public void testSerpentine() {
+        // Egyetlen kígyózó út: minden második sor teli, a közbülső sorokban felváltva az utolsó/első cella
+        UnionFindClusterLabeler labeler = new UnionFindClusterLabeler(MAX, CLUSTER_SIZE);
+        byte[] grid = new byte[MAX * MAX];
+        Arrays.fill(grid, (byte) 1);
+        int pathCells = 0;
+        for (int row = 0; row < MAX; row++) {
+            for (int col = 0; col < MAX; col++) {
+                boolean path = row % 2 == 0
+                        || (row % 4 == 1 && col == MAX - 1)
+                        || (row % 4 == 3 && col == 0);
+                if (path) {
+                    grid[row * MAX + col] = 0;
+                    pathCells++;
+                }
+            }
+        }
+        long[] matched = new long[SYMBOL_COUNT * labeler.getWords()];
+        labeler.findMatches(grid, new int[grid.length], matched, 0, SYMBOL_COUNT);
+
+        int size = 0;
+        for (int w = 0; w < labeler.getWords(); w++) {
+            size += Long.bitCount(matched[w]);
+        }
+        assertEquals(pathCells, size);
+        assertEquals(pathCells, new BitboardClusterDetector(MAX, CLUSTER_SIZE)
+                .toClusterMap(matched, 0, SYMBOL_COUNT).get(0).size());
+    }
+
+    private static int referenceMatches(byte[] grid, int gridSize, int words, long[] out) {
+        boolean[] visited = new boolean[grid.length];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int clusters = 0;
+        for (int start = 0; start < grid.length; start++) {
+            if (visited[start]) {
+                continue;
+            }
+            int symbol = grid[start];
+            long[] component = new long[words];
+            int size = 0;
+            visited[start] = true;
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                int cell = queue.poll();
+                component[cell >>> 6] |= 1L << cell;
+                size++;
+                int row = cell / gridSize;
+                int col = cell % gridSize;
+                int[] neighbours = {
+                        row > 0 ? cell - gridSize : -1,
+                        row < gridSize - 1 ? cell + gridSize : -1,
+                        col > 0 ? cell - 1 : -1,
+                        col < gridSize - 1 ? cell + 1 : -1};
+                for (int next : neighbours) {
+                    if (next >= 0 && !visited[next] && grid[next] == symbol) {
+                        visited[next] = true;
+                        queue.add(next);
+                    }
+                }
+            }
+            if (size >= CLUSTER_SIZE) {
+                clusters++;
+                for (int w = 0; w < words; w++) {
+                    out[symbol * words + w] |= component[w];
+                }
+            }
+        }
+        return clusters;
+    }
+}
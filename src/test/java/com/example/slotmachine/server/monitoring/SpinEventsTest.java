@@ -0,0 +1,84 @@
+package com.example.slotmachine.server.monitoring;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.service.RngService;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tesztek a JFR spin eseményekhez: a motor esemény mezői és a szállított JFC profil
+ */
+@DisplayName("Spin JFR Events Tests")
+public class SpinEventsTest {
+
+    @Test
+    @DisplayName("Should record the engine event with cascade, cluster and payout fields")
+    public void testSpinEngineEvent() throws Exception {
+        SlotMachineEngine engine = new SlotMachineEngine(new RngService(RngService.DEFAULT_ALGORITHM, 5L),
+                CompiledMathModel.loadDefault());
+        Map<Long, SlotMachineEngine.SpinResult> spins = new HashMap<>();
+        Path file = Files.createTempFile("spins", ".jfr");
+        try (Recording recording = new Recording()) {
+            // Küszöb nélkül minden spin rögzül
+            recording.enable(SpinEngineEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            for (long seed = 0; seed < 50; seed++) {
+                spins.put(seed, engine.processSpin(2, false, seed));
+            }
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertEquals(spins.size(), events.size());
+            for (RecordedEvent event : events) {
+                SlotMachineEngine.SpinResult spin = spins.get(event.getLong("seed"));
+                int clusters = spin.getCascadeSteps().stream().mapToInt(step -> step.getMatchedClusters().size()).sum();
+
+                assertEquals("slotmachine.SpinEngine", event.getEventType().getName());
+                assertEquals(spin.getCascadeSteps().size(), event.getInt("cascades"));
+                assertTrue(event.getInt("clusters") >= clusters);
+                assertEquals(spin.getTotalPayout(), event.getLong("payout"));
+                assertEquals(2, event.getInt("betAmount"));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Should ship a JFC profile with thresholds for all spin events")
+    public void testJfcProfile() throws Exception {
+        Configuration configuration;
+        try (InputStream in = getClass().getResourceAsStream("/jfr/slotmachine.jfc")) {
+            assertNotNull(in, "jfr/slotmachine.jfc missing");
+            Path file = Files.createTempFile("slotmachine", ".jfc");
+            try {
+                Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+                configuration = Configuration.create(file);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        Map<String, String> settings = configuration.getSettings();
+        for (String event : List.of("slotmachine.SpinEngine", "slotmachine.WalletUpdate", "slotmachine.SpinSerialize")) {
+            assertEquals("true", settings.get(event + "#enabled"), event);
+            assertNotNull(settings.get(event + "#threshold"), event);
+        }
+    }
+}
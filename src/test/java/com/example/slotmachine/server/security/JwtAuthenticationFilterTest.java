@@ -0,0 +1,90 @@
+package com.example.slotmachine.server.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+
+/**
+ * Tesztek a JWT szűrőhöz: egyszeri ellenőrzés, típusos principal a SecurityContext-ben
+ */
+@DisplayName("JwtAuthenticationFilter Tests")
+public class JwtAuthenticationFilterTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtUtil);
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should parse user id, username and expiry from a token")
+    public void testParse() {
+        JwtPrincipal principal = jwtUtil.parse(jwtUtil.generateTokenWithUserId(42L, "alice"));
+
+        assertNotNull(principal);
+        assertEquals(42L, principal.getUserId());
+        assertEquals("alice", principal.getUsername());
+        assertTrue(principal.getExpiresAt().isAfter(Instant.now()));
+
+        // Régi token felhasználó azonosító nélkül
+        JwtPrincipal legacy = jwtUtil.parse(jwtUtil.generateToken("bob"));
+        assertNull(legacy.getUserId());
+        assertEquals("bob", legacy.getUsername());
+    }
+
+    @Test
+    @DisplayName("Should reject tampered, foreign and malformed tokens")
+    public void testParseInvalid() {
+        String token = jwtUtil.generateTokenWithUserId(1L, "alice");
+
+        assertNull(jwtUtil.parse(token.substring(0, token.length() - 2) + "xx"));
+        assertNull(jwtUtil.parse(new JwtUtil().generateTokenWithUserId(1L, "alice")));
+        assertNull(jwtUtil.parse("not-a-token"));
+        assertNull(jwtUtil.parse(""));
+    }
+
+    @Test
+    @DisplayName("Should put the principal into the security context for a valid bearer token")
+    public void testFilterAuthenticates() throws Exception {
+        String token = jwtUtil.generateTokenWithUserId(7L, "carol");
+        Authentication[] seen = new Authentication[1];
+
+        filter.doFilterInternal(request("Bearer " + token), null,
+                (req, res) -> seen[0] = SecurityContextHolder.getContext().getAuthentication());
+
+        assertNotNull(seen[0]);
+        assertTrue(seen[0].isAuthenticated());
+        JwtPrincipal principal = assertInstanceOf(JwtPrincipal.class, seen[0].getPrincipal());
+        assertEquals(7L, principal.getUserId());
+        assertEquals("carol", principal.getUsername());
+    }
+
+    @Test
+    @DisplayName("Should pass requests without a valid token through unauthenticated")
+    public void testFilterPassesThrough() throws Exception {
+        for (String header : new String[] {null, "Basic abc", "Bearer invalid"}) {
+            boolean[] called = new boolean[1];
+            filter.doFilterInternal(request(header), null, (req, res) -> {
+                called[0] = true;
+                assertNull(SecurityContextHolder.getContext().getAuthentication());
+            });
+            assertTrue(called[0], String.valueOf(header));
+        }
+    }
+
+    private static HttpServletRequest request(String authorization) {
+        return (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(),
+                new Class<?>[] {HttpServletRequest.class},
+                (proxy, method, args) -> "getHeader".equals(method.getName()) && "Authorization".equals(args[0])
+                        ? authorization : null);
+    }
+}
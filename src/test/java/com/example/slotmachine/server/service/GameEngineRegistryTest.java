@@ -0,0 +1,98 @@
+package com.example.slotmachine.server.service;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.MathModelDefinition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+/**
+ * Tesztek a több játékos regisztrációhoz: játék azonosító szerinti motorok a közös SlotMachineEngine-en
+ */
+@DisplayName("GameEngineRegistry Tests")
+public class GameEngineRegistryTest {
+
+    private final CompiledMathModel defaultModel = CompiledMathModel.loadDefault();
+    private SlotMachineEngine slotMachineEngine;
+    private GameEngineRegistry registry;
+    private CompiledMathModel bigModel;
+
+    @BeforeEach
+    public void setUp() {
+        slotMachineEngine = new SlotMachineEngine(new RngService(RngService.DEFAULT_ALGORITHM, 3L), defaultModel);
+        registry = new GameEngineRegistry(slotMachineEngine);
+
+        MathModelDefinition big = defaultModel.toDefinition();
+        big.setName("big-grid");
+        big.setGridSize(9);
+        bigModel = CompiledMathModel.compile(big);
+    }
+
+    @Test
+    @DisplayName("Should return the default game without a game id")
+    public void testDefaultGame() {
+        assertSame(slotMachineEngine, registry.get(null));
+        assertSame(slotMachineEngine, registry.get(""));
+        assertSame(slotMachineEngine, registry.get(SlotMachineEngine.DEFAULT_GAME_ID));
+        assertTrue(registry.isDefault(registry.get(null)));
+    }
+
+    @Test
+    @DisplayName("Should run registered games on their own model with the shared engine")
+    public void testRegisteredGame() {
+        GameEngine game = registry.register("big", bigModel);
+
+        assertSame(game, registry.get("big"));
+        assertFalse(registry.isDefault(game));
+        assertEquals(2, registry.getEngines().size());
+
+        SlotMachineEngine.SpinResult spin = game.processSpin(game.getMathModel(), 1, false);
+        assertSame(bigModel, spin.getModel());
+        assertEquals(9, spin.getInitialGrid().getSize());
+        // A közös motor modellje nem változik
+        assertSame(defaultModel, slotMachineEngine.getMathModel());
+    }
+
+    @Test
+    @DisplayName("Should give the same spins when games are interleaved on one thread")
+    public void testInterleavedGames() {
+        GameEngine game = registry.register("big", bigModel);
+        SlotMachineEngine reference = new SlotMachineEngine(new RngService(RngService.DEFAULT_ALGORITHM, 3L), bigModel);
+
+        for (long seed = 0; seed < 200; seed++) {
+            SlotMachineEngine.SpinResult defaultSpin = slotMachineEngine.processSpin(1, false, seed);
+            SlotMachineEngine.SpinResult bigSpin = slotMachineEngine.processSpin(game.getMathModel(), 1, false);
+            SlotMachineEngine.SpinResult expected = reference.processSpin(1, false, bigSpin.getSeed());
+
+            assertEquals(7, defaultSpin.getInitialGrid().getSize());
+            assertEquals(expected.getFinalGrid(), bigSpin.getFinalGrid(), "seed " + bigSpin.getSeed());
+            assertEquals(expected.getTotalPayout(), bigSpin.getTotalPayout(), "seed " + bigSpin.getSeed());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject unknown, duplicate and invalid game ids")
+    public void testInvalidGameIds() {
+        registry.register("big", bigModel);
+
+        assertThrows(IllegalArgumentException.class, () -> registry.get("missing"));
+        assertThrows(IllegalArgumentException.class, () -> registry.register("big", bigModel));
+        assertThrows(IllegalArgumentException.class, () -> registry.register(SlotMachineEngine.DEFAULT_GAME_ID, bigModel));
+        assertThrows(IllegalArgumentException.class, () -> registry.register("no spaces", bigModel));
+    }
+
+    @Test
+    @DisplayName("Should parse the configured game list")
+    public void testParseGames() {
+        Map<String, String> games = GameEngineRegistry.parseGames("high=./config/high.json, big = ./config/big.json");
+
+        assertEquals(Map.of("high", "./config/high.json", "big", "./config/big.json"), games);
+        assertEquals("high", games.keySet().iterator().next());
+        assertTrue(GameEngineRegistry.parseGames("").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> GameEngineRegistry.parseGames("high"));
+        assertThrows(IllegalArgumentException.class, () -> GameEngineRegistry.parseGames("high="));
+    }
+}
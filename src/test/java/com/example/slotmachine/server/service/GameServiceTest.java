@@ -0,0 +1,80 @@
+package com.example.slotmachine.server.service;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.MathModelDefinition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tesztek a bonus kör free spin sorozatához: retrigger elszámolás és a körönkénti felső határ
+ */
+@DisplayName("GameService Bonus Round Tests")
+public class GameServiceTest {
+
+    private final CompiledMathModel model = CompiledMathModel.loadDefault();
+
+    @Test
+    @DisplayName("Should add retrigger spins for every retrigger")
+    public void testRetriggerAccounting() {
+        // A 2. és a 9. spin retriggerel: 10 + 2 * 5 free spin
+        GameService.BonusRoundResult round = play(model, spin -> spin == 2 || spin == 9);
+
+        assertEquals(model.getFreeSpins() + 2 * model.getRetriggerSpins(), round.getSpins().size());
+        assertEquals(2, round.getRetriggers());
+        assertEquals(round.getSpins().size() * 10L, round.getTotalPayout());
+    }
+
+    @Test
+    @DisplayName("Should play only the initial free spins without retriggers")
+    public void testNoRetrigger() {
+        GameService.BonusRoundResult round = play(model, spin -> false);
+
+        assertEquals(model.getFreeSpins(), round.getSpins().size());
+        assertEquals(0, round.getRetriggers());
+    }
+
+    @Test
+    @DisplayName("Should stop at the free spin cap when every spin retriggers")
+    public void testFreeSpinCap() {
+        GameService.BonusRoundResult round = play(model, spin -> true);
+
+        assertEquals(MathModelDefinition.MAX_FREE_SPINS_PER_ROUND, round.getSpins().size());
+        assertEquals(MathModelDefinition.MAX_FREE_SPINS_PER_ROUND, round.getRetriggers());
+    }
+
+    @Test
+    @DisplayName("Should cut the last retrigger award at the cap")
+    public void testPartialRetriggerAward() {
+        MathModelDefinition definition = model.toDefinition();
+        definition.setFreeSpins(MathModelDefinition.MAX_FREE_SPINS_PER_ROUND - 3);
+        CompiledMathModel capped = CompiledMathModel.compile(definition);
+
+        GameService.BonusRoundResult round = play(capped, spin -> spin == 1);
+
+        assertEquals(MathModelDefinition.MAX_FREE_SPINS_PER_ROUND, round.getSpins().size());
+        assertEquals(3, capped.retriggerAward(MathModelDefinition.MAX_FREE_SPINS_PER_ROUND - 3));
+        assertEquals(0, capped.retriggerAward(MathModelDefinition.MAX_FREE_SPINS_PER_ROUND));
+    }
+
+    /**
+     * Kör lejátszása előre megadott retrigger mintával; a spinek 1-től számozva, spinenként 10 minor nyeremény
+     */
+    private static GameService.BonusRoundResult play(CompiledMathModel model, IntPredicate retriggers) {
+        GameService.BonusRoundResult round = new GameService.BonusRoundResult(1, model.getFreeSpins(), model.getRetriggerSpins());
+        int[] count = {0};
+        Supplier<SlotMachineEngine.SpinResult> spins = () -> {
+            SlotMachineEngine.SpinResult result = new SlotMachineEngine.SpinResult();
+            result.setTotalPayout(10);
+            result.setRetrigger(retriggers.test(++count[0]));
+            return result;
+        };
+        GameService.playFreeSpins(model, round, spins);
+        assertEquals(count[0], round.getSpins().size());
+        return round;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.slotmachine.server.service;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.MathModelDefinition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tesztek a math model cseréhez: a kliensek rács elrendezése nem változhat futás közben
+ */
+@DisplayName("MathModelService Tests")
+public class MathModelServiceTest {
+
+    private final CompiledMathModel running = CompiledMathModel.loadDefault();
+
+    @Test
+    @DisplayName("Should accept a model with the same layout")
+    public void testSameLayout() {
+        MathModelDefinition definition = running.toDefinition();
+        definition.setFreeSpins(12);
+        definition.getSymbolWeights()[0]++;
+
+        assertDoesNotThrow(() -> MathModelService.requireSameLayout(running, CompiledMathModel.compile(definition)));
+    }
+
+    @Test
+    @DisplayName("Should reject a model that changes the grid layout")
+    public void testChangedLayout() {
+        MathModelDefinition smallerGrid = running.toDefinition();
+        smallerGrid.setGridSize(6);
+        assertThrows(IllegalArgumentException.class,
+                () -> MathModelService.requireSameLayout(running, CompiledMathModel.compile(smallerGrid)));
+
+        MathModelDefinition otherScatter = running.toDefinition();
+        otherScatter.setScatterSymbol(7);
+        assertThrows(IllegalArgumentException.class,
+                () -> MathModelService.requireSameLayout(running, CompiledMathModel.compile(otherScatter)));
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.slotmachine.server.service;
+
+import com.example.slotmachine.client.ApiClient;
+import com.example.slotmachine.server.dto.SpinResponse;
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tesztek a provably fair seed-ekhez: hash lánc, láncváltás, seed levezetés és a kliens oldali ellenőrzés
+ */
+@DisplayName("ProvablyFairService Tests")
+public class ProvablyFairServiceTest {
+
+    private final ProvablyFairService service = new ProvablyFairService(4, 2);
+
+    @AfterEach
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should reveal server seeds that hash to the previous commitment")
+    public void testHashChain() {
+        String commitment = service.commitment(1L).getServerSeedHash();
+        assertEquals(1, service.commitment(1L).getNonce());
+
+        for (int nonce = 1; nonce <= 3; nonce++) {
+            ProvablyFairService.FairSeed seed = service.next(1L, "player-seed");
+            assertEquals(nonce, seed.getNonce());
+            assertEquals(commitment, seed.getServerSeedHash());
+            assertEquals(commitment, ProvablyFairService.hashServerSeed(seed.getServerSeed()));
+            // Egy láncon belül a következő vállalás épp a most felfedett seed
+            assertEquals(seed.getServerSeed(), seed.getNextServerSeedHash());
+            commitment = seed.getNextServerSeedHash();
+        }
+        assertEquals(commitment, service.commitment(1L).getServerSeedHash());
+    }
+
+    @Test
+    @DisplayName("Should switch to a fresh chain and announce its commitment with the last seed")
+    public void testChainRotation() {
+        ProvablyFairService.FairSeed last = null;
+        for (int i = 0; i < 4; i++) {
+            last = service.next(2L, "abc");
+        }
+        assertEquals(4, last.getNonce());
+        assertNotEquals(last.getServerSeed(), last.getNextServerSeedHash());
+
+        ProvablyFairService.FairSeed first = service.next(2L, "abc");
+        assertEquals(1, first.getNonce());
+        assertEquals(last.getNextServerSeedHash(), first.getServerSeedHash());
+        assertEquals(first.getServerSeedHash(), ProvablyFairService.hashServerSeed(first.getServerSeed()));
+        // Másik játékos saját láncot kap
+        assertNotEquals(first.getServerSeedHash(), service.commitment(3L).getServerSeedHash());
+    }
+
+    @Test
+    @DisplayName("Should derive the spin seed from the server seed, client seed and nonce")
+    public void testSeedDerivation() {
+        ProvablyFairService.FairSeed seed = service.next(4L, "lucky");
+        assertEquals(seed.getSeed(), ProvablyFairService.deriveSeed(seed.getServerSeed(), "lucky", seed.getNonce()));
+        assertNotEquals(seed.getSeed(), ProvablyFairService.deriveSeed(seed.getServerSeed(), "lucky2", seed.getNonce()));
+        assertNotEquals(seed.getSeed(), ProvablyFairService.deriveSeed(seed.getServerSeed(), "lucky", seed.getNonce() + 1));
+
+        // A spin a levezetett seed-del ugyanúgy visszajátszható
+        SlotMachineEngine engine = new SlotMachineEngine(new RngService(RngService.DEFAULT_ALGORITHM, 1L));
+        CompiledMathModel model = engine.getMathModel();
+        assertEquals(engine.processSpin(model, 10, false, seed.getSeed()).getFinalGrid(),
+                engine.processSpin(10, false, seed.getSeed()).getFinalGrid());
+    }
+
+    @Test
+    @DisplayName("Should verify the spin on the client independently of the server code")
+    public void testClientVerifier() {
+        String commitment = service.commitment(5L).getServerSeedHash();
+        ProvablyFairService.FairSeed seed = service.next(5L, "my seed");
+        SpinResponse.FairnessDto fairness = new SpinResponse.FairnessDto(seed.getServerSeed(), seed.getServerSeedHash(),
+                seed.getClientSeed(), seed.getNonce(), seed.getSeed(), seed.getNextServerSeedHash());
+
+        assertTrue(ApiClient.checkFairness(commitment, "my seed", fairness));
+        assertFalse(ApiClient.checkFairness(commitment, "other seed", fairness));
+        assertFalse(ApiClient.checkFairness(seed.getNextServerSeedHash(), "my seed", fairness));
+        fairness.setSeed(seed.getSeed() + 1);
+        assertFalse(ApiClient.checkFairness(commitment, "my seed", fairness));
+    }
+
+    @Test
+    @DisplayName("Should reject blank or too long client seeds")
+    public void testInvalidClientSeed() {
+        assertThrows(IllegalArgumentException.class, () -> service.next(6L, " "));
+        assertThrows(IllegalArgumentException.class, () -> service.next(6L, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.next(6L, "x".repeat(ProvablyFairService.MAX_CLIENT_SEED_LENGTH + 1)));
+        // Elutasított seed nem fogyaszt a láncból
+        assertEquals(1, service.commitment(6L).getNonce());
+    }
+
+    @Test
+    @DisplayName("Should give a rolled back seed to the next spin without a nonce gap")
+    public void testRelease() {
+        ProvablyFairService.FairSeed first = service.next(7L, "abc");
+        ProvablyFairService.FairSeed rolledBack = service.next(7L, "abc");
+        service.release(7L, rolledBack);
+
+        assertEquals(2, service.commitment(7L).getNonce());
+        assertEquals(first.getNextServerSeedHash(), service.commitment(7L).getServerSeedHash());
+        ProvablyFairService.FairSeed retried = service.next(7L, "other");
+        assertEquals(rolledBack.getNonce(), retried.getNonce());
+        assertEquals(rolledBack.getServerSeed(), retried.getServerSeed());
+    }
+
+    @Test
+    @DisplayName("Should not give back a seed once a later spin was drawn")
+    public void testReleaseAfterLaterDraw() {
+        ProvablyFairService.FairSeed rolledBack = service.next(8L, "abc");
+        ProvablyFairService.FairSeed later = service.next(8L, "abc");
+        service.release(8L, rolledBack);
+
+        // A már felfedett seed soha nem kerül újra kiosztásra
+        assertEquals(3, service.commitment(8L).getNonce());
+        assertEquals(later.getNextServerSeedHash(), service.commitment(8L).getServerSeedHash());
+    }
+
+    @Test
+    @DisplayName("Should give back the last seed of a chain and keep the announced successor")
+    public void testReleaseLastLink() {
+        ProvablyFairService.FairSeed last = null;
+        for (int i = 0; i < 4; i++) {
+            last = service.next(9L, "abc");
+        }
+        service.release(9L, last);
+
+        ProvablyFairService.FairSeed retried = service.next(9L, "abc");
+        assertEquals(4, retried.getNonce());
+        assertEquals(last.getServerSeed(), retried.getServerSeed());
+        assertEquals(last.getNextServerSeedHash(), retried.getNextServerSeedHash());
+        assertEquals(last.getNextServerSeedHash(), service.next(9L, "abc").getServerSeedHash());
+    }
+
+    @Test
+    @DisplayName("Should evict idle chains and replace exhausted ones by their successor")
+    public void testEvictIdleChains() {
+        String idle = service.commitment(10L).getServerSeedHash();
+        ProvablyFairService.FairSeed last = null;
+        for (int i = 0; i < 4; i++) {
+            last = service.next(11L, "abc");
+        }
+        long now = System.currentTimeMillis();
+
+        service.evictIdleChains(now);
+        assertEquals(2, service.getChainCount());
+        assertEquals(idle, service.commitment(10L).getServerSeedHash());
+        assertEquals(last.getNextServerSeedHash(), service.commitment(11L).getServerSeedHash());
+
+        service.evictIdleChains(now + ProvablyFairService.IDLE_CHAIN_MILLIS + 60_000);
+        assertEquals(0, service.getChainCount());
+        assertNotEquals(idle, service.commitment(10L).getServerSeedHash());
+    }
+}
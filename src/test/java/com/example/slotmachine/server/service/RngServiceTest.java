@@ -0,0 +1,87 @@
+package com.example.slotmachine.server.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Tesztek a véletlenszám réteghez: seed-enként visszajátszható, szálanként független
+ */
+@DisplayName("RngService Tests")
+public class RngServiceTest {
+
+    private static final String[] ALGORITHMS = {RngService.DEFAULT_ALGORITHM, "Xoshiro256PlusPlus", "L128X256MixRandom"};
+
+    @Test
+    @DisplayName("Should reproduce the same stream for the same seed with every algorithm")
+    public void testForSeedReproducible() {
+        for (String algorithm : ALGORITHMS) {
+            RngService first = new RngService(algorithm, null);
+            RngService second = new RngService(algorithm, null);
+
+            for (long seed : new long[]{0L, 1L, -1L, 0x5EEDL}) {
+                assertArrayEquals(draw(first.forSeed(seed)), draw(second.forSeed(seed)), algorithm + " seed " + seed);
+            }
+            assertFalse(Arrays.equals(draw(first.forSeed(1L)), draw(first.forSeed(2L))), algorithm);
+            assertEquals(algorithm, first.getAlgorithm());
+        }
+    }
+
+    @Test
+    @DisplayName("Should give each thread its own seed stream")
+    public void testNextSeedPerThread() throws InterruptedException {
+        RngService rngService = new RngService(RngService.DEFAULT_ALGORITHM, 7L);
+        long[][] streams = new long[4][];
+        Thread[] threads = new Thread[streams.length];
+        for (int i = 0; i < threads.length; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> streams[index] = nextSeeds(rngService));
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int i = 0; i < streams.length; i++) {
+            for (int j = i + 1; j < streams.length; j++) {
+                assertFalse(Arrays.equals(streams[i], streams[j]), "threads " + i + " and " + j);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should pin the seed sequence with a configured master seed")
+    public void testMasterSeedPinsSequence() {
+        long[] expected = nextSeeds(new RngService(RngService.DEFAULT_ALGORITHM, 42L));
+
+        assertArrayEquals(expected, nextSeeds(new RngService(RngService.DEFAULT_ALGORITHM, 42L)));
+        assertFalse(Arrays.equals(expected, nextSeeds(new RngService(RngService.DEFAULT_ALGORITHM, 43L))));
+        // Seed nélkül minden példány más sorozatot kap
+        assertFalse(Arrays.equals(nextSeeds(new RngService()), nextSeeds(new RngService())));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown algorithms")
+    public void testUnknownAlgorithm() {
+        assertThrows(IllegalArgumentException.class, () -> new RngService("NoSuchRandom", null));
+    }
+
+    private static long[] draw(RandomGenerator random) {
+        long[] values = new long[16];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextLong();
+        }
+        return values;
+    }
+
+    private static long[] nextSeeds(RngService rngService) {
+        long[] seeds = new long[16];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = rngService.nextSeed();
+        }
+        return seeds;
+    }
+}
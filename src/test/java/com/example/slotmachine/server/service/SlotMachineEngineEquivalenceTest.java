@@ -0,0 +1,242 @@
+package com.example.slotmachine.server.service;
+
+import com.example.slotmachine.server.differential.ReferenceSpinEngine;
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.Grid;
+import com.example.slotmachine.server.engine.MathModelDefinition;
+import com.example.slotmachine.server.engine.SpinScratch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Seed-alapú egyezés a munkaterületes motor és a befagyasztott referencia (rekurzív findCluster, copyGrid) között:
+ * rácsok, klaszterek, nyeremény lépésenként, és a feltöltés jobb szomszéd furcsasága
+ */
+@DisplayName("SlotMachineEngine Equivalence Tests")
+public class SlotMachineEngineEquivalenceTest {
+
+    private static final int SEEDS = 5_000;
+
+    private final RngService rngService = new RngService(RngService.DEFAULT_ALGORITHM, 42L);
+
+    @Nested
+    @DisplayName("Reference Implementation")
+    class ReferenceTests {
+
+        @Test
+        @DisplayName("Should match the reference engine for the same seed")
+        public void testDefaultModel() {
+            assertEquivalent(CompiledMathModel.loadDefault());
+        }
+
+        @Test
+        @DisplayName("Should match the reference engine on a smaller grid")
+        public void testSmallerGrid() {
+            MathModelDefinition smaller = CompiledMathModel.loadDefault().toDefinition();
+            smaller.setGridSize(6);
+            assertEquivalent(CompiledMathModel.compile(smaller));
+        }
+
+        @Test
+        @DisplayName("Should match the reference engine with frequent cascades")
+        public void testFrequentCascades() {
+            // Gyakori szomszéd másolás: hosszabb cascade láncok, sok klaszter javaslat a feltöltésben
+            MathModelDefinition definition = CompiledMathModel.loadDefault().toDefinition();
+            definition.setRefillClusterChance(0.9);
+            definition.setNeighbourCopyChance(0.6);
+            assertEquivalent(CompiledMathModel.compile(definition));
+        }
+    }
+
+    @Nested
+    @DisplayName("Refill Quirk")
+    class RefillQuirkTests {
+
+        @Test
+        @DisplayName("Should read the right neighbour from the column before compaction")
+        public void testRightNeighbourBeforeCompaction() {
+            // A motor a tömörítés előtti jobb oszlopot olvassa: a tömörített oszlopot olvasó változattól el kell térnie
+            CompiledMathModel model = CompiledMathModel.loadDefault();
+            SlotMachineEngine engine = new SlotMachineEngine(rngService, model);
+            ReferenceSpinEngine compacted = new ReferenceSpinEngine(model, true);
+
+            int differing = 0;
+            for (long seed = 0; seed < SEEDS; seed++) {
+                SlotMachineEngine.SpinResult actual = engine.processSpin(10, false, seed);
+                ReferenceSpinEngine.Spin variant = compacted.processSpin(10, false, rngService.forSeed(seed));
+                if (!actual.getFinalGrid().equals(Grid.fromRows(variant.getFinalGrid()))) {
+                    differing++;
+                }
+            }
+            assertTrue(differing > 0, "the refill quirk was never exercised");
+        }
+    }
+
+    @Nested
+    @DisplayName("Incremental Cascades")
+    class IncrementalTests {
+
+        @Test
+        @DisplayName("Should match the full scan step by step")
+        public void testIncrementalMatchesFullScan() {
+            MathModelDefinition definition = CompiledMathModel.loadDefault().toDefinition();
+            definition.setRefillClusterChance(0.9);
+            definition.setNeighbourCopyChance(0.6);
+            CompiledMathModel model = CompiledMathModel.compile(definition);
+            SlotMachineEngine full = new SlotMachineEngine(rngService, model);
+            full.setIncrementalCascades(false);
+            SlotMachineEngine incremental = new SlotMachineEngine(rngService, model);
+            SpinScratch fullSpin = model.newScratch();
+            SpinScratch incrementalSpin = model.newScratch();
+
+            int cascades = 0;
+            for (long seed = 0; seed < SEEDS * 4; seed++) {
+                long expected = full.runSpin(fullSpin, 10, rngService.forSeed(seed));
+                long actual = incremental.runSpin(incrementalSpin, 10, rngService.forSeed(seed));
+                String message = "seed " + seed;
+
+                assertEquals(expected, actual, message);
+                assertEquals(fullSpin.getStepCount(), incrementalSpin.getStepCount(), message);
+                for (int step = 0; step < fullSpin.getStepCount(); step++) {
+                    assertEquals(fullSpin.getStepClusterCount(step), incrementalSpin.getStepClusterCount(step), message);
+                    assertEquals(fullSpin.getStepPayout(step), incrementalSpin.getStepPayout(step), message);
+                }
+                int matchedLength = fullSpin.stepMatchedOffset(fullSpin.getStepCount());
+                assertArrayEquals(Arrays.copyOf(fullSpin.getStepMatched(), matchedLength),
+                        Arrays.copyOf(incrementalSpin.getStepMatched(), matchedLength), message);
+                int gridLength = fullSpin.stepGridOffset(fullSpin.getStepCount());
+                assertArrayEquals(Arrays.copyOf(fullSpin.getStepGrids(), gridLength),
+                        Arrays.copyOf(incrementalSpin.getStepGrids(), gridLength), message);
+                cascades += Math.max(0, fullSpin.getStepCount() - 1);
+            }
+            assertTrue(cascades > SEEDS, "too few follow-up cascade steps: " + cascades);
+        }
+    }
+
+    @Nested
+    @DisplayName("Union-Find Cascades")
+    class UnionFindTests {
+
+        @Test
+        @DisplayName("Should match the bitboard path step by step")
+        public void testUnionFindMatchesBitboard() {
+            MathModelDefinition definition = CompiledMathModel.loadDefault().toDefinition();
+            definition.setRefillClusterChance(0.9);
+            definition.setNeighbourCopyChance(0.6);
+            CompiledMathModel model = CompiledMathModel.compile(definition);
+            SlotMachineEngine bitboard = new SlotMachineEngine(rngService, model);
+            SlotMachineEngine unionFind = new SlotMachineEngine(rngService, model);
+            unionFind.setUnionFindCascades(true);
+            SpinScratch bitboardSpin = model.newScratch();
+            SpinScratch unionFindSpin = model.newScratch();
+
+            for (long seed = 0; seed < SEEDS; seed++) {
+                long expected = bitboard.runSpin(bitboardSpin, 10, rngService.forSeed(seed));
+                long actual = unionFind.runSpin(unionFindSpin, 10, rngService.forSeed(seed));
+                String message = "seed " + seed;
+
+                assertEquals(expected, actual, message);
+                assertEquals(bitboardSpin.getStepCount(), unionFindSpin.getStepCount(), message);
+                for (int step = 0; step < bitboardSpin.getStepCount(); step++) {
+                    assertEquals(bitboardSpin.getStepClusterCount(step), unionFindSpin.getStepClusterCount(step), message);
+                }
+                int matchedLength = bitboardSpin.stepMatchedOffset(bitboardSpin.getStepCount());
+                assertArrayEquals(Arrays.copyOf(bitboardSpin.getStepMatched(), matchedLength),
+                        Arrays.copyOf(unionFindSpin.getStepMatched(), matchedLength), message);
+                int gridLength = bitboardSpin.stepGridOffset(bitboardSpin.getStepCount());
+                assertArrayEquals(Arrays.copyOf(bitboardSpin.getStepGrids(), gridLength),
+                        Arrays.copyOf(unionFindSpin.getStepGrids(), gridLength), message);
+            }
+        }
+
+        @Test
+        @DisplayName("Should match the reference engine on grids larger than 64 cells")
+        public void testLargeGrid() {
+            // 9x9 = 81 cella: szimbólumonként két szavas nyerő maszkok
+            MathModelDefinition larger = CompiledMathModel.loadDefault().toDefinition();
+            larger.setGridSize(9);
+            assertEquivalent(CompiledMathModel.compile(larger));
+        }
+
+        @Test
+        @DisplayName("Should run reproducible spins on 32x32 and 64x64 grids")
+        public void testMegaGrid() {
+            for (int gridSize : new int[]{32, MathModelDefinition.MAX_GRID_SIZE}) {
+                MathModelDefinition mega = CompiledMathModel.loadDefault().toDefinition();
+                mega.setGridSize(gridSize);
+                CompiledMathModel model = CompiledMathModel.compile(mega);
+                SlotMachineEngine engine = new SlotMachineEngine(rngService, model);
+
+                int cascades = 0;
+                for (long seed = 0; seed < 50; seed++) {
+                    SlotMachineEngine.SpinResult result = engine.processSpin(1, false, seed);
+                    assertEquals(result.getFinalGrid(), engine.processSpin(1, false, seed).getFinalGrid());
+                    assertEquals(0, result.getFinalGrid().count(Grid.EMPTY));
+
+                    long payout = 0;
+                    for (SlotMachineEngine.CascadeStep step : result.getCascadeSteps()) {
+                        int matched = step.getMatchedClusters().values().stream().mapToInt(List::size).sum();
+                        assertEquals(matched, step.getGridAfterClear().count(Grid.EMPTY));
+                        payout += step.getPayout();
+                    }
+                    assertEquals(payout, result.getTotalPayout());
+                    cascades += result.getCascadeSteps().size();
+                }
+                assertTrue(cascades > 50, "too few cascades on " + gridSize + "x" + gridSize + ": " + cascades);
+            }
+        }
+    }
+
+    private void assertEquivalent(CompiledMathModel model) {
+        SlotMachineEngine engine = new SlotMachineEngine(rngService, model);
+        ReferenceSpinEngine reference = new ReferenceSpinEngine(model);
+
+        int cascades = 0;
+        for (long seed = 0; seed < SEEDS; seed++) {
+            boolean bonusMode = seed % 4 == 0;
+            int bet = 1 + (int) (seed % 10);
+            SlotMachineEngine.SpinResult actual = engine.processSpin(bet, bonusMode, seed);
+            ReferenceSpinEngine.Spin expected = reference.processSpin(bet, bonusMode, rngService.forSeed(seed));
+            String message = "seed " + seed;
+
+            assertEquals(Grid.fromRows(expected.getInitialGrid()), actual.getInitialGrid(), message);
+            assertEquals(expected.getSteps().size(), actual.getCascadeSteps().size(), message);
+            for (int i = 0; i < expected.getSteps().size(); i++) {
+                ReferenceSpinEngine.Step expectedStep = expected.getSteps().get(i);
+                SlotMachineEngine.CascadeStep actualStep = actual.getCascadeSteps().get(i);
+                String stepMessage = message + " step " + i;
+
+                assertEquals(cells(expectedStep.getMatchedClusters()), cells(actualStep.getMatchedClusters()), stepMessage);
+                assertEquals(expectedStep.getPayout(), actualStep.getPayout(), stepMessage);
+                assertEquals(Grid.fromRows(expectedStep.getGridAfterClear()), actualStep.getGridAfterClear(), stepMessage);
+                assertEquals(Grid.fromRows(expectedStep.getGridAfterRefill()), actualStep.getGridAfterRefill(), stepMessage);
+            }
+            assertEquals(Grid.fromRows(expected.getFinalGrid()), actual.getFinalGrid(), message);
+            assertEquals(expected.getTotalPayout(), actual.getTotalPayout(), message);
+            assertEquals(expected.isBonusTrigger(), actual.isBonusTrigger(), message);
+            assertEquals(expected.isRetrigger(), actual.isRetrigger(), message);
+            cascades += expected.getSteps().size();
+        }
+        assertTrue(cascades > SEEDS / 10, "too few cascades to compare: " + cascades);
+    }
+
+    // Klaszterek szimbólumonként rendezett cella halmazként (a sorrend implementációfüggő)
+    private static Map<Integer, TreeSet<Integer>> cells(Map<Integer, List<int[]>> clusters) {
+        Map<Integer, TreeSet<Integer>> cells = new TreeMap<>();
+        clusters.forEach((symbol, positions) -> {
+            TreeSet<Integer> set = cells.computeIfAbsent(symbol, k -> new TreeSet<>());
+            for (int[] position : positions) {
+                set.add(position[0] * 64 + position[1]);
+            }
+        });
+        return cells;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.slotmachine.server.service;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.MathModelDefinition;
+import com.example.slotmachine.server.entity.SpinConfiguration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Tesztek a spin visszajátszáshoz: az archivált konfigurációból ugyanaz a spin áll elő
+ */
+@DisplayName("SpinReplayService Tests")
+public class SpinReplayServiceTest {
+
+    private final CompiledMathModel model = CompiledMathModel.loadDefault();
+
+    @Test
+    @DisplayName("Should fingerprint the configuration stably")
+    public void testFingerprint() {
+        String json = model.toJson();
+        long id = SpinReplayService.fingerprint(SlotMachineEngine.ENGINE_VERSION, RngService.DEFAULT_ALGORITHM, json);
+
+        assertEquals(id, SpinReplayService.fingerprint(SlotMachineEngine.ENGINE_VERSION, RngService.DEFAULT_ALGORITHM,
+                CompiledMathModel.loadDefault().toJson()));
+        assertNotEquals(id, SpinReplayService.fingerprint(SlotMachineEngine.ENGINE_VERSION + 1, RngService.DEFAULT_ALGORITHM, json));
+        assertNotEquals(id, SpinReplayService.fingerprint(SlotMachineEngine.ENGINE_VERSION, "Xoshiro256PlusPlus", json));
+
+        MathModelDefinition changed = model.toDefinition();
+        changed.setFreeSpins(12);
+        assertNotEquals(id, SpinReplayService.fingerprint(SlotMachineEngine.ENGINE_VERSION, RngService.DEFAULT_ALGORITHM,
+                CompiledMathModel.compile(changed).toJson()));
+    }
+
+    @Test
+    @DisplayName("Should replay spins identically from the archived configuration")
+    public void testReplay() {
+        SlotMachineEngine live = new SlotMachineEngine(new RngService(RngService.DEFAULT_ALGORITHM, 7L), model);
+        SpinConfiguration configuration = new SpinConfiguration(1L, SlotMachineEngine.ENGINE_VERSION,
+                RngService.DEFAULT_ALGORITHM, model.getName(), model.toJson());
+        SlotMachineEngine replay = SpinReplayService.createReplayEngine(configuration);
+
+        for (int i = 0; i < 200; i++) {
+            boolean bonusMode = i % 10 == 0;
+            SlotMachineEngine.SpinResult played = live.processSpin(10, bonusMode);
+            SlotMachineEngine.SpinResult replayed = replay.processSpin(10, bonusMode, played.getSeed());
+
+            assertEquals(played.getInitialGrid(), replayed.getInitialGrid(), "spin " + i);
+            assertEquals(played.getFinalGrid(), replayed.getFinalGrid(), "spin " + i);
+            assertEquals(played.getTotalPayout(), replayed.getTotalPayout(), "spin " + i);
+            assertEquals(played.getCascadeSteps().size(), replayed.getCascadeSteps().size(), "spin " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay bought bonus trigger spins from their seed")
+    public void testBonusTriggerSpinReplay() {
+        SlotMachineEngine live = new SlotMachineEngine(new RngService(RngService.DEFAULT_ALGORITHM, 11L), model);
+
+        for (int i = 0; i < 20; i++) {
+            SlotMachineEngine.SpinResult bought = live.processBonusTriggerSpin(5);
+            SlotMachineEngine.SpinResult replayed = live.processSpin(5, false, bought.getSeed());
+
+            assertTrue(bought.isBonusTrigger(), "spin " + i);
+            assertEquals(bought.getInitialGrid(), replayed.getInitialGrid(), "spin " + i);
+            assertEquals(bought.getFinalGrid(), replayed.getFinalGrid(), "spin " + i);
+            assertEquals(bought.getTotalPayout(), replayed.getTotalPayout(), "spin " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Should bound the bonus trigger search by the measured trigger rate")
+    public void testBonusTriggerAttemptLimit() {
+        SlotMachineEngine engine = new SlotMachineEngine(new RngService(RngService.DEFAULT_ALGORITHM, 11L), model);
+        int limit = engine.getBonusTriggerAttemptLimit(model);
+
+        // Kb. 1/900 trigger gyakoriság mellett 1e-9 kudarc esély: néhány tízezer próbálkozás
+        assertTrue(limit > 1000 && limit < 100_000, "limit " + limit);
+        assertEquals(limit, engine.getBonusTriggerAttemptLimit(model));
+
+        MathModelDefinition rare = model.toDefinition();
+        rare.setBonusTriggerCount(model.getGridSize());
+        rare.setSymbolWeights(new int[] {1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 1});
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.getBonusTriggerAttemptLimit(CompiledMathModel.compile(rare)));
+    }
+
+    @Test
+    @DisplayName("Should not archive configurations from the spin path")
+    public void testUnarchivedModel() {
+        // A spin útvonal nem nyit tranzakciót: a nem archivált modell hiba, nem mentés
+        assertThrows(IllegalStateException.class, () -> new SpinReplayService().configurationIdFor(model));
+    }
+
+    @Test
+    @DisplayName("Should refuse to replay spins of another engine version")
+    public void testEngineVersionMismatch() {
+        SpinConfiguration configuration = new SpinConfiguration(1L, SlotMachineEngine.ENGINE_VERSION + 1,
+                RngService.DEFAULT_ALGORITHM, model.getName(), model.toJson());
+
+        assertThrows(RuntimeException.class, () -> SpinReplayService.createReplayEngine(configuration));
+    }
+}
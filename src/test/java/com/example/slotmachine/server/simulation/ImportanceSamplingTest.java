@@ -0,0 +1,113 @@
+package com.example.slotmachine.server.simulation;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.service.RngService;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Tesztek az importance sampling módhoz: pontos likelihood ratio, torzítatlan becslés, determinisztikus futás
+ */
+@DisplayName("Importance Sampling Tests")
+public class ImportanceSamplingTest {
+
+    private final CompiledMathModel model = CompiledMathModel.loadDefault();
+    private final MonteCarloSimulator simulator = new MonteCarloSimulator(new SlotMachineEngine());
+
+    @Test
+    @DisplayName("Should return engine draws that decode to the tilted symbols with exact weights")
+    public void testTiltedSymbolDraws() {
+        // Erősen billentett szimbólum eloszlás: a 6-os szimbólum felé
+        double[] draws = new double[model.getSymbolCount()];
+        draws[6] = 1;
+        ImportanceTilt tilt = ImportanceTilt.nominal(model).refit(0, 0, draws);
+        RandomGenerator source = new RngService(RngService.DEFAULT_ALGORITHM, 1L).forSeed(5L);
+        TiltedRandom random = new TiltedRandom(source, tilt);
+        int bound = model.getSymbols().getBound();
+
+        int samples = 200_000;
+        double[] weighted = new double[model.getSymbolCount()];
+        int[] raw = new int[model.getSymbolCount()];
+        for (int i = 0; i < samples; i++) {
+            random.beginSpin(true);
+            int u = random.nextInt(bound);
+            assertTrue(u >= 0 && u < bound);
+            int symbol = model.getSymbols().sampleAt(u);
+            assertEquals(1, random.getSymbolCounts()[symbol]);
+            raw[symbol]++;
+            weighted[symbol] += random.getWeight(0);
+        }
+
+        assertTrue(raw[6] > samples * tilt.getSymbolProbability(6) * 0.98);
+        // A súlyozott gyakoriságok a névleges valószínűségek
+        for (int symbol = 0; symbol < model.getSymbolCount(); symbol++) {
+            assertEquals(model.getSymbols().probability(symbol), weighted[symbol] / samples, 0.005);
+        }
+    }
+
+    @Test
+    @DisplayName("Should fall back to plain sampling without a target")
+    public void testNominalWithoutTarget() {
+        ImportanceReport report = simulator.simulateImportance(20_000, 3L, 1, 1, 0, 15);
+
+        assertEquals(1.0, report.getMeanWeight(), 1e-12);
+        assertEquals(20_000, report.getEffectiveSampleSize(), 1e-6);
+        assertEquals(0, report.getEliteLevel());
+        assertTrue(report.getRtpLow() <= report.getRtp() && report.getRtp() <= report.getRtpHigh());
+    }
+
+    @Test
+    @DisplayName("Should agree with plain sampling and sample the high multipliers far more often")
+    public void testUnbiasedTail() {
+        long spins = MonteCarloSimulator.ROUNDS_PER_BLOCK * 2L;
+        ImportanceReport plain = simulator.simulateImportance(spins, 11L, 1, 1, 0, 15);
+        ImportanceReport tilted = simulator.simulateImportance(spins, 11L, 1, 1, 80, 15);
+
+        assertTrue(tilted.getEliteLevel() > 20, "fitted level " + tilted.getEliteLevel());
+        assertEquals(1.0, tilted.getMeanWeight(), 0.02);
+        assertTrue(tilted.getMeanWeight() > 0 && tilted.getEffectiveSampleSize() < spins);
+        // A becslések a két futás együttes intervallumán belül egyeznek
+        assertWithin(plain.getRtp(), plain.getRtpHigh() - plain.getRtp(), tilted.getRtp(), tilted.getRtpHigh() - tilted.getRtp());
+        assertWithin(plain.getTailRtp(), plain.getTailRtpHigh() - plain.getTailRtp(),
+                tilted.getTailRtp(), tilted.getTailRtpHigh() - tilted.getTailRtp());
+        int level80 = 3;
+        assertEquals(80, ImportanceStats.EXCEEDANCE_LIMITS[level80]);
+        assertWithin(plain.getExceedance(level80), plain.getExceedanceHigh(level80) - plain.getExceedance(level80),
+                tilted.getExceedance(level80), tilted.getExceedanceHigh(level80) - tilted.getExceedance(level80));
+        // A ritka nyeremények sokszor gyakrabban kerülnek a mintába, és szűkebb az intervallum
+        assertTrue(tilted.getExceedanceHits(level80) > 5 * plain.getExceedanceHits(level80),
+                tilted.getExceedanceHits(level80) + " vs " + plain.getExceedanceHits(level80));
+        assertTrue(tilted.getExceedanceEquivalentSpins(level80) > spins,
+                tilted.toText());
+    }
+
+    @Test
+    @DisplayName("Should give the same estimates for the same seed regardless of thread count")
+    public void testDeterministicAcrossThreads() {
+        long spins = MonteCarloSimulator.ROUNDS_PER_BLOCK * 2L + 99;
+        ImportanceReport single = simulator.simulateImportance(spins, 4L, 1, 1, 80, 15);
+        ImportanceReport parallel = simulator.simulateImportance(spins, 4L, 3, 1, 80, 15);
+
+        assertEquals(spins, single.getSpins());
+        assertEquals(single.getCopyChance(), parallel.getCopyChance());
+        assertEquals(single.getRtp(), parallel.getRtp());
+        assertEquals(single.getTailRtp(), parallel.getTailRtp());
+        assertEquals(single.getExceedance(3), parallel.getExceedance(3));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid arguments")
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> simulator.simulateImportance(0, 1L, 1, 1, 80, 15));
+        assertThrows(IllegalArgumentException.class, () -> simulator.simulateImportance(100, 1L, 1, 1, -1, 15));
+    }
+
+    private static void assertWithin(double expected, double expectedHalfWidth, double actual, double actualHalfWidth) {
+        double tolerance = Math.hypot(expectedHalfWidth, actualHalfWidth);
+        assertEquals(expected, actual, tolerance);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.slotmachine.server.simulation;
+
+import com.example.slotmachine.server.service.SlotMachineEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tesztek a MonteCarloSimulator osztályhoz
+ */
+@DisplayName("MonteCarloSimulator Tests")
+public class MonteCarloSimulatorTest {
+
+    private MonteCarloSimulator simulator;
+
+    @BeforeEach
+    public void setUp() {
+        simulator = new MonteCarloSimulator(new SlotMachineEngine());
+    }
+
+    @Test
+    @DisplayName("Should give the same report for the same seed regardless of thread count")
+    public void testDeterministicAcrossThreads() {
+        long rounds = MonteCarloSimulator.ROUNDS_PER_BLOCK * 2L + 1234;
+        SimulationReport single = simulator.simulate(rounds, 42L, 1, 1);
+        SimulationReport parallel = simulator.simulate(rounds, 42L, 4, 1);
+
+        assertEquals(rounds, single.getRounds());
+        assertEquals(single.getRtp(), parallel.getRtp());
+        assertEquals(single.getHitFrequency(), parallel.getHitFrequency());
+        assertEquals(single.getRetriggers(), parallel.getRetriggers());
+        assertArrayEquals(single.getWinDistribution(), parallel.getWinDistribution());
+    }
+
+    @Test
+    @DisplayName("Should report consistent statistics")
+    public void testReportConsistency() {
+        SimulationReport report = simulator.simulate(20000, 7L, 1, 10);
+
+        assertEquals(report.getRtp(), report.getBaseRtp() + report.getBonusRtp(), 1e-9);
+        assertTrue(report.getRtpLow() <= report.getRtp() && report.getRtp() <= report.getRtpHigh());
+        assertTrue(report.getHitFrequency() > 0 && report.getHitFrequency() <= 1);
+
+        double cascadeTotal = 0;
+        for (double p : report.getCascadeDepthDistribution()) {
+            cascadeTotal += p;
+        }
+        double winTotal = 0;
+        for (double p : report.getWinDistribution()) {
+            winTotal += p;
+        }
+        assertEquals(1.0, cascadeTotal, 1e-9);
+        assertEquals(1.0, winTotal, 1e-9);
+        // Nyerés nélküli körök aránya = 1 - találati arány (bonus nélküli körökben)
+        assertTrue(report.getWinDistribution()[0] <= 1 - report.getHitFrequency() + 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should merge worker statistics")
+    public void testMerge() {
+        SimulationStats a = new SimulationStats();
+        a.recordBaseSpin(0, 0);
+        a.recordRound(0);
+        SimulationStats b = new SimulationStats();
+        b.recordBaseSpin(3, 2);
+        b.recordBonusSession(20, 15, 1);
+        b.recordRound(23);
+
+        a.merge(b);
+        assertEquals(2, a.getRounds());
+        assertEquals(1, a.getHits());
+        assertEquals(23, a.getTotalWin(), 1e-12);
+        assertEquals(1, a.getBonusTriggers());
+        assertEquals(23, a.getMaxRoundWin(), 1e-12);
+        assertEquals(1, a.getCascadeDepths()[0]);
+        assertEquals(1, a.getCascadeDepths()[2]);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid arguments")
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> simulator.simulate(0, 1L, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> simulator.simulate(10, 1L, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> simulator.simulate(10, 1L, 1, 0));
+    }
+
+    @Test
+    @DisplayName("Should run admin simulations one at a time within limits")
+    public void testSimulationJobs() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        MonteCarloSimulator blocking = new MonteCarloSimulator(new SlotMachineEngine()) {
+            @Override
+            public SimulationReport simulate(long rounds, long seed, int threads, int bet) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.simulate(rounds, seed, threads, bet);
+            }
+        };
+        SimulationJobService jobs = new SimulationJobService(blocking);
+        try {
+            assertThrows(IllegalArgumentException.class, () -> jobs.submit(SimulationJobService.MAX_ROUNDS + 1, 1L, 1));
+            assertThrows(IllegalArgumentException.class, () -> jobs.submit(10, 1L, SimulationJobService.maxThreads() + 1));
+
+            SimulationJobService.SimulationJob job = jobs.submit(1000, 1L, 1);
+            assertEquals(SimulationJobService.SimulationJob.Status.RUNNING, job.getStatus());
+            assertThrows(IllegalStateException.class, () -> jobs.submit(1000, 2L, 1));
+
+            release.countDown();
+            for (int i = 0; i < 500 && job.getStatus() == SimulationJobService.SimulationJob.Status.RUNNING; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(SimulationJobService.SimulationJob.Status.COMPLETED, jobs.getJob(job.getId()).getStatus());
+            assertEquals(1000, job.getReport().getRounds());
+
+            // A befejezés után új futás indítható
+            SimulationJobService.SimulationJob next = jobs.submit(1000, 2L, 1);
+            assertNotEquals(job.getId(), next.getId());
+        } finally {
+            jobs.shutdown();
+        }
+    }
+}
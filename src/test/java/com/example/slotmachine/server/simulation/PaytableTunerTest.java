@@ -0,0 +1,86 @@
+package com.example.slotmachine.server.simulation;
+
+import com.example.slotmachine.server.engine.CompiledMathModel;
+import com.example.slotmachine.server.engine.MathModelDefinition;
+import com.example.slotmachine.server.service.RngService;
+import com.example.slotmachine.server.service.SlotMachineEngine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+/**
+ * Tesztek a PaytableTuner osztályhoz: monoton tábla, pontos visszajátszás a rögzített mintán, konvergencia
+ */
+@DisplayName("PaytableTuner Tests")
+public class PaytableTunerTest {
+
+    private final RngService rngService = new RngService(RngService.DEFAULT_ALGORITHM, 9L);
+    private final CompiledMathModel model = CompiledMathModel.loadDefault();
+
+    @Test
+    @DisplayName("Should lift only the two inverted cells of the default payout table")
+    public void testDefaultModelProjection() {
+        MathModelDefinition definition = model.toDefinition();
+        long[][] rows = definition.getPayoutMultipliers();
+        long[][] projected = PaytableTuner.monotonePayouts(rows, definition.getScatterSymbol());
+
+        // A 4-es szimbólum oszlopa a 9-es és a 14-es klaszternél kevesebbet fizet a szomszédjainál
+        assertEquals(120, projected[4][4]);
+        assertEquals(1800, projected[9][4]);
+        projected[4][4] = rows[4][4];
+        projected[9][4] = rows[9][4];
+        assertArrayEquals(rows, projected);
+    }
+
+    @Test
+    @DisplayName("Should lift payouts that break the cluster size or symbol order")
+    public void testMonotoneProjection() {
+        long[][] rows = {
+                {20, 25, 30, 35, 40, 5},
+                {50, 75, 100, 120, 25, 1},
+                {40, 75, 100, 120, 150, 9}};
+
+        long[][] projected = PaytableTuner.monotonePayouts(rows, 5);
+
+        assertArrayEquals(new long[]{50, 75, 100, 120, 120, 5}, projected[1]);
+        assertArrayEquals(new long[]{50, 75, 100, 120, 150, 9}, projected[2]);
+        assertTrue(PaytableTuner.isMonotone(projected, 5));
+        assertFalse(PaytableTuner.isMonotone(rows, 5));
+    }
+
+    @Test
+    @DisplayName("Should replay the recorded rounds to exactly the engine payout")
+    public void testReplayMatchesEngine() {
+        SlotMachineEngine engine = new SlotMachineEngine(rngService, model);
+        CrnSample sample = CrnSample.record(engine, model, rngService.forSeed(3L), 5000);
+
+        CrnSample.Metrics metrics = sample.evaluate(PaytableTuner.flatPayouts(model, model.toDefinition().getPayoutMultipliers()));
+
+        assertEquals(5000, sample.getRounds());
+        assertEquals(sample.getEnginePayout(), Math.round(metrics.rtp() * sample.getRounds() * 100));
+    }
+
+    @Test
+    @DisplayName("Should converge to the target RTP with the same model on any thread count")
+    public void testTune() throws Exception {
+        PaytableTuner tuner = new PaytableTuner(rngService);
+        int rounds = PaytableTuner.ROUNDS_PER_BLOCK * 2;
+        TuningTarget target = new TuningTarget(1.2, 0.75, 0);
+        target.setHitFrequencyTolerance(0.02);
+
+        TuningResult single = tuner.tune(model, target, rounds, 5L, 1);
+        TuningResult parallel = tuner.tune(model, target, rounds, 5L, 2);
+
+        assertTrue(single.isTargetMet(), single.toText());
+        assertEquals(1.2, single.getRtp(), target.getRtpTolerance());
+        MathModelDefinition tuned = single.getModel().toDefinition();
+        assertTrue(PaytableTuner.isMonotone(tuned.getPayoutMultipliers(), tuned.getScatterSymbol()));
+        assertEquals(single.getModel().toJson(), parallel.getModel().toJson());
+        // A kiírt modell a motor által betölthető
+        CompiledMathModel loaded = CompiledMathModel.fromJson(single.getModel().toJson());
+        assertArrayEquals(tuned.getSymbolWeights(), loaded.toDefinition().getSymbolWeights());
+        assertTrue(Arrays.deepEquals(tuned.getPayoutMultipliers(), loaded.toDefinition().getPayoutMultipliers()));
+    }
+}